@@ -305,20 +305,15 @@ bool setBreakpoint(const std::string& functionName,
 // 3. The copy of the function on the global search path
 //
 // Note that this is not guaranteed to find ALL copies of the function in ANY
-// environment--at most, three breakpoints are set.
-Error setBreakpoints(const json::JsonRpcRequest& request,
-                     json::JsonRpcResponse* pResponse)
+// environment--at most, three breakpoints are set. Returns true if a copy of
+// the function was found.
+bool setFunctionBreakpoints(const std::string& functionName,
+                            const std::string& fileName,
+                            const std::string& packageName,
+                            const json::Array& steps)
 {
-   std::string functionName, fileName, packageName, projPackageName;
-   json::Array steps;
+   std::string projPackageName;
    bool set = false;
-   Error error = json::readParams(request.params,
-            &functionName,
-            &fileName,
-            &packageName,
-            &steps);
-   if (error)
-      return error;
 
    // Always search the global namespace (and attached namespaces)
    // first. Manipulating the source references for the copy in a searchable
@@ -344,12 +339,43 @@ Error setBreakpoints(const json::JsonRpcRequest& request,
       set |= setBreakpoint(functionName, fileName, packageName, steps);
    }
 
-   // Couldn't find a function to set a breakpoint on--maybe a bad parameter?
-   if (!set)
+   return set;
+}
+
+// Sets (or, given no steps, clears) the breakpoints in several functions at
+// once, so that the client needs only one request when a file is sourced or a
+// package is loaded. The result indicates, for each function, whether a copy
+// of it was found.
+Error setFunctionsBreakpoints(const json::JsonRpcRequest& request,
+                              json::JsonRpcResponse* pResponse)
+{
+   json::Array functions;
+   Error error = json::readParams(request.params, &functions);
+   if (error)
+      return error;
+
+   json::Array result;
+   for (const json::Value& function : functions)
    {
-      return Error(json::errc::ParamInvalid, ERROR_LOCATION);
+      bool set = false;
+      if (json::isType<core::json::Object>(function))
+      {
+         std::string functionName, fileName, packageName;
+         json::Array steps;
+         error = json::readObject(function.getObject(),
+                                  "function_name", functionName,
+                                  "file_name", fileName,
+                                  "package_name", packageName,
+                                  "steps", steps);
+         if (error)
+            LOG_ERROR(error);
+         else
+            set = setFunctionBreakpoints(functionName, fileName, packageName, steps);
+      }
+      result.push_back(set);
    }
 
+   pResponse->setResult(result);
    return Success();
 }
 
@@ -624,7 +650,7 @@ Error initialize()
    ExecBlock initBlock ;
    initBlock.addFunctions()
       (bind(registerRpcMethod, "get_function_state", getFunctionState))
-      (bind(registerRpcMethod, "set_function_breakpoints", setBreakpoints))
+      (bind(registerRpcMethod, "set_functions_breakpoints", setFunctionsBreakpoints))
       (bind(registerRpcMethod, "remove_all_breakpoints", removeAllBreakpoints))
       (bind(registerRpcMethod, "update_breakpoints", updateBreakpoints))
       (bind(sourceModuleRFile, "SessionBreakpoints.R"))
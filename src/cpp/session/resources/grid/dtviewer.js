@@ -99,6 +99,13 @@
   // rate limit certain events
   var bootstrapping = false;
 
+  // column data supplied directly by the host (rather than fetched from the
+  // server), to which further pages of rows may be appended
+  var clientData = null;
+
+  // whether we've asked the host for more rows and are waiting for them
+  var dataPageRequested = false;
+
   // helper for creating a tag with properties + content
   // (created as a string)
   var createTag = function (tag, content, attributes) {
@@ -1140,10 +1147,15 @@
         },
       ];
     } else {
+      // keep our own copy of the columns, so rows can be appended later
+      clientData = data.map(function (column) {
+        return [].concat(column);
+      });
+
       // Create an empty array of data to be use as a map in the callback
       dataTableData = [];
-      if (data.length > 0) {
-        for (i = 0; i < data[0].length; i++) {
+      if (clientData.length > 0) {
+        for (i = 0; i < clientData[0].length; i++) {
           dataTableData.push(i);
         }
       }
@@ -1162,8 +1174,8 @@
                 data: function (row, type, set, meta) {
                   return meta.col === 0
                     ? meta.row
-                    : data
-                    ? data[meta.col - 1][meta.row]
+                    : clientData
+                    ? clientData[meta.col - 1][meta.row]
                     : null;
                 },
                 width: "4em",
@@ -1204,10 +1216,27 @@
 
     initDataTableLoad();
 
+    // ask the host for more rows as the user nears the end of the data
+    if (clientData) {
+      $(".dataTables_scrollBody").on("scroll", onClientDataScroll);
+    }
+
     // update the GWT column widget
     window.columnFrameCallback(columnOffset, maxColumns);
   };
 
+  var onClientDataScroll = function () {
+    if (!window.dataPageCallback || dataPageRequested) {
+      return;
+    }
+
+    // request more rows when within a couple of screens of the end
+    if (this.scrollTop + 3 * this.clientHeight >= this.scrollHeight) {
+      dataPageRequested = true;
+      window.dataPageCallback();
+    }
+  };
+
   var debouncedSearch = debounce(function (text) {
     if (text != table.search()) {
       table.search(text).draw();
@@ -1395,6 +1424,8 @@
     // clean state
     table = null;
     cols = null;
+    clientData = null;
+    dataPageRequested = false;
     resizingColIdx = null;
     origColWidths = [];
     initResizingWidth = null;
@@ -1587,6 +1618,27 @@
     bootstrap(data);
   };
 
+  // appends rows (in the same column layout as supplied to setData) to the
+  // data being displayed
+  window.appendData = function (data) {
+    dataPageRequested = false;
+    if (!table || !clientData || clientData.length === 0 || !data || !data.data) {
+      return;
+    }
+
+    var start = clientData[0].length;
+    var columns = Math.min(clientData.length, data.data.length);
+    for (var i = 0; i < columns; i++) {
+      clientData[i] = clientData[i].concat(data.data[i]);
+    }
+
+    var rows = [];
+    for (i = start; i < clientData[0].length; i++) {
+      rows.push(i);
+    }
+    table.rows.add(rows).draw(false);
+  };
+
   window.setOption = function (option, value) {
     switch (option) {
       case "nullsAsNAs":
@@ -0,0 +1,244 @@
+/*
+ * editor-markdown.ts
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+import { Node as ProsemirrorNode, NodeType } from 'prosemirror-model';
+
+import { PandocWriterOptions } from '../api/pandoc';
+
+// serializes a doc to markdown (via a pandoc round trip)
+export type MarkdownSerializer = (doc: ProsemirrorNode) => Promise<string>;
+
+interface MarkdownBaseline {
+  doc: ProsemirrorNode;
+  options: string;
+  markdown: string;
+}
+
+interface MarkdownBlocks {
+  nodes: ProsemirrorNode[];
+  markdown: string;
+}
+
+// don't bother with an incremental update if more than this fraction of
+// the top level blocks have changed
+const kMaxChangedFraction = 0.5;
+
+// Keeps the markdown most recently generated for the editor's doc so that
+// subsequent edits can be written by serializing only the top level blocks
+// that changed. Prosemirror docs are persistent data structures (unchanged
+// blocks are shared between successive versions of the doc), so the
+// changed blocks are found by comparing the top level blocks of the two
+// docs by identity. The markdown for the changed blocks is then spliced
+// into the baseline markdown in place of the markdown for the blocks they
+// replaced. Any edit that pandoc might write differently in isolation than
+// in the context of the whole document (e.g. footnotes, which are numbered
+// document wide, or adjacent lists) requires a full serialization.
+export class EditorMarkdownCache {
+  private baseline: MarkdownBaseline | null = null;
+
+  // the blocks most recently written in isolation (usually the block being
+  // edited, which will be the one replaced on the next update)
+  private blocks: MarkdownBlocks | null = null;
+
+  // record the markdown for a doc that was serialized in full
+  public set(doc: ProsemirrorNode, options: PandocWriterOptions, markdown: string) {
+    this.baseline = { doc, options: JSON.stringify(options), markdown };
+    this.blocks = null;
+  }
+
+  public clear() {
+    this.baseline = null;
+    this.blocks = null;
+  }
+
+  // Returns the markdown for doc, or null if it can't be produced incrementally
+  // (in which case the caller should do a full serialization). If a cursor
+  // sentinel was inserted into a copy of the doc (sentinelDoc), the block
+  // containing it is always rewritten so that the sentinel appears in the
+  // returned markdown (it's removed from the cached markdown).
+  public async update(
+    doc: ProsemirrorNode,
+    sentinelDoc: ProsemirrorNode,
+    sentinel: string | null,
+    options: PandocWriterOptions,
+    serialize: MarkdownSerializer,
+  ): Promise<string | null> {
+    // snapshot the baseline (other updates may complete while we wait on pandoc)
+    const baseline = this.baseline;
+    const cachedBlocks = this.blocks;
+    if (!baseline || baseline.options !== JSON.stringify(options)) {
+      return null;
+    }
+
+    // the footnotes must be unchanged
+    if (doc.child(1) !== baseline.doc.child(1)) {
+      return null;
+    }
+
+    const oldBody = baseline.doc.child(0);
+    const newBody = doc.child(0);
+    const oldCount = oldBody.childCount;
+    const newCount = newBody.childCount;
+
+    // find the range of blocks that changed
+    const minCount = Math.min(oldCount, newCount);
+    let prefix = 0;
+    while (prefix < minCount && oldBody.child(prefix) === newBody.child(prefix)) {
+      prefix++;
+    }
+    let suffix = 0;
+    while (
+      suffix < minCount - prefix &&
+      oldBody.child(oldCount - suffix - 1) === newBody.child(newCount - suffix - 1)
+    ) {
+      suffix++;
+    }
+    let oldFrom = prefix;
+    let newFrom = prefix;
+    let oldTo = oldCount - suffix;
+    let newTo = newCount - suffix;
+
+    // extend the range to include the block with the cursor sentinel
+    const sentinelBody = sentinelDoc.child(0);
+    if (sentinelBody !== newBody) {
+      for (let i = 0; i < newCount; i++) {
+        if (sentinelBody.child(i) !== newBody.child(i)) {
+          if (i < newFrom) {
+            oldFrom = newFrom = i;
+          } else if (i >= newTo) {
+            oldTo += i + 1 - newTo;
+            newTo = i + 1;
+          }
+          break;
+        }
+      }
+    }
+
+    // we need blocks on both sides to splice (pure insertions and deletions
+    // are rare enough that we don't handle them specially)
+    if (oldFrom >= oldTo || newFrom >= newTo) {
+      return null;
+    }
+    if (newTo - newFrom > newCount * kMaxChangedFraction) {
+      return null;
+    }
+
+    // check that the blocks will be written the same way in isolation
+    const oldNodes = childNodes(oldBody, oldFrom, oldTo);
+    const newNodes = childNodes(newBody, newFrom, newTo);
+    if (
+      !isolatable(oldBody, oldFrom, oldTo) ||
+      !isolatable(newBody, newFrom, newTo) ||
+      haveFootnotes(oldNodes) ||
+      haveFootnotes(newNodes)
+    ) {
+      return null;
+    }
+
+    // write the old and new blocks
+    const oldMarkdownPromise =
+      cachedBlocks && sameNodes(cachedBlocks.nodes, oldNodes)
+        ? Promise.resolve(cachedBlocks.markdown)
+        : serialize(docWithBlocks(baseline.doc, oldNodes));
+    const newMarkdownPromise = serialize(docWithBlocks(sentinelDoc, childNodes(sentinelBody, newFrom, newTo)));
+    const [oldMarkdown, newMarkdown] = await Promise.all([oldMarkdownPromise, newMarkdownPromise]);
+
+    // find the old blocks in the baseline markdown (they must appear exactly
+    // once, at block boundaries)
+    const markdown = baseline.markdown;
+    if (oldMarkdown.trim().length === 0 || newMarkdown.trim().length === 0) {
+      return null;
+    }
+    const index = markdown.indexOf(oldMarkdown);
+    if (index === -1 || markdown.lastIndexOf(oldMarkdown) !== index) {
+      return null;
+    }
+    const end = index + oldMarkdown.length;
+    const atBlockStart = index === 0 || (markdown[index - 1] === '\n' && (index === 1 || markdown[index - 2] === '\n'));
+    const atBlockEnd = end === markdown.length || markdown[end] === '\n';
+    if (!atBlockStart || !atBlockEnd) {
+      return null;
+    }
+
+    // splice in the new blocks and update the baseline
+    const prefixMarkdown = markdown.substring(0, index);
+    const suffixMarkdown = markdown.substring(end);
+    const newBlocksMarkdown = sentinel ? newMarkdown.replace(sentinel, '') : newMarkdown;
+    this.baseline = {
+      doc,
+      options: baseline.options,
+      markdown: prefixMarkdown + newBlocksMarkdown + suffixMarkdown,
+    };
+    this.blocks = { nodes: newNodes, markdown: newBlocksMarkdown };
+
+    return prefixMarkdown + newMarkdown + suffixMarkdown;
+  }
+}
+
+function childNodes(parent: ProsemirrorNode, from: number, to: number) {
+  const nodes: ProsemirrorNode[] = [];
+  for (let i = from; i < to; i++) {
+    nodes.push(parent.child(i));
+  }
+  return nodes;
+}
+
+function sameNodes(a: ProsemirrorNode[], b: ProsemirrorNode[]) {
+  return a.length === b.length && a.every((node, i) => node === b[i]);
+}
+
+// doc with the same attributes and notes as doc but only the specified blocks
+function docWithBlocks(doc: ProsemirrorNode, blocks: ProsemirrorNode[]) {
+  const body = doc.child(0);
+  return doc.type.create(doc.attrs, [body.type.create(body.attrs, blocks), doc.child(1)]);
+}
+
+function haveFootnotes(nodes: ProsemirrorNode[]) {
+  if (nodes.length === 0) {
+    return false;
+  }
+  const footnote = nodes[0].type.schema.nodes.footnote;
+  if (!footnote) {
+    return false;
+  }
+  return nodes.some(node => {
+    let found = false;
+    node.descendants(child => {
+      if (child.type === footnote) {
+        found = true;
+      }
+      return !found;
+    });
+    return found;
+  });
+}
+
+// pandoc separates adjacent lists (and a list followed by a code block) with
+// a comment so they aren't read back as one, which it can't do for blocks
+// written in isolation
+function isolatable(body: ProsemirrorNode, from: number, to: number) {
+  const schema = body.type.schema;
+  const isList = (type: NodeType) => type === schema.nodes.bullet_list || type === schema.nodes.ordered_list;
+  const needsSeparator = (before: NodeType, after: NodeType) =>
+    isList(before) && (isList(after) || after === schema.nodes.code_block);
+
+  if (from > 0 && needsSeparator(body.child(from - 1).type, body.child(from).type)) {
+    return false;
+  }
+  if (to < body.childCount && needsSeparator(body.child(to - 1).type, body.child(to).type)) {
+    return false;
+  }
+  return true;
+}
@@ -79,6 +79,7 @@ import { defaultTheme, EditorTheme, applyTheme, applyPadding } from './editor-th
 import { defaultEditorUIImages } from './editor-images';
 import { editorMenus, EditorMenus } from './editor-menus';
 import { editorSchema } from './editor-schema';
+import { EditorMarkdownCache } from './editor-markdown';
 
 // import styles
 import './styles/frame.css';
@@ -208,6 +209,10 @@ export class Editor {
   private readonly view: EditorView;
   private readonly pandocConverter: PandocConverter;
 
+  // markdown for the most recently serialized doc (used to write subsequent
+  // edits by serializing only the blocks that changed)
+  private readonly markdownCache = new EditorMarkdownCache();
+
   // setting via setKeybindings forces reconfiguration of EditorState
   // with plugins recreated
   private keybindings: EditorKeybindings;
@@ -456,7 +461,10 @@ export class Editor {
 
     // return our current markdown representation (so the caller know what our
     // current 'view' of the doc as markdown looks like
-    const canonical = await this.getMarkdownCode(this.state.doc, options);
+    this.markdownCache.clear();
+    const doc = this.state.doc;
+    const canonical = await this.getMarkdownCode(doc, options);
+    this.markdownCache.set(doc, options, canonical);
 
     // return
     return {
@@ -472,18 +480,36 @@ export class Editor {
     return this.state.doc.attrs.initial;
   }
 
-  public async getMarkdown(options: PandocWriterOptions): Promise<EditorCode> {
+  // when incremental is true only the top level blocks that changed since the
+  // last call are written (falling back to writing the whole doc if necessary)
+  public async getMarkdown(options: PandocWriterOptions, incremental = false): Promise<EditorCode> {
+    // apply layout fixups
+    this.applyFixups(FixupContext.Save);
+    const doc = this.state.doc;
+
     // do we need the cursor sentinel?
     const useCursorSentinel = this.lastTrSelectionOnly;
 
     // insert cursor sentinel if appropriate
-    const target = useCursorSentinel ? docWithCursorSentinel(this.state) : { doc: this.state.doc, sentinel: null };
+    const target = useCursorSentinel ? docWithCursorSentinel(this.state) : { doc, sentinel: null };
+
+    // try to write just the changed blocks
+    if (incremental) {
+      const code = await this.markdownCache.update(doc, target.doc, target.sentinel, options, blocksDoc =>
+        this.pandocConverter.fromProsemirror(blocksDoc, this.pandocFormat, options, doc),
+      );
+      if (code !== null) {
+        return codeWithCursor(code, target.sentinel);
+      }
+    }
 
     // get the code
-    const code = await this.getMarkdownCode(target.doc, options);
+    const fullCode = await this.getMarkdownCode(target.doc, options);
+    const result = codeWithCursor(fullCode, target.sentinel);
+    this.markdownCache.set(doc, options, result.code);
 
     // return
-    return codeWithCursor(code, target.sentinel);
+    return result;
   }
 
   public getHTML(): string {
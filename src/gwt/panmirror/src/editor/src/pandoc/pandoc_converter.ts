@@ -115,6 +115,7 @@ export class PandocConverter {
     doc: ProsemirrorNode,
     pandocFormat: PandocFormat,
     options: PandocWriterOptions,
+    formatDoc = doc,
   ): Promise<string> {
     // generate pandoc ast
     const output = pandocFromProsemirror(
@@ -131,8 +132,9 @@ export class PandocConverter {
     // to the source document just the way they came in.
     let format = adjustedFormat(pandocFormat.fullName, ['raw_html', 'raw_attribute']);
 
-    // disable selected format options
-    format = pandocFormatWith(format, disabledFormatOptions(format, doc), '');
+    // disable selected format options (based on the whole document, which may be
+    // distinct from doc when only some of its blocks are being written)
+    format = pandocFormatWith(format, disabledFormatOptions(format, formatDoc), '');
 
     // prepare pandoc options
     let pandocOptions: string[] = [];
@@ -15,12 +15,12 @@
 
 package org.rstudio.core.client;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
-import org.rstudio.core.client.regex.Pattern;
-
 /**
  * Helpers for working with ANSI Escape Codes in terminal and console.
  */
@@ -221,10 +221,27 @@ public class AnsiCode
       
       public static String clazzForColorIndex(int index, boolean background)
       {
+         if (index >= 0 && index < COLOR_COUNT)
+            return background ? BG_COLOR_CLAZZES[index] : FG_COLOR_CLAZZES[index];
+         
          return((background ? BACKGROUND_STYLE : FOREGROUND_STYLE) + 
                Integer.toString(index));
       }
       
+      private static String[] createColorClazzes(String style)
+      {
+         String[] clazzes = new String[COLOR_COUNT];
+         for (int i = 0; i < COLOR_COUNT; i++)
+            clazzes[i] = style + Integer.toString(i);
+         return clazzes;
+      }
+      
+      private static final int COLOR_COUNT = 256;
+      private static final String[] FG_COLOR_CLAZZES =
+            createColorClazzes(FOREGROUND_STYLE);
+      private static final String[] BG_COLOR_CLAZZES =
+            createColorClazzes(BACKGROUND_STYLE);
+      
       public boolean isExtended() { return extended_; }
        
       private boolean extended_;
@@ -250,20 +267,37 @@ public class AnsiCode
          return null;
       if (code.length() == 2)
       {
-         clazzes_.clear(); // CSIm is equivalent to CSI0m, which is 'reset'
-         blockClazzes_.clear();
+         clearClazzes(); // CSIm is equivalent to CSI0m, which is 'reset'
          return null;
       }
       
+      return processCode(code, 2, code.length() - 1);
+   }
+   
+   /**
+    * Map the parameters of an SGR escape sequence to the appropriate css
+    * styles, reading them in place from the given string.
+    * @param data string containing the escape sequence
+    * @param start index of the first parameter character (after CSI)
+    * @param end index of the final character ('m') of the sequence
+    * @return AnsiClazzes, containing both span-level and block-level styles
+    */
+   public AnsiClazzes processCode(String data, int start, int end)
+   {
       int extendedColor = 0;
       boolean extendedMarkerSeen = false;
       boolean extendedRGBMarkerSeen = false;
       int extendedRGBColorsSeen = 0;
       
-      String[] tokens = code.substring(2, code.length() - 1).split(";");
-      for (String token : tokens)
+      int tokenStart = start;
+      while (tokenStart <= end)
       {
-         int codeVal = StringUtil.parseInt(token,  -1);
+         int tokenEnd = data.indexOf(';', tokenStart);
+         if (tokenEnd == -1 || tokenEnd > end)
+            tokenEnd = end;
+         
+         int codeVal = parseParameter(data, tokenStart, tokenEnd);
+         tokenStart = tokenEnd + 1;
          if (codeVal == -1)
             continue;
 
@@ -285,8 +319,7 @@ public class AnsiCode
                {
                   // unknown extended color format; hard to recover so
                   // just reset back to defaults and return
-                  clazzes_.clear();
-                  blockClazzes_.clear();
+                  clearClazzes();
                   return null;
                }
             }
@@ -313,7 +346,7 @@ public class AnsiCode
                      {
                         currentColor_.setExtended(codeVal);
                         resetForeground();
-                        clazzes_.add(Color.clazzForColorIndex(codeVal, 
+                        setForegroundClazz(Color.clazzForColorIndex(codeVal, 
                               false /*background*/));
                      }
                   }
@@ -323,7 +356,7 @@ public class AnsiCode
                      {
                         currentBgColor_.setExtended(codeVal);
                         resetBackground();
-                        clazzes_.add(Color.clazzForColorIndex(codeVal, 
+                        setBackgroundClazz(Color.clazzForColorIndex(codeVal, 
                               true /*background*/));
                      }
                   }
@@ -337,8 +370,7 @@ public class AnsiCode
             inverted_ = false;
             currentColor_.reset();
             currentBgColor_.reset();
-            clazzes_.clear();
-            blockClazzes_.clear();
+            clearClazzes();
          }
          else if (codeVal == BOLD)
          {
@@ -423,13 +455,13 @@ public class AnsiCode
          {
             currentColor_.setCode(codeVal);
             resetForeground();
-            clazzes_.add(clazzForColor(codeVal));
+            setForegroundClazz(clazzForColor(codeVal));
          }
          else if (Color.isBgColorCode(codeVal))
          {
             currentBgColor_ = new Color(false, codeVal);
             resetBackground();
-            clazzes_.add(clazzForBgColor(codeVal));
+            setBackgroundClazz(clazzForBgColor(codeVal));
          }
          else if (codeVal == RESET_FOREGROUND)
          {
@@ -498,39 +530,218 @@ public class AnsiCode
       return Color.clazzForColorIndex(index,  true /*background*/);
    }
    
-   private AnsiClazzes getStyles()
+   /**
+    * Combine a base css class with the classes produced by ANSI codes. The
+    * result is interned, so repeatedly combining the same classes (e.g. for
+    * each styled run of colorized output) doesn't allocate new strings.
+    * @param clazz base class (may be null)
+    * @param ansiClazzes classes from ANSI codes (may be null)
+    * @return the combined classes
+    */
+   public static String combineClazzes(String clazz, String ansiClazzes)
    {
-      AnsiClazzes styles = new AnsiClazzes();
+      if (clazz == null)
+         return ansiClazzes;
+      if (ansiClazzes == null)
+         return clazz;
       
-      if (!clazzes_.isEmpty())
+      Map<String, String> combined = COMBINED_CLAZZES.get(clazz);
+      if (combined == null)
       {
-         StringBuilder buildClazzes = new StringBuilder();
-         Iterator<String> itr = clazzes_.iterator();
-         while (itr.hasNext())
-         {
-            if (buildClazzes.length() > 0)
-               buildClazzes.append(" ");
-            buildClazzes.append(itr.next());
-         }
-         styles.inlineClazzes = buildClazzes.toString();
+         combined = new HashMap<String, String>();
+         COMBINED_CLAZZES.put(clazz, combined);
       }
       
-      if (!blockClazzes_.isEmpty())
+      String result = combined.get(ansiClazzes);
+      if (result == null)
       {
-         // block styles (line-height via font9)
-         StringBuilder buildClazzes = new StringBuilder();
-         Iterator<String> itr = blockClazzes_.iterator();
-         while (itr.hasNext())
+         result = clazz + " " + ansiClazzes;
+         combined.put(ansiClazzes, result);
+      }
+      return result;
+   }
+   
+   /**
+    * Scan the escape sequence starting at the given position, which must
+    * hold an ESC or CSI character. Recognizes the sequences ANSI_REGEX does,
+    * except that an ESC followed directly by a final character (e.g. ESC 7,
+    * save cursor) ends there rather than taking the following text as
+    * parameters.
+    * @param data string containing the escape sequence
+    * @param pos position of the ESC or CSI character
+    * @return the index just past the end of the sequence; ESCAPE_PARTIAL if
+    * the data ends before the sequence does; or ESCAPE_INVALID if the
+    * characters following pos are not a recognized escape sequence
+    */
+   public static int scanEscape(String data, int pos)
+   {
+      int length = data.length();
+      int i = pos + 1;
+      
+      while (i < length && isIntermediateChar(data.charAt(i)))
+         i++;
+      
+      if (i == length)
+         return ESCAPE_PARTIAL;
+      
+      if (i == pos + 1 && data.charAt(pos) == '\033')
+         return isFinalChar(data.charAt(i)) ? i + 1 : ESCAPE_INVALID;
+      
+      // parameters are runs of up to four digits separated by semicolons
+      int lastDigit = -1;
+      int digits = 0;
+      while (i < length)
+      {
+         char ch = data.charAt(i);
+         if (ch == ';')
+         {
+            digits = 0;
+         }
+         else if (ch >= '0' && ch <= '9' && digits < MAX_ESCAPE_PARAMETER_DIGITS)
+         {
+            digits++;
+            lastDigit = i;
+         }
+         else
          {
-            if (buildClazzes.length() > 0)
-               buildClazzes.append(" ");
-            buildClazzes.append(itr.next());
+            break;
          }
-         styles.blockClazzes = buildClazzes.toString();
+         i++;
+      }
+      
+      if (i == length)
+         return ESCAPE_PARTIAL;
+      
+      if (isFinalChar(data.charAt(i)))
+         return i + 1;
+      
+      // as ANSI_REGEX would by backtracking, end the sequence on the last
+      // parameter digit, which is itself a valid final character
+      return lastDigit != -1 ? lastDigit + 1 : ESCAPE_INVALID;
+   }
+   
+   /**
+    * @return whether the complete escape sequence in [start, end) is an SGR
+    * sequence (i.e. one that SGR_REGEX would match)
+    */
+   public static boolean isSgrSequence(String data, int start, int end)
+   {
+      if (end - start < 3 ||
+          data.charAt(start + 1) != '[' ||
+          data.charAt(end - 1) != 'm')
+      {
+         return false;
+      }
+      
+      // parameters must start with a digit, if there are any
+      if (end - start > 3 && data.charAt(start + 2) == ';')
+         return false;
+      
+      for (int i = start + 2; i < end - 1; i++)
+      {
+         if (!isParameterChar(data.charAt(i)))
+            return false;
       }
+      return true;
+   }
+   
+   private static boolean isIntermediateChar(char ch)
+   {
+      return ch == '[' || ch == '(' || ch == ')' || ch == '#' ||
+             ch == ';' || ch == '?';
+   }
+   
+   private static boolean isParameterChar(char ch)
+   {
+      return (ch >= '0' && ch <= '9') || ch == ';';
+   }
+   
+   private static boolean isFinalChar(char ch)
+   {
+      return (ch >= '0' && ch <= '9') ||
+             (ch >= 'A' && ch <= 'P') ||
+             ch == 'R' || ch == 'Z' || ch == 'c' ||
+             (ch >= 'f' && ch <= 'n') ||
+             ch == 'q' || ch == 'r' || ch == 'y' ||
+             ch == '=' || ch == '>' || ch == '<' || ch == '@';
+   }
+   
+   // parses a numeric SGR parameter in [start, end); returns -1 if the
+   // parameter is empty or not a number
+   private static int parseParameter(String data, int start, int end)
+   {
+      if (start >= end || end - start > MAX_PARAMETER_DIGITS)
+         return -1;
+      
+      int value = 0;
+      for (int i = start; i < end; i++)
+      {
+         char ch = data.charAt(i);
+         if (ch < '0' || ch > '9')
+            return -1;
+         value = value * 10 + (ch - '0');
+      }
+      return value;
+   }
+   
+   private AnsiClazzes getStyles()
+   {
+      AnsiClazzes styles = new AnsiClazzes();
+      
+      if (!clazzes_.isEmpty())
+         styles.inlineClazzes = joinClazzes(clazzes_);
+      
+      // block styles (line-height via font9)
+      if (!blockClazzes_.isEmpty())
+         styles.blockClazzes = joinClazzes(blockClazzes_);
       
       return styles;
    }
+   
+   // joins a set of classes into an interned class string
+   private static String joinClazzes(Set<String> clazzes)
+   {
+      if (clazzes.size() == 1)
+         return clazzes.iterator().next();
+      
+      StringBuilder buildClazzes = new StringBuilder();
+      Iterator<String> itr = clazzes.iterator();
+      while (itr.hasNext())
+      {
+         if (buildClazzes.length() > 0)
+            buildClazzes.append(" ");
+         buildClazzes.append(itr.next());
+      }
+      
+      String joined = buildClazzes.toString();
+      String interned = JOINED_CLAZZES.get(joined);
+      if (interned == null)
+      {
+         JOINED_CLAZZES.put(joined, joined);
+         interned = joined;
+      }
+      return interned;
+   }
+   
+   private void clearClazzes()
+   {
+      clazzes_.clear();
+      blockClazzes_.clear();
+      fgClazz_ = null;
+      bgClazz_ = null;
+   }
+   
+   private void setForegroundClazz(String clazz)
+   {
+      clazzes_.add(clazz);
+      fgClazz_ = clazz;
+   }
+   
+   private void setBackgroundClazz(String clazz)
+   {
+      clazzes_.add(clazz);
+      bgClazz_ = clazz;
+   }
     
    /**
     * Calculates inverse foreground color based on current background color,
@@ -547,19 +758,19 @@ public class AnsiCode
       }
       else if (currentBgColor_.isExtended())
       {
-         clazzes_.add(Color.clazzForColorIndex(currentBgColor_.code(), false /*background*/));
+         setForegroundClazz(Color.clazzForColorIndex(currentBgColor_.code(), false /*background*/));
          return new Color(true /*extended*/, currentBgColor_.code());
       }
       else if (currentBgColor_.code() >= BACKGROUND_MIN && currentBgColor_.code() <= BACKGROUND_MAX)
       {
          int newFg = currentBgColor_.code() - (BACKGROUND_MIN - FOREGROUND_MIN);
-         clazzes_.add(FOREGROUND_STYLE + Integer.toString(newFg - FOREGROUND_MIN));
+         setForegroundClazz(Color.clazzForColorIndex(newFg - FOREGROUND_MIN, false /*background*/));
          return new Color(false /*extended*/, newFg);
       }
       else
       {
          int newFg = currentBgColor_.code() - (BACKGROUND_INTENSE_MIN - FOREGROUND_INTENSE_MIN);
-         clazzes_.add(FOREGROUND_STYLE + Integer.toString(newFg + 8 - FOREGROUND_INTENSE_MIN));
+         setForegroundClazz(Color.clazzForColorIndex(newFg + 8 - FOREGROUND_INTENSE_MIN, false /*background*/));
          return new Color(false /*extended*/, newFg);
       }
    }
@@ -579,37 +790,41 @@ public class AnsiCode
       }
       else if (currentColor_.isExtended())
       {
-         clazzes_.add(Color.clazzForColorIndex(currentColor_.code(), true /*background*/));
+         setBackgroundClazz(Color.clazzForColorIndex(currentColor_.code(), true /*background*/));
          return new Color(true /*extended*/, currentColor_.code());
       }
       else if (currentColor_.code() >= FOREGROUND_MIN && currentColor_.code() <= FOREGROUND_MAX)
       {
          int newBg = currentColor_.code() + (BACKGROUND_MIN - FOREGROUND_MIN);
-         clazzes_.add(BACKGROUND_STYLE + Integer.toString(newBg - BACKGROUND_MIN));
+         setBackgroundClazz(Color.clazzForColorIndex(newBg - BACKGROUND_MIN, true /*background*/));
          return new Color(false /*extended*/, newBg);
       }
       else
       {
          int newBg = currentColor_.code() + (BACKGROUND_INTENSE_MIN - FOREGROUND_INTENSE_MIN);
-         clazzes_.add(BACKGROUND_STYLE + Integer.toString(newBg + 8 - BACKGROUND_INTENSE_MIN));
+         setBackgroundClazz(Color.clazzForColorIndex(newBg + 8 - BACKGROUND_INTENSE_MIN, true /*background*/));
          return new Color(false /*extended*/, newBg);
       }
    }
     
+   // at most one foreground (and one background) color class is applied at
+   // a time, so only that class needs to be removed
    private void resetForeground()
    {
-      for (int i = 0; i < 256; i++)
+      if (fgClazz_ != null)
       {
-         clazzes_.remove(Color.clazzForColorIndex(i, false /*background*/));
+         clazzes_.remove(fgClazz_);
+         fgClazz_ = null;
       }
       clazzes_.remove(INVERSE_FG_STYLE);
    }
 
    private void resetBackground()
    {
-      for (int i = 0; i < 256; i++)
+      if (bgClazz_ != null)
       {
-         clazzes_.remove(Color.clazzForColorIndex(i, true /*background*/));
+         clazzes_.remove(bgClazz_);
+         bgClazz_ = null;
       }
       clazzes_.remove(INVERSE_BG_STYLE);
    }
@@ -645,25 +860,28 @@ public class AnsiCode
    public static final String ANSI_REGEX = 
          "[\u001b\u009b][[()#;?]*(?:[0-9]{1,4}(?:;[0-9]{0,4})*)?[0-9A-PRZcf-nqry=><@]";
    
-   // Match ANSI escape sequences
-   public static final Pattern ANSI_ESCAPE_PATTERN = Pattern.create(ANSI_REGEX);
-
-   // Match control characters and start of ANSI sequences
-   public static final Pattern CONTROL_PATTERN = Pattern.create(CONTROL_REGEX);
-   
    // RegEx to match complete SGR codes (colors, fonts, appearance)
    public static final String SGR_REGEX =
          "[\u001b\u009b]\\[(?:[0-9]{1,4}(?:;[0-9]{0,4})*)?[m]";
    
-   // Match ANSI SGR escape sequences
-   public static final Pattern SGR_ESCAPE_PATTERN = Pattern.create(SGR_REGEX);
-   
    // RegEx to match partial SGR codes (don't have final "m" yet)
    public static final String SGR_PARTIAL_REGEX =
          "[\u001b\u009b]\\[(?:[0-9]{1,4}(?:;[0-9]{0,4})*)?[0-9]";
    
-   // Match partial potential ANSI SGR escape sequences
-   public static final Pattern SGR_PARTIAL_ESCAPE_PATTERN = Pattern.create(SGR_PARTIAL_REGEX);
+   // Results of scanEscape() for sequences that aren't complete
+   public static final int ESCAPE_PARTIAL = -1;
+   public static final int ESCAPE_INVALID = -2;
+   
+   // longest escape sequence parameter ANSI_REGEX matches
+   private static final int MAX_ESCAPE_PARAMETER_DIGITS = 4;
+   
+   // longest SGR parameter we'll try to parse as a number
+   private static final int MAX_PARAMETER_DIGITS = 9;
+   
+   // interned class strings, shared by all AnsiCode instances
+   private static final Map<String, String> JOINED_CLAZZES = new HashMap<String, String>();
+   private static final Map<String, Map<String, String>> COMBINED_CLAZZES =
+         new HashMap<String, Map<String, String>>();
     
    private Color currentColor_ = new Color();
    private Color currentBgColor_ = new Color();
@@ -671,4 +889,8 @@ public class AnsiCode
    
    private Set<String> clazzes_ = new LinkedHashSet<String>();
    private Set<String> blockClazzes_ = new LinkedHashSet<String>();
+   
+   // the foreground / background color classes currently in clazzes_
+   private String fgClazz_;
+   private String bgClazz_;
 }
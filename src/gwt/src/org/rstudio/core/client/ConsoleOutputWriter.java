@@ -14,6 +14,7 @@
  */
 package org.rstudio.core.client;
 
+import java.util.LinkedList;
 import java.util.List;
 
 import com.google.gwt.aria.client.Roles;
@@ -31,6 +32,20 @@ import com.google.gwt.dom.client.SpanElement;
  */
 public class ConsoleOutputWriter
 {
+   // The output is made up of a sequence of segments (one for each virtual
+   // console that has written to it), each of which tracks how many lines
+   // it holds. This lets us count and trim lines without walking the DOM.
+   private static class OutputSegment
+   {
+      public OutputSegment(Element element)
+      {
+         this.element = element;
+      }
+
+      public final Element element;
+      public int lines = 0;
+   }
+
    public ConsoleOutputWriter(VirtualConsoleFactory vcFactory, String a11yLabel)
    {
       vcFactory_ = vcFactory;
@@ -56,6 +71,7 @@ public class ConsoleOutputWriter
    {
       output_.setText("");
       virtualConsole_ = null;
+      segments_.clear();
       lines_ = 0;
    }
 
@@ -98,12 +114,11 @@ public class ConsoleOutputWriter
          Roles.getDocumentRole().set(trailing); // https://github.com/rstudio/rstudio/issues/6884
          outEl.appendChild(trailing);
          virtualConsole_ = vcFactory_.create(trailing);
+         segments_.add(new OutputSegment(trailing));
       }
 
-      int oldLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
       virtualConsole_.submit(text, className, isError, ariaLiveAnnounce);
-      int newLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
-      lines_ += newLineCount - oldLineCount;
+      updateLineCount();
 
       return ignoreLineCount ? true : !trimExcess();
    }
@@ -116,13 +131,47 @@ public class ConsoleOutputWriter
       int linesToTrim = lines_ - maxLines_;
       if (linesToTrim > 0)
       {
-         lines_ -= DomUtils.trimLines(getElement(), linesToTrim);
+         lines_ -= trimLines(linesToTrim);
          return true;
       }
 
       return false;
    }
 
+   // remove lines from the start of the output; segments that lie entirely
+   // within the lines to be trimmed are dropped without inspecting them
+   private int trimLines(int linesToTrim)
+   {
+      int linesLeft = linesToTrim;
+      while (linesLeft > 0 && !segments_.isEmpty())
+      {
+         OutputSegment segment = segments_.getFirst();
+         if (segment.lines < linesLeft)
+         {
+            linesLeft -= segment.lines;
+            segment.element.removeFromParent();
+            segments_.removeFirst();
+            continue;
+         }
+
+         int trimmed = DomUtils.trimLines(segment.element, linesLeft);
+         segment.lines -= trimmed;
+         linesLeft -= trimmed;
+         break;
+      }
+
+      return linesToTrim - linesLeft;
+   }
+
+   // account for the lines added (or removed) by the last submit
+   private void updateLineCount()
+   {
+      int linesAdded = virtualConsole_.getLinesAdded();
+      if (!segments_.isEmpty())
+         segments_.getLast().lines += linesAdded;
+      lines_ += linesAdded;
+   }
+
    // Elements added by last submit call; only captured if 
    // outputToConsole/isError was true for performance reasons
    public List<Element> getNewElements()
@@ -143,6 +192,7 @@ public class ConsoleOutputWriter
              !Element.as(child).getInnerText().endsWith("\n"))
          {
             virtualConsole_.submit("\n");
+            updateLineCount();
          }
          // clear the virtual console so we start with a fresh slate
          virtualConsole_ = null;
@@ -173,6 +223,7 @@ public class ConsoleOutputWriter
 
    private int maxLines_ = -1;
    private int lines_ = 0;
+   private final LinkedList<OutputSegment> segments_ = new LinkedList<>();
    private final PreWidget output_;
    private VirtualConsole virtualConsole_;
    private VirtualConsoleFactory vcFactory_;
@@ -0,0 +1,193 @@
+/*
+ * StartupTimeline.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONString;
+import com.google.gwt.user.client.Command;
+
+/**
+ * Records named phases of application startup, like a Stopwatch that
+ * remembers every lap. Times are milliseconds since navigation started (as
+ * reported by performance.now()), so phases line up with the browser's own
+ * network and rendering timelines; each phase is also recorded as a
+ * performance measure so that it shows up in the browser's profiler.
+ *
+ * The recorded timeline can be retrieved as JSON from the browser console
+ * by calling window.rstudioStartupTimeline().
+ */
+public class StartupTimeline
+{
+   public static class Phase
+   {
+      private Phase(String name, double start)
+      {
+         name_ = name;
+         start_ = start;
+         end_ = -1;
+      }
+
+      public String getName()
+      {
+         return name_;
+      }
+
+      public double getStart()
+      {
+         return start_;
+      }
+
+      // Returns the end of the phase, or -1 if the phase is still running.
+      public double getEnd()
+      {
+         return end_;
+      }
+
+      public double getDuration()
+      {
+         return end_ < 0 ? -1 : end_ - start_;
+      }
+
+      private final String name_;
+      private final double start_;
+      private double end_;
+   }
+
+   public static void begin(String name)
+   {
+      Phase phase = new Phase(name, now());
+      phases_.add(phase);
+      performanceMark(markName(name, "begin"));
+   }
+
+   public static void end(String name)
+   {
+      // end the most recently started phase with this name
+      for (int i = phases_.size() - 1; i >= 0; i--)
+      {
+         Phase phase = phases_.get(i);
+         if (phase.name_.equals(name) && phase.end_ < 0)
+         {
+            phase.end_ = now();
+            performanceMark(markName(name, "end"));
+            performanceMeasure(name, markName(name, "begin"), markName(name, "end"));
+            return;
+         }
+      }
+   }
+
+   // Records an instantaneous event (a phase of zero duration).
+   public static void mark(String name)
+   {
+      double now = now();
+      Phase phase = new Phase(name, now);
+      phase.end_ = now;
+      phases_.add(phase);
+      performanceMark(name);
+   }
+
+   // Runs the command as a phase of its own.
+   public static void measure(String name, Command command)
+   {
+      begin(name);
+      try
+      {
+         command.execute();
+      }
+      finally
+      {
+         end(name);
+      }
+   }
+
+   public static List<Phase> getPhases()
+   {
+      return new ArrayList<Phase>(phases_);
+   }
+
+   public static String toJson()
+   {
+      JSONArray array = new JSONArray();
+      for (int i = 0; i < phases_.size(); i++)
+      {
+         Phase phase = phases_.get(i);
+         JSONObject object = new JSONObject();
+         object.put("name", new JSONString(phase.name_));
+         object.put("start", new JSONNumber(Math.round(phase.start_)));
+         if (phase.end_ >= 0)
+            object.put("duration", new JSONNumber(Math.round(phase.getDuration())));
+         array.set(i, object);
+      }
+      return array.toString();
+   }
+
+   public static void log()
+   {
+      for (Phase phase : phases_)
+      {
+         Debug.log("[Startup] " + phase.name_ + ": " +
+                   Math.round(phase.start_) + " ms" +
+                   (phase.end_ > phase.start_ ?
+                    " (+" + Math.round(phase.getDuration()) + " ms)" : ""));
+      }
+   }
+
+   // Makes the timeline available as window.rstudioStartupTimeline().
+   public static native void export() /*-{
+      $wnd.rstudioStartupTimeline = $entry(function() {
+         return JSON.parse(@org.rstudio.core.client.StartupTimeline::toJson()());
+      });
+   }-*/;
+
+   private static String markName(String name, String suffix)
+   {
+      return "rstudio:" + name + ":" + suffix;
+   }
+
+   private static native double now() /*-{
+      var perf = $wnd.performance;
+      return (perf && perf.now) ? perf.now() : Date.now();
+   }-*/;
+
+   private static native void performanceMark(String name) /*-{
+      var perf = $wnd.performance;
+      if (perf && perf.mark)
+         perf.mark(name);
+   }-*/;
+
+   private static native void performanceMeasure(String name,
+                                                 String startMark,
+                                                 String endMark) /*-{
+      var perf = $wnd.performance;
+      if (perf && perf.measure)
+      {
+         try
+         {
+            perf.measure("rstudio:" + name, startMark, endMark);
+         }
+         catch (e)
+         {
+            // marks may have been cleared by someone else
+         }
+      }
+   }-*/;
+
+   private static final List<Phase> phases_ = new ArrayList<Phase>();
+}
@@ -25,8 +25,6 @@ import java.util.TreeSet;
 
 import com.google.inject.Provider;
 import com.google.inject.assistedinject.Assisted;
-import org.rstudio.core.client.regex.Match;
-import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 
 import com.google.gwt.core.client.JsArrayString;
@@ -120,6 +118,7 @@ public class VirtualConsole
       clearPartialAnsiCode();
       output_.setLength(0);
       cursor_ = 0;
+      lineCount_ = 0;
       class_.clear();
       if (parent_ != null)
          parent_.setInnerHTML("");
@@ -192,6 +191,23 @@ public class VirtualConsole
    {
       return parent_;
    }
+
+   /**
+    * @return The number of newlines currently in the console's output
+    */
+   public int getLineCount()
+   {
+      return lineCount_;
+   }
+
+   /**
+    * @return The change in the number of newlines made by the last submit()
+    * call; negative if output was overwritten or cleared
+    */
+   public int getLinesAdded()
+   {
+      return lineCount_ - submitLineCount_;
+   }
    
    /**
     * Appends text to the end of the virtual console.
@@ -396,6 +412,11 @@ public class VirtualConsole
 
       int start = cursor_;
       int end = cursor_ + text.length();
+
+      // keep the line count current; only the text being written and the
+      // text it overwrites can change it
+      lineCount_ += countNewlines(text, 0, text.length()) -
+                    countNewlines(output_, start, Math.min(end, output_.length()));
       
       // real-time output if we have a parent
       if (parent_ != null)
@@ -410,6 +431,17 @@ public class VirtualConsole
       output_.replace(start, end, text);
       cursor_ += text.length();
    }
+
+   private static int countNewlines(CharSequence text, int start, int end)
+   {
+      int count = 0;
+      for (int i = start; i < end; i++)
+      {
+         if (text.charAt(i) == '\n')
+            count++;
+      }
+      return count;
+   }
    
    public void submit(String data)
    {
@@ -437,6 +469,7 @@ public class VirtualConsole
       // output.
       captureNewElements_ = forceNewRange;
       newElements_.clear();
+      submitLineCount_ = lineCount_;
 
       newText_ = ariaLiveAnnounce && prefs_.screenReaderEnabled() ? new StringBuilder() : null;
 
@@ -458,30 +491,22 @@ public class VirtualConsole
       // there is text to output before any other ANSI codes in the
       // data (or there are no more ANSI codes).
       if (ansiColorMode == UserPrefs.ANSI_CONSOLE_MODE_ON && ansiCodeStyles_.inlineClazzes != null)
-      {
-         if (clazz != null)
-         {
-            currentClazz = clazz + " " + ansiCodeStyles_.inlineClazzes;
-         }
-         else
-         {
-            currentClazz = ansiCodeStyles_.inlineClazzes;
-         }
-      }
+         currentClazz = AnsiCode.combineClazzes(clazz, ansiCodeStyles_.inlineClazzes);
 
-      Match match = (ansiColorMode == UserPrefs.ANSI_CONSOLE_MODE_OFF) ?
-            CONTROL.match(data, 0) :
-            AnsiCode.CONTROL_PATTERN.match(data, 0);
-      if (match == null)
-      {
-         text(data, currentClazz, forceNewRange);
-         return;
-      }
-      
+      boolean parseAnsi = ansiColorMode != UserPrefs.ANSI_CONSOLE_MODE_OFF;
+      boolean sawControl = false;
+      int length = data.length();
       int tail = 0;
-      while (match != null)
+      int pos = 0;
+      while (pos < length)
       {
-         int pos = match.getIndex();
+         char ch = data.charAt(pos);
+         if (!isControlChar(ch, parseAnsi))
+         {
+            pos++;
+            continue;
+         }
+         sawControl = true;
 
          // If we passed over any plain text on the way to this control
          // character, add it.
@@ -496,7 +521,7 @@ public class VirtualConsole
          
          tail = pos + 1;
 
-         switch (data.charAt(pos))
+         switch (ch)
          {
             case '\r':
                carriageReturn();
@@ -517,85 +542,64 @@ public class VirtualConsole
                // We want to identify and act on these codes, while discarding the codes
                // we don't support. Tricky part is we might get codes split across
                // submit calls.
-               
-               // match complete SGR codes
-               Match sgrMatch = AnsiCode.SGR_ESCAPE_PATTERN.match(data, pos);
-               if (sgrMatch == null)
+               int end = AnsiCode.scanEscape(data, pos);
+               if (end == AnsiCode.ESCAPE_PARTIAL)
                {
-                  if (StringUtil.equals(data.substring(tail), "["))
-                  {
-                     // only have "[" at end, could be any ANSI code, so save remainder
-                     // of string to see if we can recognize it when more arrives
-                     partialAnsiCode_ = data.substring(pos);
-                     return;
-                  }
-                  
-                  // potentially an incomplete SGR code
-                  Match partialMatch = AnsiCode.SGR_PARTIAL_ESCAPE_PATTERN.match(data, pos);
-                  if (partialMatch != null)
-                  {
-                     // Might have an SGR ANSI code that was split across submit calls;
-                     // save remainder of string to see if we can recognize it
-                     // when more arrives
-                     partialAnsiCode_ = data.substring(pos);
-                     return;
-                  }
-                  
-                  // how about an unsupported ANSI code?
-                  Match ansiMatch = AnsiCode.ANSI_ESCAPE_PATTERN.match(data, pos);
-                  if (ansiMatch != null)
-                  {
-                     // discard it
-                     tail = pos + ansiMatch.getValue().length();
-                  }
-                  else
-                  {
-                     // nothing useful we can do, just throw away the ESC
-                     tail++;
-                  }
+                  // Might have an ANSI code that was split across submit calls;
+                  // save remainder of string to see if we can recognize it
+                  // when more arrives
+                  partialAnsiCode_ = data.substring(pos);
+                  return;
                }
-               else
+               else if (end == AnsiCode.ESCAPE_INVALID)
+               {
+                  // nothing useful we can do, just throw away the ESC
+                  break;
+               }
+               
+               if (AnsiCode.isSgrSequence(data, pos, end))
                {
                   // process the SGR code
                   if (ansi_ == null)
                      ansi_ = new AnsiCode();
-                  ansiCodeStyles_ = ansi_.processCode(sgrMatch.getValue());
+                  ansiCodeStyles_ = ansi_.processCode(data, pos + 2, end - 1);
                   if (ansiColorMode == UserPrefs.ANSI_CONSOLE_MODE_STRIP)
-                  {
                      currentClazz = clazz;
-                  }
                   else
-                  {
-                     if (clazz != null)
-                     {
-                        currentClazz = clazz;
-                        if (ansiCodeStyles_.inlineClazzes != null)
-                        {
-                           currentClazz = currentClazz + " " + ansiCodeStyles_.inlineClazzes;
-                        }
-                     }
-                     else
-                     {
-                        currentClazz = ansiCodeStyles_.inlineClazzes;
-                     }
-                  }
-                  tail = pos + sgrMatch.getValue().length();
+                     currentClazz = AnsiCode.combineClazzes(clazz, ansiCodeStyles_.inlineClazzes);
                }
-               break;
-            default:
-               assert false : "Unknown control char, please check regex";
-               text(data.charAt(pos) + "", currentClazz, false/*forceNewRange*/);
+
+               // skip past the code (unsupported codes are discarded)
+               tail = end;
                break;
          }
 
-         match = match.nextMatch();
+         pos = tail;
       }
 
       // If there was any plain text after the last control character, add it
-      if (tail < data.length())
+      // (if there were no control characters, we always write the data)
+      if (!sawControl || tail < length)
          text(data.substring(tail), currentClazz, forceNewRange);
    }
 
+   private static boolean isControlChar(char ch, boolean parseAnsi)
+   {
+      switch (ch)
+      {
+         case '\r':
+         case '\b':
+         case '\n':
+         case '\f':
+            return true;
+         case '\033':
+         case '\233':
+            return parseAnsi;
+         default:
+            return false;
+      }
+   }
+
    // Elements added by last submit call; only captured if forceNewRange was true
    public List<Element> getNewElements()
    {
@@ -688,14 +692,17 @@ public class VirtualConsole
       public final SpanElement element;
    }
 
-   private static final Pattern CONTROL = Pattern.create("[\r\b\f\n]");
-   
    private final StringBuilder output_ = new StringBuilder();
    private final TreeMap<Integer, ClassRange> class_ = new TreeMap<>();
    private final Element parent_;
    
    private int cursor_ = 0;
    private AnsiCode ansi_;
+
+   // number of newlines in output_, and that number at the start of the
+   // last submit() call
+   private int lineCount_ = 0;
+   private int submitLineCount_ = 0;
    private String partialAnsiCode_;
    private AnsiCode.AnsiClazzes ansiCodeStyles_ = new AnsiCode.AnsiClazzes();
    
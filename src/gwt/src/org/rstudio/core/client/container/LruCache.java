@@ -0,0 +1,150 @@
+/*
+ * LruCache.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.container;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// A bounded map that evicts its least recently used entries once the
+// total weight of its entries exceeds the capacity. By default every
+// entry has a weight of 1, so the capacity is simply a maximum entry
+// count; supply a Weigher to bound the cache by (approximate) size instead.
+public class LruCache<K, V>
+{
+   public interface Weigher<V>
+   {
+      int weigh(V value);
+   }
+
+   public interface EvictionHandler<K, V>
+   {
+      void onEvicted(K key, V value);
+   }
+
+   public LruCache(int capacity)
+   {
+      this(capacity, null);
+   }
+
+   public LruCache(int capacity, Weigher<V> weigher)
+   {
+      capacity_ = capacity;
+      weigher_ = weigher;
+      data_ = new LinkedHashMap<K, V>(16, 0.75f, true /* accessOrder */);
+   }
+
+   public void setEvictionHandler(EvictionHandler<K, V> handler)
+   {
+      evictionHandler_ = handler;
+   }
+
+   // returns the value for the key (if any), marking it as recently used
+   public V get(K key)
+   {
+      if (!data_.containsKey(key))
+         return null;
+      return data_.get(key);
+   }
+
+   public void put(K key, V value)
+   {
+      V previous = data_.remove(key);
+      if (previous != null)
+         weight_ -= weigh(previous);
+
+      data_.put(key, value);
+      weight_ += weigh(value);
+      trim();
+   }
+
+   public V remove(K key)
+   {
+      if (!data_.containsKey(key))
+         return null;
+
+      V value = data_.remove(key);
+      weight_ -= weigh(value);
+      return value;
+   }
+
+   public void clear()
+   {
+      data_.clear();
+      weight_ = 0;
+   }
+
+   public boolean containsKey(K key)
+   {
+      return data_.containsKey(key);
+   }
+
+   public boolean isEmpty()
+   {
+      return data_.isEmpty();
+   }
+
+   public int size()
+   {
+      return data_.size();
+   }
+
+   public int getWeight()
+   {
+      return weight_;
+   }
+
+   public int getCapacity()
+   {
+      return capacity_;
+   }
+
+   // returns the keys in the cache, from least to most recently used
+   public List<K> keys()
+   {
+      return new ArrayList<K>(data_.keySet());
+   }
+
+   private void trim()
+   {
+      Iterator<Map.Entry<K, V>> it = data_.entrySet().iterator();
+
+      // always retain the most recently added entry, even if it alone
+      // exceeds the capacity
+      while (weight_ > capacity_ && data_.size() > 1 && it.hasNext())
+      {
+         Map.Entry<K, V> entry = it.next();
+         it.remove();
+         weight_ -= weigh(entry.getValue());
+
+         if (evictionHandler_ != null)
+            evictionHandler_.onEvicted(entry.getKey(), entry.getValue());
+      }
+   }
+
+   private int weigh(V value)
+   {
+      return weigher_ == null ? 1 : weigher_.weigh(value);
+   }
+
+   private final int capacity_;
+   private final Weigher<V> weigher_;
+   private final LinkedHashMap<K, V> data_;
+
+   private EvictionHandler<K, V> evictionHandler_;
+   private int weight_ = 0;
+}
@@ -0,0 +1,286 @@
+/*
+ * TreeRowIndex.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.container;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Maps between the nodes of a tree and the rows they are drawn in, where
+// each node occupies a row followed (when expanded) by the rows of its
+// children. Each node keeps a Fenwick tree over the row counts of its
+// children, so expanding or collapsing a node, finding the row of a node,
+// and finding the node at a row all cost O(depth * log(children)) rather
+// than a walk over every visible row.
+public class TreeRowIndex<T>
+{
+   public static class Node<T>
+   {
+      private Node(T value)
+      {
+         value_ = value;
+      }
+
+      public T getValue()
+      {
+         return value_;
+      }
+
+      public Node<T> getParent()
+      {
+         return parent_;
+      }
+
+      public int getIndexInParent()
+      {
+         return indexInParent_;
+      }
+
+      public int getChildCount()
+      {
+         return children_.size();
+      }
+
+      public Node<T> getChild(int index)
+      {
+         return children_.get(index);
+      }
+
+      public boolean isExpanded()
+      {
+         return expanded_;
+      }
+
+      // The number of rows occupied by this node and its visible descendants.
+      public int getRowCount()
+      {
+         return 1 + getDescendantRowCount();
+      }
+
+      // The number of rows occupied by this node's visible descendants.
+      public int getDescendantRowCount()
+      {
+         return expanded_ ? childRows_ : 0;
+      }
+
+      // The number of rows occupied by the first 'count' children.
+      private int prefix(int count)
+      {
+         int sum = 0;
+         for (int i = count; i > 0; i -= i & -i)
+            sum += tree_[i];
+         return sum;
+      }
+
+      private void add(int index, int delta)
+      {
+         childRows_ += delta;
+         for (int i = index + 1; i < tree_.length; i += i & -i)
+            tree_[i] += delta;
+      }
+
+      // The index of the child whose rows contain the given offset
+      // (relative to the first row after this node).
+      private int findChild(int offset)
+      {
+         int n = tree_.length - 1;
+         int step = Integer.highestOneBit(Math.max(n, 1));
+         int pos = 0;
+         for (; step > 0; step >>= 1)
+         {
+            int next = pos + step;
+            if (next <= n && tree_[next] <= offset)
+            {
+               pos = next;
+               offset -= tree_[next];
+            }
+         }
+         return pos;
+      }
+
+      // Rebuilds the Fenwick tree (in linear time) after children
+      // are inserted or removed.
+      private void rebuild()
+      {
+         int n = children_.size();
+         tree_ = new int[n + 1];
+         childRows_ = 0;
+         for (int i = 0; i < n; i++)
+         {
+            Node<T> child = children_.get(i);
+            child.indexInParent_ = i;
+
+            int rows = child.getRowCount();
+            childRows_ += rows;
+            tree_[i + 1] += rows;
+
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent <= n)
+               tree_[parent] += tree_[i + 1];
+         }
+      }
+
+      private final T value_;
+      private Node<T> parent_;
+      private int indexInParent_;
+      private boolean expanded_;
+      private int childRows_;
+      private int[] tree_ = new int[1];
+      private final List<Node<T>> children_ = new ArrayList<Node<T>>();
+   }
+
+   public TreeRowIndex(T rootValue)
+   {
+      root_ = new Node<T>(rootValue);
+      root_.expanded_ = true;
+   }
+
+   public Node<T> getRoot()
+   {
+      return root_;
+   }
+
+   public int getRowCount()
+   {
+      return root_.getRowCount();
+   }
+
+   public void setExpanded(Node<T> node, boolean expanded)
+   {
+      if (node.expanded_ == expanded)
+         return;
+
+      int oldRows = node.getRowCount();
+      node.expanded_ = expanded;
+      propagate(node, node.getRowCount() - oldRows);
+   }
+
+   public List<Node<T>> addChildren(Node<T> parent, List<T> values)
+   {
+      return insertChildren(parent, parent.getChildCount(), values);
+   }
+
+   public List<Node<T>> insertChildren(Node<T> parent, int index, List<T> values)
+   {
+      List<Node<T>> nodes = new ArrayList<Node<T>>(values.size());
+      for (T value : values)
+      {
+         Node<T> node = new Node<T>(value);
+         node.parent_ = parent;
+         nodes.add(node);
+      }
+
+      int oldRows = parent.getRowCount();
+      parent.children_.addAll(index, nodes);
+      parent.rebuild();
+      propagate(parent, parent.getRowCount() - oldRows);
+      return nodes;
+   }
+
+   public void removeChildren(Node<T> parent, int index, int count)
+   {
+      List<Node<T>> removed = parent.children_.subList(index, index + count);
+      for (Node<T> node : removed)
+         node.parent_ = null;
+
+      int oldRows = parent.getRowCount();
+      removed.clear();
+      parent.rebuild();
+      propagate(parent, parent.getRowCount() - oldRows);
+   }
+
+   // Returns whether the node is drawn; that is, whether all of its
+   // ancestors are expanded.
+   public boolean isVisible(Node<T> node)
+   {
+      for (Node<T> parent = node.parent_; parent != null; parent = parent.parent_)
+         if (!parent.expanded_)
+            return false;
+      return isAttached(node);
+   }
+
+   // Returns the row the node is drawn in, or -1 if it is not visible.
+   public int getRow(Node<T> node)
+   {
+      int row = 0;
+      for (; node.parent_ != null; node = node.parent_)
+      {
+         Node<T> parent = node.parent_;
+         if (!parent.expanded_)
+            return -1;
+         row += 1 + parent.prefix(node.indexInParent_);
+      }
+      return node == root_ ? row : -1;
+   }
+
+   // Returns the node drawn in the given row, or null if there is none.
+   public Node<T> getNode(int row)
+   {
+      if (row < 0 || row >= getRowCount())
+         return null;
+
+      Node<T> node = root_;
+      while (row > 0)
+      {
+         row -= 1;
+         int index = node.findChild(row);
+         row -= node.prefix(index);
+         node = node.children_.get(index);
+      }
+      return node;
+   }
+
+   // Appends the values drawn in the rows occupied by this node and
+   // its visible descendants, in order.
+   public void collectRows(Node<T> node, List<T> output)
+   {
+      output.add(node.value_);
+      collectDescendantRows(node, output);
+   }
+
+   // Appends the values drawn in the rows occupied by this node's
+   // visible descendants, in order.
+   public void collectDescendantRows(Node<T> node, List<T> output)
+   {
+      if (!node.expanded_)
+         return;
+
+      for (int i = 0, n = node.children_.size(); i < n; i++)
+         collectRows(node.children_.get(i), output);
+   }
+
+   private boolean isAttached(Node<T> node)
+   {
+      while (node.parent_ != null)
+         node = node.parent_;
+      return node == root_;
+   }
+
+   // Applies a change in the number of rows occupied by a node to its
+   // ancestors, stopping at the first collapsed ancestor (whose own row
+   // count is unaffected).
+   private static <T> void propagate(Node<T> node, int delta)
+   {
+      while (delta != 0 && node.parent_ != null)
+      {
+         Node<T> parent = node.parent_;
+         parent.add(node.indexInParent_, delta);
+         if (!parent.expanded_)
+            return;
+         node = parent;
+      }
+   }
+
+   private final Node<T> root_;
+}
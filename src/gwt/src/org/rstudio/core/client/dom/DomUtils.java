@@ -155,7 +155,6 @@ public class DomUtils
       impl.selectElement(el);
    }
 
-   private static final Pattern NEWLINE = Pattern.create("\\n");
    private static int trimLines(NodeList<Node> nodes, final int linesToTrim)
    {
       if (nodes == null || nodes.getLength() == 0 || linesToTrim == 0)
@@ -187,23 +186,23 @@ public class DomUtils
             case Node.TEXT_NODE:
                String text = ((Text)node).getData();
 
-               Match lastMatch = null;
-               Match match = NEWLINE.match(text, 0);
-               while (match != null && linesLeft > 0)
+               int lastNewline = -1;
+               int newline = text.indexOf('\n');
+               while (newline != -1 && linesLeft > 0)
                {
-                  lastMatch = match;
+                  lastNewline = newline;
                   linesLeft--;
-                  match = match.nextMatch();
+                  newline = text.indexOf('\n', newline + 1);
                }
 
-               if (linesLeft > 0 || lastMatch == null)
+               if (linesLeft > 0 || lastNewline == -1)
                {
                   node = removeAndGetNext(node);
                   continue;
                }
                else
                {
-                  int index = lastMatch.getIndex() + 1;
+                  int index = lastNewline + 1;
                   if (text.length() == index)
                      node.removeFromParent();
                   else
@@ -248,14 +247,9 @@ public class DomUtils
       if (!pre)
          return 0;
       String value = textNode.getData();
-      Pattern pattern = Pattern.create("\\n");
       int count = 0;
-      Match m = pattern.match(value, 0);
-      while (m != null)
-      {
+      for (int i = value.indexOf('\n'); i != -1; i = value.indexOf('\n', i + 1))
          count++;
-         m = m.nextMatch();
-      }
       return count;
    }
 
@@ -19,6 +19,7 @@ import org.rstudio.core.client.dom.WindowEx;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.DataImportDataActiveColumn;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.user.client.Command;
 
 public class GridViewerFrame extends RStudioThemedFrame
 {
@@ -51,6 +52,22 @@ public class GridViewerFrame extends RStudioThemedFrame
       setDataNative(gridViewerFrameWindow, data);
    }
    
+   // appends rows to the data previously supplied via setData (the columns
+   // must be the same)
+   public void appendData(JavaScriptObject data)
+   {
+      WindowEx gridViewerFrameWindow = getIFrame().getContentWindow();
+      appendDataNative(gridViewerFrameWindow, data);
+   }
+   
+   // sets a command to be invoked when the user scrolls near the end of the
+   // data supplied via setData, to request that more rows be appended
+   public void setDataPageCallback(Command onMoreRowsNeeded)
+   {
+      WindowEx gridViewerFrameWindow = getIFrame().getContentWindow();
+      setDataPageCallbackNative(gridViewerFrameWindow, onMoreRowsNeeded);
+   }
+   
    public void setOption(String option, String value)
    {
       WindowEx gridViewerFrameWindow = getIFrame().getContentWindow();
@@ -92,6 +109,20 @@ public class GridViewerFrame extends RStudioThemedFrame
       frameContentWindow.setData(data);
    }-*/;
    
+   private final native void appendDataNative(
+      WindowEx frameContentWindow,
+      JavaScriptObject data) /*-{
+      frameContentWindow.appendData(data);
+   }-*/;
+   
+   private final native void setDataPageCallbackNative(
+      WindowEx frameContentWindow,
+      Command onMoreRowsNeeded) /*-{
+      frameContentWindow.dataPageCallback = $entry(function () {
+         onMoreRowsNeeded.@com.google.gwt.user.client.Command::execute()()
+      });
+   }-*/;
+   
    private final native void setOptionNative(
       WindowEx frameContentWindow,
       String option,
@@ -44,7 +44,8 @@ public class ImageFrame extends Frame
             else
             {
                String sizing = "width=\"100%\" height=\"100%\"";
-               setupContent(getElement(), sizing);
+               String fit = preserveAspectRatio_ ? "object-fit: contain; " : "";
+               setupContent(getElement(), sizing, fit);
                replaceLocation(getElement(), url_);
             }
          }
@@ -63,6 +64,19 @@ public class ImageFrame extends Frame
                                 Integer.toString(height));
    }
    
+   // when set, the image is scaled to fit the frame without distorting it
+   // (e.g. while the frame is being resized and a re-rendered image at the
+   // new size isn't yet available)
+   public void setPreserveAspectRatio(boolean preserve)
+   {
+      preserveAspectRatio_ = preserve;
+   }
+   
+   public String getImageUrl()
+   {
+      return url_;
+   }
+   
    public void setImageUrl(String url)
    {
       url_ = url;
@@ -92,7 +106,7 @@ public class ImageFrame extends Frame
             && el.contentWindow.document != null; 
    }-*/;
 
-   private native void setupContent(Element el, String sizing) /*-{
+   private native void setupContent(Element el, String sizing, String fit) /*-{
       var doc = el.contentWindow.document;
 
       // setupContent can get called multiple times, as progress causes the
@@ -105,10 +119,11 @@ public class ImageFrame extends Frame
       doc.write(
          '<html><head></head>' +
          '<body style="margin: 0; padding: 0; overflow: hidden; border: none">' +
-         '<img id="img" ' + sizing + ' style="display: none" src="data:image/gif;base64,R0lGODlhAQABAAD/ACwAAAAAAQABAAACADs%3D">' +
+         '<img id="img" ' + sizing + ' style="' + fit + 'display: none" src="data:image/gif;base64,R0lGODlhAQABAAD/ACwAAAAAAQABAAACADs%3D">' +
          '</body></html>');
       doc.close();
    }-*/;
 
    private String url_ = "javascript:false";
+   private boolean preserveAspectRatio_ = false;
 }
@@ -171,8 +171,7 @@ public class MultiSelectCellTable<T> extends CellTable<T>
                   event.preventDefault();
                   event.stopPropagation();
 
-                  for (T item : getVisibleItems())
-                     getSelectionModel().setSelected(item, true);
+                  selectAll();
                }
             }
             break;
@@ -299,6 +298,14 @@ public class MultiSelectCellTable<T> extends CellTable<T>
       }
    }
 
+   // Selects every row. Tables that draw only a window of their rows
+   // override this to also select the rows that aren't drawn.
+   protected void selectAll()
+   {
+      for (T item : getVisibleItems())
+         getSelectionModel().setSelected(item, true);
+   }
+
    private void ensureRowVisible(int row, boolean alignWithTop)
    {
       Element el;
@@ -15,6 +15,7 @@
 package org.rstudio.core.client.widget;
 
 import org.rstudio.core.client.theme.RStudioDataGridResources;
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
@@ -24,7 +25,6 @@ import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.cellview.client.AbstractCellTable;
 import com.google.gwt.user.cellview.client.DefaultCellTableBuilder;
-import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.HeaderPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
 
@@ -104,20 +104,45 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
          @Override
          public void onScroll(ScrollEvent event)
          {
-            redrawTimer_.schedule(700);
+            scheduleScrollFrame();
          }
       });
       
       setTableBuilder(new TableBuilder(this));
+   }
+   
+   // Handle scrolling at most once per animation frame, rather than
+   // waiting for scrolling to settle.
+   private void scheduleScrollFrame()
+   {
+      if (scrollFrame_ != null)
+         return;
       
-      redrawTimer_ = new Timer()
+      scrollFrame_ = AnimationScheduler.get().requestAnimationFrame(
+            new AnimationScheduler.AnimationCallback()
       {
          @Override
-         public void run()
+         public void execute(double timestamp)
          {
+            scrollFrame_ = null;
+            if (!isAttached())
+               return;
+            
             redrawIfNecessary();
+            
+            int rowHeight = getRowHeight();
+            int firstVisibleRow = getVerticalScrollPosition() / rowHeight;
+            int lastVisibleRow = Math.min(
+                  getTotalNumberOfRows() - 1,
+                  firstVisibleRow + getOffsetHeight() / rowHeight);
+            onVisibleRowsChanged(firstVisibleRow, lastVisibleRow);
          }
-      };
+      });
+   }
+   
+   // Called (at most once per animation frame) as the table is scrolled.
+   protected void onVisibleRowsChanged(int firstVisibleRow, int lastVisibleRow)
+   {
    }
    
    @Override
@@ -142,6 +167,22 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
       int oldFirstActiveRow = firstActiveRow_;
       int oldLastActiveRow = lastActiveRow_;
       
+      // only redraw once the visible rows come within half of the
+      // padding of either end of the drawn rows, so that a redraw happens
+      // every few screens of scrolling rather than on every frame
+      int rowHeight = getRowHeight();
+      int firstVisibleRow = getVerticalScrollPosition() / rowHeight;
+      int lastVisibleRow = firstVisibleRow + getOffsetHeight() / rowHeight;
+      boolean nearTop =
+            oldFirstActiveRow > 0 &&
+            firstVisibleRow - oldFirstActiveRow < ROW_PADDING / 2;
+      boolean nearBottom =
+            oldLastActiveRow < getTotalNumberOfRows() &&
+            oldLastActiveRow - lastVisibleRow < ROW_PADDING / 2;
+      
+      if (!nearTop && !nearBottom)
+         return;
+      
       updateActiveRows();
       
       boolean changed =
@@ -236,7 +277,7 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
    
    private int firstActiveRow_;
    private int lastActiveRow_;
-   private Timer redrawTimer_;
+   private AnimationScheduler.AnimationHandle scrollFrame_;
    
    // Static Members ----
    private static final int ROW_PADDING = 200;
@@ -38,6 +38,7 @@ import org.rstudio.core.client.widget.ToolbarPopupMenu;
 import org.rstudio.studio.client.application.Application;
 import org.rstudio.studio.client.application.ApplicationInterrupt;
 import org.rstudio.studio.client.application.AriaLiveService;
+import org.rstudio.studio.client.application.DeferredInitScheduler;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.application.ui.AboutDialog;
 import org.rstudio.studio.client.application.ui.ProjectPopupMenu;
@@ -306,6 +307,7 @@ public interface RStudioGinjector extends Ginjector
 
    Application getApplication();
    ApplicationInterrupt getApplicationInterrupt();
+   DeferredInitScheduler getDeferredInitScheduler();
    VCSApplication getVCSApplication();
    HTMLPreviewApplication getHTMLPreviewApplication();
    ShinyApplication getShinyApplication();
@@ -15,6 +15,7 @@
 
 package org.rstudio.studio.client.application;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.RunAsyncCallback;
 import com.google.gwt.dom.client.Document;
@@ -39,6 +40,7 @@ import com.google.inject.Singleton;
 import org.rstudio.core.client.Barrier;
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.StartupTimeline;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.Barrier.Token;
 import org.rstudio.core.client.command.CommandBinder;
@@ -110,7 +112,8 @@ public class Application implements ApplicationEventHandlers
                       Provider<ApplicationQuit> pApplicationQuit,
                       Provider<ApplicationInterrupt> pApplicationInterrupt,
                       Provider<ApplicationThemes> pAppThemes,
-                      Provider<ProductEditionInfo> pEdition)
+                      Provider<ProductEditionInfo> pEdition,
+                      DeferredInitScheduler deferredInit)
    {
       // save references
       view_ = view;
@@ -131,6 +134,7 @@ public class Application implements ApplicationEventHandlers
       pApplicationInterrupt_ = pApplicationInterrupt;
       pEdition_ = pEdition;
       pAppThemes_ = pAppThemes;
+      deferredInit_ = deferredInit;
 
       // bind to commands
       binder.bind(commands_, this);
@@ -178,6 +182,8 @@ public class Application implements ApplicationEventHandlers
 
          public void onResponseReceived(final SessionInfo sessionInfo)
          {
+            StartupTimeline.end("client_init");
+
             // initialize workbench
             // if this is a switch project then wait to dismiss the
             // loading progress animation for 10 seconds. typically
@@ -272,6 +278,8 @@ public class Application implements ApplicationEventHandlers
       }
 
       // attempt init
+      StartupTimeline.export();
+      StartupTimeline.begin("client_init");
       clientInit.execute(callback, options, true);
 
       sessionOpener_.getJobConnectionStatus(connectionStatusCallback);
@@ -851,6 +859,8 @@ public class Application implements ApplicationEventHandlers
    }
    private void initializeWorkbench()
    {
+      StartupTimeline.begin("initialize_workbench");
+
       // Initialize application theme system
       pAppThemes_.get().initializeThemes(rootPanel_.getElement());
 
@@ -864,8 +874,14 @@ public class Application implements ApplicationEventHandlers
       events_.addHandler(ClientDisconnectedEvent.TYPE, this); 
       
       // create workbench
+      StartupTimeline.begin("create_workbench");
       Workbench wb = workbench_.get();
-      eventBusProvider_.get().fireEvent(new SessionInitEvent());
+      StartupTimeline.end("create_workbench");
+
+      StartupTimeline.measure("session_init_event", () ->
+      {
+         eventBusProvider_.get().fireEvent(new SessionInitEvent());
+      });
 
       // disable commands
       SessionInfo sessionInfo = session_.getSessionInfo();
@@ -989,7 +1005,10 @@ public class Application implements ApplicationEventHandlers
       }
        
       // show workbench
-      view_.showWorkbenchView(wb.getMainView().asWidget());
+      StartupTimeline.measure("show_workbench_view", () ->
+      {
+         view_.showWorkbenchView(wb.getMainView().asWidget());
+      });
       
       // hide zoom in and zoom out in web mode
       if (!Desktop.hasDesktopFrame())
@@ -1077,6 +1096,18 @@ public class Application implements ApplicationEventHandlers
             }
          }.schedule(500); 
       }
+
+      StartupTimeline.end("initialize_workbench");
+
+      // once the workbench has been drawn, start on the initialization
+      // that was deferred until after the first interactive frame
+      AnimationScheduler.get().requestAnimationFrame(timestamp ->
+      {
+         StartupTimeline.mark("first_frame");
+         deferredInit_.start();
+         if (SuperDevMode.isActive())
+            StartupTimeline.log();
+      });
    }
    
    private void handleSwitchProjectAction()
@@ -1246,6 +1277,7 @@ public class Application implements ApplicationEventHandlers
    private final Provider<ApplicationInterrupt> pApplicationInterrupt_;
    private final Provider<ProductEditionInfo> pEdition_;
    private final Provider<ApplicationThemes> pAppThemes_;
+   private final DeferredInitScheduler deferredInit_;
 
    private boolean fileUploadInProgress_ = false;
    
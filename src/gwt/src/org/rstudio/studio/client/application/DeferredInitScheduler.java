@@ -0,0 +1,208 @@
+/*
+ * DeferredInitScheduler.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.SerializedCommand;
+import org.rstudio.core.client.StartupTimeline;
+
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Runs initialization work that isn't needed for the first interactive
+ * frame (e.g. downloading the code for panes that aren't visible). Each
+ * named task runs once: either when the browser is idle after startup, or
+ * when its name is first activated (e.g. its pane is selected), whichever
+ * happens first. Idle tasks run one at a time, in the order registered,
+ * and each is recorded in the StartupTimeline. A task's command must call
+ * its continuation when done; one that hasn't within TASK_TIMEOUT_MS is
+ * treated as complete so that it can't hold up the tasks behind it.
+ */
+@Singleton
+public class DeferredInitScheduler
+{
+   private static class Task
+   {
+      public Task(String name, SerializedCommand command)
+      {
+         this.name = name;
+         this.command = command;
+      }
+
+      public final String name;
+      public final SerializedCommand command;
+   }
+
+   @Inject
+   public DeferredInitScheduler()
+   {
+   }
+
+   public void register(String name, SerializedCommand command)
+   {
+      pending_.add(new Task(name, command));
+      scheduleNext();
+   }
+
+   // Called once the first interactive frame has been drawn; until then,
+   // tasks run only if activated.
+   public void start()
+   {
+      if (started_)
+         return;
+
+      started_ = true;
+      StartupTimeline.mark("deferred_init_start");
+      scheduleNext();
+   }
+
+   // Runs the named task now (if it hasn't already run).
+   public void activate(String name)
+   {
+      for (int i = 0; i < pending_.size(); i++)
+      {
+         Task task = pending_.get(i);
+         if (task.name.equals(name))
+         {
+            pending_.remove(i);
+            run(task, null);
+            return;
+         }
+      }
+   }
+
+   private void scheduleNext()
+   {
+      if (!started_ || running_ || idleScheduled_ || pending_.isEmpty())
+         return;
+
+      idleScheduled_ = true;
+      requestIdle(new Command()
+      {
+         @Override
+         public void execute()
+         {
+            idleScheduled_ = false;
+            if (running_ || pending_.isEmpty())
+               return;
+
+            running_ = true;
+            run(pending_.remove(0), new Command()
+            {
+               @Override
+               public void execute()
+               {
+                  running_ = false;
+                  scheduleNext();
+               }
+            });
+         }
+      });
+   }
+
+   private void run(Task task, Command onCompleted)
+   {
+      task.command.onExecute(new TaskContinuation(task, onCompleted));
+   }
+
+   // The continuation handed to a task's command; records the task in the
+   // StartupTimeline and completes it at most once, either when the command
+   // calls it or when the watchdog fires.
+   private static class TaskContinuation extends Timer implements Command
+   {
+      public TaskContinuation(Task task, Command onCompleted)
+      {
+         task_ = task;
+         onCompleted_ = onCompleted;
+         phase_ = "deferred:" + task.name;
+
+         StartupTimeline.begin(phase_);
+         schedule(TASK_TIMEOUT_MS);
+      }
+
+      @Override
+      public void execute()
+      {
+         if (completed_)
+            return;
+
+         completed_ = true;
+         cancel();
+         StartupTimeline.end(phase_);
+         if (onCompleted_ != null)
+            onCompleted_.execute();
+      }
+
+      @Override
+      public void run()
+      {
+         Debug.log("Deferred init task '" + task_.name + "' did not " +
+                   "complete within " + TASK_TIMEOUT_MS + "ms");
+         execute();
+      }
+
+      private final Task task_;
+      private final Command onCompleted_;
+      private final String phase_;
+      private boolean completed_ = false;
+   }
+
+   // Invokes the command when the browser is next idle (or after a short
+   // delay, for browsers without requestIdleCallback).
+   private void requestIdle(final Command command)
+   {
+      if (!requestIdleCallback(command, IDLE_TIMEOUT_MS))
+      {
+         new Timer()
+         {
+            @Override
+            public void run()
+            {
+               command.execute();
+            }
+         }.schedule(IDLE_FALLBACK_DELAY_MS);
+      }
+   }
+
+   private static native boolean requestIdleCallback(Command command,
+                                                     int timeoutMs) /*-{
+      if (!$wnd.requestIdleCallback)
+         return false;
+
+      $wnd.requestIdleCallback($entry(function() {
+         command.@com.google.gwt.user.client.Command::execute()();
+      }), { timeout: timeoutMs });
+      return true;
+   }-*/;
+
+   private final List<Task> pending_ = new ArrayList<Task>();
+
+   private boolean started_ = false;
+   private boolean running_ = false;
+   private boolean idleScheduled_ = false;
+
+   // run idle tasks within this long even if the browser stays busy
+   private static final int IDLE_TIMEOUT_MS = 2000;
+   private static final int IDLE_FALLBACK_DELAY_MS = 100;
+   
+   // give up waiting on a task's continuation after this long
+   private static final int TASK_TIMEOUT_MS = 30000;
+}
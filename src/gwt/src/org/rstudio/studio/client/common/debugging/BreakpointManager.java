@@ -16,9 +16,12 @@
 package org.rstudio.studio.client.common.debugging;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
 import org.rstudio.core.client.js.JsObject;
@@ -33,6 +36,7 @@ import org.rstudio.studio.client.common.debugging.events.PackageLoadedEvent;
 import org.rstudio.studio.client.common.debugging.events.PackageUnloadedEvent;
 import org.rstudio.studio.client.common.debugging.model.Breakpoint;
 import org.rstudio.studio.client.common.debugging.model.BreakpointState;
+import org.rstudio.studio.client.common.debugging.model.FunctionBreakpoints;
 import org.rstudio.studio.client.common.debugging.model.FunctionState;
 import org.rstudio.studio.client.common.debugging.model.FunctionSteps;
 import org.rstudio.studio.client.common.satellite.Satellite;
@@ -54,7 +58,9 @@ import org.rstudio.studio.client.workbench.views.environment.events.ContextDepth
 import org.rstudio.studio.client.workbench.views.environment.events.DebugSourceCompletedEvent;
 import org.rstudio.studio.client.workbench.views.environment.model.CallFrame;
 
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayBoolean;
 import com.google.gwt.regexp.shared.MatchResult;
 import com.google.gwt.regexp.shared.RegExp;
 import com.google.inject.Inject;
@@ -74,13 +80,18 @@ import com.google.inject.Singleton;
 //    it defers setting the breakpoint.
 // 4) The breakpoint manager fetches the steps and substeps of the function in 
 //    which the breakpoint occurs from the server, and updates the breakpoint
-//    with this information (get_function_steps) 
+//    with this information (get_functions_steps) 
 // 5) The breakpoint manager combines the breakpoint with all of the other 
 //    breakpoints for the function, and makes a single call to the server to
-//    update the function's breakpoints (set_function_breakpoints)
+//    update the function's breakpoints (set_functions_breakpoints)
 // 6) If successful, the breakpoint manager emits a BreakpointsSavedEvent, which
 //    is picked up by the editing target, which updates the display to show that
 //    the breakpoint is now enabled.
+//
+// When many functions need their breakpoints set at once (e.g. when a file is
+// sourced or a package is loaded), steps 4 and 5 are each done with a single
+// request for all of the functions. Breakpoints are indexed by path and by
+// function name so that these don't require a scan of every breakpoint.
 
 @Singleton
 public class BreakpointManager 
@@ -235,7 +246,7 @@ public class BreakpointManager
       Breakpoint breakpoint = getBreakpoint(breakpointId);
       if (breakpoint != null)
       {
-         breakpoints_.remove(breakpoint);
+         removeFromBreakpoints(breakpoint);
          if (breakpoint.getState() == Breakpoint.STATE_ACTIVE &&
              breakpoint.getType() == Breakpoint.TYPE_FUNCTION)
          {
@@ -266,15 +277,10 @@ public class BreakpointManager
    
    public ArrayList<Breakpoint> getBreakpointsInFile(String fileName)
    {
-      ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
-      for (Breakpoint breakpoint: breakpoints_)
-      {
-         if (breakpoint.isInFile(fileName))
-         {
-            breakpoints.add(breakpoint);
-         }
-      }
-      return breakpoints;
+      ArrayList<Breakpoint> breakpoints = breakpointsByPath_.get(fileName);
+      return breakpoints != null ?
+            new ArrayList<Breakpoint>(breakpoints) :
+            new ArrayList<Breakpoint>();
    }
    
    // Event handlers ----------------------------------------------------------
@@ -415,11 +421,10 @@ public class BreakpointManager
       {
          if (!activeFunctions.contains(function))
          {
-            for (Breakpoint breakpoint: breakpoints_)
+            for (Breakpoint breakpoint: getBreakpointsInFunction(function))
             {
                if (breakpoint.isPendingDebugCompletion() &&
-                   breakpoint.getState() == Breakpoint.STATE_INACTIVE &&
-                   function.containsBreakpoint(breakpoint))
+                   breakpoint.getState() == Breakpoint.STATE_INACTIVE)
                {
                   enableFunctions.add(function);
                }
@@ -427,10 +432,7 @@ public class BreakpointManager
          }
       }
       
-      for (FileFunction function: enableFunctions)
-      {
-         prepareAndSetFunctionBreakpoints(function);
-      }
+      prepareAndSetFunctionBreakpoints(enableFunctions);
       
       // Record the new frame list.
       activeFunctions_ = activeFunctions;
@@ -498,100 +500,170 @@ public class BreakpointManager
 
    private void setFunctionBreakpoints(FileFunction function)
    {
-      ArrayList<String> steps = new ArrayList<String>();
-      final ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
-      for (Breakpoint breakpoint: breakpoints_)
+      ArrayList<FileFunction> functions = new ArrayList<FileFunction>();
+      functions.add(function);
+      setFunctionBreakpoints(functions);
+   }
+   
+   // Sets the breakpoints in each of the given functions (using the steps
+   // already computed for each breakpoint) with a single request.
+   private void setFunctionBreakpoints(Collection<FileFunction> functions)
+   {
+      if (functions.isEmpty())
+         return;
+      
+      JsArray<FunctionBreakpoints> requests = JavaScriptObject.createArray().cast();
+      final ArrayList<ArrayList<Breakpoint>> functionBreakpoints = 
+            new ArrayList<ArrayList<Breakpoint>>();
+      for (FileFunction function: functions)
       {
-         if (function.containsBreakpoint(breakpoint))
+         FunctionBreakpoints request = FunctionBreakpoints.create(
+               function.functionName,
+               function.fileName,
+               function.packageName);
+         ArrayList<Breakpoint> breakpoints = getBreakpointsInFunction(function);
+         for (Breakpoint breakpoint: breakpoints)
          {
-            steps.add(breakpoint.getFunctionSteps());
-            breakpoints.add(breakpoint);
+            request.addSteps(breakpoint.getFunctionSteps());
          }
+         requests.push(request);
+         functionBreakpoints.add(breakpoints);
       }
-      server_.setFunctionBreakpoints(
-            function.functionName,
-            function.fileName,
-            function.packageName,
-            steps,
-            new ServerRequestCallback<Void>()
+      
+      server_.setFunctionsBreakpoints(
+            requests,
+            new ServerRequestCallback<JsArrayBoolean>()
             {
                @Override
-               public void onResponseReceived(Void v)
+               public void onResponseReceived(JsArrayBoolean results)
                {
-                  for (Breakpoint breakpoint: breakpoints)
+                  ArrayList<Breakpoint> saved = new ArrayList<Breakpoint>();
+                  for (int i = 0; i < functionBreakpoints.size(); i++)
                   {
-                     breakpoint.setState(Breakpoint.STATE_ACTIVE);
+                     ArrayList<Breakpoint> breakpoints = functionBreakpoints.get(i);
+                     if (i < results.length() && results.get(i))
+                     {
+                        for (Breakpoint breakpoint: breakpoints)
+                        {
+                           breakpoint.setState(Breakpoint.STATE_ACTIVE);
+                        }
+                        saved.addAll(breakpoints);
+                     }
+                     else
+                     {
+                        discardUnsettableBreakpoints(breakpoints);
+                     }
                   }
-                  notifyBreakpointsSaved(breakpoints, true);
+                  notifyBreakpointsSaved(saved, true);
                }
                
                @Override
                public void onError(ServerError error)
                {
-                  discardUnsettableBreakpoints(breakpoints);
+                  for (ArrayList<Breakpoint> breakpoints: functionBreakpoints)
+                  {
+                     discardUnsettableBreakpoints(breakpoints);
+                  }
                }
             });
    }
       
    private void prepareAndSetFunctionBreakpoints(final FileFunction function)
    {
-      // look over the list of breakpoints in this function and see if any are
-      // marked inactive, or if they need their steps refreshed (necessary
-      // when a function has had steps added or removed in the editor)
-      final ArrayList<Breakpoint> inactiveBreakpoints = 
-            new ArrayList<Breakpoint>();
-      int[] inactiveLines = new int[]{};
-      int numLines = 0;
-      for (Breakpoint breakpoint: breakpoints_)
+      ArrayList<FileFunction> functions = new ArrayList<FileFunction>();
+      functions.add(function);
+      prepareAndSetFunctionBreakpoints(functions);
+   }
+   
+   // Sets the breakpoints in each of the given functions. Steps are only
+   // fetched for breakpoints that are inactive or need their steps refreshed
+   // (necessary when a function has had steps added or removed in the
+   // editor); breakpoints whose steps are still valid (e.g. when re-arming
+   // breakpoints after a package is rebuilt) are set as they are. At most two
+   // requests are made, regardless of the number of functions.
+   private void prepareAndSetFunctionBreakpoints(Collection<FileFunction> functions)
+   {
+      final ArrayList<FileFunction> readyFunctions = new ArrayList<FileFunction>();
+      final ArrayList<FileFunction> stepFunctions = new ArrayList<FileFunction>();
+      final ArrayList<ArrayList<Breakpoint>> stepBreakpoints = 
+            new ArrayList<ArrayList<Breakpoint>>();
+      JsArray<FunctionBreakpoints> requests = JavaScriptObject.createArray().cast();
+      
+      for (FileFunction function: functions)
       {
-         if (function.containsBreakpoint(breakpoint) &&
-             (breakpoint.getState() != Breakpoint.STATE_ACTIVE ||
-              breakpoint.needsUpdatedSteps()))
+         FunctionBreakpoints request = FunctionBreakpoints.create(
+               function.functionName,
+               function.fileName,
+               function.packageName);
+         ArrayList<Breakpoint> inactiveBreakpoints = new ArrayList<Breakpoint>();
+         for (Breakpoint breakpoint: getBreakpointsInFunction(function))
          {
-            inactiveBreakpoints.add(breakpoint);
-            inactiveLines[numLines++] = breakpoint.getLineNumber();
+            if (breakpoint.getState() != Breakpoint.STATE_ACTIVE ||
+                breakpoint.needsUpdatedSteps())
+            {
+               inactiveBreakpoints.add(breakpoint);
+               request.addLineNumber(breakpoint.getLineNumber());
+            }
+         }
+         
+         if (inactiveBreakpoints.isEmpty())
+         {
+            readyFunctions.add(function);
+         }
+         else
+         {
+            stepFunctions.add(function);
+            stepBreakpoints.add(inactiveBreakpoints);
+            requests.push(request);
          }
       }
       
-      // if we found breakpoints that aren't yet active, try to get the 
-      // corresponding steps from the function 
-      if (inactiveBreakpoints.size() > 0)
+      if (stepFunctions.isEmpty())
       {
-         server_.getFunctionSteps(
-               function.functionName,
-               function.fileName,
-               function.packageName,
-               inactiveLines, 
-               new ServerRequestCallback<JsArray<FunctionSteps>> () {
-                  @Override
-                  public void onResponseReceived
-                         (JsArray<FunctionSteps> response)
+         setFunctionBreakpoints(readyFunctions);
+         return;
+      }
+      
+      // if we found breakpoints that aren't yet active, try to get the 
+      // corresponding steps from the functions
+      server_.getFunctionsSteps(
+            requests,
+            new ServerRequestCallback<JsArray<JsArray<FunctionSteps>>> () {
+               @Override
+               public void onResponseReceived
+                      (JsArray<JsArray<FunctionSteps>> response)
+               {
+                  for (int i = 0; i < stepFunctions.size(); i++)
                   {
-                     // found the function and the steps in the function; next, 
-                     // ask the server to set the breakpoint
-                     if (response.length() > 0)
+                     JsArray<FunctionSteps> steps = 
+                           i < response.length() ? response.get(i) : null;
+                     
+                     // found the function and the steps in the function; 
+                     // set its breakpoints along with the others
+                     if (steps != null && steps.length() > 0)
                      {
-                        processFunctionSteps(inactiveBreakpoints, response);
-                        setFunctionBreakpoints(function);
-                      }
+                        processFunctionSteps(stepBreakpoints.get(i), steps);
+                        readyFunctions.add(stepFunctions.get(i));
+                     }
                      // no results: discard the breakpoints
                      else
                      {
-                        discardUnsettableBreakpoints(inactiveBreakpoints);
+                        discardUnsettableBreakpoints(stepBreakpoints.get(i));
                      }
                   }
-                  
-                  @Override
-                  public void onError(ServerError error)
+                  setFunctionBreakpoints(readyFunctions);
+               }
+               
+               @Override
+               public void onError(ServerError error)
+               {
+                  for (ArrayList<Breakpoint> breakpoints: stepBreakpoints)
                   {
-                     discardUnsettableBreakpoints(inactiveBreakpoints);
+                     discardUnsettableBreakpoints(breakpoints);
                   }
+                  setFunctionBreakpoints(readyFunctions);
+               }
          });
-      }
-      else
-      {
-         setFunctionBreakpoints(function);
-      }
    }
    
    private void discardUnsettableBreakpoints(ArrayList<Breakpoint> breakpoints)
@@ -602,7 +674,7 @@ public class BreakpointManager
       }
       for (Breakpoint breakpoint: breakpoints)
       {
-         breakpoints_.remove(breakpoint);
+         removeFromBreakpoints(breakpoint);
       }
       onBreakpointAddOrRemove();
       notifyBreakpointsSaved(breakpoints, false);
@@ -611,7 +683,9 @@ public class BreakpointManager
    private void resetBreakpointsInPath(String path, boolean isFile)
    {
       Set<FileFunction> functionsToBreak = new TreeSet<FileFunction>();
-      for (Breakpoint breakpoint: breakpoints_)
+      Collection<Breakpoint> candidates = isFile ?
+            getBreakpointsInFile(path) : breakpoints_;
+      for (Breakpoint breakpoint: candidates)
       {
          // set this breakpoint if it's a function breakpoint in the file 
          // (or path) given
@@ -625,10 +699,7 @@ public class BreakpointManager
             functionsToBreak.add(new FileFunction(breakpoint));
          }
       }
-      for (FileFunction function: functionsToBreak)
-      {
-         prepareAndSetFunctionBreakpoints(function);
-      }
+      prepareAndSetFunctionBreakpoints(functionsToBreak);
    }
    
    private void markInactiveBreakpoint(Breakpoint breakpoint)
@@ -661,11 +732,10 @@ public class BreakpointManager
             // line; if there is, discard this one.
             if (breakpoint.getLineNumber() != steps.getLineNumber())
             {
-               for (Breakpoint possibleDupe: breakpoints_)
+               for (Breakpoint possibleDupe: 
+                        getBreakpointsInFile(breakpoint.getPath()))
                {
-                  if (breakpoint.getPath() ==
-                         possibleDupe.getPath() &&
-                      steps.getLineNumber() == 
+                  if (steps.getLineNumber() == 
                          possibleDupe.getLineNumber() &&
                       breakpoint.getBreakpointId() != 
                          possibleDupe.getBreakpointId())
@@ -675,9 +745,15 @@ public class BreakpointManager
                   }
                }
             }
+            String oldFunctionName = breakpoint.getFunctionName();
             breakpoint.addFunctionSteps(steps.getName(),
                   steps.getLineNumber(),
                   steps.getSteps());
+            if (!StringUtil.equals(oldFunctionName, steps.getName()))
+            {
+               removeFromIndex(breakpointsByFunction_, oldFunctionName, breakpoint);
+               addToIndex(breakpointsByFunction_, steps.getName(), breakpoint);
+            }
          }
          else
          {
@@ -698,23 +774,69 @@ public class BreakpointManager
    
    private Breakpoint getBreakpoint (int breakpointId)
    {
-      for (Breakpoint breakpoint: breakpoints_)
-      {
-         if (breakpoint.getBreakpointId() == breakpointId)
-         {
-            return breakpoint;
-         }
-      }
-      return null;
+      return breakpointsById_.get(breakpointId);
    }
    
    private Breakpoint addBreakpoint (Breakpoint breakpoint)
    {
       breakpoints_.add(breakpoint);
+      breakpointsById_.put(breakpoint.getBreakpointId(), breakpoint);
+      addToIndex(breakpointsByPath_, breakpoint.getPath(), breakpoint);
+      addToIndex(breakpointsByFunction_, breakpoint.getFunctionName(), breakpoint);
       onBreakpointAddOrRemove();
       return breakpoint;
    }
    
+   private void removeFromBreakpoints(Breakpoint breakpoint)
+   {
+      if (!breakpoints_.remove(breakpoint))
+         return;
+      breakpointsById_.remove(breakpoint.getBreakpointId());
+      removeFromIndex(breakpointsByPath_, breakpoint.getPath(), breakpoint);
+      removeFromIndex(breakpointsByFunction_, breakpoint.getFunctionName(), breakpoint);
+   }
+   
+   private ArrayList<Breakpoint> getBreakpointsInFunction(FileFunction function)
+   {
+      ArrayList<Breakpoint> breakpoints = new ArrayList<Breakpoint>();
+      ArrayList<Breakpoint> candidates = 
+            breakpointsByFunction_.get(function.functionName);
+      if (candidates != null)
+      {
+         for (Breakpoint breakpoint: candidates)
+         {
+            if (function.containsBreakpoint(breakpoint))
+               breakpoints.add(breakpoint);
+         }
+      }
+      return breakpoints;
+   }
+   
+   private static void addToIndex(HashMap<String, ArrayList<Breakpoint>> index,
+                                  String key,
+                                  Breakpoint breakpoint)
+   {
+      ArrayList<Breakpoint> breakpoints = index.get(key);
+      if (breakpoints == null)
+      {
+         breakpoints = new ArrayList<Breakpoint>();
+         index.put(key, breakpoints);
+      }
+      breakpoints.add(breakpoint);
+   }
+   
+   private static void removeFromIndex(HashMap<String, ArrayList<Breakpoint>> index,
+                                       String key,
+                                       Breakpoint breakpoint)
+   {
+      ArrayList<Breakpoint> breakpoints = index.get(key);
+      if (breakpoints == null)
+         return;
+      breakpoints.remove(breakpoint);
+      if (breakpoints.isEmpty())
+         index.remove(key);
+   }
+   
    private void updatePackageBreakpoints(String packageName, boolean enable)
    {
       Set<FileFunction> functionsToBreak = new TreeSet<FileFunction>();
@@ -737,10 +859,7 @@ public class BreakpointManager
       }
       if (enable)
       {
-         for (FileFunction function: functionsToBreak)
-         {
-            prepareAndSetFunctionBreakpoints(function);
-         }
+         prepareAndSetFunctionBreakpoints(functionsToBreak);
       }
       else
       {
@@ -759,14 +878,19 @@ public class BreakpointManager
       }
       // Remove the breakpoints from each unique function that had breakpoints
       // set previously
-      for (FileFunction function: functions)
+      if (!functions.isEmpty())
       {
-         server_.setFunctionBreakpoints(
-               function.functionName, 
-               function.fileName, 
-               function.packageName,
-               new ArrayList<String>(),
-               new ServerRequestCallback<Void>()
+         JsArray<FunctionBreakpoints> requests = JavaScriptObject.createArray().cast();
+         for (FileFunction function: functions)
+         {
+            requests.push(FunctionBreakpoints.create(
+                  function.functionName, 
+                  function.fileName, 
+                  function.packageName));
+         }
+         server_.setFunctionsBreakpoints(
+               requests,
+               new ServerRequestCallback<JsArrayBoolean>()
                {
                   @Override
                   public void onError(ServerError error)
@@ -782,6 +906,9 @@ public class BreakpointManager
       server_.removeAllBreakpoints(new VoidServerRequestCallback());
       notifyBreakpointsSaved(new ArrayList<Breakpoint>(breakpoints_), false);
       breakpoints_.clear();
+      breakpointsById_.clear();
+      breakpointsByPath_.clear();
+      breakpointsByFunction_.clear();
       onBreakpointAddOrRemove();
    }
    
@@ -801,14 +928,13 @@ public class BreakpointManager
    
    private void activateTopLevelBreakpoints(String path)
    {
-      for (Breakpoint breakpoint: breakpoints_)
+      ArrayList<Breakpoint> activatedBreakpoints = 
+            new ArrayList<Breakpoint>();
+      for (Breakpoint breakpoint: getBreakpointsInFile(path))
       {
-         ArrayList<Breakpoint> activatedBreakpoints = 
-               new ArrayList<Breakpoint>();
          if (breakpoint.isPendingDebugCompletion() &&
              breakpoint.getState() == Breakpoint.STATE_INACTIVE &&
-             breakpoint.getType() == Breakpoint.TYPE_TOPLEVEL &&
-             breakpoint.getPath() == path)
+             breakpoint.getType() == Breakpoint.TYPE_TOPLEVEL)
          {
             // If this is a top-level breakpoint in the file that we 
             // just finished sourcing, activate the breakpoint.
@@ -816,9 +942,9 @@ public class BreakpointManager
             breakpoint.setState(Breakpoint.STATE_ACTIVE);
             activatedBreakpoints.add(breakpoint);
          }
-         if (activatedBreakpoints.size() > 0)
-            notifyBreakpointsSaved(activatedBreakpoints, true);
       }
+      if (activatedBreakpoints.size() > 0)
+         notifyBreakpointsSaved(activatedBreakpoints, true);
    }
    
    // Private classes ---------------------------------------------------------
@@ -894,6 +1020,14 @@ public class BreakpointManager
    private final Commands commands_;
 
    private ArrayList<Breakpoint> breakpoints_ = new ArrayList<Breakpoint>();
+   
+   // indexes of breakpoints_
+   private final HashMap<Integer, Breakpoint> breakpointsById_ = 
+         new HashMap<Integer, Breakpoint>();
+   private final HashMap<String, ArrayList<Breakpoint>> breakpointsByPath_ = 
+         new HashMap<String, ArrayList<Breakpoint>>();
+   private final HashMap<String, ArrayList<Breakpoint>> breakpointsByFunction_ = 
+         new HashMap<String, ArrayList<Breakpoint>>();
    private Set<FileFunction> activeFunctions_ = new TreeSet<FileFunction>();
    private String activeSource_;
 
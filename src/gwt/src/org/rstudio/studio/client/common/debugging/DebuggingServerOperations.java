@@ -18,8 +18,10 @@ package org.rstudio.studio.client.common.debugging;
 import java.util.ArrayList;
 
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayBoolean;
 
 import org.rstudio.studio.client.common.debugging.model.Breakpoint;
+import org.rstudio.studio.client.common.debugging.model.FunctionBreakpoints;
 import org.rstudio.studio.client.common.debugging.model.FunctionState;
 import org.rstudio.studio.client.common.debugging.model.FunctionSteps;
 import org.rstudio.studio.client.server.ServerRequestCallback;
@@ -27,19 +29,16 @@ import org.rstudio.studio.client.server.Void;
 
 public interface DebuggingServerOperations
 {
-   public void getFunctionSteps(
-         String functionName,
-         String fileName,
-         String packageName,
-         int[] lineNumbers,
-         ServerRequestCallback<JsArray<FunctionSteps>> requestCallback);
+   // gets the steps for the requested lines in each function
+   public void getFunctionsSteps(
+         JsArray<FunctionBreakpoints> functions,
+         ServerRequestCallback<JsArray<JsArray<FunctionSteps>>> requestCallback);
    
-   public void setFunctionBreakpoints(
-         String functionName,
-         String fileName,
-         String packageName,
-         ArrayList<String> steps,
-         ServerRequestCallback<Void> requestCallback);
+   // sets the breakpoints (steps) in each function; the result indicates,
+   // for each function, whether the function was found
+   public void setFunctionsBreakpoints(
+         JsArray<FunctionBreakpoints> functions,
+         ServerRequestCallback<JsArrayBoolean> requestCallback);
    
    public void getFunctionState(
          String functionName,
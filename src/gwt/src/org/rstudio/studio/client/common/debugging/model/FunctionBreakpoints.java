@@ -0,0 +1,49 @@
+/*
+ * FunctionBreakpoints.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.debugging.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+// Describes the breakpoints in one function, for requests that get the steps
+// for (or set the breakpoints in) several functions at once.
+public class FunctionBreakpoints extends JavaScriptObject
+{
+   protected FunctionBreakpoints() {}
+
+   public final static native FunctionBreakpoints create(
+         String functionName,
+         String fileName,
+         String packageName) /*-{
+      return {
+         function_name: functionName,
+         file_name: fileName,
+         package_name: packageName,
+         line_numbers: [],
+         steps: []
+      };
+   }-*/;
+
+   public final native String getFunctionName() /*-{
+      return this.function_name;
+   }-*/;
+
+   public final native void addLineNumber(int lineNumber) /*-{
+      this.line_numbers.push(lineNumber);
+   }-*/;
+
+   public final native void addSteps(String steps) /*-{
+      this.steps.push(steps);
+   }-*/;
+}
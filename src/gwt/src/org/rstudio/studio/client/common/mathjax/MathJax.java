@@ -22,6 +22,7 @@ import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.MapUtil;
 import org.rstudio.core.client.MapUtil.ForEachCommand;
 import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.container.LruCache;
 import org.rstudio.core.client.container.SafeMap;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.layout.FadeOutAnimation;
@@ -42,9 +43,11 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Token;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.TokenIterator;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CursorChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CursorChangedHandler;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangeSummaryEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkOutputHost;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.TextEditingTargetNotebook;
+import org.rstudio.studio.client.workbench.views.source.events.ScrollYEvent;
 import org.rstudio.studio.client.workbench.views.source.model.DocUpdateSentinel;
 
 import com.google.gwt.core.client.GWT;
@@ -77,7 +80,7 @@ public class MathJax
       sentinel_ = sentinel;
       prefs_ = prefs;
       popup_ = new MathJaxPopupPanel(this);
-      renderQueue_ = new MathJaxRenderQueue(this);
+      renderQueue_ = new MathJaxRenderQueue(this, docDisplay);
       handlers_ = new ArrayList<HandlerRegistration>();
       cowToPlwMap_ = new SafeMap<ChunkOutputWidget, PinnedLineWidget>();
       lwToPlwMap_ = new SafeMap<LineWidget, ChunkOutputWidget>();
@@ -110,12 +113,22 @@ public class MathJax
          {
             if (!event.isAttached())
             {
+               renderQueue_.clear();
                detachHandlers();
                return;
             }
          }
       }));
       
+      handlers_.add(docDisplay_.addScrollYHandler(new ScrollYEvent.Handler()
+      {
+         @Override
+         public void onScrollY(ScrollYEvent event)
+         {
+            renderQueue_.onUserActivity();
+         }
+      }));
+      
       handlers_.add(docDisplay_.addDocumentChangedHandler(new DocumentChangedEvent.Handler()
       {
          Timer bgRenderTimer_ = new Timer()
@@ -150,48 +163,54 @@ public class MathJax
          public void onDocumentChanged(DocumentChangedEvent event)
          {
             bgRenderTimer_.schedule(200);
-            Scheduler.get().scheduleDeferred(new ScheduledCommand()
+            renderQueue_.onUserActivity();
+         }
+      }));
+      
+      handlers_.add(docDisplay_.addDocumentChangeSummaryHandler(new DocumentChangeSummaryEvent.Handler()
+      {
+         @Override
+         public void onDocumentChangeSummary(DocumentChangeSummaryEvent event)
+         {
+            // widgets above the changed rows (and the row preceding them,
+            // whose tokens we inspect) are unaffected by the changes
+            final int firstRow = event.getSummary().getFirstChangedRow() - 1;
+            
+            MapUtil.forEach(cowToPlwMap_, new ForEachCommand<ChunkOutputWidget, PinnedLineWidget>()
             {
                @Override
-               public void execute()
+               public void execute(ChunkOutputWidget cow, PinnedLineWidget plw)
                {
-                  MapUtil.forEach(cowToPlwMap_, new ForEachCommand<ChunkOutputWidget, PinnedLineWidget>()
+                  int row = plw.getRow();
+                  if (row < firstRow)
+                     return;
+                  
+                  // for single-line chunks, e.g. with '$$ ... $$', detect
+                  // if the boundaries have been mutated
+                  String line = docDisplay_.getLine(row);
+                  
+                  boolean isMathJax =
+                        RE_DOUBLE_DOLLAR_START.test(line) &&
+                        RE_DOUBLE_DOLLAR_END.test(line);
+                  
+                  if (!isMathJax)
                   {
-                     @Override
-                     public void execute(ChunkOutputWidget cow, PinnedLineWidget plw)
+                     removeChunkOutputWidget(cow);
+                     return;
+                  }
+                  
+                  // for mathjax 'chunks', detect whether the start of the
+                  // chunk has been mutated / destroyed
+                  if (RE_DOUBLE_DOLLAR.test(line))
+                  {
+                     TokenIterator it = docDisplay_.createTokenIterator();
+                     Token token = it.moveToPosition(row - 1, 0);
+                     if (token != null && !token.hasType("latex"))
                      {
-                        // for single-line chunks, e.g. with '$$ ... $$', detect
-                        // if the boundaries have been mutated
-                        int row = plw.getRow();
-                        String line = docDisplay_.getLine(row);
-                        Pattern reDoubleDollarStart = Pattern.create("^\\s*\\$\\$");
-                        Pattern reDoubleDollarEnd   = Pattern.create("\\$\\$\\s*$");
-                        
-                        boolean isMathJax =
-                              reDoubleDollarStart.test(line) &&
-                              reDoubleDollarEnd.test(line);
-                        
-                        if (!isMathJax)
-                        {
-                           removeChunkOutputWidget(cow);
-                           return;
-                        }
-                        
-                        // for mathjax 'chunks', detect whether the start of the
-                        // chunk has been mutated / destroyed
-                        Pattern reDoubleDollar = Pattern.create("^\\s*\\$\\$\\s*$");
-                        if (reDoubleDollar.test(line))
-                        {
-                           TokenIterator it = docDisplay_.createTokenIterator();
-                           Token token = it.moveToPosition(row - 1, 0);
-                           if (token != null && !token.hasType("latex"))
-                           {
-                              removeChunkOutputWidget(cow);
-                              return;
-                           }
-                        }
+                        removeChunkOutputWidget(cow);
+                        return;
                      }
-                  });
+                  }
                }
             });
          }
@@ -257,13 +276,19 @@ public class MathJax
          {
             // don't render if chunk contents empty
             if (isEmptyLatexChunk(text))
+            {
+               notifyTypesetComplete(callback, false);
                return;
+            }
             
             // don't render if this is a background render request and
             // the line widget is collapsed
             final int row = range.getEnd().getRow();
             if (background && isLineWidgetCollapsed(row))
+            {
+               notifyTypesetComplete(callback, false);
                return;
+            }
             
             renderLatexLineWidget(range, text, callback);
             return;
@@ -302,8 +327,13 @@ public class MathJax
          // it's possible that we will already have a pinned line widget
          // (ie a previous render is pending here)
          for (Map.Entry<ChunkOutputWidget, PinnedLineWidget> entry : cowToPlwMap_.entrySet())
+         {
             if (entry.getValue().getRow() == row)
+            {
+               notifyTypesetComplete(callback, false);
                return;
+            }
+         }
          
          // if we don't have a widget, create one and render the LaTeX once
          // the widget is attached to the editor
@@ -526,18 +556,25 @@ public class MathJax
    {
       // no need to re-render if text hasn't changed or is empty
       if (text == lastRenderedText_)
+      {
+         notifyTypesetComplete(callback, false);
          return;
+      }
       
       // if empty, hide popup
       if (text.isEmpty())
       {
          endRender();
+         notifyTypesetComplete(callback, false);
          return;
       }
       
       // don't show the popup in visual mode
       if (sentinel_.getBoolProperty(TextEditingTarget.RMD_VISUAL_MODE, false))
+      {
+         notifyTypesetComplete(callback, false);
          return;
+      }
       
       // no need to re-position popup if already showing;
       // just typeset
@@ -575,6 +612,13 @@ public class MathJax
       popup_.hide();
    }
    
+   private void notifyTypesetComplete(MathJaxTypesetCallback callback,
+                                      boolean error)
+   {
+      if (callback != null)
+         callback.onMathJaxTypesetComplete(error);
+   }
+   
    private void onMathJaxTypesetCompleted(final Object mathjaxElObject,
                                           final String text,
                                           final boolean error,
@@ -610,6 +654,12 @@ public class MathJax
       // show whatever we've got (could be an error if we ran out of retries)
       mathjaxEl.getStyle().setVisibility(Visibility.VISIBLE);
       
+      // cache successfully typeset output so that re-rendering the same
+      // LaTeX (e.g. after a line widget is recreated) skips MathJax entirely
+      if (!error && !mathjaxEl.hasAttribute(CACHED_ATTRIBUTE) &&
+          !hasMathJaxError(mathjaxEl))
+         typesetCache_.put(typesetCacheKey(text), getTypesetHtml(mathjaxEl));
+      
       // execute callback
       if (commandObject != null && commandObject instanceof MathJaxTypesetCallback)
       {
@@ -631,9 +681,58 @@ public class MathJax
    private final void mathjaxTypeset(Element el, String currentText, 
          Object command)
    {
+      String html = typesetCache_.get(typesetCacheKey(currentText));
+      if (html != null)
+      {
+         el.setInnerHTML(html);
+         el.setAttribute(CACHED_ATTRIBUTE, "true");
+         onMathJaxTypesetCompleted(el, currentText, false, command,
+               MAX_RENDER_ATTEMPTS);
+         return;
+      }
+      
       mathjaxTypeset(el, currentText, command, 0);
    }
    
+   private String typesetCacheKey(String text)
+   {
+      // typeset output picks up colors from the editor theme
+      return prefs_.editorTheme().getValue() + "\n" + text;
+   }
+   
+   private boolean hasMathJaxError(Element el)
+   {
+      Element[] errorEls = DomUtils.getElementsByClassName(el, "MathJax_Error");
+      return errorEls != null && errorEls.length > 0;
+   }
+   
+   // returns the rendered output in a form that can be re-inserted
+   // elsewhere; MathJax's source scripts, element ids and event handlers all
+   // refer back to the original jax, so they're stripped from the copy
+   private static final native String getTypesetHtml(Element el)
+   /*-{
+      var clone = el.cloneNode(true);
+      
+      var scripts = clone.getElementsByTagName("script");
+      for (var i = scripts.length - 1; i >= 0; i--)
+         scripts[i].parentNode.removeChild(scripts[i]);
+      
+      var children = clone.getElementsByTagName("*");
+      for (var i = 0; i < children.length; i++)
+      {
+         var child = children[i];
+         child.removeAttribute("id");
+         for (var j = child.attributes.length - 1; j >= 0; j--)
+         {
+            var name = child.attributes[j].name;
+            if (name.indexOf("on") === 0)
+               child.removeAttribute(name);
+         }
+      }
+      
+      return clone.innerHTML;
+   }-*/;
+   
    private final native void mathjaxTypeset(Element el,
                                             String currentText,
                                             Object command,
@@ -641,9 +740,11 @@ public class MathJax
    /*-{
       var MathJax = $wnd.MathJax;
       
-      // save last rendered text
+      // save last rendered text (or output, if it came from the cache)
       var jax = MathJax.Hub.getAllJax(el)[0];
       var lastRenderedText = jax && jax.originalText || "";
+      var lastCachedHtml = el.hasAttribute(@org.rstudio.studio.client.common.mathjax.MathJax::CACHED_ATTRIBUTE) ? el.innerHTML : "";
+      el.removeAttribute(@org.rstudio.studio.client.common.mathjax.MathJax::CACHED_ATTRIBUTE);
       
       // update text in element
       el.innerText = currentText;
@@ -657,6 +758,8 @@ public class MathJax
             var error = !!(jax && jax.texError);
             if (error && lastRenderedText.length)
                jax.Text(lastRenderedText);
+            else if (error && lastCachedHtml.length)
+               el.innerHTML = lastCachedHtml;
 
             // callback to GWT
             self.@org.rstudio.studio.client.common.mathjax.MathJax::onMathJaxTypesetCompleted(Ljava/lang/Object;Ljava/lang/String;ZLjava/lang/Object;I)(el, currentText, error, command, attempt);
@@ -736,6 +839,29 @@ public class MathJax
    // text automatically before giving up
    private static final int MAX_RENDER_ATTEMPTS = 2;
    
+   // maximum number of characters of typeset markup to cache
+   private static final int TYPESET_CACHE_SIZE = 4 * 1024 * 1024;
+   
+   private static final String CACHED_ATTRIBUTE = "data-mathjax-cached";
+   
+   private static final Pattern RE_DOUBLE_DOLLAR_START = Pattern.create("^\\s*\\$\\$");
+   private static final Pattern RE_DOUBLE_DOLLAR_END   = Pattern.create("\\$\\$\\s*$");
+   private static final Pattern RE_DOUBLE_DOLLAR       = Pattern.create("^\\s*\\$\\$\\s*$");
+   
+   // typeset output, keyed by theme and LaTeX source; shared across editors
+   // and bounded by the (approximate) size of the cached markup
+   private static final LruCache<String, String> typesetCache_ =
+         new LruCache<String, String>(
+               TYPESET_CACHE_SIZE,
+               new LruCache.Weigher<String>()
+               {
+                  @Override
+                  public int weigh(String value)
+                  {
+                     return value.length();
+                  }
+               });
+   
    public static final String LINE_WIDGET_TYPE = "mathjax-preview";
    public static final String MATHJAX_ROOT_CLASSNAME = "rstudio-mathjax-root";
 }
@@ -14,29 +14,50 @@
  */
 package org.rstudio.studio.client.common.mathjax;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 import org.rstudio.studio.client.common.mathjax.MathJax.MathJaxTypesetCallback;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay.AnchoredSelection;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.user.client.Timer;
+
+// Renders a batch of LaTeX ranges. Ranges that are visible in the editor are
+// rendered first, one after another; off-screen ranges are only rendered once
+// the user has stopped scrolling / editing, a few at a time per animation
+// frame so that the editor stays responsive. Queued ranges are anchored to
+// the document so that they track edits made while they wait.
 public class MathJaxRenderQueue
 {
-   public MathJaxRenderQueue(MathJax mathjax)
+   public MathJaxRenderQueue(MathJax mathjax, DocDisplay docDisplay)
    {
       mathjax_ = mathjax;
+      docDisplay_ = docDisplay;
       
-      ranges_ = new LinkedList<Range>();
+      ranges_ = new LinkedList<AnchoredSelection>();
       callback_ = new MathJaxTypesetCallback()
       {
          @Override
          public void onMathJaxTypesetComplete(boolean error)
          {
+            pendingRenders_ = Math.max(0, pendingRenders_ - 1);
             renderNext();
          }
       };
       
+      idleTimer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            idle_ = true;
+            requestRenderFrame();
+         }
+      };
    }
    
    public void enqueueAndRender(final List<Range> ranges)
@@ -46,35 +67,169 @@ public class MathJaxRenderQueue
          @Override
          public void onLoaded(boolean alreadyLoaded)
          {
-            ranges_.addAll(ranges);
-            if (isRunning_)
-               return;
-
+            for (Range range : ranges)
+            {
+               ranges_.add(docDisplay_.createAnchoredSelection(
+                     range.getStart(), range.getEnd()));
+            }
             renderNext();
          }
       });
    }
    
+   // called when the user scrolls or edits the document; ranges which have
+   // just become visible are rendered right away, while rendering of
+   // off-screen ranges waits until the user is idle again
+   public void onUserActivity()
+   {
+      if (ranges_.isEmpty())
+         return;
+      
+      idle_ = false;
+      cancelRenderFrame();
+      if (idleTimer_.isRunning())
+         idleTimer_.schedule(IDLE_DELAY_MS);
+      
+      renderNext();
+   }
+   
+   public void clear()
+   {
+      for (AnchoredSelection range : ranges_)
+         range.detach();
+      ranges_.clear();
+      idle_ = false;
+      idleTimer_.cancel();
+      cancelRenderFrame();
+   }
+   
    // Private Methods ----
    
-   private boolean renderNext()
+   private void renderNext()
    {
-      Range range = ranges_.poll();
-      if (range == null)
+      // wait for outstanding renders to complete
+      if (pendingRenders_ > 0)
+         return;
+      
+      AnchoredSelection visible;
+      while ((visible = pollVisibleRange()) != null)
       {
-         isRunning_ = false;
-         return false;
+         if (render(visible))
+            return;
+      }
+      
+      if (ranges_.isEmpty())
+      {
+         idle_ = false;
+         return;
       }
       
-      isRunning_ = true;
+      if (renderFrameHandle_ != null || idleTimer_.isRunning())
+         return;
+      
+      // keep draining the queue while the user remains idle; only wait
+      // for the idle delay again once they have scrolled or edited
+      if (idle_)
+         requestRenderFrame();
+      else
+         idleTimer_.schedule(IDLE_DELAY_MS);
+   }
+   
+   // returns false (without rendering) when edits have since destroyed the
+   // LaTeX chunk the range was queued for
+   private boolean render(AnchoredSelection anchor)
+   {
+      Range range = anchor.getRange();
+      String text = anchor.getValue();
+      anchor.detach();
+      
+      if (text.length() < 4 || !text.startsWith("$$") || !text.endsWith("$$"))
+         return false;
+      
+      pendingRenders_++;
       mathjax_.renderLatex(range, false, callback_);
       return true;
    }
    
+   private AnchoredSelection pollVisibleRange()
+   {
+      int firstRow = docDisplay_.getFirstVisibleRow();
+      int lastRow = docDisplay_.getLastVisibleRow();
+      
+      Iterator<AnchoredSelection> it = ranges_.iterator();
+      while (it.hasNext())
+      {
+         AnchoredSelection anchor = it.next();
+         Range range = anchor.getRange();
+         if (range.getEnd().getRow() >= firstRow &&
+             range.getStart().getRow() <= lastRow)
+         {
+            it.remove();
+            return anchor;
+         }
+      }
+      
+      return null;
+   }
+   
+   private void requestRenderFrame()
+   {
+      if (renderFrameHandle_ != null)
+         return;
+      
+      renderFrameHandle_ = AnimationScheduler.get().requestAnimationFrame(
+            new AnimationScheduler.AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            renderFrameHandle_ = null;
+            if (pendingRenders_ > 0)
+               return;
+            
+            // start a handful of renders, stopping early if this frame's
+            // budget is exhausted (e.g. by cached renders, which complete
+            // synchronously)
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < MAX_RENDERS_PER_FRAME; i++)
+            {
+               AnchoredSelection range = ranges_.poll();
+               if (range == null)
+                  break;
+               
+               if (!render(range))
+                  continue;
+               if (System.currentTimeMillis() - start > FRAME_BUDGET_MS)
+                  break;
+            }
+            
+            if (pendingRenders_ == 0)
+               renderNext();
+         }
+      });
+   }
+   
+   private void cancelRenderFrame()
+   {
+      if (renderFrameHandle_ != null)
+      {
+         renderFrameHandle_.cancel();
+         renderFrameHandle_ = null;
+      }
+   }
+   
    private final MathJax mathjax_;
+   private final DocDisplay docDisplay_;
    
-   private final Queue<Range> ranges_;
+   private final LinkedList<AnchoredSelection> ranges_;
    private final MathJaxTypesetCallback callback_;
-   private boolean isRunning_;
-
+   private final Timer idleTimer_;
+   
+   private AnimationScheduler.AnimationHandle renderFrameHandle_;
+   private int pendingRenders_;
+   private boolean idle_;
+   
+   private static final int IDLE_DELAY_MS = 300;
+   private static final int MAX_RENDERS_PER_FRAME = 4;
+   private static final int FRAME_BUDGET_MS = 12;
 }
@@ -29,6 +29,7 @@ import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.event.dom.client.FocusEvent;
 import com.google.gwt.event.dom.client.FocusHandler;
 import com.google.gwt.event.logical.shared.CloseEvent;
@@ -117,6 +118,24 @@ public class Satellite implements HasCloseHandlers<Satellite>
       return pendingClose_;
    }
 
+   // register the streaming event types (see SatelliteManager) this
+   // satellite consumes; if never called, the satellite receives all events
+   public void registerEventInterests(String[] types)
+   {
+      if (types == null)
+         return;
+
+      JsArrayString interests = JsArrayString.createArray().cast();
+      for (String type : types)
+         interests.push(type);
+      registerEventInterestsNative(getSatelliteName(), interests);
+   }
+
+   private native final void registerEventInterestsNative(String name,
+                                                          JsArrayString types) /*-{
+      $wnd.opener.registerRStudioSatelliteEventInterests(name, types);
+   }-*/;
+
    public native final void flushPendingEvents(String name) /*-{
       $wnd.opener.flushPendingEvents(name);
    }-*/;
@@ -162,9 +181,10 @@ public class Satellite implements HasCloseHandlers<Satellite>
       });
         
       // export event notification callback
-      $wnd.dispatchEventToRStudioSatellite = $entry(
-         function(clientEvent) {
-            satellite.@org.rstudio.studio.client.common.satellite.Satellite::dispatchEvent(Lcom/google/gwt/core/client/JavaScriptObject;)(clientEvent);
+      $wnd.dispatchEventsToRStudioSatellite = $entry(
+         function(clientEvents) {
+            for (var i = 0; i < clientEvents.length; i++)
+               satellite.@org.rstudio.studio.client.common.satellite.Satellite::dispatchEvent(Lcom/google/gwt/core/client/JavaScriptObject;)(clientEvents[i]);
          }
       ); 
       
@@ -117,6 +117,17 @@ public class SatelliteApplication
    {
       return false;
    }
+
+   /**
+    * Have subclasses override and return the streaming event types (e.g.
+    * console output) the satellite application consumes; streamed events of
+    * other types won't be forwarded to it. Returns null to receive all events.
+    * @return
+    */
+   protected String[] getEventInterests()
+   {
+      return null;
+   }
    
    public void go(RootLayoutPanel rootPanel, 
                   final Command dismissLoadingProgress)
@@ -131,6 +142,10 @@ public class SatelliteApplication
                                }
                             });
 
+      // let the main window know which events we consume (before any
+      // pending events are flushed)
+      satellite_.registerEventInterests(getEventInterests());
+
       if (!manuallyFlushPendingEvents())
       {
          flushPendingEvents();
@@ -15,8 +15,11 @@
 package org.rstudio.studio.client.common.satellite;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import com.google.inject.Provider;
 
@@ -46,6 +49,9 @@ import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.views.source.SourceWindowManager;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.event.logical.shared.CloseEvent;
 import com.google.gwt.event.logical.shared.CloseHandler;
@@ -186,6 +192,9 @@ public class SatelliteManager implements CloseHandler<Window>
       // anything while the satellite is being loaded/reactivated
       if (!pendingEventsBySatelliteName_.containsKey(name))
       {
+         // deliver anything already batched for the old window first, so
+         // that it isn't delivered after the buffered events
+         flushOutgoingEvents();
          pendingEventsBySatelliteName_.put(name,
                                            new ArrayList<JavaScriptObject>());
       }
@@ -307,6 +316,8 @@ public class SatelliteManager implements CloseHandler<Window>
       } 
       satellites_.clear();
       pendingEventsBySatelliteName_.clear();
+      outgoingEventsBySatelliteName_.clear();
+      interestsBySatelliteName_.clear();
    }
    
    public String getWindowAtPoint(int x, int y)
@@ -343,26 +354,75 @@ public class SatelliteManager implements CloseHandler<Window>
       }   
    }
    
-   // dispatch an event to all satellites
+   // dispatch an event to all satellites; events are routed only to the
+   // satellites that consume them, and delivered in a single batch per
+   // satellite once the current set of events has been processed
    public void dispatchClientEvent(JavaScriptObject clientEvent)
    {
+      String type = getClientEventType(clientEvent);
+
+      // if we're buffering events for a satellite (because it's loading),
+      // add to its buffer
+      for (Entry<String, ArrayList<JavaScriptObject>> entry :
+                                       pendingEventsBySatelliteName_.entrySet())
+      {
+         if (isInterested(entry.getKey(), type))
+            bufferPendingEvent(entry.getValue(), clientEvent, type);
+      }
+
+      // a satellite can briefly appear more than once (e.g. when reloaded),
+      // so route by name
+      Set<String> routed = new HashSet<String>();
+      for (ActiveSatellite satellite : satellites_)
+      {
+         String name = satellite.getName();
+         if (!routed.add(name) ||
+             pendingEventsBySatelliteName_.containsKey(name) ||
+             !isInterested(name, type))
+         {
+            continue;
+         }
+
+         JsArray<JavaScriptObject> events = outgoingEventsBySatelliteName_.get(name);
+         if (events == null)
+         {
+            events = JavaScriptObject.createArray().cast();
+            outgoingEventsBySatelliteName_.put(name, events);
+         }
+         events.push(clientEvent);
+      }
+
+      if (!outgoingEventsBySatelliteName_.isEmpty() && !outgoingFlushScheduled_)
+      {
+         outgoingFlushScheduled_ = true;
+         Scheduler.get().scheduleDeferred(() -> flushOutgoingEvents());
+      }
+   }
+
+   // deliver the batched events to each satellite
+   private void flushOutgoingEvents()
+   {
+      outgoingFlushScheduled_ = false;
+      if (outgoingEventsBySatelliteName_.isEmpty())
+         return;
+
+      HashMap<String, JsArray<JavaScriptObject>> outgoing =
+            new HashMap<String, JsArray<JavaScriptObject>>(outgoingEventsBySatelliteName_);
+      outgoingEventsBySatelliteName_.clear();
+
       // list of windows to remove (because they were closed)
       ArrayList<ActiveSatellite> removeWindows = null;
-        
+
       // iterate over the satellites (make a copy to avoid races if
       // for some reason firing an event creates or destroys a satellite)
-      @SuppressWarnings("unchecked")
-      ArrayList<ActiveSatellite> satellites = 
-                           (ArrayList<ActiveSatellite>)satellites_.clone();
-      for (ActiveSatellite satellite : satellites)
+      for (ActiveSatellite satellite : new ArrayList<ActiveSatellite>(satellites_))
       {
+         JsArray<JavaScriptObject> events = outgoing.get(satellite.getName());
+         if (events == null)
+            continue;
+
          try
          {
-            // If we're buffering events for this satellite, then don't dispatch
-            // them
-            if (pendingEventsBySatelliteName_.containsKey(satellite.getName()))
-               continue;
-
             WindowEx satelliteWnd = satellite.getWindow();
             if (satelliteWnd.isClosed())
             {
@@ -372,7 +432,7 @@ public class SatelliteManager implements CloseHandler<Window>
             }
             else
             {
-               callDispatchEvent(satelliteWnd, clientEvent);
+               callDispatchEvents(satelliteWnd, events);
             }
          }
          catch(Throwable e)
@@ -380,22 +440,63 @@ public class SatelliteManager implements CloseHandler<Window>
          }
       }
 
-      for (Entry<String, ArrayList<JavaScriptObject>> entry :
-                                       pendingEventsBySatelliteName_.entrySet())
-      {
-         entry.getValue().add(clientEvent);
-      }
-      
       // remove windows if necessary
       if (removeWindows != null)
       {
          for (ActiveSatellite satellite : removeWindows)
          {
             satellites_.remove(satellite);
+            forgetSatellite(satellite.getName());
          }
       }
    }
-   
+
+   // add an event to a loading satellite's buffer; state events replace any
+   // earlier event of the same type, and once the buffer is full the oldest
+   // streamed output is discarded to make room (other events are never
+   // dropped, so the buffer may grow past its limit if there is no output)
+   private void bufferPendingEvent(ArrayList<JavaScriptObject> events,
+                                   JavaScriptObject clientEvent,
+                                   String type)
+   {
+      if (SUPERSEDING_EVENT_TYPES.contains(type))
+      {
+         for (int i = 0; i < events.size(); i++)
+         {
+            if (StringUtil.equals(getClientEventType(events.get(i)), type))
+            {
+               events.remove(i);
+               break;
+            }
+         }
+      }
+
+      events.add(clientEvent);
+
+      if (events.size() > MAX_PENDING_EVENTS)
+      {
+         for (int i = 0; i < events.size(); i++)
+         {
+            if (STREAMING_EVENT_TYPES.contains(getClientEventType(events.get(i))))
+            {
+               events.remove(i);
+               break;
+            }
+         }
+      }
+   }
+
+   // satellites that haven't registered their interests receive everything;
+   // otherwise streamed output is only sent to satellites that consume it
+   private boolean isInterested(String name, String type)
+   {
+      if (!STREAMING_EVENT_TYPES.contains(type))
+         return true;
+
+      Set<String> interests = interestsBySatelliteName_.get(name);
+      return interests == null || interests.contains(type);
+   }
+
    // dispatch a command to the named satellite window, or to the main window
    // if no target is specified
    public void dispatchCommand(AppCommand command, String target)
@@ -499,10 +600,29 @@ public class SatelliteManager implements CloseHandler<Window>
             satellites_.remove(satellite);
          }
       }
+      forgetSatellite(name);
+   }
+
+   // called by satellites to register the streaming event types they consume
+   private void registerEventInterests(String name, JsArrayString types)
+   {
+      if (types == null)
+      {
+         interestsBySatelliteName_.remove(name);
+         return;
+      }
+
+      Set<String> interests = new HashSet<String>();
+      for (int i = 0; i < types.length(); i++)
+         interests.add(types.get(i));
+      interestsBySatelliteName_.put(name, interests);
    }
 
    private void flushPendingEvents(String name)
    {
+      // deliver events batched before the satellite began loading first
+      flushOutgoingEvents();
+
       ArrayList<JavaScriptObject> events =
                                     pendingEventsBySatelliteName_.remove(name);
 
@@ -515,16 +635,21 @@ public class SatelliteManager implements CloseHandler<Window>
          if (satellite.getName() == name
              && !satellite.getWindow().isClosed())
          {
+            // the satellite may have registered its interests while loading
+            JsArray<JavaScriptObject> batch = JavaScriptObject.createArray().cast();
             for (JavaScriptObject evt : events)
             {
-               try
-               {
-                  callDispatchEvent(satellite.getWindow(), evt);
-               }
-               catch (Exception e)
-               {
-                  pUncaughtExceptionHandler_.get().onUncaughtException(e);
-               }
+               if (isInterested(name, getClientEventType(evt)))
+                  batch.push(evt);
+            }
+
+            try
+            {
+               callDispatchEvents(satellite.getWindow(), batch);
+            }
+            catch (Exception e)
+            {
+               pUncaughtExceptionHandler_.get().onUncaughtException(e);
             }
          }
       }
@@ -541,6 +666,11 @@ public class SatelliteManager implements CloseHandler<Window>
             manager.@org.rstudio.studio.client.common.satellite.SatelliteManager::registerAsSatellite(Ljava/lang/String;Lcom/google/gwt/core/client/JavaScriptObject;)(name, satelliteWnd);
          }
       );
+      $wnd.registerRStudioSatelliteEventInterests = $entry(
+         function(name, types) {
+            manager.@org.rstudio.studio.client.common.satellite.SatelliteManager::registerEventInterests(Ljava/lang/String;Lcom/google/gwt/core/client/JsArrayString;)(name, types);
+         }
+      );
       $wnd.flushPendingEvents = $entry(
          function(name) {
             manager.@org.rstudio.studio.client.common.satellite.SatelliteManager::flushPendingEvents(Ljava/lang/String;)(name);
@@ -589,9 +719,18 @@ public class SatelliteManager implements CloseHandler<Window>
    
    private void notifyRStudioSatelliteClosed(String name)
    {
+      forgetSatellite(name);
       events_.fireEvent(new SatelliteClosedEvent(name));
    }
    
+   // drop the event routing state for a closed satellite (a satellite that
+   // is reloaded registers its interests again as it loads)
+   private void forgetSatellite(String name)
+   {
+      interestsBySatelliteName_.remove(name);
+      outgoingEventsBySatelliteName_.remove(name);
+   }
+   
    // call setSessionInfo on a satellite
    private native void callSetSessionInfo(JavaScriptObject satellite,
                                           JavaScriptObject sessionInfo) /*-{
@@ -610,12 +749,16 @@ public class SatelliteManager implements CloseHandler<Window>
       satellite.notifyRStudioSatelliteReactivated(params);
    }-*/;
    
-   // dispatch event to a satellite
-   private native void callDispatchEvent(JavaScriptObject satellite,
-                                         JavaScriptObject clientEvent) /*-{
-      satellite.dispatchEventToRStudioSatellite(clientEvent);
+   // dispatch a batch of events to a satellite
+   private native void callDispatchEvents(JavaScriptObject satellite,
+                                          JsArray<JavaScriptObject> clientEvents) /*-{
+      satellite.dispatchEventsToRStudioSatellite(clientEvents);
    }-*/;
-   
+
+   private static native String getClientEventType(JavaScriptObject clientEvent) /*-{
+      return clientEvent.type;
+   }-*/;
+
    // dispatch command to a satellite
    private native void callDispatchCommandSatellite(JavaScriptObject satellite,
                                            String commandId) /*-{
@@ -668,6 +811,46 @@ public class SatelliteManager implements CloseHandler<Window>
    private final HashMap<String, ArrayList<JavaScriptObject>>
          pendingEventsBySatelliteName_ = new HashMap<String, ArrayList<JavaScriptObject>>();
 
+   // events waiting to be delivered to running satellites
+   private final HashMap<String, JsArray<JavaScriptObject>>
+         outgoingEventsBySatelliteName_ = new HashMap<String, JsArray<JavaScriptObject>>();
+   private boolean outgoingFlushScheduled_ = false;
+
+   // streaming event types each satellite consumes (satellites without an
+   // entry receive all events)
+   private final HashMap<String, Set<String>> interestsBySatelliteName_ =
+                                new HashMap<String, Set<String>>();
+
+   // high-volume output events, delivered only to satellites that have
+   // registered interest in them
+   public static final Set<String> STREAMING_EVENT_TYPES = new HashSet<String>(Arrays.asList(
+         "console_output",
+         "console_error",
+         "console_write_prompt",
+         "console_write_input",
+         "console_process_output",
+         "build_output",
+         "compile_pdf_output_event",
+         "html_preview_output_event",
+         "rmd_render_output",
+         "rsconnect_deployment_output",
+         "tests_output",
+         "job_output"));
+
+   // events describing the current state of something, for which only the
+   // most recent needs to be delivered to a satellite that is loading
+   private static final Set<String> SUPERSEDING_EVENT_TYPES = new HashSet<String>(Arrays.asList(
+         "busy",
+         "working_dir_changed",
+         "plots_state_changed",
+         "package_state_changed",
+         "save_action_changed",
+         "quota_status",
+         "session_count_changed",
+         "job_refresh"));
+
+   private static final int MAX_PENDING_EVENTS = 1000;
+
    private class ActiveSatellite
    {
       public ActiveSatellite(String name, WindowEx window)
@@ -0,0 +1,126 @@
+/*
+ * SpellingWordCache.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.spelling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.container.LruCache;
+
+// Memoizes the result of checking a word against the loaded dictionaries.
+// Results are only valid for the current dictionary generation; the
+// generation is advanced (and all results dropped) whenever the set of
+// known words changes.
+public class SpellingWordCache
+{
+   public interface Checker
+   {
+      // returns whether each of the words is spelled correctly
+      boolean[] check(List<String> words);
+   }
+
+   public SpellingWordCache(int capacity)
+   {
+      cache_ = new LruCache<String, Boolean>(capacity);
+   }
+
+   public void invalidate()
+   {
+      generation_++;
+      cache_.clear();
+   }
+
+   public int getGeneration()
+   {
+      return generation_;
+   }
+
+   public int size()
+   {
+      return cache_.size();
+   }
+
+   // returns the cached result for the word, or null if not yet checked
+   public Boolean get(String word)
+   {
+      return cache_.get(word);
+   }
+
+   public void put(String word, boolean correct)
+   {
+      cache_.put(word, correct);
+   }
+
+   public boolean check(String word, Checker checker)
+   {
+      Boolean cached = cache_.get(word);
+      if (cached != null)
+         return cached;
+
+      List<String> words = new ArrayList<String>();
+      words.add(word);
+      boolean correct = checker.check(words)[0];
+      cache_.put(word, correct);
+      return correct;
+   }
+
+   // check a list of words, sending all words without a cached result to
+   // the checker in a single call
+   public boolean[] check(List<String> words, Checker checker)
+   {
+      boolean[] results = new boolean[words.size()];
+
+      List<String> pending = new ArrayList<String>();
+      Map<String, List<Integer>> pendingIndices = new HashMap<String, List<Integer>>();
+      for (int i = 0; i < words.size(); i++)
+      {
+         String word = words.get(i);
+         Boolean cached = cache_.get(word);
+         if (cached != null)
+         {
+            results[i] = cached;
+            continue;
+         }
+
+         List<Integer> indices = pendingIndices.get(word);
+         if (indices == null)
+         {
+            indices = new ArrayList<Integer>();
+            pendingIndices.put(word, indices);
+            pending.add(word);
+         }
+         indices.add(i);
+      }
+
+      if (pending.isEmpty())
+         return results;
+
+      boolean[] checked = checker.check(pending);
+      for (int i = 0; i < pending.size(); i++)
+      {
+         String word = pending.get(i);
+         cache_.put(word, checked[i]);
+         for (int index : pendingIndices.get(word))
+            results[index] = checked[i];
+      }
+
+      return results;
+   }
+
+   private final LruCache<String, Boolean> cache_;
+   private int generation_ = 0;
+}
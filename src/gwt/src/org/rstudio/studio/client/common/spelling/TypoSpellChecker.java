@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.common.spelling;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JsArrayBoolean;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
@@ -75,22 +76,33 @@ public class TypoSpellChecker
             if (cancelled_ || aff.get() == null || dic.get() == null)
                return;
 
-            typoLoader_.addCallback(() -> {
-               TypoNative typo = new TypoNative(language_, aff.get(), dic.get(), null);
-               if (!isCustom_)
+            // parse the dictionary in the worker (when available), so that
+            // large dictionaries don't block the UI while loading
+            withTypoWorker((TypoWorkerNative worker) ->
+            {
+               worker.loadDictionary(language_, aff.get(), dic.get(), (TypoNative typo) ->
                {
-                  typoNative_ = typo;
-                  loadedDict_ = language_;
-                  typoLoaded_ = true;
-               }
-               else
-                  customTypoNative_.put(language_, typo);
+                  aff.clear();
+                  dic.clear();
+                  alive_ = false;
 
-               aff.clear();
-               dic.clear();
-               alive_ = false;
+                  if (cancelled_)
+                     return;
+
+                  if (!isCustom_)
+                  {
+                     typoNative_ = typo;
+                     loadedDict_ = language_;
+                     typoLoaded_ = true;
+                  }
+                  else
+                     customTypoNative_.put(language_, typo);
+
+                  // the set of known words has changed
+                  wordCache_.invalidate();
+               });
             });
-            
+
          };
 
          alive_ = true;
@@ -163,6 +175,19 @@ public class TypoSpellChecker
       private final boolean isCustom_;
    }
    
+   public static class SuggestionRequest
+   {
+      public void cancel()
+      {
+         cancelled_ = true;
+         if (id_ >= 0 && typoWorker_ != null)
+            typoWorker_.cancel(id_);
+      }
+
+      private int id_ = -1;
+      private boolean cancelled_ = false;
+   }
+
    public interface Context
    {
       ArrayList<String> readDictionary();
@@ -218,17 +243,6 @@ public class TypoSpellChecker
       userDictionary_ = workbenchListManager.getUserDictionaryList();
       userPrefs_ = uiPrefs;
 
-      if (!spellingWorkerInitialized_)
-      {
-         spellingWorkerInitialized_ = true;
-         ExternalJavaScriptLoader.Callback loadSpellingWorker = () -> {
-            spellingPrefetcherNative_ = new SpellingPrefetcherNative(RES.typoJsCode().getText());
-         };
-         new ExternalJavaScriptLoader(
-            SpellingPrefetcherResources.INSTANCE.spellingprefetcherjs().getSafeUri().asString()
-         ).addCallback(loadSpellingWorker);
-      }
-
       if (domainSpecificWords_.isEmpty())
       {
          String[] words = RES.domainSpecificWords().getText().split("[\\r\\n]+");
@@ -246,19 +260,84 @@ public class TypoSpellChecker
          loadCustomDictionaries(customDictionaries);
    }
 
-   // Check the spelling of a single word, directly returning an
-   // array of suggestions for corrections. The array is empty if the
-   // word is deemed correct by the dictionary
+   // Check the spelling of a single word, returning true if the word
+   // is deemed correct by the dictionary
    public boolean checkSpelling(String word)
+   {
+      if (allIgnoredWords_.contains(word))
+         return true;
+      
+      // don't cache results until the dictionary is available
+      if (typoNative_ == null)
+         return checkKnownWord(word);
+      
+      return wordCache_.check(word, knownWordsChecker_);
+   }
+   
+   // Check the spelling of a list of words; words that haven't been checked
+   // before are sent to the dictionary in a single batch
+   public boolean[] checkWords(List<String> words)
+   {
+      if (typoNative_ == null)
+      {
+         boolean[] results = new boolean[words.size()];
+         for (int i = 0; i < words.size(); i++)
+            results[i] = allIgnoredWords_.contains(words.get(i)) || checkKnownWord(words.get(i));
+         return results;
+      }
+      
+      boolean[] results = wordCache_.check(words, knownWordsChecker_);
+      for (int i = 0; i < words.size(); i++)
+      {
+         if (!results[i] && allIgnoredWords_.contains(words.get(i)))
+            results[i] = true;
+      }
+      return results;
+   }
+   
+   private boolean checkKnownWord(String word)
    {
       return domainSpecificWords_.contains(word.toLowerCase()) ||
-         allIgnoredWords_.contains(word) ||
-         typoNative_.check(word) ||
+         (typoNative_ != null && typoNative_.check(word)) ||
          checkCustomDicts(word);
    }
+   
+   private static boolean[] checkKnownWords(List<String> words)
+   {
+      boolean[] results = new boolean[words.size()];
+      
+      // words in the domain-specific list don't need a dictionary lookup
+      JsArrayString lookup = JsArrayString.createArray().cast();
+      for (int i = 0; i < words.size(); i++)
+      {
+         results[i] = domainSpecificWords_.contains(words.get(i).toLowerCase());
+         if (!results[i])
+            lookup.push(words.get(i));
+      }
+      
+      JsArrayBoolean checked = checkWordsNative(typoNative_, lookup);
+      for (int i = 0, j = 0; i < words.size(); i++)
+      {
+         if (results[i])
+            continue;
+         
+         results[i] = checked.get(j++) || checkCustomDicts(words.get(i));
+      }
+      
+      return results;
+   }
+   
+   private static final native JsArrayBoolean checkWordsNative(TypoNative typo,
+                                                               JsArrayString words)
+   /*-{
+      var results = new Array(words.length);
+      for (var i = 0; i < words.length; i++)
+         results[i] = typo.check(words[i]);
+      return results;
+   }-*/;
 
    // go through all of the custom dictionaries and check the word
-   private boolean checkCustomDicts(String word)
+   private static boolean checkCustomDicts(String word)
    {
       for (Map.Entry<String, TypoNative> pair : customTypoNative_.entrySet())
       {
@@ -284,23 +363,22 @@ public class TypoSpellChecker
          return;
       }
 
+      List<String> checkedWords = new ArrayList<>();
       for (String word : words)
       {
          if (isWordIgnored(word))
-         {
             spellCheckerResult.getCorrect().add(word);
-         }
          else
-         {
-            if (typoNative_.check(word))
-            {
-               spellCheckerResult.getCorrect().add(word);
-            }
-            else
-            {
-               spellCheckerResult.getIncorrect().add(word);
-            }
-         }
+            checkedWords.add(word);
+      }
+      
+      boolean[] results = checkWords(checkedWords);
+      for (int i = 0; i < checkedWords.size(); i++)
+      {
+         if (results[i])
+            spellCheckerResult.getCorrect().add(checkedWords.get(i));
+         else
+            spellCheckerResult.getIncorrect().add(checkedWords.get(i));
       }
       callback.onResponseReceived(spellCheckerResult);
    }
@@ -308,6 +386,7 @@ public class TypoSpellChecker
    public void addToUserDictionary(final String word)
    {
       userDictionary_.append(word);
+      wordCache_.invalidate();
       context_.invalidateWord(word);
    }
 
@@ -316,18 +395,31 @@ public class TypoSpellChecker
       contextDictionary_.add(word);
       context_.writeDictionary(contextDictionary_);
       updateIgnoredWordsIndex();
+      wordCache_.invalidate();
       context_.invalidateWord(word);
    }
 
-   public String[] suggestionList(String word)
+   // Request suggestions for a misspelled word. Suggestions are generated
+   // in the background (when possible), so the callback may be invoked
+   // asynchronously; cancel the returned request if they're no longer needed.
+   public SuggestionRequest suggestionList(String word,
+                                           final CommandWithArg<String[]> callback)
    {
-      if (typoNative_ == null)
+      final SuggestionRequest request = new SuggestionRequest();
+      if (typoNative_ == null || typoWorker_ == null)
       {
-         return new String[0];
+         callback.execute(new String[0]);
+         return request;
       }
 
-      return typoNative_.suggest(word);
+      request.id_ = typoWorker_.suggest(loadedDict_, word, (String[] suggestions) ->
+      {
+         if (!request.cancelled_)
+            callback.execute(suggestions);
+      });
+      return request;
    }
+
    private boolean isWordIgnored(String word)
    {
       return (allIgnoredWords_.contains(word) ||
@@ -415,12 +507,26 @@ public class TypoSpellChecker
 
    public void prefetchWords(ArrayList<String> words)
    {
-      if (spellingWorkerInitialized_)
+      if (typoWorker_ != null && typoLoaded_)
       {
-         spellingPrefetcherNative_.prefetch(String.join(",", words), typoNative_);
+         typoWorker_.prefetch(loadedDict_, String.join(",", words));
       }
    }
 
+   // run the command once typo.js and its worker host have been loaded
+   private void withTypoWorker(final CommandWithArg<TypoWorkerNative> command)
+   {
+      typoLoader_.addCallback(() ->
+      {
+         typoWorkerLoader_.addCallback(() ->
+         {
+            if (typoWorker_ == null)
+               typoWorker_ = new TypoWorkerNative(RES.typoJsCode().getText());
+            command.execute(typoWorker_);
+         });
+      });
+   }
+
    public boolean shouldCheckSpelling(DocDisplay dd, Range r)
    {
       String word = dd.getTextForRange(r);
@@ -482,20 +588,27 @@ public class TypoSpellChecker
    private final Context context_;
    private static final Resources RES = GWT.create(Resources.class);
 
-   private static SpellingPrefetcherNative spellingPrefetcherNative_;
-   private static boolean spellingWorkerInitialized_ = false;
+   // hosts typo.js in a web worker; shared by all documents
+   private static TypoWorkerNative typoWorker_;
+   private static final ExternalJavaScriptLoader typoWorkerLoader_ =
+         new ExternalJavaScriptLoader(TypoWorkerResources.INSTANCE.typoworkerjs().getSafeUri().asString());
 
    private static String loadedDict_;
    private static boolean typoLoaded_ = false;
    private static TypoNative typoNative_;
    private static HashMap<String, TypoNative> customTypoNative_ = new HashMap<>();
+   private static final HashSet<String> domainSpecificWords_ = new HashSet<>();
+   
+   // results of dictionary lookups, shared by all documents
+   private static final SpellingWordCache wordCache_ = new SpellingWordCache(10000);
+   private static final SpellingWordCache.Checker knownWordsChecker_ =
+         (List<String> words) -> checkKnownWords(words);
    private static TypoDictionaryRequest activeRequest_;
 
    private WorkbenchList userDictionary_;
    private ArrayList<String> userDictionaryWords_;
    private ArrayList<String> contextDictionary_;
    private final HashSet<String> allIgnoredWords_ = new HashSet<>();
-   private final HashSet<String> domainSpecificWords_ = new HashSet<>();
    private final ExternalJavaScriptLoader typoLoader_ =
          new ExternalJavaScriptLoader(TypoResources.INSTANCE.typojs().getSafeUri().asString());
 
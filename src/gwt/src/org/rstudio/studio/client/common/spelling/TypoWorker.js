@@ -0,0 +1,254 @@
+/*
+ * TypoWorker.js
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+/*
+ * Hosts typo.js in a dedicated worker, so that parsing Hunspell dictionaries
+ * and generating suggestions (both of which can take hundreds of ms for
+ * large dictionaries) happen off the UI thread.
+ *
+ * Dictionaries are parsed in the worker and the parsed tables are then
+ * copied back into a Typo instance on the page, which is used for the
+ * (fast) synchronous word checks. Suggestions are generated in the worker
+ * using its own copy of the dictionary. When workers aren't available,
+ * everything runs on the page instead.
+ */
+var TypoWorker;
+
+(function () {
+    "use strict";
+
+    // the parsed state of a Typo object that is transferred to the page
+    var TYPO_FIELDS = ['rules', 'dictionaryTable', 'compoundRules', 'compoundRuleCodes',
+                       'replacementTable', 'flags'];
+
+    // the worker's main function; serialized into the worker's source, so it
+    // cannot reference anything outside of its own body (other than Typo)
+    var workerMain = function(origin, fields) {
+        var dictionaries = {};
+        var queue = [];
+        var scheduled = false;
+
+        var reply = function(request, data) {
+            postMessage({ id: request.id, type: request.type, data: data });
+        };
+
+        var handle = function(request) {
+            var typo;
+            switch (request.type) {
+
+            case 'load':
+                typo = new Typo(request.language, request.aff, request.dic);
+                dictionaries[request.language] = typo;
+                var parsed = {};
+                fields.forEach(function(field) { parsed[field] = typo[field]; });
+                reply(request, parsed);
+                break;
+
+            case 'suggest':
+                typo = dictionaries[request.language];
+                reply(request, typo ? typo.suggest(request.word) : []);
+                break;
+
+            case 'prefetch':
+                typo = dictionaries[request.language];
+                if (!typo)
+                    return;
+                var suggestions = {};
+                request.words.forEach(function(word) {
+                    suggestions[word] = typo.suggest(word);
+                });
+                reply(request, suggestions);
+                break;
+            }
+        };
+
+        // process queued requests one at a time, yielding between them so
+        // that cancellations sent from the page can be seen before we start
+        // on requests that are no longer wanted
+        var processNext = function() {
+            scheduled = false;
+            var request = queue.shift();
+            if (queue.length > 0)
+                schedule();
+            if (request)
+                handle(request);
+        };
+
+        var schedule = function() {
+            if (!scheduled) {
+                scheduled = true;
+                setTimeout(processNext, 0);
+            }
+        };
+
+        onmessage = function(event) {
+            if (event.target.origin !== origin)
+                return;
+
+            var request = event.data;
+            if (request.type === 'cancel') {
+                queue = queue.filter(function(queued) {
+                    return queued.id !== request.id;
+                });
+                return;
+            }
+
+            queue.push(request);
+            schedule();
+        };
+    };
+
+    TypoWorker = function(typoJsCode) {
+        this.w = null;
+        this.nextId = 0;
+        this.callbacks = {};
+        this.typos = {};
+
+        if (typeof(Worker) === "undefined" || typeof(URL) === "undefined" || typeof(Blob) === "undefined")
+            return;
+
+        /*
+         *  We are defining our worker inline like this for "simplicity's"
+         *  sake due to our unique runtime environment in a Desktop deployment
+         *  See: https://stackoverflow.com/questions/5408406/web-workers-without-a-separate-javascript-file
+         */
+        var blobURL = URL.createObjectURL(new Blob([
+            typoJsCode,
+            '\n(', workerMain.toString(), ')(',
+            JSON.stringify(window.origin), ', ',
+            JSON.stringify(TYPO_FIELDS), ');'
+        ], {type: 'application/javascript'}));
+
+        try {
+            this.w = new Worker(blobURL);
+        } catch (e) {
+            this.w = null;
+        }
+        URL.revokeObjectURL(blobURL);
+
+        if (!this.w)
+            return;
+
+        var self = this;
+        this.w.onmessage = function(event) {
+            var response = event.data;
+            var callback = self.callbacks[response.id];
+            delete self.callbacks[response.id];
+            if (callback)
+                callback(response.data);
+        };
+    };
+
+    TypoWorker.prototype = {
+
+        isAsync : function() {
+            return !!this.w;
+        },
+
+        // parse the dictionary, and invoke the callback with a Typo object
+        // on the page that can be used for word checks
+        loadDictionary : function(language, aff, dic, callback) {
+            var self = this;
+            if (!this.w) {
+                var typo = new Typo(language, aff, dic);
+                this.typos[language] = typo;
+                callback(typo);
+                return;
+            }
+
+            this.send({ type: 'load', language: language, aff: aff, dic: dic }, function(parsed) {
+                var typo = new Typo();
+                TYPO_FIELDS.forEach(function(field) { typo[field] = parsed[field]; });
+                typo.dictionary = language;
+                typo.loaded = true;
+                self.typos[language] = typo;
+                callback(typo);
+            });
+        },
+
+        // generate suggestions for a word; returns a request id that can be
+        // passed to 'cancel' if the suggestions are no longer needed
+        suggest : function(language, word, callback) {
+            var typo = this.typos[language];
+
+            // use already computed suggestions when available
+            if (typo && typo.memoized.hasOwnProperty(word) && !!typo.memoized[word]) {
+                callback(typo.suggest(word));
+                return -1;
+            }
+
+            if (!this.w) {
+                callback(typo ? typo.suggest(word) : []);
+                return -1;
+            }
+
+            return this.send({ type: 'suggest', language: language, word: word }, function(suggestions) {
+                if (typo) {
+                    typo.memoized[word] = {
+                        limit: 5,
+                        suggestions: suggestions
+                    };
+                }
+                callback(suggestions);
+            });
+        },
+
+        // compute suggestions for words in the background, so that they're
+        // immediately available if requested later
+        prefetch : function(language, words) {
+            var typo = this.typos[language];
+            if (!this.w || !typo || !words)
+                return;
+
+            // only compute suggestions for words we haven't seen
+            var inputWords = words.split(',').filter(function(word) {
+                return !typo.memoized.hasOwnProperty(word);
+            });
+
+            if (inputWords.length === 0)
+                return;
+
+            this.send({ type: 'prefetch', language: language, words: inputWords }, function(suggestions) {
+                for (var word in suggestions) {
+                    if (suggestions.hasOwnProperty(word)) {
+                        typo.memoized[word] = {
+                            limit: 5,
+                            suggestions: suggestions[word]
+                        };
+                    }
+                }
+            });
+        },
+
+        cancel : function(id) {
+            if (!this.w || id < 0 || !this.callbacks.hasOwnProperty(id))
+                return;
+
+            delete this.callbacks[id];
+            this.w.postMessage({ id: id, type: 'cancel' });
+        },
+
+        send : function(request, callback) {
+            request.id = this.nextId++;
+            this.callbacks[request.id] = callback;
+            this.w.postMessage(request);
+            return request.id;
+        }
+    };
+})();
+
+if (typeof module !== 'undefined') {
+    module.exports = TypoWorker;
+}
@@ -0,0 +1,55 @@
+/*
+ * TypoWorkerNative.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.common.spelling;
+
+import jsinterop.annotations.JsFunction;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+@JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "TypoWorker")
+public class TypoWorkerNative
+{
+   @JsFunction
+   public interface DictionaryCallback
+   {
+      void onLoaded(TypoNative typo);
+   }
+
+   @JsFunction
+   public interface SuggestionsCallback
+   {
+      void onSuggestions(String[] suggestions);
+   }
+
+   TypoWorkerNative(String typoJsCode) {}
+
+   // whether dictionaries are parsed (and suggestions generated) off the
+   // main thread; false when web workers are unavailable
+   public native boolean isAsync();
+
+   public native void loadDictionary(String language,
+                                     String affData,
+                                     String wordsData,
+                                     DictionaryCallback callback);
+
+   // returns a request id for use with cancel(), or -1 if the callback
+   // was invoked synchronously
+   public native int suggest(String language, String word, SuggestionsCallback callback);
+
+   public native void prefetch(String language, String words);
+
+   public native void cancel(int id);
+}
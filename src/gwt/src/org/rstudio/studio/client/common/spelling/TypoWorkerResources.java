@@ -1,5 +1,5 @@
 /*
- * SpellingWorkerResources.java
+ * TypoWorkerResources.java
  *
  * Copyright (C) 2020 by RStudio, PBC
  *
@@ -19,11 +19,10 @@ import com.google.gwt.core.client.GWT;
 import com.google.gwt.resources.client.ClientBundle;
 import org.rstudio.core.client.resources.StaticDataResource;
 
-public interface SpellingPrefetcherResources extends ClientBundle
+public interface TypoWorkerResources extends ClientBundle
 {
-   SpellingPrefetcherResources INSTANCE = GWT.create(SpellingPrefetcherResources.class);
+   TypoWorkerResources INSTANCE = GWT.create(TypoWorkerResources.class);
 
-   @Source("SpellingPrefetcher.js")
-   StaticDataResource spellingprefetcherjs();
+   @Source("TypoWorker.js")
+   StaticDataResource typoworkerjs();
 }
-
@@ -41,4 +41,10 @@ public class HTMLPreviewApplication extends SatelliteApplication
    {
       super(NAME, view, satellite, pAceThemes, pUserPrefs, exHandler, commands);
    }
+
+   @Override
+   protected String[] getEventInterests()
+   {
+      return new String[] { "html_preview_output_event" };
+   }
 }
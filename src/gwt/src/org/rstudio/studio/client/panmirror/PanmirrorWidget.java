@@ -375,9 +375,12 @@ public class PanmirrorWidget extends DockLayoutPanel implements
       );
    }
    
-   public void getMarkdown(PanmirrorWriterOptions options, int progressDelay, CommandWithArg<JsObject> completed) {
+   // when incremental is true, only the blocks changed since the last call are
+   // serialized (if possible)
+   public void getMarkdown(PanmirrorWriterOptions options, boolean incremental, 
+                           int progressDelay, CommandWithArg<JsObject> completed) {
       new PromiseWithProgress<JsObject>(
-         editor_.getMarkdown(options),
+         editor_.getMarkdown(options, incremental),
          null,
          progressDelay,
          completed   
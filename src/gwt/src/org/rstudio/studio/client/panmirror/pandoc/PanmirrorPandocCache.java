@@ -0,0 +1,169 @@
+/*
+ * PanmirrorPandocCache.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.panmirror.pandoc;
+
+import java.util.HashMap;
+
+import org.rstudio.core.client.container.LruCache;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// Results of pandoc requests made by visual editors, shared by all of the
+// editors in the session. Capabilities and format extensions don't change
+// during a session, so they're kept indefinitely; conversions between
+// markdown and AST are keyed by a hash of their input (plus the format and
+// options) and kept in a size-bounded LRU cache. Cached ASTs are stored as
+// JSON and a fresh copy is returned for each hit, since callers may modify
+// the AST they're given.
+@Singleton
+public class PanmirrorPandocCache
+{
+   private static class Entry
+   {
+      public Entry(String input, String output)
+      {
+         this.input = input;
+         this.output = output;
+      }
+
+      public final String input;
+      public final String output;
+   }
+
+   @Inject
+   public PanmirrorPandocCache()
+   {
+   }
+
+   public JavaScriptObject getCapabilities()
+   {
+      return capabilities_;
+   }
+
+   public void setCapabilities(JavaScriptObject capabilities)
+   {
+      capabilities_ = capabilities;
+   }
+
+   public String getExtensions(String format)
+   {
+      return extensions_.get(format);
+   }
+
+   public void putExtensions(String format, String extensions)
+   {
+      extensions_.put(format, extensions);
+   }
+
+   public JavaScriptObject getAst(String markdown, String format, JsArrayString options)
+   {
+      String json = lookup(asts_, markdown, format, options);
+      return json != null ? parse(json) : null;
+   }
+
+   public void putAst(String markdown, String format, JsArrayString options, JavaScriptObject ast)
+   {
+      store(asts_, markdown, format, options, stringify(ast));
+   }
+
+   // the AST is identified by its JSON (see toJson)
+   public String getMarkdown(String astJson, String format, JsArrayString options)
+   {
+      return lookup(markdown_, astJson, format, options);
+   }
+
+   public void putMarkdown(String astJson, String format, JsArrayString options, String markdown)
+   {
+      store(markdown_, astJson, format, options, markdown);
+   }
+
+   public static String toJson(JavaScriptObject ast)
+   {
+      return stringify(ast);
+   }
+
+   private String lookup(LruCache<String, Entry> cache,
+                         String input,
+                         String format,
+                         JsArrayString options)
+   {
+      Entry entry = cache.get(key(input, format, options));
+
+      // guard against hash collisions
+      if (entry == null || !entry.input.equals(input))
+         return null;
+
+      return entry.output;
+   }
+
+   private void store(LruCache<String, Entry> cache,
+                      String input,
+                      String format,
+                      JsArrayString options,
+                      String output)
+   {
+      cache.put(key(input, format, options), new Entry(input, output));
+   }
+
+   private static String key(String input, String format, JsArrayString options)
+   {
+      String optionsKey = options != null ? options.join(" ") : "";
+      return format + "\n" + optionsKey + "\n" + input.length() + ":" + hash(input);
+   }
+
+   // two 32-bit FNV-1a hashes (with different offsets) of the string
+   private static native String hash(String input) /*-{
+      var h1 = 0x811c9dc5, h2 = 0x01000193 ^ 0x5bd1e995;
+      for (var i = 0; i < input.length; i++) {
+         var c = input.charCodeAt(i);
+         h1 = Math.imul(h1 ^ c, 0x01000193);
+         h2 = Math.imul(h2 ^ c, 0x01000193);
+      }
+      return (h1 >>> 0).toString(16) + (h2 >>> 0).toString(16);
+   }-*/;
+
+   private static native String stringify(JavaScriptObject object) /*-{
+      return JSON.stringify(object);
+   }-*/;
+
+   private static native JavaScriptObject parse(String json) /*-{
+      return JSON.parse(json);
+   }-*/;
+
+   private static LruCache<String, Entry> createCache()
+   {
+      return new LruCache<String, Entry>(MAX_CACHED_CHARS, new LruCache.Weigher<Entry>()
+      {
+         @Override
+         public int weigh(Entry entry)
+         {
+            return entry.input.length() + entry.output.length();
+         }
+      });
+   }
+
+   private JavaScriptObject capabilities_;
+   private final HashMap<String, String> extensions_ = new HashMap<String, String>();
+
+   private final LruCache<String, Entry> asts_ = createCache();
+   private final LruCache<String, Entry> markdown_ = createCache();
+
+   // bound on the (approximate) number of characters held by each cache
+   private static final int MAX_CACHED_CHARS = 8 * 1024 * 1024;
+}
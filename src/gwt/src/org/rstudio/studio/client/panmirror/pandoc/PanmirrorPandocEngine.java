@@ -39,16 +39,28 @@ public class PanmirrorPandocEngine {
    }
    
    @Inject
-   void initialize(PanmirrorPandocServerOperations server)
+   void initialize(PanmirrorPandocServerOperations server, PanmirrorPandocCache cache)
    {
       server_ = server;
+      cache_ = cache;
    }
    
    public Promise<JavaScriptObject> getCapabilities()
    {
+      JavaScriptObject capabilities = cache_.getCapabilities();
+      if (capabilities != null)
+         return Promise.resolve(capabilities);
+      
       return new Promise<JavaScriptObject>((ResolveCallbackFn<JavaScriptObject> resolve, RejectCallbackFn reject) -> {
          server_.pandocGetCapabilities(
-            new PromiseServerRequestCallback<JavaScriptObject>(resolve, reject)
+            new PromiseServerRequestCallback<JavaScriptObject>(resolve, reject) {
+               @Override
+               public void onResponseReceived(JavaScriptObject response)
+               {
+                  cache_.setCapabilities(response);
+                  super.onResponseReceived(response);
+               }
+            }
          );
       });
    }
@@ -59,32 +71,67 @@ public class PanmirrorPandocEngine {
       // ever write stdin if it's empty)
       final String input = !StringUtil.isNullOrEmpty(markdown) ? markdown : " ";
       
+      JavaScriptObject ast = cache_.getAst(input, format, options);
+      if (ast != null)
+         return Promise.resolve(ast);
+      
       return new Promise<JavaScriptObject>((ResolveCallbackFn<JavaScriptObject> resolve, RejectCallbackFn reject) -> {
          
          server_.pandocMarkdownToAst(
             input, format, options, 
-            new PromiseServerRequestCallback<JavaScriptObject>(resolve, reject)
+            new PromiseServerRequestCallback<JavaScriptObject>(resolve, reject) {
+               @Override
+               public void onResponseReceived(JavaScriptObject response)
+               {
+                  cache_.putAst(input, format, options, response);
+                  super.onResponseReceived(response);
+               }
+            }
          );
       });
    }
    
    public Promise<String> astToMarkdown(JavaScriptObject ast, String format, JsArrayString options)
    {
+      final String astJson = PanmirrorPandocCache.toJson(ast);
+      String markdown = cache_.getMarkdown(astJson, format, options);
+      if (markdown != null)
+         return Promise.resolve(markdown);
+      
       return new Promise<String>((ResolveCallbackFn<String> resolve, RejectCallbackFn reject) -> {
          server_.pandocAstToMarkdown(
             ast, format, options, 
-            new PromiseServerRequestCallback<String>(resolve, reject)
+            new PromiseServerRequestCallback<String>(resolve, reject) {
+               @Override
+               public void onResponseReceived(String response)
+               {
+                  cache_.putMarkdown(astJson, format, options, response);
+                  super.onResponseReceived(response);
+               }
+            }
          );
       });
    }
 
    public Promise<String> listExtensions(String format)
    {
+      String extensions = cache_.getExtensions(format);
+      if (extensions != null)
+         return Promise.resolve(extensions);
+      
       return new Promise<String>((ResolveCallbackFn<String> resolve, RejectCallbackFn reject) -> {
-         server_.pandocListExtensions(format, new PromiseServerRequestCallback<String>(resolve, reject));
+         server_.pandocListExtensions(format, new PromiseServerRequestCallback<String>(resolve, reject) {
+            @Override
+            public void onResponseReceived(String response)
+            {
+               cache_.putExtensions(format, response);
+               super.onResponseReceived(response);
+            }
+         });
       });
    }
 
    private PanmirrorPandocServerOperations server_;
+   private PanmirrorPandocCache cache_;
    
 }
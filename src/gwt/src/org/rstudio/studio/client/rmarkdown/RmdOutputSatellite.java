@@ -41,4 +41,11 @@ public class RmdOutputSatellite extends SatelliteApplication
    {
       super(NAME, view, satellite, pAceThemes, pUserPrefs, exHandler, commands);
    }
+
+   @Override
+   protected String[] getEventInterests()
+   {
+      // no streamed output is shown in this window
+      return new String[0];
+   }
 }
@@ -50,6 +50,7 @@ import org.rstudio.studio.client.common.console.ConsoleProcess.ConsoleProcessFac
 import org.rstudio.studio.client.common.console.ConsoleProcessInfo;
 import org.rstudio.studio.client.common.crypto.PublicKeyInfo;
 import org.rstudio.studio.client.common.debugging.model.Breakpoint;
+import org.rstudio.studio.client.common.debugging.model.FunctionBreakpoints;
 import org.rstudio.studio.client.common.debugging.model.FunctionState;
 import org.rstudio.studio.client.common.debugging.model.FunctionSteps;
 import org.rstudio.studio.client.common.debugging.model.TopLevelLineData;
@@ -172,6 +173,7 @@ import org.rstudio.studio.client.workbench.views.environment.model.RObject;
 import org.rstudio.studio.client.workbench.views.files.model.DirectoryListing;
 import org.rstudio.studio.client.workbench.views.files.model.FileUploadToken;
 import org.rstudio.studio.client.workbench.views.help.model.HelpInfo;
+import org.rstudio.studio.client.workbench.views.help.model.HelpTopicIndexData;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryEntry;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobLaunchSpec;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobOutput;
@@ -206,6 +208,7 @@ import org.rstudio.studio.client.workbench.views.vcs.dialog.CommitInfo;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayBoolean;
 import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.core.client.JsArrayNumber;
 import com.google.gwt.core.client.JsArrayString;
@@ -1346,6 +1349,12 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, "suggest_topics", prefix, requestCallback);
    }
 
+   public void getHelpTopicIndex(
+                  ServerRequestCallback<HelpTopicIndexData> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, "get_help_topic_index", requestCallback);
+   }
+
    public void getHelp(String topic,
                        String packageName,
                        int options,
@@ -4626,49 +4635,27 @@ public class RemoteServer implements Server
    }
    
    @Override
-   public void getFunctionSteps(
-                 String functionName,
-                 String fileName,
-                 String packageName,
-                 int[] lineNumbers,
-                 ServerRequestCallback<JsArray<FunctionSteps>> requestCallback)
+   public void getFunctionsSteps(
+         JsArray<FunctionBreakpoints> functions,
+         ServerRequestCallback<JsArray<JsArray<FunctionSteps>>> requestCallback)
    {
-      JSONArray lineNums = new JSONArray();
-      for (int idx = 0; idx < lineNumbers.length; idx++)
-      {
-         lineNums.set(idx, new JSONNumber(lineNumbers[idx]));
-      }
       JSONArray params = new JSONArray();
-      params.set(0, new JSONString(functionName));
-      params.set(1, new JSONString(fileName));
-      params.set(2, new JSONString(packageName));
-      params.set(3, lineNums);
+      params.set(0, new JSONArray(functions));
       sendRequest(RPC_SCOPE,
-                  GET_FUNCTION_STEPS,
+                  GET_FUNCTIONS_STEPS,
                   params,
                   requestCallback);
    }
    
    @Override
-   public void setFunctionBreakpoints(
-         String functionName,
-         String fileName,
-         String packageName,
-         ArrayList<String> steps,
-         ServerRequestCallback<Void> requestCallback)
+   public void setFunctionsBreakpoints(
+         JsArray<FunctionBreakpoints> functions,
+         ServerRequestCallback<JsArrayBoolean> requestCallback)
    {
-      JSONArray breakSteps = new JSONArray();
-      for (int idx = 0; idx < steps.size(); idx++)
-      {
-         breakSteps.set(idx, new JSONString(steps.get(idx)));
-      }
       JSONArray params = new JSONArray();
-      params.set(0, new JSONString(functionName));
-      params.set(1, new JSONString(fileName));
-      params.set(2, new JSONString(packageName));
-      params.set(3, breakSteps);
+      params.set(0, new JSONArray(functions));
       sendRequest(RPC_SCOPE,
-                  SET_FUNCTION_BREAKPOINTS,
+                  SET_FUNCTIONS_BREAKPOINTS,
                   params,
                   requestCallback);
    }
@@ -6514,8 +6501,8 @@ public class RemoteServer implements Server
    private static final String ENVIRONMENT_SET_LANGUAGE = "environment_set_language";
    private static final String SET_ENVIRONMENT_MONITORING = "set_environment_monitoring";
    
-   private static final String GET_FUNCTION_STEPS = "get_function_steps";
-   private static final String SET_FUNCTION_BREAKPOINTS = "set_function_breakpoints";
+   private static final String GET_FUNCTIONS_STEPS = "get_functions_steps";
+   private static final String SET_FUNCTIONS_BREAKPOINTS = "set_functions_breakpoints";
    private static final String GET_FUNCTION_STATE = "get_function_state";
    private static final String EXECUTE_DEBUG_SOURCE = "execute_debug_source";
    private static final String SET_ERROR_MANAGEMENT_TYPE = "set_error_management_type";
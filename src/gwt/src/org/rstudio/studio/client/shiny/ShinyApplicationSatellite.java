@@ -57,5 +57,12 @@ public class ShinyApplicationSatellite extends SatelliteApplication
       initialize(name_, view, satellite, pAceThemes, pUserPrefs, exHandler, commands);
    }
    
+   @Override
+   protected String[] getEventInterests()
+   {
+      // no streamed output is shown in this window
+      return new String[0];
+   }
+   
    private final String name_;
 }
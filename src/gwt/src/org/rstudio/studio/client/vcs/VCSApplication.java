@@ -41,5 +41,12 @@ public class VCSApplication extends SatelliteApplication
       super(NAME, view, satellite, pAceThemes, pUserPrefs, uncaughtExHandler, commands);
    }
 
+   @Override
+   protected String[] getEventInterests()
+   {
+      // git operations report progress through console processes
+      return new String[] { "console_process_output" };
+   }
+
    public final static String NAME = "review_changes";
 }
@@ -22,6 +22,7 @@ import com.google.inject.Provider;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Size;
+import org.rstudio.core.client.StartupTimeline;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.command.AppCommand;
@@ -240,6 +241,7 @@ public class Workbench implements BusyHandler,
 
    public void onDeferredInitCompleted(DeferredInitCompletedEvent ev)
    {
+      StartupTimeline.mark("server_deferred_init_completed");
       checkForCrashHandlerPermission();
    }
    
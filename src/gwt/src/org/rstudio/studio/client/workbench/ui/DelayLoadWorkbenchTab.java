@@ -31,6 +31,7 @@ import org.rstudio.core.client.events.EnsureHeightEvent;
 import org.rstudio.core.client.events.EnsureHeightHandler;
 import org.rstudio.core.client.events.EnsureVisibleEvent;
 import org.rstudio.core.client.events.EnsureVisibleHandler;
+import org.rstudio.studio.client.RStudioGinjector;
 
 public abstract class DelayLoadWorkbenchTab<T extends IsWidget>
       implements WorkbenchTab
@@ -69,6 +70,9 @@ public abstract class DelayLoadWorkbenchTab<T extends IsWidget>
 
    public final void onBeforeSelected()
    {
+      // the pane is being shown, so its deferred prefetch (if it hasn't
+      // run yet) is now on the critical path
+      RStudioGinjector.INSTANCE.getDeferredInitScheduler().activate(title_);
       shimmed_.onBeforeSelected();
    }
 
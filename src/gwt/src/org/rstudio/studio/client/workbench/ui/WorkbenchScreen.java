@@ -33,7 +33,6 @@ import com.google.inject.Provider;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.SerializedCommand;
-import org.rstudio.core.client.SerializedCommandQueue;
 import org.rstudio.core.client.Size;
 import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.command.CommandBinder;
@@ -44,6 +43,9 @@ import org.rstudio.core.client.layout.WindowState;
 import org.rstudio.core.client.theme.ModuleTabLayoutPanel;
 import org.rstudio.core.client.widget.FontSizer;
 import org.rstudio.core.client.widget.Toolbar;
+import org.rstudio.core.client.widget.events.GlassVisibilityEvent;
+import org.rstudio.core.client.widget.events.GlassVisibilityHandler;
+import org.rstudio.studio.client.application.DeferredInitScheduler;
 import org.rstudio.studio.client.application.events.ChangeFontSizeEvent;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.application.ui.appended.ApplicationEndedPopupPanel;
@@ -84,13 +86,15 @@ public class WorkbenchScreen extends Composite
                           Commands commands,
                           final Provider<FileMRUList> mruList,
                           FontSizeManager fontSizeManager,
-                          OptionsLoader.Shim optionsLoader)
+                          OptionsLoader.Shim optionsLoader,
+                          DeferredInitScheduler deferredInit)
    {
       globalDisplay_ = globalDisplay;
       eventBus_ = eventBus;
       session_ = session;
       edit_ = edit;
       optionsLoader_ = optionsLoader;
+      deferredInit_ = deferredInit;
       
       if (!BrowseCap.isMacintoshDesktop())
       {
@@ -133,6 +137,30 @@ public class WorkbenchScreen extends Composite
          }
       };
 
+      // while a splitter is being dragged (signaled by the glass panel being
+      // shown) we hold back plot size changes, letting the plot image scale
+      // with the pane; the final size is sent once the drag ends
+      plotsResizeSettledTimer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            if (!resizeModeActive_)
+               doOnPaneSizesChanged();
+         }
+      };
+
+      eventBus.addHandler(GlassVisibilityEvent.TYPE, new GlassVisibilityHandler()
+      {
+         @Override
+         public void onGlass(GlassVisibilityEvent event)
+         {
+            resizeModeActive_ = event.isShow();
+            if (!resizeModeActive_ && pendingPlotsSize_ != null)
+               plotsResizeSettledTimer_.schedule(PLOTS_RESIZE_SETTLE_MS);
+         }
+      });
+
       eventBus.addHandler(SessionInitEvent.TYPE, new SessionInitHandler()
       {
          public void onSessionInit(SessionInitEvent sie)
@@ -175,7 +203,6 @@ public class WorkbenchScreen extends Composite
 
    private void prefetch()
    {
-      final SerializedCommandQueue prefetchQueue = new SerializedCommandQueue();
       Scheduler.get().scheduleDeferred(new ScheduledCommand() {
          public void execute()
          {
@@ -183,39 +210,38 @@ public class WorkbenchScreen extends Composite
          }
       });
 
-      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      // download the code for each pane when the browser is idle after
+      // startup (or as soon as the pane is first selected), rather than
+      // competing with the visible panes for the first frame
+      for (final WorkbenchTab tab : paneManager_.getAllTabs())
       {
-         public void execute()
+         deferredInit_.register(tab.getTitle(), new SerializedCommand()
          {
-            for (final WorkbenchTab tab : paneManager_.getAllTabs())
-               prefetchQueue.addCommand(new SerializedCommand()
-               {
-                  public void onExecute(Command continuation)
-                  {
-                     tab.prefetch(continuation);
-                  }
-               });
-            prefetchQueue.addCommand(new SerializedCommand()
-            {
-               public void onExecute(Command continuation)
-               {
-                  ApplicationEndedPopupPanel.prefetch(continuation);
-               }
-            });
-            prefetchQueue.addCommand(new SerializedCommand()
+            public void onExecute(Command continuation)
             {
-               public void onExecute(Command continuation)
-               {
-                  edit_.forceLoad(true, continuation);
-               }
-            });
-            prefetchQueue.addCommand(new SerializedCommand()
-            {
-               public void onExecute(Command continuation)
-               {
-                  optionsLoader_.forceLoad(true, continuation);
-               }
-            });
+               tab.prefetch(continuation);
+            }
+         });
+      }
+      deferredInit_.register("ApplicationEndedPopupPanel", new SerializedCommand()
+      {
+         public void onExecute(Command continuation)
+         {
+            ApplicationEndedPopupPanel.prefetch(continuation);
+         }
+      });
+      deferredInit_.register("Edit", new SerializedCommand()
+      {
+         public void onExecute(Command continuation)
+         {
+            edit_.forceLoad(true, continuation);
+         }
+      });
+      deferredInit_.register("Options", new SerializedCommand()
+      {
+         public void onExecute(Command continuation)
+         {
+            optionsLoader_.forceLoad(true, continuation);
          }
       });
    }
@@ -274,6 +300,12 @@ public class WorkbenchScreen extends Composite
                Math.max(deckPanelSize.width, 0),
                Math.max(deckPanelSize.height - Toolbar.DEFAULT_HEIGHT, 0));
       
+      // avoid asking the server to re-render the plot for each intermediate
+      // size while the pane is being resized; keep reporting the last plot
+      // size until the new size has settled (the image is scaled client-side
+      // in the meantime)
+      plotsSize = settledPlotsSize(plotsSize);
+      
       double devicePixelRatio = 1.0;
       if (BrowseCap.isMacintoshDesktop())
          devicePixelRatio = BrowseCap.devicePixelRatio();
@@ -294,6 +326,35 @@ public class WorkbenchScreen extends Composite
       session_.persistClientState();
    }
 
+   private Size settledPlotsSize(Size plotsSize)
+   {
+      Size lastSize = new Size(lastMetrics_.getGraphicsWidth(),
+                               lastMetrics_.getGraphicsHeight());
+      
+      // no previous size (or a hidden pane) means nothing to scale; send
+      // the new size right away
+      boolean hasLastSize = lastSize.width > 0 && lastSize.height > 0;
+      boolean hasPlotsSize = plotsSize.width > 0 && plotsSize.height > 0;
+      if (!hasLastSize || !hasPlotsSize || plotsSize.equals(lastSize))
+      {
+         pendingPlotsSize_ = null;
+         return plotsSize;
+      }
+      
+      // the size has been stable since the last check; use it
+      if (!resizeModeActive_ && plotsSize.equals(pendingPlotsSize_))
+      {
+         pendingPlotsSize_ = null;
+         return plotsSize;
+      }
+      
+      // otherwise, wait for the size to settle
+      pendingPlotsSize_ = plotsSize;
+      if (!resizeModeActive_)
+         plotsResizeSettledTimer_.schedule(PLOTS_RESIZE_SETTLE_MS);
+      return lastSize;
+   }
+
    public void onSelection(SelectionEvent<Integer> integerSelectionEvent)
    {
       eventBus_.fireEvent(new PushClientStateEvent());
@@ -419,11 +480,17 @@ public class WorkbenchScreen extends Composite
 
    private WorkbenchMetrics lastMetrics_ = WorkbenchMetrics.create(0,0,0,0,1.0);
    
+   private final Timer plotsResizeSettledTimer_;
+   private boolean resizeModeActive_ = false;
+   private Size pendingPlotsSize_ = null;
+   private static final int PLOTS_RESIZE_SETTLE_MS = 300;
+   
    private final GlobalDisplay globalDisplay_;
    private final EventBus eventBus_;
    private final Session session_;
    private final Shim edit_;
    private final org.rstudio.studio.client.workbench.ui.OptionsLoader.Shim optionsLoader_;
+   private final DeferredInitScheduler deferredInit_;
 
    private final MainSplitPanel tabsPanel_;
    private PaneManager paneManager_;
@@ -21,7 +21,6 @@ import java.util.Set;
 
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.Debug;
-import org.rstudio.core.client.JsArrayUtil;
 import org.rstudio.core.client.SafeHtmlUtil;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.js.JsObject;
@@ -50,6 +49,7 @@ import com.google.gwt.user.client.Command;
 import com.google.gwt.view.client.AsyncDataProvider;
 import com.google.gwt.view.client.HasData;
 import com.google.gwt.view.client.NoSelectionModel;
+import com.google.gwt.view.client.Range;
 import com.google.gwt.view.client.TreeViewModel;
 import com.google.inject.Inject;
 
@@ -78,6 +78,7 @@ public class ObjectBrowserModel implements TreeViewModel
       expandedNodeRefreshQueue_ = expandedNodes;
       onTableUpdateCompleted_ = onTableUpdateCompleted;
       onNodeExpansionCompleted_ = onNodeExpansionCompleted;
+      fieldCache_.clear();
       objectProvider_ = new ObjectProvider();
       refresh();
    }
@@ -85,6 +86,7 @@ public class ObjectBrowserModel implements TreeViewModel
    public void clear()
    {
       connection_ = null;
+      fieldCache_.clear();
       if (objectProvider_ != null)
          objectProvider_.clear();
    }
@@ -174,6 +176,7 @@ public class ObjectBrowserModel implements TreeViewModel
    
    public void refreshObject(DatabaseObject object)
    {
+      fieldCache_.remove(objectKey(object));
       if (fieldProviders_.containsKey(object))
          fieldProviders_.get(object).refresh();
       else if (objectProviders_.containsKey(object))
@@ -252,24 +255,30 @@ public class ObjectBrowserModel implements TreeViewModel
          // don't be case sensitive
          String lowerFilter = filter.toLowerCase();
          
+         // if the filter has only grown since we last applied it, names that
+         // didn't match then can't match now
+         boolean narrowing = lastFilter_ != null && lowerFilter.startsWith(lastFilter_);
+         
          for (int i = 0; i < prefetchedObjectList_.length(); i++)
          {
-            // retrieve name of object for matching
-            DatabaseObject object = prefetchedObjectList_.get(i);
-            String name = object.getName();
-            if (name == null)
+            // use the precomputed lowercase name for matching
+            String lowerName = lowerNames_[i];
+            if (lowerName == null)
                continue;
             
-            // don't match by default
-            boolean matches = false;
+            DatabaseObject object = prefetchedObjectList_.get(i);
+
+            // we match if our own name matches
+            boolean nameMatches = (narrowing && !nameMatches_[i]) ?
+                  false : lowerName.contains(lowerFilter);
+            nameMatches_[i] = nameMatches;
+            boolean matches = nameMatches;
             
             // if we have a provider for this object, apply the filter
             // recursively; we also match if any child object matches
-            if (objectProviders_.containsKey(object))
-               matches |= objectProviders_.get(object).applyFilter(filter);
-            
-            // we match if our own name matches
-            matches |= name.toLowerCase().contains(lowerFilter);
+            ObjectProvider childProvider = objectProviders_.get(object);
+            if (childProvider != null)
+               matches |= childProvider.applyFilter(filter);
             
             // remember whether we matched; we'll use this later to render a CSS
             // class to indicate the match
@@ -277,8 +286,9 @@ public class ObjectBrowserModel implements TreeViewModel
 
             anyMatched |= matches;
          }
+         lastFilter_ = lowerFilter;
          
-         // redraw
+         // redraw (the rows currently shown)
          updateData(prefetchedObjectList_);
 
          // indicate whether any of the child nodes matched
@@ -320,11 +330,42 @@ public class ObjectBrowserModel implements TreeViewModel
       private void updateData(JsArray<DatabaseObject> objects)
       {
          updateRowCount(objects.length(), true);
-         ArrayList<DatabaseObject> data = JsArrayUtil.toArrayList(objects);
-         updateRowData(0, data);
+         for (HasData<DatabaseObject> display : getDataDisplays())
+            updateVisibleRange(display, objects);
          fireUpdateCompleted();
       }
       
+      // Pushes only the objects in the display's visible range (the node's
+      // page, which grows as the user asks to show more), rather than
+      // converting the whole list on every update.
+      private void updateVisibleRange(HasData<DatabaseObject> display,
+                                      JsArray<DatabaseObject> objects)
+      {
+         Range range = display.getVisibleRange();
+         int start = Math.min(range.getStart(), objects.length());
+         int end = Math.min(objects.length(), start + range.getLength());
+         ArrayList<DatabaseObject> data = new ArrayList<DatabaseObject>(end - start);
+         for (int i = start; i < end; i++)
+            data.add(objects.get(i));
+         updateRowData(display, start, data);
+      }
+      
+      // Builds the name index used for filtering: names are lowercased once
+      // when the objects arrive rather than on every keystroke.
+      private void indexObjects(JsArray<DatabaseObject> objects)
+      {
+         int n = objects.length();
+         lowerNames_ = new String[n];
+         nameMatches_ = new boolean[n];
+         for (int i = 0; i < n; i++)
+         {
+            String name = objects.get(i).getName();
+            lowerNames_[i] = name == null ? null : name.toLowerCase();
+            nameMatches_[i] = true;
+         }
+         lastFilter_ = null;
+      }
+      
       private void listObjects(final CommandWithArg<JsArray<DatabaseObject>> onCompleted)
       {
          objectListContinuations_.add(onCompleted);
@@ -353,6 +394,7 @@ public class ObjectBrowserModel implements TreeViewModel
                   
                   // save object list for later manipulation
                   prefetchedObjectList_ = objects;
+                  indexObjects(objects);
                   
                   // execute each continuation, w/ try/catch so that any that throw exceptions
                   // won't prevent execution of further continuations (nor leave us with a stack
@@ -408,6 +450,9 @@ public class ObjectBrowserModel implements TreeViewModel
       
       private final DatabaseObject parent_;
       private JsArray<DatabaseObject> prefetchedObjectList_ = null;
+      private String[] lowerNames_;
+      private boolean[] nameMatches_;
+      private String lastFilter_;
    }
    
    private class FieldProvider extends AsyncDataProvider<Field>
@@ -432,6 +477,16 @@ public class ObjectBrowserModel implements TreeViewModel
             return;
          }
 
+         // field metadata rarely changes; reuse what we fetched the last time
+         // this table was expanded until the connection is refreshed
+         final String key = objectKey(table_);
+         ArrayList<Field> cached = fieldCache_.get(key);
+         if (cached != null)
+         {
+            updateFields(cached);
+            return;
+         }
+
          server_.connectionListFields(
                connection_.getId(),
                table_.createSpecifier(),
@@ -445,9 +500,8 @@ public class ObjectBrowserModel implements TreeViewModel
                         for (int i=0; i<fields.length(); i++)
                            data.add(fields.get(i));
                      }
-                     updateRowCount(data.size(), true);
-                     updateRowData(0, data);
-                     dequeNodeExpansion(table_);
+                     fieldCache_.put(key, data);
+                     updateFields(data);
                   }
                   
                   @Override
@@ -459,6 +513,13 @@ public class ObjectBrowserModel implements TreeViewModel
                });
       }
       
+      private void updateFields(ArrayList<Field> data)
+      {
+         updateRowCount(data.size(), true);
+         updateRowData(0, data);
+         dequeNodeExpansion(table_);
+      }
+      
       private void clearData()
       {
          updateRowCount(0, true);
@@ -469,6 +530,17 @@ public class ObjectBrowserModel implements TreeViewModel
       private DatabaseObject table_;
    }
    
+   // Returns a key identifying the object by its path from the root of the
+   // connection (object instances are replaced whenever a listing is
+   // refreshed).
+   private static String objectKey(DatabaseObject object)
+   {
+      String key = "";
+      for (DatabaseObject o = object; o != null; o = o.getParent())
+         key = o.getType() + ":" + o.getName() + "/" + key;
+      return key;
+   }
+   
    private class ContainerCell extends AbstractCell<DatabaseObject>
    {
       public ContainerCell()
@@ -539,6 +611,8 @@ public class ObjectBrowserModel implements TreeViewModel
                               = new HashMap<DatabaseObject,FieldProvider>();
    private HashMap<DatabaseObject,ObjectProvider> objectProviders_ 
                               = new HashMap<DatabaseObject,ObjectProvider>();
+   private HashMap<String,ArrayList<Field>> fieldCache_
+                              = new HashMap<String,ArrayList<Field>>();
    
    private Connection connection_;
    private String filter_;
@@ -278,6 +278,12 @@ public class EnvironmentPane extends WorkbenchPane
       objects_.removeObject(objectName);
    }
    
+   @Override
+   public void updateObjects(JsArray<RObject> assigned, JsArrayString removed)
+   {
+      objects_.updateObjects(assigned, removed);
+   }
+   
    @Override
    public void setContextDepth(int contextDepth)
    {
@@ -111,6 +111,7 @@ public class EnvironmentPresenter extends BasePresenter
       void clearSelection();
       void setContextDepth(int contextDepth);
       void removeObject(String object);
+      void updateObjects(JsArray<RObject> assigned, JsArrayString removed);
       void setEnvironmentName(String name, boolean local);
       void setEnvironmentMonitoring(boolean monitoring);
       boolean environmentMonitoring();
@@ -251,16 +252,7 @@ public class EnvironmentPresenter extends BasePresenter
       eventBus.addHandler(EnvironmentChangedEvent.TYPE, (EnvironmentChangedEvent event) ->
       {
          EnvironmentChangedEvent.Data data = event.getData();
-         
-         for (RObject object : JsUtil.asIterable(data.getChangedObjects()))
-         {
-            view_.addObject(object);
-         }
-         
-         for (String object : JsUtil.asIterable(data.getRemovedObjects()))
-         {
-            view_.removeObject(object);
-         }
+         view_.updateObjects(data.getChangedObjects(), data.getRemovedObjects());
       });
 
       eventBus.addHandler(BrowserLineChangedEvent.TYPE,
@@ -421,10 +413,9 @@ public class EnvironmentPresenter extends BasePresenter
                            public void onSuccess()
                            {
                               view_.clearSelection();
-                              for (String obj: objectNames)
-                              {
-                                 view_.removeObject(obj);
-                              }
+                              view_.updateObjects(
+                                    JsArray.createArray().<JsArray<RObject>>cast(),
+                                    JsUtil.toJsArrayString(objectNames));
                            }
                        });
             }
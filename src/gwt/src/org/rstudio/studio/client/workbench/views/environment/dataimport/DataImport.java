@@ -42,6 +42,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditorWi
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
@@ -49,6 +50,7 @@ import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiFactory;
 import com.google.gwt.uibinder.client.UiField;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.gwt.user.client.ui.Widget;
@@ -63,6 +65,8 @@ public class DataImport extends Composite
    private GlobalDisplay globalDisplay_;
    
    private final int maxRows_ = 50;
+   private final int pageRows_ = 500;
+   private final int maxPreviewRows_ = 50000;
    private final int maxCols_ = 5000;
    private final int maxFactors_ = 64;
    
@@ -84,6 +88,15 @@ public class DataImport extends Composite
    
    private DataImportPreviewResponse lastSuccessfulResponse_;
    
+   // state for paging in further rows of the preview (and re-parsing
+   // columns of the rows we have); only one such request is made at a time
+   private int previewRows_ = 0;
+   private boolean previewExhausted_ = false;
+   private int previewGeneration_ = 0;
+   private boolean previewRequestPending_ = false;
+   private boolean fullPreviewRequestPending_ = false;
+   private boolean fullPreviewPending_ = false;
+   
    private final DataImportModes dataImportMode_;
    
    private JavaScriptObject localFiles_;
@@ -339,15 +352,6 @@ public class DataImport extends Composite
    
    private Operation onColumnMenuShow(final DataImportPreviewResponse response)
    {
-      final Operation completeAndPreview = new Operation()
-      {
-         @Override
-         public void execute()
-         {
-            previewDataImport();
-         }
-      };
-      
       return new Operation()
       {
          @Override
@@ -355,6 +359,15 @@ public class DataImport extends Composite
          {
             final DataImportDataActiveColumn column = gridViewer_.getActiveColumn();
             
+            final Operation completeAndPreview = new Operation()
+            {
+               @Override
+               public void execute()
+               {
+                  previewColumn(column.getName());
+               }
+            };
+            
             columnTypesMenu_.setOnChange(new OperationWithInput<String>()
             {
                @Override
@@ -426,7 +439,7 @@ public class DataImport extends Composite
                   }
                   
                   columnTypesMenu_.hide();
-                  previewDataImport();
+                  refreshColumnStates();
                }
             });
             
@@ -512,6 +525,14 @@ public class DataImport extends Composite
       gridViewer_.setOption("ordering", "false");
       gridViewer_.setOption("rowNumbers", "false");
       gridViewer_.setData(response);
+      gridViewer_.setDataPageCallback(new Command()
+      {
+         @Override
+         public void execute()
+         {
+            loadNextPreviewPage();
+         }
+      });
       
       if (response.getSupportedColumnTypes() != null && response.getSupportedColumnTypes().length > 0)
       {
@@ -533,6 +554,20 @@ public class DataImport extends Composite
          @Override
          public void execute()
          {
+            // wait for any page request to finish before starting over
+            if (previewRequestPending_)
+            {
+               fullPreviewPending_ = true;
+               return;
+            }
+            
+            // responses to earlier requests (including full previews still in
+            // flight) are no longer wanted
+            final int generation = ++previewGeneration_;
+            previewRows_ = 0;
+            previewExhausted_ = true;
+            fullPreviewRequestPending_ = false;
+            
             DataImportOptions previewImportOptions = getOptions();
             
             if (dataImportFileChooser_.getText() == "")
@@ -550,6 +585,11 @@ public class DataImport extends Composite
                {
                   progressIndicator_.clearProgress();
                   cleanPreviewResources();
+                  if (generation == previewGeneration_)
+                  {
+                     previewGeneration_++;
+                     fullPreviewRequestPending_ = false;
+                  }
                   
                   server_.previewDataImportAsyncAbort(new ServerRequestCallback<Void>()
                   {
@@ -568,12 +608,17 @@ public class DataImport extends Composite
                }
             });
             
+            fullPreviewRequestPending_ = true;
             server_.previewDataImportAsync(previewImportOptions, maxCols_, maxFactors_,
                   new ServerRequestCallback<DataImportPreviewResponse>()
             {
                @Override
                public void onResponseReceived(DataImportPreviewResponse response)
                {
+                  if (generation != previewGeneration_)
+                     return;
+                  fullPreviewRequestPending_ = false;
+                  
                   if (response == null || response.getErrorMessage() != null)
                   {
                      if (response != null)
@@ -600,12 +645,9 @@ public class DataImport extends Composite
                      localFiles_ = response.getLocalFiles();
                   }
                   
-                  gridViewer_.setOption("status",
-                        "Previewing first " + toLocaleString(maxRows_) + 
-                        " entries. " + (
-                              response.getParsingErrors() > 0 ?
-                              Integer.toString(response.getParsingErrors()) + " parsing errors." : "")
-                        );
+                  previewRows_ = response.getRowCount();
+                  previewExhausted_ = previewRows_ < maxRows_;
+                  updatePreviewStatus(response);
                   
                   assignColumnDefinitions(response, importOptions_.getColumnDefinitions());
                   
@@ -618,6 +660,10 @@ public class DataImport extends Composite
                public void onError(ServerError error)
                {
                   Debug.logError(error);
+                  if (generation != previewGeneration_)
+                     return;
+                  fullPreviewRequestPending_ = false;
+                  
                   cleanPreviewResources();
                   gridViewer_.setData(null);
                   progressIndicator_.onError(error.getMessage());
@@ -629,6 +675,191 @@ public class DataImport extends Composite
       assembleDataImport(previewDataImportOperation);
    }
    
+   private void updatePreviewStatus(DataImportPreviewResponse response)
+   {
+      gridViewer_.setOption("status",
+            "Previewing first " + toLocaleString(previewRows_) + 
+            " entries. " + (
+                  response.getParsingErrors() > 0 ?
+                  Integer.toString(response.getParsingErrors()) + " parsing errors." : "")
+            );
+   }
+   
+   // starts any full preview that was requested while a page (or column)
+   // request was in flight; returns true if one was started
+   private boolean runPendingPreview()
+   {
+      if (!fullPreviewPending_)
+         return false;
+      
+      fullPreviewPending_ = false;
+      previewDataImport();
+      return true;
+   }
+   
+   // fetches the next page of rows of the current preview, as the user
+   // scrolls towards the end of the rows we have; note that the server still
+   // parses the file from the start for each page (skipping lines can't
+   // account for headers, comments or quoted line breaks), so paging costs
+   // grow with the number of rows already previewed
+   private void loadNextPreviewPage()
+   {
+      if (previewRequestPending_ ||
+          previewExhausted_ ||
+          lastSuccessfulResponse_ == null ||
+          previewRows_ >= maxPreviewRows_)
+      {
+         return;
+      }
+      
+      final int generation = previewGeneration_;
+      final int pageRows = Math.min(pageRows_, maxPreviewRows_ - previewRows_);
+      
+      DataImportOptions pageOptions = getOptions();
+      pageOptions.setMaxRows(previewRows_ + pageRows);
+      pageOptions.setPreviewOffset(previewRows_);
+      
+      previewRequestPending_ = true;
+      server_.previewDataImportAsync(pageOptions, maxCols_, maxFactors_,
+            new ServerRequestCallback<DataImportPreviewResponse>()
+      {
+         @Override
+         public void onResponseReceived(DataImportPreviewResponse response)
+         {
+            previewRequestPending_ = false;
+            if (runPendingPreview() || generation != previewGeneration_)
+               return;
+            
+            if (response == null || response.getErrorMessage() != null)
+            {
+               previewExhausted_ = true;
+               return;
+            }
+            
+            int rows = response.getRowCount();
+            previewRows_ += rows;
+            previewExhausted_ = rows < pageRows;
+            
+            lastSuccessfulResponse_.appendRows(response);
+            updatePreviewStatus(lastSuccessfulResponse_);
+            gridViewer_.appendData(response);
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            Debug.logError(error);
+            previewRequestPending_ = false;
+            previewExhausted_ = true;
+            runPendingPreview();
+         }
+      });
+   }
+   
+   // re-parses a single column of the rows we've previewed (e.g. after its
+   // type was changed), rather than previewing the whole file again
+   private void previewColumn(String columnName)
+   {
+      // a full preview in flight would replace the re-parsed column when it
+      // arrives, so preview everything again with the new column types
+      if (dataImportMode_ != DataImportModes.Text ||
+          lastSuccessfulResponse_ == null ||
+          previewRequestPending_ ||
+          fullPreviewRequestPending_)
+      {
+         previewDataImport();
+         return;
+      }
+      
+      final JsArrayString columnNames = JsArrayString.createArray().cast();
+      columnNames.push(columnName);
+      
+      assembleDataImport(new Operation()
+      {
+         @Override
+         public void execute()
+         {
+            if (previewRequestPending_ ||
+                fullPreviewRequestPending_ ||
+                lastSuccessfulResponse_ == null)
+            {
+               previewDataImport();
+               return;
+            }
+            
+            // pages fetched with the old column types are no longer wanted
+            final int generation = ++previewGeneration_;
+            final DataImportPreviewResponse preview = lastSuccessfulResponse_;
+            
+            DataImportOptions columnOptions = getOptions();
+            columnOptions.setMaxRows(previewRows_);
+            columnOptions.setPreviewColumns(columnNames);
+            
+            previewRequestPending_ = true;
+            progressIndicator_.onProgress("Retrieving preview data...");
+            server_.previewDataImportAsync(columnOptions, maxCols_, maxFactors_,
+                  new ServerRequestCallback<DataImportPreviewResponse>()
+            {
+               @Override
+               public void onResponseReceived(DataImportPreviewResponse response)
+               {
+                  previewRequestPending_ = false;
+                  progressIndicator_.onCompleted();
+                  if (runPendingPreview() || generation != previewGeneration_)
+                     return;
+                  
+                  // fall back to a full preview if the column couldn't be
+                  // re-parsed on its own (e.g. because of a parsing error)
+                  if (response == null ||
+                      response.getErrorMessage() != null ||
+                      !preview.mergeColumns(response, columnNames))
+                  {
+                     previewDataImport();
+                     return;
+                  }
+                  
+                  assignColumnDefinitions(preview, importOptions_.getColumnDefinitions());
+                  setGridViewerData(preview);
+               }
+               
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+                  previewRequestPending_ = false;
+                  progressIndicator_.onCompleted();
+                  if (!runPendingPreview())
+                     previewDataImport();
+               }
+            });
+         }
+      });
+   }
+   
+   // updates the grid after columns were included, skipped, etc.; for text
+   // files this doesn't change the previewed data, so no preview is needed
+   private void refreshColumnStates()
+   {
+      if (dataImportMode_ != DataImportModes.Text || lastSuccessfulResponse_ == null)
+      {
+         previewDataImport();
+         return;
+      }
+      
+      assembleDataImport(new Operation()
+      {
+         @Override
+         public void execute()
+         {
+            if (lastSuccessfulResponse_ == null)
+               return;
+            
+            assignColumnDefinitions(lastSuccessfulResponse_, importOptions_.getColumnDefinitions());
+            setGridViewerData(lastSuccessfulResponse_);
+         }
+      });
+   }
+   
    private void setCodeAreaDefaults()
    {
       codeArea_.getEditor().getSession().setEditorMode(
@@ -701,6 +932,11 @@ public class DataImport extends Composite
          
       Object.keys(response.columns).forEach(function(key) {
          var col = response.columns[key];
+         
+         // the response may have been assigned definitions before
+         col.col_type_assigned = null;
+         col.col_disabled = false;
+         
          if (definitions[col.col_name]) {
             col.col_type_assigned = definitions[col.col_name].assignedType;
             if (col.col_type_assigned == "skip")
@@ -18,6 +18,7 @@ package org.rstudio.studio.client.workbench.views.environment.dataimport;
 import org.rstudio.studio.client.workbench.views.environment.dataimport.model.DataImportPreviewResponse;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 
 public class DataImportOptions extends JavaScriptObject
 {
@@ -74,6 +75,16 @@ public class DataImportOptions extends JavaScriptObject
       this.maxRows = maxRows > 0 ? maxRows : null;
    }-*/;
    
+   // the number of leading rows (already previewed) to omit from the preview
+   public final native void setPreviewOffset(int previewOffset) /*-{
+      this.previewOffset = previewOffset > 0 ? previewOffset : null;
+   }-*/;
+   
+   // restrict the preview to the given columns
+   public final native void setPreviewColumns(JsArrayString previewColumns) /*-{
+      this.previewColumns = previewColumns;
+   }-*/;
+   
    public final native JavaScriptObject getColumnDefinitions() /*-{
       return this.columnDefinitions;
    }-*/;
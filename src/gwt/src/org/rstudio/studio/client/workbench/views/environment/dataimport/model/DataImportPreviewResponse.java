@@ -16,6 +16,7 @@
 package org.rstudio.studio.client.workbench.views.environment.dataimport.model;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 
 public class DataImportPreviewResponse extends JavaScriptObject
 {
@@ -48,4 +49,49 @@ public class DataImportPreviewResponse extends JavaScriptObject
    public final native JavaScriptObject getLocalFiles() /*-{
       return this.localFiles;
    }-*/;
+   
+   public final native int getRowCount() /*-{
+      if (!this.data || this.data.length === 0)
+         return 0;
+      return [].concat(this.data[0]).length;
+   }-*/;
+   
+   // appends the rows of a later page of the preview to this one
+   public final native void appendRows(DataImportPreviewResponse page) /*-{
+      if (!this.data || !page.data)
+         return;
+      
+      for (var i = 0; i < this.data.length && i < page.data.length; i++)
+         this.data[i] = [].concat(this.data[i], page.data[i]);
+      
+      this.parsingErrors = page.parsingErrors;
+   }-*/;
+   
+   // replaces the named columns (both data and column metadata) with those
+   // from a preview restricted to those columns; returns false if any of
+   // the columns could not be found
+   public final native boolean mergeColumns(DataImportPreviewResponse partial,
+                                            JsArrayString names) /*-{
+      if (!this.columns || !this.data || !partial.columns || !partial.data)
+         return false;
+      
+      var indexOf = function(columns, name) {
+         for (var i = 1; i < columns.length; i++)
+            if (columns[i].col_name === name)
+               return i;
+         return -1;
+      };
+      
+      for (var i = 0; i < names.length; i++) {
+         var target = indexOf(this.columns, names[i]);
+         var source = indexOf(partial.columns, names[i]);
+         if (target === -1 || source === -1)
+            return false;
+      
+         this.columns[target] = partial.columns[source];
+         this.data[target - 1] = partial.data[source - 1];
+      }
+      
+      return true;
+   }-*/;
 }
@@ -17,7 +17,9 @@ package org.rstudio.studio.client.workbench.views.environment.view;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JsArray;
@@ -199,6 +201,71 @@ public class EnvironmentObjects extends ResizeComposite
       updateCategoryLeaders(true);
    }
    
+   // applies the objects assigned and removed by a single environment
+   // change: the changes are merged into the list in one pass, followed by
+   // one update of the category leaders and one redraw (rather than one of
+   // each per object)
+   public void updateObjects(JsArray<RObject> assigned, JsArrayString removed)
+   {
+      if (assigned.length() + removed.length() <= 1)
+      {
+         // a single change only redraws the affected rows
+         if (assigned.length() > 0)
+            addObject(assigned.get(0));
+         if (removed.length() > 0)
+            removeObject(removed.get(0));
+         return;
+      }
+      
+      List<RObjectEntry> assignedEntries = new ArrayList<RObjectEntry>();
+      for (int i = 0; i < assigned.length(); i++)
+         assignedEntries.add(entryFromRObject(assigned.get(i)));
+      
+      List<String> removedNames = new ArrayList<String>();
+      for (int i = 0; i < removed.length(); i++)
+         removedNames.add(removed.get(i));
+      
+      final Set<RObjectEntry> refill = new HashSet<RObjectEntry>();
+      List<RObjectEntry> objects = RObjectEntryMerge.merge(
+            objectDataProvider_.getList(),
+            assignedEntries,
+            removedNames,
+            objectSort_,
+            (oldEntry, newEntry) ->
+            {
+               // see addObject
+               if (oldEntry.expanded && newEntry.contentsAreDeferred)
+                  refill.add(newEntry);
+               else
+                  newEntry.expanded = oldEntry.expanded;
+            });
+      
+      // the data provider redraws the list once, after we're done here
+      List<RObjectEntry> list = objectDataProvider_.getList();
+      list.clear();
+      list.addAll(objects);
+      updateCategoryLeaders(false);
+      
+      // refill replaced objects that were expanded, and scroll the last
+      // assigned object into view
+      RObjectEntry last = assignedEntries.isEmpty() ?
+            null : assignedEntries.get(assignedEntries.size() - 1);
+      int lastIdx = -1;
+      for (int i = 0; i < objects.size(); i++)
+      {
+         RObjectEntry entry = objects.get(i);
+         if (refill.contains(entry))
+            fillEntryContents(entry, i, false);
+         if (entry == last)
+            lastIdx = i;
+      }
+      if (lastIdx >= 0)
+      {
+         scrollTimer_.setRow(lastIdx);
+         scrollTimer_.schedule(100);
+      }
+   }
+   
    public void clearObjects()
    {
       objectDataProvider_.getList().clear();
@@ -0,0 +1,107 @@
+/*
+ * RObjectEntryMerge.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.workbench.views.environment.view;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.rstudio.core.client.StringUtil;
+
+// Applies a batch of assigned and removed objects to a sorted list of object
+// entries in a single pass, with the same result as adding each assigned
+// object and then removing each removed object one at a time: an assigned
+// object replaces the existing entry of the same name in place if its type
+// is unchanged, and is otherwise inserted in sorted order (after any entries
+// that sort equally).
+class RObjectEntryMerge
+{
+   public interface ReplaceHandler
+   {
+      void onReplace(RObjectEntry oldEntry, RObjectEntry newEntry);
+   }
+
+   public static List<RObjectEntry> merge(List<RObjectEntry> entries,
+                                          List<RObjectEntry> assigned,
+                                          Collection<String> removed,
+                                          Comparator<RObjectEntry> sort,
+                                          ReplaceHandler handler)
+   {
+      Set<String> removedNames = new HashSet<String>(removed);
+
+      // the last assignment of a name wins; removals win over assignments
+      Map<String, RObjectEntry> pending = new LinkedHashMap<String, RObjectEntry>();
+      for (RObjectEntry entry : assigned)
+      {
+         String name = entry.rObject.getName();
+         pending.remove(name);
+         if (!removedNames.contains(name))
+            pending.put(name, entry);
+      }
+
+      // drop removed entries and replace assigned ones whose type is unchanged
+      List<RObjectEntry> kept = new ArrayList<RObjectEntry>(entries.size());
+      for (RObjectEntry entry : entries)
+      {
+         String name = entry.rObject.getName();
+         if (removedNames.contains(name))
+            continue;
+
+         RObjectEntry replacement = pending.get(name);
+         if (replacement == null)
+         {
+            kept.add(entry);
+         }
+         else if (StringUtil.equals(entry.rObject.getType(),
+                                    replacement.rObject.getType()))
+         {
+            pending.remove(name);
+            if (handler != null)
+               handler.onReplace(entry, replacement);
+            kept.add(replacement);
+         }
+      }
+
+      if (pending.isEmpty())
+         return kept;
+
+      // merge the remaining (new) entries into place
+      List<RObjectEntry> inserted = new ArrayList<RObjectEntry>(pending.values());
+      Collections.sort(inserted, sort);
+
+      List<RObjectEntry> result =
+            new ArrayList<RObjectEntry>(kept.size() + inserted.size());
+      int i = 0, j = 0;
+      while (i < kept.size() && j < inserted.size())
+      {
+         if (sort.compare(inserted.get(j), kept.get(i)) < 0)
+            result.add(inserted.get(j++));
+         else
+            result.add(kept.get(i++));
+      }
+      while (i < kept.size())
+         result.add(kept.get(i++));
+      while (j < inserted.size())
+         result.add(inserted.get(j++));
+      return result;
+   }
+}
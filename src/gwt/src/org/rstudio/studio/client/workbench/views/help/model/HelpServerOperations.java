@@ -22,6 +22,8 @@ public interface HelpServerOperations
    void suggestTopics(String prefix,
                       ServerRequestCallback<JsArrayString> requestCallback);
 
+   void getHelpTopicIndex(ServerRequestCallback<HelpTopicIndexData> requestCallback);
+
    void getHelp(String topic, 
                 String packageName,
                 int options,
@@ -22,13 +22,16 @@ import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class HelpSearchOracle extends SuggestOracle
 {
    @Inject
-   public HelpSearchOracle(HelpServerOperations server)
+   public HelpSearchOracle(HelpServerOperations server,
+                           HelpTopicIndex index)
    {
       server_ = server;
+      index_ = index;
    }
 
    @Override
@@ -36,6 +39,22 @@ public class HelpSearchOracle extends SuggestOracle
                                   final Callback callback)
    {
       String query = request.getQuery();
+
+      // answer from the client-side index once it's available; until then,
+      // ask the server (and start loading the index for next time)
+      if (index_.isLoaded())
+      {
+         List<String> suggestions = index_.suggest(query, request.getLimit());
+         ArrayList<SearchSuggestion> results =
+            new ArrayList<SearchSuggestion>();
+         for (String suggestion : suggestions)
+            results.add(new SearchSuggestion(suggestion));
+
+         callback.onSuggestionsReady(request, new Response(results));
+         return;
+      }
+
+      index_.ensureLoaded();
       server_.suggestTopics(query,
                              new ServerRequestCallback<JsArrayString>() {
          @Override
@@ -79,4 +98,5 @@ public class HelpSearchOracle extends SuggestOracle
    }
 
    private final HelpServerOperations server_;
+   private final HelpTopicIndex index_;
 }
@@ -0,0 +1,127 @@
+/*
+ * HelpTopicIndex.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.help.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
+import org.rstudio.studio.client.workbench.views.help.model.HelpTopicIndexData;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageStatus;
+
+import com.google.gwt.core.client.JsArrayString;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// The help topics of the attached packages, fetched once and then kept up
+// to date as packages are attached, detached or installed. Suggestions are
+// computed locally; see HelpTopicList for the matching rules.
+@Singleton
+public class HelpTopicIndex implements PackageStatusChangedHandler,
+                                       PackageStateChangedHandler
+{
+   @Inject
+   public HelpTopicIndex(HelpServerOperations server,
+                         EventBus events)
+   {
+      server_ = server;
+      events.addHandler(PackageStatusChangedEvent.TYPE, this);
+      events.addHandler(PackageStateChangedEvent.TYPE, this);
+   }
+
+   public boolean isLoaded()
+   {
+      return loaded_;
+   }
+
+   // Fetches the index if we don't have it, or if it's out of date.
+   public void ensureLoaded()
+   {
+      if ((loaded_ && !stale_) || loading_)
+         return;
+
+      loading_ = true;
+      stale_ = false;
+      server_.getHelpTopicIndex(new ServerRequestCallback<HelpTopicIndexData>()
+      {
+         @Override
+         public void onResponseReceived(HelpTopicIndexData data)
+         {
+            loading_ = false;
+            topics_.clear();
+            JsArrayString packages = data.getPackages();
+            for (int i = 0; i < packages.length(); i++)
+            {
+               JsArrayString topics = data.getTopics(i);
+               List<String> list = new ArrayList<String>(topics.length());
+               for (int j = 0; j < topics.length(); j++)
+                  list.add(topics.get(j));
+               topics_.putPackage(packages.get(i), list);
+            }
+            loaded_ = true;
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            loading_ = false;
+            Debug.logError(error);
+         }
+      });
+   }
+
+   public List<String> suggest(String query, int limit)
+   {
+      ensureLoaded();
+      return topics_.suggest(query, limit);
+   }
+
+   @Override
+   public void onPackageStatusChanged(PackageStatusChangedEvent event)
+   {
+      PackageStatus status = event.getPackageStatus();
+      if (status.isLoaded())
+      {
+         // fetch the new package's topics the next time they're needed
+         stale_ = true;
+      }
+      else
+      {
+         topics_.removePackage(status.getName());
+      }
+   }
+
+   @Override
+   public void onPackageStateChanged(PackageStateChangedEvent event)
+   {
+      // an attached package may have been reinstalled
+      stale_ = true;
+   }
+
+   private final HelpServerOperations server_;
+   private final HelpTopicList topics_ = new HelpTopicList();
+
+   private boolean loaded_ = false;
+   private boolean loading_ = false;
+   private boolean stale_ = false;
+}
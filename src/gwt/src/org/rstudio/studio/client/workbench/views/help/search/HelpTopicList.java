@@ -0,0 +1,232 @@
+/*
+ * HelpTopicList.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.help.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+
+// The help topics of a set of packages, and the matching used to suggest
+// them. As with the server's suggest_topics, the first character of the
+// query must match the first character of the topic, ignoring the topic's
+// leading dots (so 'libP' matches '.libPaths'), and the rest of the query
+// may match as a subsequence. A query that itself starts with dots matches
+// only dotted topics, on the first character after its dots. Matches are
+// ranked with CodeSearchOracle.scoreMatch, the client's copy of the
+// scoreMatch function behind the server's rs_scoreMatches, applied (as
+// there) to lowercased names.
+class HelpTopicList
+{
+   private static class Topic
+   {
+      public Topic(String name)
+      {
+         this.name = name;
+         this.lower = name.toLowerCase();
+      }
+
+      public final String name;
+      public final String lower;
+   }
+
+   public void clear()
+   {
+      packages_.clear();
+      invalidate();
+   }
+
+   public void putPackage(String name, List<String> topics)
+   {
+      List<Topic> list = new ArrayList<Topic>(topics.size());
+      for (String topic : topics)
+         list.add(new Topic(topic));
+      packages_.put(name, list);
+      invalidate();
+   }
+
+   public void removePackage(String name)
+   {
+      if (packages_.remove(name) != null)
+         invalidate();
+   }
+
+   public List<String> suggest(String query, int limit)
+   {
+      ensureBuckets();
+
+      String lowerQuery = query.toLowerCase();
+      List<Topic> matches;
+      if (lowerQuery.length() == 0)
+      {
+         matches = allTopics_;
+      }
+      else
+      {
+         // a query that extends the previous one can only match a subset of
+         // what that one matched (provided the previous query got past any
+         // leading dots, so that both are held to the same first character)
+         List<Topic> candidates;
+         if (lastQuery_ != null &&
+             countLeadingDots(lastQuery_) < lastQuery_.length() &&
+             lowerQuery.startsWith(lastQuery_))
+         {
+            candidates = lastMatches_;
+         }
+         else
+         {
+            candidates = getCandidates(lowerQuery);
+         }
+
+         matches = new ArrayList<Topic>();
+         for (Topic topic : candidates)
+            if (StringUtil.isSubsequence(topic.lower, lowerQuery))
+               matches.add(topic);
+
+         lastQuery_ = lowerQuery;
+         lastMatches_ = matches;
+      }
+
+      return rank(matches, lowerQuery, limit);
+   }
+
+   // The topics that can match the (non-empty) query based on its first
+   // character; e.g. '.libP' can only match topics that have leading dots
+   // followed by an 'l'.
+   private List<Topic> getCandidates(String lowerQuery)
+   {
+      int dots = countLeadingDots(lowerQuery);
+      List<Topic> candidates = new ArrayList<Topic>();
+
+      if (dots == lowerQuery.length())
+      {
+         // nothing but dots; any dotted topic may match
+         for (Topic topic : allTopics_)
+            if (topic.lower.startsWith("."))
+               candidates.add(topic);
+         return candidates;
+      }
+
+      List<Topic> bucket = buckets_.get(lowerQuery.charAt(dots));
+      if (bucket == null)
+         return candidates;
+
+      if (dots == 0)
+         return bucket;
+
+      for (Topic topic : bucket)
+         if (topic.lower.startsWith("."))
+            candidates.add(topic);
+      return candidates;
+   }
+
+   private List<String> rank(List<Topic> matches, String lowerQuery, int limit)
+   {
+      final Map<Topic, Integer> scores = new HashMap<Topic, Integer>();
+      if (lowerQuery.length() > 0)
+      {
+         for (Topic topic : matches)
+            scores.put(topic, CodeSearchOracle.scoreMatch(topic.lower, lowerQuery, false));
+
+         // stable, so equally scored topics keep their package order
+         matches = new ArrayList<Topic>(matches);
+         Collections.sort(matches, new Comparator<Topic>()
+         {
+            @Override
+            public int compare(Topic a, Topic b)
+            {
+               return scores.get(a) - scores.get(b);
+            }
+         });
+      }
+
+      List<String> results = new ArrayList<String>();
+      Set<String> seen = new HashSet<String>();
+      for (Topic topic : matches)
+      {
+         if (results.size() >= limit)
+            break;
+         if (seen.add(topic.name))
+            results.add(topic.name);
+      }
+      return results;
+   }
+
+   private void invalidate()
+   {
+      buckets_ = null;
+      allTopics_ = null;
+      lastQuery_ = null;
+      lastMatches_ = null;
+   }
+
+   // Groups topics by their first character (after any leading dots), since
+   // that character must match the first character of the query.
+   private void ensureBuckets()
+   {
+      if (buckets_ != null)
+         return;
+
+      buckets_ = new HashMap<Character, List<Topic>>();
+      allTopics_ = new ArrayList<Topic>();
+      for (List<Topic> topics : packages_.values())
+      {
+         for (Topic topic : topics)
+         {
+            allTopics_.add(topic);
+
+            String lower = topic.lower;
+            if (lower.length() == 0)
+               continue;
+
+            // a topic made up only of dots is keyed by its last dot
+            int i = Math.min(countLeadingDots(lower), lower.length() - 1);
+            Character key = lower.charAt(i);
+            List<Topic> bucket = buckets_.get(key);
+            if (bucket == null)
+            {
+               bucket = new ArrayList<Topic>();
+               buckets_.put(key, bucket);
+            }
+            bucket.add(topic);
+         }
+      }
+   }
+
+   private static int countLeadingDots(String string)
+   {
+      int i = 0;
+      while (i < string.length() && string.charAt(i) == '.')
+         i++;
+      return i;
+   }
+
+   // topics by package, in search path order
+   private final LinkedHashMap<String, List<Topic>> packages_ =
+         new LinkedHashMap<String, List<Topic>>();
+
+   private Map<Character, List<Topic>> buckets_;
+   private List<Topic> allTopics_;
+   private String lastQuery_;
+   private List<Topic> lastMatches_;
+}
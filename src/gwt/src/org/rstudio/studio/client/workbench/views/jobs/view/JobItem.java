@@ -103,23 +103,18 @@ public class JobItem extends Composite implements JobItemView
    public JobItem(@Assisted Job job, FireEvents eventBus, Preferences prefs)
    {
       eventBus_ = eventBus;
+      // the handlers refer to job_ rather than job, since rows in a long
+      // list are recycled to show other jobs as the list scrolls (see update)
       stop_ = new ToolbarButton(ToolbarButton.NoText, "Stop job", new ImageResource2x(RESOURCES.jobCancel()), evt ->
       {
-         eventBus_.fireEvent(new JobExecuteActionEvent(job.id, JobConstants.ACTION_STOP));
+         eventBus_.fireEvent(new JobExecuteActionEvent(job_.id, JobConstants.ACTION_STOP));
       });
       
       initWidget(uiBinder.createAndBindUi(this));
       
-      name_.setText(job.name);
-      progress_.setLabel(job.name);
       spinner_.setResource(new ImageResource2x(RESOURCES.jobSpinner()));
 
       ImageResource2x detailsImage = new ImageResource2x(RESOURCES.jobSelect());
-      if (JsArrayUtil.jsArrayStringContains(job.actions, JobConstants.ACTION_INFO))
-      {
-         select_.addStyleName(styles_.noSelect());
-      }
-      
       select_.setResource(detailsImage);
       select_.setAltText("Select Job");
 
@@ -132,7 +127,7 @@ public class JobItem extends Composite implements JobItemView
             // ignore clicks occurring inside the stop button
             return;
          }
-         eventBus_.fireEvent(new JobSelectionEvent(job.id, job.type, true, !prefs.reducedMotion()));
+         eventBus_.fireEvent(new JobSelectionEvent(job_.id, job_.type, true, !prefs.reducedMotion()));
       };
       select_.addClickHandler(selectJob);
       panel_.addClickHandler(selectJob);
@@ -148,6 +143,15 @@ public class JobItem extends Composite implements JobItemView
       // cache reference to job
       job_ = job;
       
+      // sync the parts of the row that only change if the row is reused for
+      // a different job
+      name_.setText(job_.name);
+      progress_.setLabel(job_.name);
+      if (JsArrayUtil.jsArrayStringContains(job_.actions, JobConstants.ACTION_INFO))
+         select_.addStyleName(styles_.noSelect());
+      else
+         select_.removeStyleName(styles_.noSelect());
+      
       String clazz = "";
       String state = JobConstants.stateDescription(job_.state);
 
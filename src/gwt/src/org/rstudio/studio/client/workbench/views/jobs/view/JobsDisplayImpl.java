@@ -104,12 +104,19 @@ public class JobsDisplayImpl implements JobsDisplay
        // clear any existing output in the pane
       widgets_.getOutputPanel().clearOutput();
 
-      // display all the output, but don't scroll as we go
-      for (int i = 0; i < output.length(); i++)
+      // display all the output, but don't scroll as we go; consecutive
+      // chunks of the same type are written together, since each write
+      // lays out the output panel again
+      int i = 0;
+      while (i < output.length())
       {
+         int type = output.get(i).type();
+         StringBuilder text = new StringBuilder(output.get(i).output());
+         for (i++; i < output.length() && output.get(i).type() == type; i++)
+            text.append(output.get(i).output());
+         
          widgets_.getOutputPanel().showOutput(CompileOutput.create(
-               output.get(i).type(),
-               output.get(i).output()), false /* scroll */);
+               type, text.toString()), false /* scroll */);
       }
       
       // scroll to show all output so far
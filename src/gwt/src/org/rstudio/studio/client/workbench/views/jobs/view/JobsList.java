@@ -14,18 +14,22 @@
  */
 package org.rstudio.studio.client.workbench.views.jobs.view;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
 import com.google.inject.Inject;
 import org.rstudio.studio.client.workbench.views.jobs.model.Job;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.VerticalPanel;
 import com.google.gwt.user.client.ui.Widget;
 
@@ -41,10 +45,10 @@ public class JobsList extends Composite
    @Inject
    public JobsList(JobItemFactory jobItemFactory)
    {
-      jobItemFactory_ = jobItemFactory;
       initWidget(uiBinder.createAndBindUi(this));
    
-      listImpl_ = new JobsListViewImpl(list_);
+      listImpl_ = new JobsListViewImpl(list_, jobItemFactory);
+      scroll_.addScrollHandler(evt -> scheduleUpdateWindow());
       
       updateVisibility();
    }
@@ -52,10 +56,9 @@ public class JobsList extends Composite
    @Override
    public boolean addJob(Job job)
    {
-      if (listImpl_.hasJob(job.id))
+      if (!listImpl_.addJob(job))
          return false;
    
-      listImpl_.addJob(jobItemFactory_.create(job)); 
       updateVisibility();
       return true;
    }
@@ -63,10 +66,9 @@ public class JobsList extends Composite
    @Override
    public boolean insertJob(Job job)
    {
-      if (listImpl_.hasJob(job.id))
+      if (!listImpl_.insertJob(job))
          return false;
       
-      listImpl_.insertJob(jobItemFactory_.create(job));
       updateVisibility();
       return true;
    }
@@ -125,28 +127,106 @@ public class JobsList extends Composite
       clear();
      
       // sort jobs by most recently recorded first
-      List<Job> sortedJobs = jobs;
+      List<Job> sortedJobs = new ArrayList<>(jobs);
       sortedJobs.sort(Comparator.comparingInt(j -> j.recorded));
+      Collections.reverse(sortedJobs);
       
-      // add each to the panel
-      for (Job job: sortedJobs)
-      {
-         addJob(job);
-      }
+      // clearing left the window open to every job; narrow it first so that
+      // only the first page of a long list gets rows
+      if (sortedJobs.size() > VIRTUALIZE_THRESHOLD)
+         listImpl_.setWindow(0, WINDOW_SIZE);
+      
+      // add them to the panel all at once
+      listImpl_.setJobs(sortedJobs);
+      updateVisibility();
    }
    
    private void updateVisibility()
    {
       scroll_.setVisible(jobCount() > 0);
       empty_.setVisible(jobCount() == 0);
+      updateWindow(true);
+   }
+   
+   private void scheduleUpdateWindow()
+   {
+      if (pendingUpdateWindow_ != null)
+         return;
+
+      pendingUpdateWindow_ = AnimationScheduler.get().requestAnimationFrame(
+            new AnimationScheduler.AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            pendingUpdateWindow_ = null;
+            updateWindow(false);
+         }
+      });
+   }
+
+   // Long lists of jobs draw only a window of rows around the scroll
+   // position, with spacers above and below standing in for the rest.
+   private void updateWindow(boolean force)
+   {
+      int count = jobCount();
+      if (count <= VIRTUALIZE_THRESHOLD)
+      {
+         listImpl_.setWindow(0, Integer.MAX_VALUE);
+         setSpacerHeights(0, 0);
+         return;
+      }
+
+      int rowHeight = getRowHeight();
+      int firstVisible = scroll_.getVerticalScrollPosition() / rowHeight;
+      int visibleCount = scroll_.getOffsetHeight() / rowHeight + 1;
+
+      int start = listImpl_.getWindowStart();
+      boolean needsMove =
+            force ||
+            listImpl_.getWindowLength() != WINDOW_SIZE ||
+            (start > 0 && firstVisible < start + WINDOW_PADDING) ||
+            (start + WINDOW_SIZE < count &&
+             firstVisible + visibleCount > start + WINDOW_SIZE - WINDOW_PADDING);
+
+      if (!needsMove)
+         return;
+
+      // center the window on the visible rows
+      start = firstVisible - (WINDOW_SIZE - visibleCount) / 2;
+      start = Math.max(0, Math.min(start, count - WINDOW_SIZE));
+      listImpl_.setWindow(start, WINDOW_SIZE);
+      setSpacerHeights(start * rowHeight,
+                       Math.max(0, count - start - WINDOW_SIZE) * rowHeight);
+   }
+
+   private void setSpacerHeights(int top, int bottom)
+   {
+      topSpacer_.setHeight(top + "px");
+      bottomSpacer_.setHeight(bottom + "px");
+   }
+
+   private int getRowHeight()
+   {
+      // rows all have the same height, which we take from the drawn rows
+      int rows = listImpl_.rowCount();
+      if (rowHeight_ <= 0 && rows > 0)
+         rowHeight_ = list_.getOffsetHeight() / rows;
+      return rowHeight_ > 0 ? rowHeight_ : DEFAULT_ROW_HEIGHT;
    }
   
    @UiField VerticalPanel list_;
    @UiField Label empty_;
    @UiField ScrollPanel scroll_;
+   @UiField SimplePanel topSpacer_;
+   @UiField SimplePanel bottomSpacer_;
 
    private final JobsListViewImpl listImpl_;
-   
-   // injected
-   private final JobItemFactory jobItemFactory_;
+   private AnimationScheduler.AnimationHandle pendingUpdateWindow_;
+   private int rowHeight_;
+
+   static final int VIRTUALIZE_THRESHOLD = 100;
+   static final int WINDOW_SIZE = 60;
+   private static final int WINDOW_PADDING = 15;
+   private static final int DEFAULT_ROW_HEIGHT = 50;
 }
@@ -53,7 +53,7 @@ public interface JobsListView
    void clear();
 
    /**
-    *  Update timestamp of all jobs
+    *  Update elapsed time of running jobs that are currently displayed
     * @param timestamp
     */
    void syncElapsedTime(int timestamp);
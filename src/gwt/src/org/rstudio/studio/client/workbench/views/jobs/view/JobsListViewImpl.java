@@ -16,92 +16,126 @@ package org.rstudio.studio.client.workbench.views.jobs.view;
 
 import com.google.gwt.user.client.ui.VerticalPanel;
 import org.rstudio.studio.client.workbench.views.jobs.model.Job;
+import org.rstudio.studio.client.workbench.views.jobs.model.JobConstants;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Keeps the list of jobs (in display order) and draws a window of them into
+ * a panel. Only the jobs in the window have rows; rows for jobs that leave
+ * the window are kept in a pool and reused for jobs that enter it, so that
+ * a long list of jobs needs only as many widgets as the window holds.
+ */
 public class JobsListViewImpl
 {
-   JobsListViewImpl(VerticalPanel list)
+   JobsListViewImpl(VerticalPanel list, JobItemFactory factory)
    {
-      jobs_ = new HashMap<>();
+      jobs_ = new ArrayList<>();
+      jobsById_ = new HashMap<>();
+      rows_ = new ArrayList<>();
+      rowsById_ = new HashMap<>();
+      pool_ = new ArrayList<>();
       list_ = list;
+      factory_ = factory;
    }
    
-   public boolean addJob(JobItemView item)
+   public boolean addJob(Job job)
    {
-      if (hasJob(item.getJob().id))
-         return false;
-
-      jobs_.put(item.getJob().id, item);
-      list_.insert(item, 0);
-      return true;
+      return insertJobAt(job, 0);
    }
    
-   public boolean insertJob(JobItemView item)
+   public boolean insertJob(Job job)
    {
-      if (hasJob(item.getJob().id))
+      if (hasJob(job.id))
          return false;
       
       // keep list sorted with most recently recorded jobs first
       int i;
-      for (i = 0; i < list_.getWidgetCount(); i++)
+      for (i = 0; i < jobs_.size(); i++)
       {
-         if (((JobItemView)list_.getWidget(i)).getJob().recorded <= item.getJob().recorded)
+         if (jobs_.get(i).recorded <= job.recorded)
             break;
       }
-      insertJobAt(item, i);
-      return true;
+      return insertJobAt(job, i);
    }
    
-   public boolean insertJobAt(JobItemView item, int position)
+   public boolean insertJobAt(Job job, int position)
    {
-      if (hasJob(item.getJob().id))
+      if (hasJob(job.id))
          return false;
       
-      jobs_.put(item.getJob().id, item);
-      list_.insert(item, position);
+      jobsById_.put(job.id, job);
+      jobs_.add(position, job);
+      render();
       return true;
    }
    
+   /**
+    * Replaces the list with the given jobs (in display order), ignoring any
+    * duplicates.
+    */
+   public void setJobs(List<Job> jobs)
+   {
+      jobs_.clear();
+      jobsById_.clear();
+      for (Job job: jobs)
+      {
+         if (hasJob(job.id))
+            continue;
+         jobsById_.put(job.id, job);
+         jobs_.add(job);
+      }
+      render();
+   }
+   
    public boolean removeJob(Job job)
    {
-      if (!jobs_.containsKey(job.id))
+      if (!jobsById_.containsKey(job.id))
          return false;
       
-      list_.remove(jobs_.get(job.id));
-      jobs_.remove(job.id);
+      jobs_.remove(indexOf(job.id));
+      jobsById_.remove(job.id);
+      render();
       return true;
    }
    
    public void updateJob(Job job)
    {
-      if (!jobs_.containsKey(job.id))
+      if (!jobsById_.containsKey(job.id))
          return;
-      jobs_.get(job.id).update(job);
+      
+      jobs_.set(indexOf(job.id), job);
+      jobsById_.put(job.id, job);
+      
+      // jobs outside the window are brought up to date when they're drawn
+      JobItemView row = rowsById_.get(job.id);
+      if (row != null)
+         row.update(job);
    }
    
    public void clear()
    {
-      list_.clear();
       jobs_.clear();
+      jobsById_.clear();
+      render();
    }
    
    public void syncElapsedTime(int timestamp)
    {
-      for (JobItemView item: jobs_.values())
+      // the elapsed time only changes for running jobs
+      for (JobItemView row: rows_)
       {
-         item.syncTime(timestamp);
+         if (row.getJob().state == JobConstants.STATE_RUNNING)
+            row.syncTime(timestamp);
       }
    }
    
    public Job getJob(String id)
    {
-      if (jobs_.containsKey(id))
-         return jobs_.get(id).getJob();
-      return null;
+      return jobsById_.get(id);
    }
    
    public int jobCount()
@@ -111,22 +145,129 @@ public class JobsListViewImpl
    
    public List<Job> getJobs()
    {
-      ArrayList<Job> jobList = new ArrayList<>();
-
       // return jobs in same order they are displayed
-      for (int i = 0; i < list_.getWidgetCount(); i++)
-      {
-         JobItemView jobItem = (JobItemView)list_.getWidget(i);
-         jobList.add(jobItem.getJob());
-      }
-      return jobList;
+      return new ArrayList<>(jobs_);
    }
 
    public boolean hasJob(String id)
    {
-      return jobs_.containsKey(id);
+      return jobsById_.containsKey(id);
+   }
+   
+   /**
+    * Sets the range of jobs (by position in the list) that have rows.
+    */
+   public void setWindow(int start, int length)
+   {
+      if (start == windowStart_ && length == windowLength_)
+         return;
+      
+      windowStart_ = start;
+      windowLength_ = length;
+      render();
+   }
+   
+   public int getWindowStart()
+   {
+      return windowStart_;
+   }
+   
+   public int getWindowLength()
+   {
+      return windowLength_;
    }
    
-   private final Map<String, JobItemView> jobs_;
+   /**
+    * @return The number of rows currently drawn.
+    */
+   public int rowCount()
+   {
+      return rows_.size();
+   }
+   
+   private int indexOf(String id)
+   {
+      for (int i = 0; i < jobs_.size(); i++)
+      {
+         if (jobs_.get(i).id.equals(id))
+            return i;
+      }
+      return -1;
+   }
+   
+   // Brings the rows in the panel in line with the jobs in the window.
+   private void render()
+   {
+      int start = Math.min(windowStart_, jobs_.size());
+      int end = (int)Math.min((long)start + windowLength_, jobs_.size());
+      
+      // rows for jobs still in the window are kept as they are
+      Map<String, JobItemView> oldRows = new HashMap<>(rowsById_);
+      List<JobItemView> rows = new ArrayList<>(end - start);
+      for (int i = start; i < end; i++)
+      {
+         Job job = jobs_.get(i);
+         JobItemView row = oldRows.remove(job.id);
+         if (row != null && row.getJob() != job)
+            row.update(job);
+         rows.add(row);
+      }
+      
+      // rows for jobs that left the window go back to the pool
+      for (JobItemView row: oldRows.values())
+      {
+         list_.remove(row);
+         pool_.add(row);
+      }
+      
+      // draw the jobs that entered the window, reusing pooled rows if we can
+      rowsById_.clear();
+      for (int i = 0; i < rows.size(); i++)
+      {
+         Job job = jobs_.get(start + i);
+         JobItemView row = rows.get(i);
+         if (row == null)
+         {
+            if (pool_.isEmpty())
+            {
+               row = factory_.create(job);
+            }
+            else
+            {
+               row = pool_.remove(pool_.size() - 1);
+               row.update(job);
+            }
+            rows.set(i, row);
+         }
+         rowsById_.put(job.id, row);
+         
+         // inserting a row that's already in the panel moves it
+         if (i >= list_.getWidgetCount() || list_.getWidget(i) != row.asWidget())
+            list_.insert(row, i);
+      }
+      
+      rows_.clear();
+      rows_.addAll(rows);
+      
+      // pooled rows are only useful for refilling the window
+      if (pool_.size() > rows_.size())
+         pool_.subList(rows_.size(), pool_.size()).clear();
+   }
+   
+   // all jobs, in display order
+   private final List<Job> jobs_;
+   private final Map<String, Job> jobsById_;
+   
+   // rows for the jobs in the window, in display order
+   private final List<JobItemView> rows_;
+   private final Map<String, JobItemView> rowsById_;
+   
+   // rows not currently in use
+   private final List<JobItemView> pool_;
+   
+   private int windowStart_ = 0;
+   private int windowLength_ = Integer.MAX_VALUE;
+   
    private final VerticalPanel list_;
+   private final JobItemFactory factory_;
 }
@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.packages;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.Command;
@@ -802,14 +803,31 @@ public class Packages
    
    public void onPackageStateChanged(PackageStateChangedEvent event)
    {
-      PackageState newState = event.getPackageState();
+      // package state changes often arrive in bursts (e.g. library() called
+      // in a loop, or installing a package with many dependencies), so only
+      // act on the most recent change once per frame. if the event contains
+      // embedded state, apply it directly; if it doesn't, fetch the new state
+      // from the server.
+      pendingPackageState_ = event.getPackageState();
+      if (pendingPackageStateHandle_ != null)
+         return;
       
-      // if the event contains embedded state, apply it directly; if it doesn't,
-      // fetch the new state from the server.
-      if (newState != null)
-         setPackageState(newState);
-      else
-         updatePackageState(false, false);
+      pendingPackageStateHandle_ = AnimationScheduler.get().requestAnimationFrame(
+            new AnimationScheduler.AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            PackageState newState = pendingPackageState_;
+            pendingPackageState_ = null;
+            pendingPackageStateHandle_ = null;
+            
+            if (newState != null)
+               setPackageState(newState);
+            else
+               updatePackageState(false, false);
+         }
+      });
    }
    
    @Override
@@ -1279,6 +1297,8 @@ public class Packages
    private ArrayList<PackageInfo> allPackages_ = new ArrayList<PackageInfo>();
    private ProjectContext projectContext_;
    private String packageFilter_ = new String();
+   private PackageState pendingPackageState_ = null;
+   private AnimationScheduler.AnimationHandle pendingPackageStateHandle_ = null;
    private HandlerRegistration consolePromptHandlerReg_ = null;
    private final EventBus events_;
    private final GlobalDisplay globalDisplay_;
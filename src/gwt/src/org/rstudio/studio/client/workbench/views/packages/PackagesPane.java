@@ -108,9 +108,30 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
    public void setPackageState(ProjectContext projectContext, 
                                List<PackageInfo> packages)
    {
+      // the set of columns depends on whether a project-local library is
+      // active, so only rebuild the table when that changes; otherwise,
+      // update just the rows that differ from what's already displayed
+      boolean rebuildTable =
+            packagesTable_ == null ||
+            projectContext_ == null ||
+            projectContext_.isActive() != projectContext.isActive();
+      
       projectContext_ = projectContext;
-      packagesDataProvider_.setList(packages);
-      createPackagesTable();
+      if (rebuildTable)
+      {
+         // copy the list, as the data provider edits the list it wraps
+         packagesDataProvider_.setList(new ArrayList<PackageInfo>(packages));
+         createPackagesTable();
+      }
+      else
+      {
+         applyPackageListChanges(packagesDataProvider_.getList(), packages);
+         
+         // the table shows every row, so grow (or shrink) its page with
+         // the list
+         if (packagesTable_.getPageSize() != packages.size())
+            packagesTable_.setPageSize(packages.size());
+      }
 
       // manage visibility of Packrat / renv menu buttons
       PackratContext packratContext = projectContext_.getPackratContext();
@@ -166,6 +187,53 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
       }
    }
    
+   // update the displayed rows to match the new package list. rows are
+   // matched by (name, library); the common leading and trailing runs of
+   // rows are updated in place (only when their contents changed) and only
+   // the differing middle section is replaced, so the data grid redraws
+   // just the affected range
+   private void applyPackageListChanges(List<PackageInfo> rows,
+                                        List<PackageInfo> packages)
+   {
+      int oldSize = rows.size();
+      int newSize = packages.size();
+      
+      int prefix = 0;
+      while (prefix < oldSize && prefix < newSize &&
+             rows.get(prefix).hasSameKey(packages.get(prefix)))
+      {
+         prefix++;
+      }
+      
+      int suffix = 0;
+      while (suffix < oldSize - prefix && suffix < newSize - prefix &&
+             rows.get(oldSize - suffix - 1).hasSameKey(packages.get(newSize - suffix - 1)))
+      {
+         suffix++;
+      }
+      
+      for (int i = 0; i < prefix; i++)
+      {
+         if (!rows.get(i).isEquivalentTo(packages.get(i)))
+            rows.set(i, packages.get(i));
+      }
+      
+      for (int i = 0; i < suffix; i++)
+      {
+         int oldRow = oldSize - suffix + i;
+         int newRow = newSize - suffix + i;
+         if (!rows.get(oldRow).isEquivalentTo(packages.get(newRow)))
+            rows.set(oldRow, packages.get(newRow));
+      }
+      
+      List<PackageInfo> changed = rows.subList(prefix, oldSize - suffix);
+      if (!changed.isEmpty() || newSize - suffix > prefix)
+      {
+         changed.clear();
+         changed.addAll(packages.subList(prefix, newSize - suffix));
+      }
+   }
+   
    private int packageRow(String packageName, String packageLib)
    {
       // if we haven't retrieved packages yet then return not found
@@ -17,6 +17,8 @@ package org.rstudio.studio.client.workbench.views.packages.model;
 
 import com.google.gwt.core.client.JavaScriptObject;
 
+import org.rstudio.core.client.StringUtil;
+
 public class PackageInfo extends JavaScriptObject 
 {
    public static enum Source
@@ -118,6 +120,30 @@ public class PackageInfo extends JavaScriptObject
       return sourceLibrary.length() == 0 ? getLibrary() : sourceLibrary;
    }
    
+   // do the two records refer to the same package in the same library?
+   public final boolean hasSameKey(PackageInfo other)
+   {
+      return StringUtil.equals(getName(), other.getName()) &&
+             StringUtil.equals(getLibrary(), other.getLibrary());
+   }
+   
+   // do the two records have identical fields? (ignores properties used
+   // internally by GWT, e.g. the '$H' hash code)
+   public final native boolean isEquivalentTo(PackageInfo other) /*-{
+      var fields = function(object) {
+         return Object.keys(object).filter(function(key) {
+            return key.charAt(0) !== "$";
+         });
+      };
+      var keys = fields(this);
+      if (keys.length !== fields(other).length)
+         return false;
+      for (var i = 0; i < keys.length; i++)
+         if (this[keys[i]] !== other[keys[i]])
+            return false;
+      return true;
+   }-*/;
+   
    public final PackageInfo asLoaded()
    {
       return asLoadedState(true);
@@ -28,6 +28,7 @@ import com.google.inject.Provider;
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Point;
 import org.rstudio.core.client.Size;
+import org.rstudio.core.client.container.LruCache;
 import org.rstudio.core.client.dom.WindowEx;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.widget.HasCustomizableToolbar;
@@ -189,6 +190,13 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       view_.setProgress(false);
       manipulatorManager_.setProgress(false);
       
+      // plot indices shift when plots are removed from the history, so
+      // we can no longer trust our cache of rendered plots
+      if (plotsState.getPlotCount() < plotCount_)
+         renderedPlots_.clear();
+      plotIndex_ = plotsState.getPlotIndex();
+      plotCount_ = plotsState.getPlotCount();
+      
       // if this is the empty plot then clear the display
       // NOTE: we currently return a zero byte PNG as our "empty.png" from
       // the server. this is shown as a blank pane by Webkit, however
@@ -202,6 +210,11 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       {
          String url = server_.getGraphicsUrl(plotsState.getFilename());
          view_.showPlot(url);
+         
+         // the server keeps a single rendered image per plot, so a plot
+         // rendered at a new size replaces any older entry for it
+         renderedPlots_.put(plotIndex_, new RenderedPlot(
+               url, new Size(plotsState.getWidth(), plotsState.getHeight())));
       }
       
       // activate the plots tab if requested
@@ -230,14 +243,16 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    void onNextPlot()
    {
       view_.bringToFront();
-      setChangePlotProgress();
+      if (!showRenderedPlot(plotIndex_ + 1))
+         setChangePlotProgress();
       server_.nextPlot(new PlotRequestCallback());
    }
 
    void onPreviousPlot()
    {
       view_.bringToFront();
-      setChangePlotProgress();
+      if (!showRenderedPlot(plotIndex_ - 1))
+         setChangePlotProgress();
       server_.previousPlot(new PlotRequestCallback());
    }
    
@@ -257,6 +272,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
             public void execute(final ProgressIndicator indicator)
             {
                indicator.onProgress("Removing plot...");
+               renderedPlots_.clear();
                server_.removePlot(new VoidServerRequestCallback(indicator));
             }
          },
@@ -284,6 +300,7 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
             public void execute(final ProgressIndicator indicator)
             {
                indicator.onProgress("Clearing plots...");
+               renderedPlots_.clear();
                server_.clearPlots(new VoidServerRequestCallback(indicator));
             }
          },
@@ -503,6 +520,34 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       }
    }
    
+   // show a recently rendered image of the plot at the given index (if we
+   // have one at the current plot size) while the server switches plots;
+   // the display is left as-is when the server reports the same image
+   private boolean showRenderedPlot(int plotIndex)
+   {
+      if (plotSize_ == null || plotIndex < 0 || plotIndex >= plotCount_)
+         return false;
+      
+      RenderedPlot plot = renderedPlots_.get(plotIndex);
+      if (plot == null || !plot.size.equals(plotSize_))
+         return false;
+      
+      view_.showPlot(plot.url);
+      return true;
+   }
+   
+   private static class RenderedPlot
+   {
+      public RenderedPlot(String url, Size size)
+      {
+         this.url = url;
+         this.size = size;
+      }
+      
+      public final String url;
+      public final Size size;
+   }
+   
    private void setChangePlotProgress()
    {
       if (!Desktop.isDesktop())
@@ -622,4 +667,13 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    
    // size of most recently rendered plot
    Size plotSize_ = null;
+   
+   // position of the current plot in the plot history
+   private int plotIndex_ = -1;
+   private int plotCount_ = 0;
+   
+   // recently rendered plot images, keyed by plot index
+   private final LruCache<Integer, RenderedPlot> renderedPlots_ =
+         new LruCache<Integer, RenderedPlot>(MAX_RENDERED_PLOTS);
+   private static final int MAX_RENDERED_PLOTS = 10;
 }
@@ -118,6 +118,7 @@ public class PlotsPane extends WorkbenchPane implements Plots.Display,
       frame_.setMarginHeight(0);
       frame_.setUrl("about:blank");
       frame_.setSize("100%", "100%");
+      frame_.setPreserveAspectRatio(true);
       ElementIds.assignElementId(frame_.getElement(), 
                                  ElementIds.PLOT_IMAGE_FRAME);
 
@@ -157,6 +158,14 @@ public class PlotsPane extends WorkbenchPane implements Plots.Display,
       // save plot url for refresh
       plotUrl_ = plotUrl;
 
+      // nothing to do if we're already showing this image (e.g. it was
+      // shown from the cache of recently rendered plots)
+      if (plotUrl.equals(frame_.getImageUrl()))
+      {
+         plotsToolbar_.invalidateSeparators();
+         return;
+      }
+
       // use frame.contentWindow.location.replace to avoid having the plot
       // enter the browser's history
       frame_.setImageUrl(plotUrl);
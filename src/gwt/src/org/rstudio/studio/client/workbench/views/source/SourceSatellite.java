@@ -49,5 +49,18 @@ public class SourceSatellite extends SatelliteApplication
       initialize(name_, view, satellite, pAceThemes, pUserPrefs, exHandler, commands);
    }
    
+   @Override
+   protected String[] getEventInterests()
+   {
+      // chunk output and the editors' console hooks consume console output
+      return new String[] {
+         "console_output",
+         "console_error",
+         "console_write_prompt",
+         "console_write_input",
+         "console_process_output"
+      };
+   }
+   
    private final String name_;
 }
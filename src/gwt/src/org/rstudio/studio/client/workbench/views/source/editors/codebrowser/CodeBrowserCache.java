@@ -0,0 +1,103 @@
+/*
+ * CodeBrowserCache.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.codebrowser;
+
+import org.rstudio.core.client.container.LruCache;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.workbench.codesearch.model.SearchPathFunctionDefinition;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// Function definitions recently shown in code browsers, shared by all of
+// them, so that navigating back to a function (e.g. via the source
+// navigation history) doesn't require another round trip to the session.
+// Only functions from packages are cached, since those only change when
+// packages are installed or removed (at which point the cache is cleared);
+// functions defined in the global environment (or other environments) and
+// code being debugged are always fetched from the session.
+@Singleton
+public class CodeBrowserCache
+{
+   @Inject
+   public CodeBrowserCache(EventBus events)
+   {
+      events.addHandler(PackageStateChangedEvent.TYPE, (event) -> cache_.clear());
+   }
+
+   public SearchPathFunctionDefinition get(String namespace, String name)
+   {
+      return cache_.get(key(namespace, name));
+   }
+
+   public void put(SearchPathFunctionDefinition functionDef)
+   {
+      if (functionDef.isActiveDebugCode())
+         return;
+
+      String namespace = functionDef.getNamespace();
+      if (namespace == null || !namespace.startsWith(PACKAGE_PREFIX))
+         return;
+
+      // don't cache lookup failures
+      String code = functionDef.getCode();
+      if (code == null || code.startsWith(ERROR_PREFIX))
+         return;
+
+      String key = key(namespace, functionDef.getName());
+      SearchPathFunctionDefinition previous = cache_.get(key);
+      if (previous != null && isSameCode(previous, functionDef))
+         return;
+
+      cache_.put(key, functionDef);
+   }
+
+   private static boolean isSameCode(SearchPathFunctionDefinition a,
+                                    SearchPathFunctionDefinition b)
+   {
+      String aCode = a.getCode();
+      String bCode = b.getCode();
+      return aCode != null && bCode != null &&
+             aCode.length() == bCode.length() &&
+             aCode.equals(bCode);
+   }
+
+   private static String key(String namespace, String name)
+   {
+      return namespace + ":::" + name;
+   }
+
+   private final LruCache<String, SearchPathFunctionDefinition> cache_ =
+         new LruCache<String, SearchPathFunctionDefinition>(
+               MAX_CACHED_CHARS,
+               new LruCache.Weigher<SearchPathFunctionDefinition>()
+               {
+                  @Override
+                  public int weigh(SearchPathFunctionDefinition value)
+                  {
+                     return value.getCode().length();
+                  }
+               });
+
+   // see namespaceIsPackage in SessionCodeSearch.cpp
+   private static final String PACKAGE_PREFIX = "package:";
+
+   // see createErrorFunctionDefinition in SessionCodeSearch.cpp
+   private static final String ERROR_PREFIX = "\n# ERROR: Definition of function";
+
+   // bound on the (approximate) number of characters of code held
+   private static final int MAX_CACHED_CHARS = 4 * 1024 * 1024;
+}
@@ -31,6 +31,7 @@ import com.google.inject.Provider;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.command.AppCommand;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
@@ -103,9 +104,11 @@ public class CodeBrowserEditingTarget implements EditingTarget
                                    UserPrefs prefs,
                                    FontSizeManager fontSizeManager,
                                    GlobalDisplay globalDisplay,
-                                   DocDisplay docDisplay)
+                                   DocDisplay docDisplay,
+                                   CodeBrowserCache cache)
    {
       server_ = server;
+      cache_ = cache;
       commands_ = commands;
       events_ = events;
       prefs_ = prefs;
@@ -213,6 +216,7 @@ public class CodeBrowserEditingTarget implements EditingTarget
    {
       // set the current function
       currentFunction_ = functionDef;
+      cache_.put(functionDef);
       view_.showFunction(functionDef);
       view_.scrollToLeft();
       name_.setValue(functionDef.getName(), true);
@@ -798,7 +802,7 @@ public class CodeBrowserEditingTarget implements EditingTarget
    
    private void ensureContext(String context, final Command onRestored)
    {
-      if (context != getContext())
+      if (!StringUtil.equals(context, getContext()))
       {
          // get namespace and function
          String[] contextElements = context.split(":::");
@@ -807,6 +811,15 @@ public class CodeBrowserEditingTarget implements EditingTarget
          String namespace = contextElements[0];
          String name = contextElements[1];
          
+         // use the definition we showed last time, if we still have it
+         SearchPathFunctionDefinition cached = cache_.get(namespace, name);
+         if (cached != null)
+         {
+            showFunction(cached);
+            onRestored.execute();
+            return;
+         }
+         
          server_.getSearchPathFunctionDefinition(
                name, 
                namespace, 
@@ -832,6 +845,7 @@ public class CodeBrowserEditingTarget implements EditingTarget
    private final Value<Boolean> dirtyState_ = new Value<Boolean>(false);
    private ArrayList<HandlerRegistration> releaseOnDismiss_ = new ArrayList<>();
    private final SourceServerOperations server_;
+   private final CodeBrowserCache cache_;
    private final Commands commands_;
    private final EventBus events_;
    private final GlobalDisplay globalDisplay_;
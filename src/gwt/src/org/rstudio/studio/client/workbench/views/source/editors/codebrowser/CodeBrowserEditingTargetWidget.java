@@ -242,7 +242,19 @@ public class CodeBrowserEditingTargetWidget extends ResizeComposite
    public void showFunction(SearchPathFunctionDefinition functionDef)
    {
       currentFunctionNamespace_ = functionDef.getNamespace();
-      docDisplay_.setCode(functionDef.getCode(), false); 
+      
+      // avoid re-tokenizing the code when we're already showing it (e.g.
+      // when stepping through a function while debugging)
+      if (StringUtil.equals(functionDef.getCode(), docDisplay_.getCode()))
+      {
+         if (!functionDef.isActiveDebugCode())
+            docDisplay_.setCursorPosition(Position.create(0, 0));
+      }
+      else
+      {
+         docDisplay_.setCode(functionDef.getCode(), false); 
+      }
+      
       // don't send focus to the display for debugging; we want it to stay in
       // the console
       if (!functionDef.isActiveDebugCode())
@@ -15,13 +15,17 @@
 package org.rstudio.studio.client.workbench.views.source.editors.explorer.view;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.JsVectorString;
 import org.rstudio.core.client.ListUtil;
 import org.rstudio.core.client.ListUtil.FilterPredicate;
 import org.rstudio.core.client.command.KeyboardShortcut;
+import org.rstudio.core.client.container.TreeRowIndex;
+import org.rstudio.core.client.container.TreeRowIndex.Node;
 import org.rstudio.core.client.SafeHtmlUtil;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.dom.DomUtils;
@@ -101,7 +105,6 @@ import com.google.gwt.user.cellview.client.TextHeader;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.view.client.CellPreviewEvent;
-import com.google.gwt.view.client.ListDataProvider;
 import com.google.inject.Inject;
 
 public class ObjectExplorerDataGrid
@@ -111,11 +114,6 @@ public class ObjectExplorerDataGrid
                  RowHoverEvent.Handler,
                  CellPreviewEvent.Handler<ObjectExplorerDataGrid.Data>
 {
-   private static interface Filter<T>
-   {
-      public boolean accept(T data);
-   }
-   
    public static class Data extends ObjectExplorerInspectionResult
    {
       protected Data()
@@ -140,21 +138,21 @@ public class ObjectExplorerDataGrid
          return hasTag(TAG_ATTRIBUTES);
       }
       
-      // The number of child rows that should be shown
-      // for this node.
-      public final native void setMaximumChildRowsShown(int limit)
+      // Whether further children can be retrieved from the server.
+      public final native void setMoreAvailable(boolean more)
       /*-{
-         this["maxChildRowsShown"] = limit;
+         this["more"] = more;
       }-*/;
       
-      public final int getMaximumChildRowsShown()
-      {
-         return getMaximumChildRowsShownImpl(DEFAULT_ROW_LIMIT);
-      }
+      // The node representing this row in the grid's tree index.
+      public final native void setIndexNode(Object node)
+      /*-{
+         this["index_node"] = node;
+      }-*/;
       
-      private final native int getMaximumChildRowsShownImpl(int defaultLimit)
+      public final native Object getIndexNode()
       /*-{
-         return this["maxChildRowsShown"] || defaultLimit;
+         return this["index_node"] || null;
       }-*/;
       
       // Whether this node is matched, according to the
@@ -193,21 +191,6 @@ public class ObjectExplorerDataGrid
          this["expansion_state"] = state;
       }-*/;
       
-      // Whether a particular row is visible (that is, whether
-      // the CellTable should draw this row).
-      private final native boolean isVisible()
-      /*-{
-         var visible = this["visible"];
-         if (typeof visible === "undefined")
-            return true;
-         return visible;
-      }-*/;
-      
-      public final native void setVisible(boolean visible)
-      /*-{
-         this["visible"] = visible;
-      }-*/;
-      
       // The parent data associated with a node.
       public final native Data getParentData()
       /*-{
@@ -583,10 +566,7 @@ public class ObjectExplorerDataGrid
       
       initializeColumnWidths();
       
-      // set updater
-      dataProvider_ = new ListDataProvider<Data>();
-      dataProvider_.setList(new ArrayList<Data>());
-      dataProvider_.addDataDisplay(this);
+      rows_ = new ArrayList<Data>();
       
       // register handlers
       setKeyboardSelectionHandler(this);
@@ -620,6 +600,7 @@ public class ObjectExplorerDataGrid
          return;
       
       showAttributes_ = showAttributes;
+      rebuildIndex();
       synchronize();
    }
    
@@ -885,6 +866,26 @@ public class ObjectExplorerDataGrid
       parentEl.getStyle().setPropertyPx("width", Math.max(0, remainingWidth));
    }
    
+   @Override
+   protected void onVisibleRowsChanged(int firstVisibleRow, int lastVisibleRow)
+   {
+      if (index_ == null || filtered_)
+         return;
+      
+      // start retrieving the next page of children once a 'More...'
+      // row comes within a screen of the visible rows
+      int screen = lastVisibleRow - firstVisibleRow + 1;
+      for (Node<Data> placeholder : new ArrayList<Node<Data>>(placeholders_))
+      {
+         int row = index_.getRow(placeholder);
+         if (row == -1)
+            continue;
+         
+         if (row >= firstVisibleRow - screen && row <= lastVisibleRow + screen)
+            retrieveMore(placeholder);
+      }
+   }
+   
    // Private Methods ----
    
    private void selectRowRelative(int delta)
@@ -909,6 +910,12 @@ public class ObjectExplorerDataGrid
       if (parent == null)
          return;
       
+      if (!filtered_)
+      {
+         setKeyboardSelectedRow(index_.getRow(nodeOf(parent)));
+         return;
+      }
+      
       List<Data> list = getData();
       for (int i = 0, n = row; i < n; i++)
       {
@@ -926,7 +933,7 @@ public class ObjectExplorerDataGrid
       
       if (data.isMorePlaceholder())
       {
-         retrieveMore(row);
+         retrieveMoreAt(row);
          return;
       }
       
@@ -986,7 +993,7 @@ public class ObjectExplorerDataGrid
       
       if (data.isMorePlaceholder())
       {
-         retrieveMore(row);
+         retrieveMoreAt(row);
          return;
       }
       
@@ -998,23 +1005,33 @@ public class ObjectExplorerDataGrid
       data.setExpansionState(ExpansionState.OPEN);
       
       // resolve children and show
+      final Node<Data> node = nodeOf(data);
+      final boolean needsFetch = data.getChildrenData() == null;
       withChildren(data, false, new Command()
       {
          @Override
          public void execute()
          {
-            // set all direct children as visible
-            JsArray<Data> children = data.getChildrenData();
-            for (int i = 0, n = children.length(); i < n; i++)
-               children.get(i).setVisible(true);
+            // rows may have moved while children were being retrieved
+            int nodeRow = index_.getRow(node);
+            
+            if (needsFetch)
+            {
+               index_.removeChildren(node, 0, node.getChildCount());
+               populateNode(node);
+            }
+            else
+            {
+               index_.setExpanded(node, true);
+            }
             
-            // set attributes as visible if available
-            Data attributes = data.getObjectAttributes().<Data>cast();
-            if (attributes != null)
-               attributes.setVisible(true);
+            if (nodeRow == -1)
+               return;
             
-            // force update of data grid
-            synchronize();
+            // insert the rows of the newly visible children
+            List<Data> rows = new ArrayList<Data>();
+            index_.collectDescendantRows(node, rows);
+            replaceRows(nodeRow + 1, 0, rows);
             setFocusDeferred(true);
          }
       });
@@ -1031,37 +1048,37 @@ public class ObjectExplorerDataGrid
       // toggle expansion state
       data.setExpansionState(ExpansionState.CLOSED);
       
-      // set direct children as non-visible
-      withChildren(data, false, new Command()
+      // remove the rows of the now hidden children
+      Node<Data> node = nodeOf(data);
+      int nodeRow = index_.getRow(node);
+      int count = node.getDescendantRowCount();
+      index_.setExpanded(node, false);
+      
+      if (nodeRow != -1)
+         replaceRows(nodeRow + 1, count, new ArrayList<Data>());
+      setFocusDeferred(true);
+   }
+   
+   private void setFocusDeferred(final boolean focused)
+   {
+      Scheduler.get().scheduleFinally(new ScheduledCommand()
       {
          @Override
          public void execute()
          {
-            // set all direct children as invisible
-            JsArray<Data> children = data.getChildrenData();
-            for (int i = 0, n = children.length(); i < n; i++)
-               children.get(i).setVisible(false);
-            
-            // set attributes as invisible if available
-            Data attributes = data.getObjectAttributes().<Data>cast();
-            if (attributes != null)
-               attributes.setVisible(false);
-            
-            // force update of data grid
-            synchronize();
-            setFocusDeferred(true);
+            setFocus(focused);
+            restoreScrollPosition();
          }
       });
    }
    
-   private void setFocusDeferred(final boolean focused)
+   private void restoreScrollPositionDeferred()
    {
       Scheduler.get().scheduleFinally(new ScheduledCommand()
       {
          @Override
          public void execute()
          {
-            setFocus(focused);
             restoreScrollPosition();
          }
       });
@@ -1084,25 +1101,83 @@ public class ObjectExplorerDataGrid
       events_.fireEvent(new SendToConsoleEvent(code, language, true));
    }
    
-   private void retrieveMore(int row)
+   private void retrieveMoreAt(int row)
    {
-      Data data = getData().get(row);
-      Data parent = data.getParentData();
-      if (parent == null)
-         return;
-      
       // select the previous row (so that we don't end up scrolling all over the place)
-      selectRowRelative(row);
+      setKeyboardSelectedRow(Math.max(0, row - 1));
+      retrieveMore(nodeOf(getData().get(row)));
+   }
+   
+   private void retrieveMore(final Node<Data> placeholder)
+   {
+      final Node<Data> parentNode = placeholder.getParent();
+      if (parentNode == null || pendingPages_.contains(placeholder))
+         return;
       
-      // update the limit on the number of children we're showing
-      parent.setMaximumChildRowsShown(parent.getMaximumChildRowsShown() + DEFAULT_ROW_LIMIT);
+      final Data parent = parentNode.getValue();
+      final int oldCount = parent.getNumChildren();
+      pendingPages_.add(placeholder);
       
       withChildren(parent, true, new Command()
       {
          @Override
          public void execute()
          {
-            synchronize();
+            pendingPages_.remove(placeholder);
+            
+            // the index may have been rebuilt while this page was
+            // being retrieved; if so, rebuild it again with the new page
+            if (placeholder.getParent() == null)
+            {
+               rebuildIndex();
+               synchronize();
+               return;
+            }
+            
+            List<Data> page = new ArrayList<Data>();
+            JsArray<Data> children = parent.getChildrenData();
+            for (int i = oldCount, n = children.length(); i < n; i++)
+               page.add(children.get(i));
+            
+            // insert the page ahead of the placeholder, and remove the
+            // placeholder if this was the last page
+            int placeholderRow = index_.getRow(placeholder);
+            List<Node<Data>> nodes = index_.insertChildren(
+                  parentNode,
+                  placeholder.getIndexInParent(),
+                  page);
+            
+            List<Data> rows = new ArrayList<Data>();
+            for (Node<Data> node : nodes)
+            {
+               node.getValue().setIndexNode(node);
+               populateNode(node);
+               index_.collectRows(node, rows);
+            }
+            
+            if (parent.isMoreAvailable())
+            {
+               rows.add(placeholder.getValue());
+            }
+            else
+            {
+               index_.removeChildren(parentNode, placeholder.getIndexInParent(), 1);
+               placeholders_.remove(placeholder);
+            }
+            
+            if (placeholderRow != -1)
+            {
+               replaceRows(placeholderRow, 1, rows);
+               restoreScrollPositionDeferred();
+            }
+         }
+      },
+      new Command()
+      {
+         @Override
+         public void execute()
+         {
+            pendingPages_.remove(placeholder);
          }
       });
    }
@@ -1110,6 +1185,14 @@ public class ObjectExplorerDataGrid
    private void withChildren(final Data data,
                              final boolean forceRequest,
                              final Command command)
+   {
+      withChildren(data, forceRequest, command, null);
+   }
+   
+   private void withChildren(final Data data,
+                             final boolean forceRequest,
+                             final Command command,
+                             final Command errorCommand)
    {
       // if we already have children, exit early
       JsArray<Data> children = data.getChildrenData();
@@ -1140,6 +1223,9 @@ public class ObjectExplorerDataGrid
                   for (int i = 0, n = children.length(); i < n; i++)
                      children.get(i).setParentData(data);
                   
+                  // record whether there are further pages of children
+                  data.setMoreAvailable(result.isMoreAvailable());
+                  
                   // set parent ownership for attributes
                   Data attributes = result.getObjectAttributes().<Data>cast();
                   if (attributes != null)
@@ -1157,6 +1243,8 @@ public class ObjectExplorerDataGrid
                public void onError(ServerError error)
                {
                   Debug.logError(error);
+                  if (errorCommand != null)
+                     errorCommand.execute();
                }
             });
    }
@@ -1181,6 +1269,7 @@ public class ObjectExplorerDataGrid
                   root_ = result.cast();
                   root_.updateChildOwnership();
                   root_.setExpansionState(ExpansionState.OPEN);
+                  rebuildIndex();
                   synchronize();
                   
                   Scheduler.get().scheduleDeferred(new ScheduledCommand()
@@ -1205,50 +1294,122 @@ public class ObjectExplorerDataGrid
       
    }
    
+   // Rebuilds the tree index from the data retrieved so far.
+   private void rebuildIndex()
+   {
+      index_ = new TreeRowIndex<Data>(root_);
+      placeholders_.clear();
+      pendingPages_.clear();
+      
+      root_.setIndexNode(index_.getRoot());
+      populateNode(index_.getRoot());
+   }
+   
+   // Adds the (already retrieved) children of a node to the index, followed
+   // by a 'More...' placeholder when further children are available and the
+   // node's attributes (if shown).
+   private void populateNode(Node<Data> node)
+   {
+      Data data = node.getValue();
+      List<Data> values = new ArrayList<Data>();
+      
+      JsArray<Data> children = data.getChildrenData();
+      if (children != null)
+      {
+         for (int i = 0, n = children.length(); i < n; i++)
+            values.add(children.get(i));
+      }
+      
+      if (data.isMoreAvailable())
+         values.add(Data.createMorePlaceholder(data));
+      
+      if (showAttributes_)
+      {
+         Data attributes = data.getObjectAttributes().<Data>cast();
+         if (attributes != null)
+            values.add(attributes);
+      }
+      
+      for (Node<Data> child : index_.addChildren(node, values))
+      {
+         Data value = child.getValue();
+         value.setIndexNode(child);
+         if (value.isMorePlaceholder())
+            placeholders_.add(child);
+         else
+            populateNode(child);
+      }
+      
+      index_.setExpanded(node, data.getExpansionState() == ExpansionState.OPEN);
+   }
+   
+   @SuppressWarnings("unchecked")
+   private static Node<Data> nodeOf(Data data)
+   {
+      return (Node<Data>) data.getIndexNode();
+   }
+   
+   // Replaces 'count' rows, starting at 'row', with the given rows; only the
+   // rows from that point onwards are pushed to the table.
+   private void replaceRows(int row, int count, List<Data> rows)
+   {
+      if (filtered_)
+      {
+         synchronize();
+         return;
+      }
+      
+      saveScrollPosition();
+      
+      rows_.subList(row, row + count).clear();
+      rows_.addAll(row, rows);
+      
+      setRowCount(rows_.size(), true);
+      setRowData(row, rows_.subList(row, rows_.size()));
+      redraw();
+   }
+   
    private void synchronize()
    {
+      if (index_ == null)
+         return;
+      
       saveScrollPosition();
       
       final String filter = StringUtil.notNull(filter_).trim();
+      filtered_ = !filter.isEmpty();
       
       // only include visible data in the table
-      // TODO: we should consider how to better handle
-      // piecewise updates to the table, rather than
-      // shunting a whole new list in
-      List<Data> data = flatten(root_, new Filter<Data>()
+      List<Data> data = new ArrayList<Data>(index_.getRowCount());
+      index_.collectRows(index_.getRoot(), data);
+      
+      // remove entries that don't match filter
+      if (filtered_)
       {
-         @Override
-         public boolean accept(Data data)
+         for (Data row : data)
          {
             // detect if this matches the current filter
-            if (!filter.isEmpty())
-            { 
-               data.setMatched(false);
-               String[] fields = {
-                     data.getDisplayName(),
-                     data.getDisplayType(),
-                     data.getDisplayDesc()
-               };
-
-               for (String field : fields)
+            if (row.isMorePlaceholder())
+               continue;
+            
+            row.setMatched(false);
+            String[] fields = {
+                  row.getDisplayName(),
+                  row.getDisplayType(),
+                  row.getDisplayDesc()
+            };
+            
+            for (String field : fields)
+            {
+               int index = field.toLowerCase().indexOf(filter.toLowerCase());
+               if (index != -1)
                {
-                  int index = field.toLowerCase().indexOf(filter.toLowerCase());
-                  if (index != -1)
-                  {
-                     data.setMatched(true);
-                     break;
-                  }
+                  row.setMatched(true);
+                  break;
                }
             }
-            
-            // otherwise, check whether it's currently visible
-            return data.isVisible();
          }
-      });
-      
-      // remove entries that don't match filter
-      if (!filter.isEmpty())
-      {
+         
          data = ListUtil.filter(data, new FilterPredicate<Data>()
          {
             @Override
@@ -1280,9 +1441,9 @@ public class ObjectExplorerDataGrid
    @Override
    public int getTotalNumberOfRows()
    {
-      if (dataProvider_ == null)
+      if (rows_ == null)
          return 0;
-      return getData().size();
+      return rows_.size();
    }
    
    public Data getCurrentSelection()
@@ -1295,58 +1456,14 @@ public class ObjectExplorerDataGrid
    
    public List<Data> getData()
    {
-      return dataProvider_.getList();
+      return rows_;
    }
    
    private void setData(List<Data> data)
    {
-      dataProvider_.setList(data);
-   }
-   
-   private final List<Data> flatten(Data data,
-                                    Filter<Data> filter) 
-   {
-      List<Data> list = new ArrayList<Data>();
-      flattenImpl(data, filter, list);
-      return list;
-   }
-   
-   private final void flattenImpl(Data data,
-                                  Filter<Data> filter,
-                                  List<Data> output)
-   {
-      // exit if we're not accepting data here
-      if (filter != null && !filter.accept(data))
-         return;
-      
-      // add data
-      output.add(data);
-      
-      // recurse through children
-      JsArray<Data> children = data.getChildrenData();
-      if (children == null)
-         return;
-      
-      // only add children within the drawing limit to this list
-      int n = Math.min(children.length(), data.getMaximumChildRowsShown());
-      for (int i = 0; i < n; i++)
-         flattenImpl(children.get(i), filter, output);
-      
-      // add a dummy 'More...' element
-      boolean drawMore = 
-            data.getExpansionState() == ExpansionState.OPEN &&
-            data.isMoreAvailable();
-      
-      if (drawMore)
-         output.add(Data.createMorePlaceholder(data));
-      
-      // add attributes if relevant
-      if (showAttributes_)
-      {
-         Data attributes = data.getObjectAttributes().<Data>cast();
-         if (attributes != null)
-            flattenImpl(data.getObjectAttributes().<Data>cast(), filter, output);
-      }
+      rows_ = data;
+      setRowCount(rows_.size(), true);
+      setRowData(0, rows_);
    }
    
    private void saveScrollPosition()
@@ -1372,7 +1489,18 @@ public class ObjectExplorerDataGrid
    private final IdentityColumn<Data> typeColumn_;
    private final IdentityColumn<Data> valueColumn_;
    
-   private final ListDataProvider<Data> dataProvider_;
+   // The rows currently drawn, and an index mapping between rows and nodes
+   // of the object tree (used to expand or collapse nodes without
+   // re-flattening the tree). When filtering, the rows are instead a
+   // filtered flattening of the tree.
+   private List<Data> rows_;
+   private TreeRowIndex<Data> index_;
+   private boolean filtered_;
+   
+   // 'More...' placeholder nodes, and those whose next page of children
+   // is currently being retrieved
+   private final List<Node<Data>> placeholders_ = new ArrayList<Node<Data>>();
+   private final Set<Node<Data>> pendingPages_ = new HashSet<Node<Data>>();
    
    private int scrollPosition_ = -1;
    private TableRowElement hoveredRow_;
@@ -1388,10 +1516,6 @@ public class ObjectExplorerDataGrid
    private static final int DEFAULT_NAME_COLUMN_WIDTH = 180;
    private static final int DEFAULT_TYPE_COLUMN_WIDTH = 180;
    
-   // NOTE: this should be synchronized with '.rs.explorer.defaultRowLimit' in
-   // SessionObjectExplorer.R
-   private static final int DEFAULT_ROW_LIMIT = 1000;
-   
    private static final String ACTION_OPEN    = "open";
    private static final String ACTION_CLOSE   = "close";
    private static final String ACTION_EXTRACT = "extract";
@@ -333,21 +333,27 @@ public class ProfilerEditingTarget implements EditingTarget,
       };
       
       if (getId() != null && !SourceWindowManager.isMainSourceWindow()) {
-         sourceServer_.getSourceDocument(getId(), new ServerRequestCallback<SourceDocument>()
+         // once the profile is shown, its frame (and the viewer's state) is
+         // kept across activations, so there's no need to fetch the document
+         // again from satellite windows
+         if (!htmlPathInitialized_)
          {
-            @Override
-            public void onResponseReceived(SourceDocument document)
+            sourceServer_.getSourceDocument(getId(), new ServerRequestCallback<SourceDocument>()
             {
-               doc_ = document;
-               activateOperation.execute();
-            }
+               @Override
+               public void onResponseReceived(SourceDocument document)
+               {
+                  doc_ = document;
+                  activateOperation.execute();
+               }
             
-            @Override
-            public void onError(ServerError error)
-            {
-               Debug.logError(error);
-            }
-         });
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+               }
+            });
+         }
       }
       else {
          activateOperation.execute();
@@ -144,6 +144,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.events.Brea
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.BreakpointSetEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CommandClickEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CursorChangedHandler;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangeSummaryEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorModeChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.FindRequestedEvent;
@@ -3089,6 +3090,14 @@ public class AceEditor implements DocDisplay,
       return widget_.addHandler(handler, DocumentChangedEvent.TYPE);
    }
    
+   public HandlerRegistration addDocumentChangeSummaryHandler(DocumentChangeSummaryEvent.Handler handler)
+   {
+      // summarize changes only once someone is interested in them
+      if (changeSummarizer_ == null)
+         changeSummarizer_ = new DocumentChangeSummarizer(this);
+      return handlers_.addHandler(DocumentChangeSummaryEvent.TYPE, handler);
+   }
+   
    public HandlerRegistration addCapturingKeyDownHandler(KeyDownHandler handler)
    {
       return widget_.addCapturingKeyDownHandler(handler);
@@ -4179,11 +4188,11 @@ public class AceEditor implements DocDisplay,
             }
          };
          
-         editor_.addDocumentChangedHandler(event ->
+         editor_.addDocumentChangeSummaryHandler(event ->
          {
             if (editor_.hasCodeModelScopeTree())
             {
-               row_ = event.getEvent().getRange().getStart().getRow();
+               row_ = event.getSummary().getFirstChangedRow();
                timer_.schedule(DELAY_MS);
             }
          });
@@ -4252,6 +4261,7 @@ public class AceEditor implements DocDisplay,
    private static final int DEBUG_CONTEXT_LINES = 2;
    private final HandlerManager handlers_ = new HandlerManager(this);
    private final AceEditorWidget widget_;
+   private DocumentChangeSummarizer changeSummarizer_;
    private final SnippetHelper snippets_;
    private final AceEditorMonitor monitor_;
    private ScrollAnimator scrollAnimator_;
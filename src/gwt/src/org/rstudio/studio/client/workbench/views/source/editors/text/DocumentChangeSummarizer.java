@@ -0,0 +1,77 @@
+/*
+ * DocumentChangeSummarizer.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangeSummaryEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+
+// Coalesces the individual Ace document changes made within an animation
+// frame into a single DocumentChangeSummary, which is shared by all of the
+// editor's consumers (rather than each of them re-deriving which rows
+// changed from every delta).
+public class DocumentChangeSummarizer implements DocumentChangedEvent.Handler
+{
+   public DocumentChangeSummarizer(AceEditor editor)
+   {
+      editor_ = editor;
+      editor_.addDocumentChangedHandler(this);
+   }
+
+   @Override
+   public void onDocumentChanged(DocumentChangedEvent event)
+   {
+      AceDocumentChangeEventNative change = event.getEvent();
+      int startRow = change.start.getRow();
+      int endRow = change.end.getRow();
+
+      if (change.getAction().startsWith("insert"))
+         summary_.recordInsert(startRow, endRow);
+      else
+         summary_.recordRemove(startRow, endRow);
+
+      if (pendingFlush_ == null)
+      {
+         pendingFlush_ = AnimationScheduler.get().requestAnimationFrame(
+               new AnimationScheduler.AnimationCallback()
+         {
+            @Override
+            public void execute(double timestamp)
+            {
+               pendingFlush_ = null;
+               flush();
+            }
+         });
+      }
+   }
+
+   private void flush()
+   {
+      if (!summary_.isDirty())
+         return;
+
+      DocumentChangeSummary summary = summary_;
+      summary_ = new DocumentChangeSummary();
+
+      editor_.fireEvent(new DocumentChangeSummaryEvent(summary));
+   }
+
+   private final AceEditor editor_;
+
+   private DocumentChangeSummary summary_ = new DocumentChangeSummary();
+   private AnimationScheduler.AnimationHandle pendingFlush_ = null;
+}
@@ -0,0 +1,167 @@
+/*
+ * DocumentChangeSummary.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A compact description of a batch of document changes: the range of rows
+// that were touched (in the coordinates of the document after all changes
+// in the batch were applied), and how rows that existed before the batch
+// have moved.
+public class DocumentChangeSummary
+{
+   private static class RowShift
+   {
+      public RowShift(int startRow, int endRow, boolean insert)
+      {
+         this.startRow = startRow;
+         this.endRow = endRow;
+         this.insert = insert;
+      }
+
+      public final int startRow;
+      public final int endRow;
+      public final boolean insert;
+   }
+
+   // Records text inserted between startRow and endRow (the rows of the
+   // start and end of the inserted text, once inserted).
+   public void recordInsert(int startRow, int endRow)
+   {
+      changeCount_++;
+
+      int count = endRow - startRow;
+      if (count > 0)
+      {
+         shifts_.add(new RowShift(startRow, endRow, true));
+         rowDelta_ += count;
+         if (isDirty())
+         {
+            if (firstChangedRow_ > startRow)
+               firstChangedRow_ += count;
+            if (lastChangedRow_ > startRow)
+               lastChangedRow_ += count;
+         }
+      }
+
+      markChanged(startRow, endRow);
+   }
+
+   // Records text removed between startRow and endRow (the rows of the
+   // start and end of the removed text, before it was removed).
+   public void recordRemove(int startRow, int endRow)
+   {
+      changeCount_++;
+
+      int count = endRow - startRow;
+      if (count > 0)
+      {
+         shifts_.add(new RowShift(startRow, endRow, false));
+         rowDelta_ -= count;
+         if (isDirty())
+         {
+            firstChangedRow_ = removeRows(firstChangedRow_, startRow, endRow);
+            lastChangedRow_ = removeRows(lastChangedRow_, startRow, endRow);
+         }
+      }
+
+      markChanged(startRow, startRow);
+   }
+
+   public boolean isDirty()
+   {
+      return firstChangedRow_ != -1;
+   }
+
+   public int getChangeCount()
+   {
+      return changeCount_;
+   }
+
+   // The first row touched by any of the changes, or -1 if none.
+   public int getFirstChangedRow()
+   {
+      return firstChangedRow_;
+   }
+
+   // The last row touched by any of the changes, or -1 if none.
+   public int getLastChangedRow()
+   {
+      return lastChangedRow_;
+   }
+
+   // The net number of rows added to (positive) or removed from
+   // (negative) the document.
+   public int getRowDelta()
+   {
+      return rowDelta_;
+   }
+
+   public boolean hasRowShifts()
+   {
+      return !shifts_.isEmpty();
+   }
+
+   // Maps a row from before the batch of changes to its row afterwards.
+   // Rows that were removed map to the row where the removal took place.
+   public int mapRow(int row)
+   {
+      for (int i = 0, n = shifts_.size(); i < n; i++)
+      {
+         RowShift shift = shifts_.get(i);
+         if (shift.insert)
+         {
+            if (row > shift.startRow)
+               row += shift.endRow - shift.startRow;
+         }
+         else
+         {
+            row = removeRows(row, shift.startRow, shift.endRow);
+         }
+      }
+      return row;
+   }
+
+   private void markChanged(int startRow, int endRow)
+   {
+      if (!isDirty())
+      {
+         firstChangedRow_ = startRow;
+         lastChangedRow_ = endRow;
+      }
+      else
+      {
+         firstChangedRow_ = Math.min(firstChangedRow_, startRow);
+         lastChangedRow_ = Math.max(lastChangedRow_, endRow);
+      }
+   }
+
+   private static int removeRows(int row, int startRow, int endRow)
+   {
+      if (row > endRow)
+         return row - (endRow - startRow);
+      else if (row > startRow)
+         return startRow;
+      return row;
+   }
+
+   private final List<RowShift> shifts_ = new ArrayList<RowShift>();
+
+   private int changeCount_ = 0;
+   private int firstChangedRow_ = -1;
+   private int lastChangedRow_ = -1;
+   private int rowDelta_ = 0;
+}
@@ -20,11 +20,10 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Token;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.TokenIterator;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.ActiveScopeChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CursorChangedEvent;
-import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangeSummaryEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.ScopeTreeReadyEvent;
 
 import com.google.gwt.core.client.JsArray;
-import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.logical.shared.AttachEvent;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.Timer;
@@ -57,16 +56,18 @@ public abstract class ScopeTreeManager
                   detach();
             }),
             
-            docDisplay.addDocumentChangedHandler((DocumentChangedEvent event) -> {
-               final Position position = event.getEvent().getRange().getStart();
-               Scheduler.get().scheduleDeferred(() -> {
+            // changes are coalesced per frame, so we invalidate (and
+            // rebuild) once from the first changed row rather than once
+            // per keystroke
+            docDisplay.addDocumentChangeSummaryHandler((DocumentChangeSummaryEvent event) -> {
+               Position position = Position.create(
+                     event.getSummary().getFirstChangedRow(), 0);
+               
+               Position rebuildPos = scopeManager_.invalidateFrom(position);
+               if (rebuildPos == null)
+                  rebuildPos = position;
                   
-                  Position rebuildPos = scopeManager_.invalidateFrom(Position.create(position));
-                  if (rebuildPos == null)
-                     rebuildPos = position;
-                     
-                  worker_.rebuildScopeTreeFromRow(rebuildPos.getRow());
-               });
+               worker_.rebuildScopeTreeFromRow(rebuildPos.getRow());
             }),
             
             docDisplay.addCursorChangedHandler((CursorChangedEvent event) -> {
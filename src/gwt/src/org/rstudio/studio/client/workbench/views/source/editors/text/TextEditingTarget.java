@@ -2959,6 +2959,8 @@ public class TextEditingTarget implements
       if (spelling_ != null)
          spelling_.onDismiss();
       
+      reformatHelper_.cancelReformat();
+      
       while (releaseOnDismiss_.size() > 0)
          releaseOnDismiss_.remove(0).removeHandler();
       
@@ -3112,7 +3114,66 @@ public class TextEditingTarget implements
          return;
       }
       
-      reformatHelper_.insertPrettyNewlines();
+      reformatHelper_.insertPrettyNewlines(
+            new TextEditingTargetReformatHelper.ProgressHandler()
+      {
+         @Override
+         public void onProgress(int percent)
+         {
+            // only show progress for selections that take more than a
+            // single slice to reformat; this uses the status bar's message
+            // area (rather than the notebook progress bar, whose cancel
+            // button interrupts R) and is cancelled with Escape
+            StatusBar statusBar = view_.getStatusBar();
+            String message = "Reformatting code (" + percent + "%) - press Esc to cancel";
+            if (reformatInProgress_)
+            {
+               statusBar.showMessage(message);
+               return;
+            }
+            
+            reformatInProgress_ = true;
+            statusBar.showMessage(message, new HideMessageHandler()
+            {
+               @Override
+               public boolean onNativePreviewEvent(NativePreviewEvent preview)
+               {
+                  if (!reformatInProgress_)
+                     return true;
+                  
+                  if (preview.getTypeInt() == Event.ONKEYDOWN &&
+                      preview.getNativeEvent().getKeyCode() == KeyCodes.KEY_ESCAPE)
+                  {
+                     preview.cancel();
+                     reformatHelper_.cancelReformat();
+                  }
+                  
+                  return false;
+               }
+            });
+         }
+         
+         @Override
+         public void onCompleted(boolean cancelled)
+         {
+            if (!reformatInProgress_)
+               return;
+            
+            // replacing the message also removes the Escape handler above
+            reformatInProgress_ = false;
+            view_.getStatusBar().showMessage(
+                  cancelled ? "Reformat cancelled" : "Reformat complete",
+                  new HideMessageHandler()
+            {
+               @Override
+               public boolean onNativePreviewEvent(NativePreviewEvent preview)
+               {
+                  int type = preview.getTypeInt();
+                  return type == Event.ONKEYDOWN || type == Event.ONMOUSEDOWN;
+               }
+            });
+         }
+      });
    }
    
    @Handler
@@ -7728,6 +7789,7 @@ public class TextEditingTarget implements
    private final TextEditingTargetSqlHelper sqlHelper_;
    private final TextEditingTargetPresentationHelper presentationHelper_;
    private final TextEditingTargetReformatHelper reformatHelper_;
+   private boolean reformatInProgress_;
    private final TextEditingTargetRHelper rHelper_;
    private TextEditingTargetVisualMode visualMode_;
    private TextEditingTargetIdleMonitor bgIdleMonitor_;
@@ -29,6 +29,11 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Positio
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Token;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Tokenizer;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+import com.google.gwt.event.shared.HandlerRegistration;
 
 public class TextEditingTargetReformatHelper
 {
@@ -560,6 +565,61 @@ public class TextEditingTargetReformatHelper
       private HashMap<String, String> complements_;
    }
    
+   // The state of a single scope (the tokens following an opening brace, up
+   // to its complement) during the newline insertion pass.
+   private class ScopeState
+   {
+      public ScopeState(String opener,
+                        String closer,
+                        int parenNestLevel,
+                        int braceNestLevel,
+                        boolean topLevel,
+                        int tabSize)
+      {
+         this.opener = opener;
+         this.closer = closer;
+         this.parenNestLevel = parenNestLevel;
+         this.braceNestLevel = braceNestLevel;
+         this.topLevel = topLevel;
+         this.tabSize = tabSize;
+         
+         // Root state == top level of document; no open braces yet
+         // encountered.
+         this.rootState = parenNestLevel == 0 && opener.isEmpty();
+      }
+      
+      public final String opener;
+      public final String closer;
+      public int parenNestLevel;
+      public final int braceNestLevel;
+      public final boolean topLevel;
+      public final int tabSize;
+      public final boolean rootState;
+      
+      public boolean newlineAfterComma = false;
+      public boolean newlineAfterBrace = false;
+      
+      public int commaCount = 0;
+      public int equalsCount = 0;
+      
+      // We may override newline insertions in special cases to ensure
+      // certain code structures remain intact, e.g.
+      //
+      //     lapply(x, function() { ... })
+      //
+      // We almost never want the anonymous function to lie on its own
+      // line.
+      public boolean overrideNewlineInsertionAsFalse = false;
+      
+      public String startValue;
+      public SimpleTokenCursor beforeStartCursor;
+      public String prevSignificantValue;
+      
+      // Accumulate the length of the (non-whitespace)
+      // tokens within this scope.
+      public int accumulatedLength = 0;
+   }
+   
    // The main driver of the new line inserter.
    //
    // 'cursor': The current token cursor, unique to this block.
@@ -570,154 +630,180 @@ public class TextEditingTargetReformatHelper
    //                   for deeply nested function calls.
    // 'braceNestLevel': The number of braces encompassing this scope.
    // 'topLevel': Is this a top level cursor?
+   // 'tabSize': The editor's tab width, used to estimate line lengths.
    void doInsertPrettyNewlines(SimpleTokenCursor cursor,
                                String opener,
                                String closer,
                                int parenNestLevel,
                                int braceNestLevel,
-                               boolean topLevel)
+                               boolean topLevel,
+                               int tabSize)
    {
-      // Root state == top level of document; no open braces yet
-      // encountered.
-      boolean rootState = parenNestLevel == 0 && opener.isEmpty();
+      ScopeState scope = beginScope(
+            cursor, opener, closer, parenNestLevel, braceNestLevel, topLevel,
+            tabSize);
       
-      boolean newlineAfterComma = false;
-      boolean newlineAfterBrace = false;
+      // Scan through once to figure out whether we want to insert newlines.
+      SimpleTokenCursor clone = cursor.clone();
+      while (clone.moveToNextToken())
+      {
+         if (scanToken(clone, scope) == SCAN_BREAK)
+            break;
+      }
       
-      int commaCount = 0;
-      int equalsCount = 0;
+      chooseNewlines(cursor, scope);
       
-      // We may override newline insertions in special cases to ensure
-      // certain code structures remain intact, e.g.
-      //
-      //     lapply(x, function() { ... })
-      //
-      // We almost never want the anonymous function to lie on its own
-      // line.
-      boolean overrideNewlineInsertionAsFalse = false;
+      // Now, walk through and replace tokens with appropriately white-spaced
+      // versions.
+      while (cursor.moveToNextToken())
+      {
+         int result = walkToken(cursor, scope);
+         if (result == WALK_BREAK)
+            break;
+         else if (result == WALK_ABORT)
+            return;
+      }
+      
+      endScope(cursor, scope);
+   }
+   
+   private ScopeState beginScope(SimpleTokenCursor cursor,
+                                 String opener,
+                                 String closer,
+                                 int parenNestLevel,
+                                 int braceNestLevel,
+                                 boolean topLevel,
+                                 int tabSize)
+   {
+      ScopeState scope = new ScopeState(
+            opener, closer, parenNestLevel, braceNestLevel, topLevel, tabSize);
       
-      String startValue = cursor.currentValue();
-      SimpleTokenCursor beforeStartCursor = cursor.clone();
-      beforeStartCursor.moveToPreviousSignificantToken();
+      scope.startValue = cursor.currentValue();
+      scope.beforeStartCursor = cursor.clone();
+      scope.beforeStartCursor.moveToPreviousSignificantToken();
       
-      String prevSignificantValue = beforeStartCursor.getValue();
+      scope.prevSignificantValue = scope.beforeStartCursor.getValue();
       
       // Trim whitespace following the 'opener' -- we may add it back later.
-      if (!rootState)
+      if (!scope.rootState)
          cursor.peek(1).trimWhitespaceFwd();
       
-      // Scan through once to figure out whether we want to insert newlines.
-      SimpleTokenCursor clone = cursor.clone();
+      return scope;
+   }
+   
+   // Scans a single token of the scope, accumulating the information used
+   // to decide where newlines should be inserted.
+   private int scanToken(SimpleTokenCursor clone, ScopeState scope)
+   {
+      if (clone.isComment())
+         return SCAN_CONTINUE;
       
-      // Accumulate the length of the (non-whitespace)
-      // tokens within this scope.
-      int accumulatedLength = 0;
+      scope.accumulatedLength += clone.getValue().replaceAll("\\s", "").length();
       
-      while (clone.moveToNextToken())
+      if (clone.currentType() == "text")
+         scope.commaCount += StringUtil.countMatches(
+               clone.currentValue(), ',');
+      
+      // If we encounter an (anonymous) function token, or an
+      // opening brace, we prefer not inserting newlines (to preserve
+      // structures like:
+      //
+      //    lapply(foo, function(x) { ... })
+      //
+      // or
+      //
+      //    tryCatch({
+      //
+      if (clone.currentValue() == "function")
+         if (clone.previousSignificantToken().getValue().contains(","))
+            scope.overrideNewlineInsertionAsFalse = true;
+      
+      if (clone.currentValue() == "{")
       {
-         if (clone.isComment())
-            continue;
-         
-         accumulatedLength += clone.getValue().replaceAll("\\s", "").length();
-         
-         if (clone.currentType() == "text")
-            commaCount += StringUtil.countMatches(
-                  clone.currentValue(), ',');
+         SimpleTokenCursor peek = clone.clone();
+         if (peek.moveToPreviousSignificantToken())
+            if (peek.isLeftBrace())
+               scope.overrideNewlineInsertionAsFalse = true;
+      }
+      
+      // If we encounter an '=', presumedly
+      // this is for a named function call.
+      if (clone.currentValue() == "=")
+      {
+         scope.equalsCount++;
          
-         // If we encounter an (anonymous) function token, or an
-         // opening brace, we prefer not inserting newlines (to preserve
-         // structures like:
-         //
-         //    lapply(foo, function(x) { ... })
+         // If there is a function token ahead of the '=', we prefer
+         // inserting newlines after braces, so that function objects
+         // assigned within lists (or function calls) are placed on
+         // their own line, e.g.
          //
-         // or
+         //  foo = list(
+         //     y = function(...) { ... }
+         //   )
          //
-         //    tryCatch({
-         //
-         if (clone.currentValue() == "function")
-            if (clone.previousSignificantToken().getValue().contains(","))
-               overrideNewlineInsertionAsFalse = true;
-         
-         if (clone.currentValue() == "{")
+         if (clone.moveToNextSignificantToken())
          {
-            SimpleTokenCursor peek = clone.clone();
-            if (peek.moveToPreviousSignificantToken())
-               if (peek.isLeftBrace())
-                  overrideNewlineInsertionAsFalse = true;
-         }
-         
-         // If we encounter an '=', presumedly
-         // this is for a named function call.
-         if (clone.currentValue() == "=")
-         {
-            equalsCount++;
-            
-            // If there is a function token ahead of the '=', we prefer
-            // inserting newlines after braces, so that function objects
-            // assigned within lists (or function calls) are placed on
-            // their own line, e.g.
-            //
-            //  foo = list(
-            //     y = function(...) { ... }
-            //   )
-            //
-            if (clone.moveToNextSignificantToken())
+            if (clone.currentValue() == "function")
             {
-               if (clone.currentValue() == "function")
-               {
-                  newlineAfterBrace = true;
-                  newlineAfterComma = true;
-                  continue;
-               }
+               scope.newlineAfterBrace = true;
+               scope.newlineAfterComma = true;
+               return SCAN_CONTINUE;
             }
          }
-         
-         // If we encounter a '{' or '[', skip over -- we don't want to
-         // enumerate things in 'child' scopes.
-         if (clone.currentValue() == "{" ||
-             clone.currentValue() == "[")
-         {
-            clone.fwdToMatchingToken();
-            continue;
-         }
-         
-         // If we encounter a '(', we will want to accumulate the length
-         // of tokens in that scope. This, used alongside the nesting level,
-         // helps us infer the appropriate place to insert newlines when
-         // within nested function calls.
-         if (clone.currentValue() == "(")
+      }
+      
+      // If we encounter a '{' or '[', skip over -- we don't want to
+      // enumerate things in 'child' scopes.
+      if (clone.currentValue() == "{" ||
+          clone.currentValue() == "[")
+      {
+         clone.fwdToMatchingToken();
+         return SCAN_CONTINUE;
+      }
+      
+      // If we encounter a '(', we will want to accumulate the length
+      // of tokens in that scope. This, used alongside the nesting level,
+      // helps us infer the appropriate place to insert newlines when
+      // within nested function calls.
+      if (clone.currentValue() == "(")
+      {
+         if (clone.moveToPreviousSignificantToken())
          {
-            if (clone.moveToPreviousSignificantToken())
+            // For keywords, we prefer not accumulating -- this helps us
+            // ensure we don't insert unnecessary newlines within
+            // 'for', 'if', 'while' statements and the like.
+            boolean isKeyword = clone.isKeyword();
+            clone.moveToNextSignificantToken();
+            if (isKeyword)
+               clone.fwdToMatchingToken();
+            else
             {
-               // For keywords, we prefer not accumulating -- this helps us
-               // ensure we don't insert unnecessary newlines within
-               // 'for', 'if', 'while' statements and the like.
-               boolean isKeyword = clone.isKeyword();
-               clone.moveToNextSignificantToken();
-               if (isKeyword)
-                  clone.fwdToMatchingToken();
-               else
-               {
-                  Mutable<Integer> counter = new Mutable<Integer>(0);
-                  clone.fwdToMatchingToken(counter);
-                  accumulatedLength += counter.get();
-               }
+               Mutable<Integer> counter = new Mutable<Integer>(0);
+               clone.fwdToMatchingToken(counter);
+               scope.accumulatedLength += counter.get();
             }
-            continue;
          }
-         
-         // If we find the associated closing paren, and we're not at the
-         // top level, break. (The top level cursor gets to iterate over
-         // the entire scope, sending out recursive searches as we encounter
-         // opening parens.
-         if (!topLevel && clone.currentValue() == closer)
-            break;
+         return SCAN_CONTINUE;
       }
       
+      // If we find the associated closing paren, and we're not at the
+      // top level, break. (The top level cursor gets to iterate over
+      // the entire scope, sending out recursive searches as we encounter
+      // opening parens.
+      if (!scope.topLevel && clone.currentValue() == scope.closer)
+         return SCAN_BREAK;
+      
+      return SCAN_CONTINUE;
+   }
+   
+   // Decides, based on the results of the scan, where newlines should be
+   // inserted within the scope.
+   private void chooseNewlines(SimpleTokenCursor cursor, ScopeState scope)
+   {
       // If this is a '{', and the immediately previous token is a ')',
       // insert some whitespace.
       // TODO: Allow preferences e.g. 1TBS, always newline before brace, etc?
-      if (startValue == "{")
+      if (scope.startValue == "{")
       {
          if (cursor.peek(-1).currentValue() == ")")
             cursor.peek(-1).setValue(") ");
@@ -726,52 +812,52 @@ public class TextEditingTargetReformatHelper
       // Heuristically decide if we want to insert newlines after
       // commas, parens. We 'score' whether we would like to insert
       // newlines after commas, and after braces.
-      int commaScore = commaCount == 0 ?
+      int commaScore = scope.commaCount == 0 ?
             0 :
-            (commaCount - 1) * 15;
+            (scope.commaCount - 1) * 15;
       
       // Within a function argument list, we almost always want to insert
       // newlines after commas, expect for very short function argument
       // lists.
-      if (prevSignificantValue == "function")
+      if (scope.prevSignificantValue == "function")
          commaScore += 20;
       
       // For scopes containing many `=`, we typically prefer inserting a
       // newline following a '('.
-      int equalsScore = equalsCount == 0 ?
+      int equalsScore = scope.equalsCount == 0 ?
             0 :
-            (equalsCount - 1) * 20;
+            (scope.equalsCount - 1) * 20;
       
       /*
-      Debug.logToConsole("Accumulated length: " + accumulatedLength);
-      Debug.logToConsole("Root state: " + rootState);
-      Debug.logToConsole("Paren Nest level: " + parenNestLevel);
-      Debug.logToConsole("Brace Nest level: " + braceNestLevel);
-      Debug.logToConsole("Comma count: " + commaCount);
-      Debug.logToConsole("Equals count: " + equalsCount);
+      Debug.logToConsole("Accumulated length: " + scope.accumulatedLength);
+      Debug.logToConsole("Root state: " + scope.rootState);
+      Debug.logToConsole("Paren Nest level: " + scope.parenNestLevel);
+      Debug.logToConsole("Brace Nest level: " + scope.braceNestLevel);
+      Debug.logToConsole("Comma count: " + scope.commaCount);
+      Debug.logToConsole("Equals count: " + scope.equalsCount);
       Debug.logToConsole("Cursor value: " + cursor.currentValue());
       Debug.logToConsole("Previous value: " + cursor.previousSignificantToken().getValue());
       Debug.logToConsole("Comma Score: " + commaScore);
       Debug.logToConsole("Equals score: " + equalsScore);
       */
       
-      if (!rootState && startValue == "(")
+      if (!scope.rootState && scope.startValue == "(")
       {
-         if (accumulatedLength +
+         if (scope.accumulatedLength +
                commaScore +
                equalsScore +
-               parenNestLevel * 20 +
-               braceNestLevel * docDisplay_.getTabSize() >= 80)
+               scope.parenNestLevel * 20 +
+               scope.braceNestLevel * scope.tabSize >= 80)
          {
-            newlineAfterBrace = true;
-            parenNestLevel = 0;
+            scope.newlineAfterBrace = true;
+            scope.parenNestLevel = 0;
          }
          
-         if (accumulatedLength +
+         if (scope.accumulatedLength +
              commaScore +
              equalsScore +
-             braceNestLevel * docDisplay_.getTabSize() >= 60)
-            newlineAfterComma = true;
+             scope.braceNestLevel * scope.tabSize >= 60)
+            scope.newlineAfterComma = true;
       }
       
       // If the previous token is a control-flow keyword, override the
@@ -788,30 +874,30 @@ public class TextEditingTargetReformatHelper
       if (cursor.moveToPreviousSignificantToken())
       {
          if (cursor.isControlFlowKeyword())
-            newlineAfterBrace = false;
+            scope.newlineAfterBrace = false;
          
          // Special casing for tryCatch -- we prefer newlines everywhere.
          if (cursor.currentValue() == "tryCatch" &&
-             accumulatedLength >= 20)
+             scope.accumulatedLength >= 20)
          {
-            newlineAfterBrace = true;
-            newlineAfterComma = true;
+            scope.newlineAfterBrace = true;
+            scope.newlineAfterComma = true;
          }
          
          cursor.moveToNextSignificantToken();
       }
       
-      if (overrideNewlineInsertionAsFalse)
+      if (scope.overrideNewlineInsertionAsFalse)
       {
-         newlineAfterComma = false;
-         newlineAfterBrace = false;
+         scope.newlineAfterComma = false;
+         scope.newlineAfterBrace = false;
       }
       
       SimpleTokenCursor peekFwd = cursor.peek(1);
       
       // Always insert newlines following '{'.
       // TODO: Allow very compact single line functions?
-      if (startValue == "{")
+      if (scope.startValue == "{")
       {
          if (cursor.peek(1).currentValue().indexOf('\n') == -1)
             cursor.setValue("{\n");
@@ -826,231 +912,237 @@ public class TextEditingTargetReformatHelper
       //
       // so we do not want to indiscriminately insert newlines after
       // all parens.
-      else if (newlineAfterBrace)
+      else if (scope.newlineAfterBrace)
       {
-         if (!rootState &&
+         if (!scope.rootState &&
              !peekFwd.isLeftBrace() &&
              !peekFwd.isRightBrace() &&
              peekFwd.getValue().indexOf('\n') == -1)
-            cursor.setValue(opener + "\n");
+            cursor.setValue(scope.opener + "\n");
       }
-      else if (!rootState)
+      else if (!scope.rootState)
          peekFwd.trimWhitespaceFwd();
+   }
+   
+   // Replaces a single token (or, for opening braces, a whole child scope)
+   // with an appropriately white-spaced version.
+   private int walkToken(SimpleTokenCursor cursor, ScopeState scope)
+   {
+      if (cursor.isComment())
+         return WALK_CONTINUE;
+      
+      // Bail when we find a closing paren
+      if (!scope.rootState && cursor.isRightBrace())
+         return WALK_BREAK;
+      
+      // Ensure a single space follows control flow statements
+      if (cursor.currentValue() == "if" ||
+          cursor.currentValue() == "for" ||
+          cursor.currentValue() == "while" ||
+          cursor.currentValue() == "repeat")
+      {
+         cursor.ensureSingleSpaceFollows();
+      }
       
-      // Now, walk through and replace tokens with appropriately white-spaced
-      // versions.
-      while (cursor.moveToNextToken())
+      // Ensure newlines around 'naked' else
+      if (cursor.currentValue() == "else")
       {
-         if (cursor.isComment())
-            continue;
-         
-         // Bail when we find a closing paren
-         if (!rootState && cursor.isRightBrace())
-            break;
+         if (cursor.previousSignificantToken().getValue() != "}" &&
+             cursor.getOffset() >= 2)
+         {
+            cursor.ensureNewlinePreceeds();
+         }
          
-         // Ensure a single space follows control flow statements
-         if (cursor.currentValue() == "if" ||
-             cursor.currentValue() == "for" ||
-             cursor.currentValue() == "while" ||
-             cursor.currentValue() == "repeat")
+         if (!(cursor.previousToken().getType().contains("comment") ||
+               cursor.previousToken().getValue().matches(".*\\s+")))
          {
-            cursor.ensureSingleSpaceFollows();
+            cursor.ensureWhitespacePreceeds();
          }
          
-         // Ensure newlines around 'naked' else
-         if (cursor.currentValue() == "else")
+         String nextValue = cursor.nextSignificantToken().getValue();
+         if (!(nextValue == "{" || nextValue == "if"))
+            cursor.ensureNewlineFollows();
+         
+         return WALK_CONTINUE;
+      }
+      
+      // Ensure spaces around operators.
+      if (cursor.isOperator())
+      {
+         String value = cursor.currentValue();
+         
+         // Prefer newlines after comparison operators within 'if'
+         // statements when the enclosed selection is long
+         if (scope.prevSignificantValue == "if")
          {
-            if (cursor.previousSignificantToken().getValue() != "}" &&
-                cursor.getOffset() >= 2)
-            {
-               cursor.ensureNewlinePreceeds();
-            }
-            
-            if (!(cursor.previousToken().getType().contains("comment") ||
-                  cursor.previousToken().getValue().matches(".*\\s+")))
+            if (scope.accumulatedLength >= 20 &&
+                value == "&&" ||
+                value == "||" ||
+                value == "&"  ||
+                value == "|")
             {
-               cursor.ensureWhitespacePreceeds();
+               if (cursor.peek(1).currentValue().indexOf('\n') == -1)
+                  cursor.setValue(cursor.currentValue() + "\n");
             }
-            
-            String nextValue = cursor.nextSignificantToken().getValue();
-            if (!(nextValue == "{" || nextValue == "if"))
-               cursor.ensureNewlineFollows();
-            
-            continue;
          }
          
-         // Ensure spaces around operators.
-         if (cursor.isOperator())
+         else if (value == "$" ||
+             value == "@" ||
+             value == ":" ||
+             value == "::" ||
+             value == ":::")
          {
-            String value = cursor.currentValue();
-            
-            // Prefer newlines after comparison operators within 'if'
-            // statements when the enclosed selection is long
-            if (prevSignificantValue == "if")
-            {
-               if (accumulatedLength >= 20 &&
-                   value == "&&" ||
-                   value == "||" ||
-                   value == "&"  ||
-                   value == "|")
-               {
-                  if (cursor.peek(1).currentValue().indexOf('\n') == -1)
-                     cursor.setValue(cursor.currentValue() + "\n");
-               }
-            }
-            
-            else if (value == "$" ||
-                value == "@" ||
-                value == ":" ||
-                value == "::" ||
-                value == ":::")
-            {
-               cursor.peek(-1).trimWhitespaceBwd();
-               cursor.peek(1).trimWhitespaceFwd();
-            }
-            else
+            cursor.peek(-1).trimWhitespaceBwd();
+            cursor.peek(1).trimWhitespaceFwd();
+         }
+         else
+         {
+            // Unary operators are tricky, especially '-'. We need to make
+            // sure that we don't e.g. transform this:
+            //
+            //    if (- x < - y)
+            //
+            // into
+            //
+            //    if (-x <- y)
+            //
+            // for example.
+            if (value == "-" || value == "+" || value == "!")
             {
-               // Unary operators are tricky, especially '-'. We need to make
-               // sure that we don't e.g. transform this:
-               //
-               //    if (- x < - y)
-               //
-               // into
-               //
-               //    if (-x <- y)
-               //
-               // for example.
-               if (value == "-" || value == "+" || value == "!")
+               // Figure out if the current token is binary or unary.
+               SimpleTokenCursor previousCursor =
+                     cursor.clone();
+               previousCursor.moveToPreviousSignificantToken();
+               
+               SimpleTokenCursor nextCursor =
+                     cursor.clone();
+               nextCursor.moveToNextSignificantToken();
+               
+               boolean isBinary =
+                 (previousCursor.isRightBrace() ||
+                  previousCursor.currentType().indexOf("identifier") != -1 ||
+                  previousCursor.currentType().indexOf("constant") != -1) &&
+                 (nextCursor.isLeftBrace() ||
+                  nextCursor.currentType().indexOf("operator") == -1 ||
+                  nextCursor.currentType().indexOf("constant") != -1);
+               
+               // Binary operators should have whitespace surrounding.
+               if (isBinary)
                {
-                  // Figure out if the current token is binary or unary.
-                  SimpleTokenCursor previousCursor =
-                        cursor.clone();
-                  previousCursor.moveToPreviousSignificantToken();
-                  
-                  SimpleTokenCursor nextCursor =
-                        cursor.clone();
-                  nextCursor.moveToNextSignificantToken();
-                  
-                  boolean isBinary =
-                    (previousCursor.isRightBrace() ||
-                     previousCursor.currentType().indexOf("identifier") != -1 ||
-                     previousCursor.currentType().indexOf("constant") != -1) &&
-                    (nextCursor.isLeftBrace() ||
-                     nextCursor.currentType().indexOf("operator") == -1 ||
-                     nextCursor.currentType().indexOf("constant") != -1);
-                  
-                  // Binary operators should have whitespace surrounding.
-                  if (isBinary)
-                  {
-                     cursor.ensureWhitespaceFollows();
-                     cursor.ensureWhitespacePreceeds();
-                  }
-                  
-                  // Unary operators should have no whitespace after the token,
-                  // but __may__ have whitespace before; e.g. if the previous
-                  // significant token is an operator. In other words,
-                  // only trim whitespace if that token is not an operator.
-                  else
-                  {
-                     cursor.peek(1).trimWhitespaceFwd();
-                     if (previousCursor.currentType().indexOf("operator") == -1)
-                     {
-                        cursor.peek(-1).trimWhitespaceBwd();
-                     }
-                  }
+                  cursor.ensureWhitespaceFollows();
+                  cursor.ensureWhitespacePreceeds();
                }
                
-               // Regular case -- ensure whitespace surrounds binary operators.
+               // Unary operators should have no whitespace after the token,
+               // but __may__ have whitespace before; e.g. if the previous
+               // significant token is an operator. In other words,
+               // only trim whitespace if that token is not an operator.
                else
                {
-                  cursor.ensureWhitespaceFollows();
-                  cursor.ensureWhitespacePreceeds();
+                  cursor.peek(1).trimWhitespaceFwd();
+                  if (previousCursor.currentType().indexOf("operator") == -1)
+                  {
+                     cursor.peek(-1).trimWhitespaceBwd();
+                  }
                }
             }
-         }
-         
-         // Ensure spaces, or newlines, after commas, if so desired.
-         if (cursor.currentValue() == ",")
-         {
-            if (newlineAfterComma &&
-                cursor.peek(1).currentValue().indexOf('\n') == -1)
-            {
-               cursor.setValue(
-                     cursor.currentValue().replaceAll(",(?!\\n)", ",\n"));
-            }
             
-            else if (!newlineAfterComma &&
-                     !cursor.peek(1).isWhitespaceOrNewline())
+            // Regular case -- ensure whitespace surrounds binary operators.
+            else
             {
-               cursor.setValue(", ");
+               cursor.ensureWhitespaceFollows();
+               cursor.ensureWhitespacePreceeds();
             }
          }
-            
-            // Transform semi-colons into newlines.
-            // TODO: Too destructive?
-         if (cursor.currentValue() == ";")
+      }
+      
+      // Ensure spaces, or newlines, after commas, if so desired.
+      if (cursor.currentValue() == ",")
+      {
+         if (scope.newlineAfterComma &&
+             cursor.peek(1).currentValue().indexOf('\n') == -1)
          {
-            cursor.setValue("\n");
+            cursor.setValue(
+                  cursor.currentValue().replaceAll(",(?!\\n)", ",\n"));
          }
          
-         // If we encounter an opening paren, recurse a new token cursor within,
-         // and step over the block. This ensures that indentation rules are
-         // consistent within a particular scope.
-         if (cursor.currentValue() == "{" ||
-             cursor.currentValue() == "(" ||
-             cursor.currentValue() == "[" ||
-             cursor.currentValue() == "[[")
+         else if (!scope.newlineAfterComma &&
+                  !cursor.peek(1).isWhitespaceOrNewline())
          {
-            // If we encounter a non-paren opener, this implies that we can
-            // reset the function nesting level.
-            if (startValue != "(")
-               parenNestLevel = 0;
-            
-            // Otherwise, if we inserted newlines after parens for this
-            // block, reset the nest level
-            else
-            {
-               if (newlineAfterBrace)
-                  parenNestLevel = 0;
-            }
-            
-            // Increment the nest level for non-keyword '(' calls
-            int incrementParenNest = startValue == "(" &&
-                  !beforeStartCursor.isControlFlowKeyword() ? 1 : 0;
-            
-            /*
-            Debug.logToConsole("Found opening paren");
-            Debug.logToConsole("--------------------");
-            Debug.logToConsole("-- Previous token: '" + cursor.previousSignificantToken().getValue() + "'");
-            Debug.logToConsole("-- Recursing with: '" + cursor.currentValue() + "'");
-            */
-            
-            // Update brace nest level
-            int incrementBraceNest =
-                  cursor.currentValue() == "{" ? 1 : 0;
-            
-            SimpleTokenCursor recursingCursor = cursor.clone();
-            boolean success = cursor.fwdToMatchingToken();
-            
-            // Signal children scopes whether we'd prefer them to insert
-            // newlines. TODO: less magic numbers
-            
-            doInsertPrettyNewlines(
-                  recursingCursor,
-                  recursingCursor.currentValue(),
-                  recursingCursor.getComplement(recursingCursor.currentValue()),
-                  parenNestLevel + incrementParenNest,
-                  braceNestLevel + incrementBraceNest,
-                  false);
-            
-            // If we weren't able to move the current active cursor to a
-            // matching token, give up. This implies a different recursing
-            // token will eventually hit the end of the token stream.
-            if (!success)
-               return;
+            cursor.setValue(", ");
+         }
+      }
+         
+         // Transform semi-colons into newlines.
+         // TODO: Too destructive?
+      if (cursor.currentValue() == ";")
+      {
+         cursor.setValue("\n");
+      }
+      
+      // If we encounter an opening paren, recurse a new token cursor within,
+      // and step over the block. This ensures that indentation rules are
+      // consistent within a particular scope.
+      if (cursor.currentValue() == "{" ||
+          cursor.currentValue() == "(" ||
+          cursor.currentValue() == "[" ||
+          cursor.currentValue() == "[[")
+      {
+         // If we encounter a non-paren opener, this implies that we can
+         // reset the function nesting level.
+         if (scope.startValue != "(")
+            scope.parenNestLevel = 0;
+         
+         // Otherwise, if we inserted newlines after parens for this
+         // block, reset the nest level
+         else
+         {
+            if (scope.newlineAfterBrace)
+               scope.parenNestLevel = 0;
          }
+         
+         // Increment the nest level for non-keyword '(' calls
+         int incrementParenNest = scope.startValue == "(" &&
+               !scope.beforeStartCursor.isControlFlowKeyword() ? 1 : 0;
+         
+         /*
+         Debug.logToConsole("Found opening paren");
+         Debug.logToConsole("--------------------");
+         Debug.logToConsole("-- Previous token: '" + cursor.previousSignificantToken().getValue() + "'");
+         Debug.logToConsole("-- Recursing with: '" + cursor.currentValue() + "'");
+         */
+         
+         // Update brace nest level
+         int incrementBraceNest =
+               cursor.currentValue() == "{" ? 1 : 0;
+         
+         SimpleTokenCursor recursingCursor = cursor.clone();
+         boolean success = cursor.fwdToMatchingToken();
+         
+         // Signal children scopes whether we'd prefer them to insert
+         // newlines. TODO: less magic numbers
+         
+         doInsertPrettyNewlines(
+               recursingCursor,
+               recursingCursor.currentValue(),
+               recursingCursor.getComplement(recursingCursor.currentValue()),
+               scope.parenNestLevel + incrementParenNest,
+               scope.braceNestLevel + incrementBraceNest,
+               false,
+               scope.tabSize);
+         
+         // If we weren't able to move the current active cursor to a
+         // matching token, give up. This implies a different recursing
+         // token will eventually hit the end of the token stream.
+         if (!success)
+            return WALK_ABORT;
       }
       
+      return WALK_CONTINUE;
+   }
+   
+   private void endScope(SimpleTokenCursor cursor, ScopeState scope)
+   {
       // If we ended on a ')' in e.g.
       //
       //    function(a, b) a
@@ -1062,17 +1154,17 @@ public class TextEditingTargetReformatHelper
       //    if (foo) bar
       //
       if (cursor.currentValue() == ")" &&
-          beforeStartCursor.isControlFlowKeyword() &&
+          scope.beforeStartCursor.isControlFlowKeyword() &&
           cursor.nextSignificantToken().getValue() != "{")
       {
          cursor.ensureNewlineFollows();
       }
       
       // If we ended on a ')', maybe insert newline before
-      if (cursor.currentValue() == closer)
+      if (cursor.currentValue() == scope.closer)
       {
          SimpleTokenCursor peek = cursor.peek(-1);
-         if (newlineAfterBrace || cursor.currentValue() == "}")
+         if (scope.newlineAfterBrace || cursor.currentValue() == "}")
          {
             if (peek.currentValue().indexOf('\n') == -1)
                peek.setValue(peek.currentValue() + "\n");
@@ -1083,48 +1175,244 @@ public class TextEditingTargetReformatHelper
       }
    }
    
-   void insertPrettyNewlines()
+   public interface ProgressHandler
+   {
+      void onProgress(int percent);
+      void onCompleted(boolean cancelled);
+   }
+   
+   // Reformats the selection. The newline insertion pass is run in time
+   // slices over the top-level tokens of the selection, so that reformatting
+   // large documents doesn't block the UI; progress is reported to the
+   // handler after each slice. The result is applied to the document in a
+   // single edit once the pass completes, and the pass is cancelled (without
+   // modifying the document) if the document changes in the meantime.
+   void insertPrettyNewlines(ProgressHandler handler)
    {
       AceEditor editor = (AceEditor) docDisplay_;
       if (editor != null)
       {
-         String selectionText = docDisplay_.getSelectionValue();
+         cancelReformat();
          
-         // Tokenize the selection and walk through and replace
-         // TODO: Enable for other modes?
-         Tokenizer tokenizer = Tokenizer.createRTokenizer();
-         List<Token> tokens = tokenizer.tokenize(selectionText);
+         activePass_ = new PrettyNewlinesPass(editor, handler);
          
-         SimpleTokenCursor cursor = new SimpleTokenCursor(tokens);
+         // Run the first slice immediately; small selections are typically
+         // reformatted entirely within it.
+         if (activePass_.execute())
+            Scheduler.get().scheduleIncremental(activePass_);
+      }
+   }
+   
+   void cancelReformat()
+   {
+      if (activePass_ != null)
+         activePass_.cancel();
+   }
+   
+   // Formats the given tokens in a single, uninterrupted pass.
+   String formatPrettyNewlines(List<Token> tokens, int tabSize)
+   {
+      PrettyNewlinesFormatter formatter =
+            new PrettyNewlinesFormatter(tokens, tabSize);
+      formatter.doInsertPrettyNewlines();
+      return formatter.getResult();
+   }
+   
+   // The newline insertion pass over a set of tokens. The top-level scope
+   // can be processed all at once, or one token at a time via step() so
+   // that the work can be spread across several slices.
+   class PrettyNewlinesFormatter
+   {
+      public PrettyNewlinesFormatter(List<Token> tokens, int tabSize)
+      {
+         tokens_ = tokens;
+         tabSize_ = tabSize;
+         cursor_ = new SimpleTokenCursor(tokens_);
          
          // Set the initial state -- we recurse every time we encounter
          // an opening paren, so check for that initially.
-         String lhs = "";
-         String rhs = "";
-         if (cursor.isLeftBrace())
+         lhs_ = "";
+         rhs_ = "";
+         if (cursor_.isLeftBrace())
          {
-            lhs = cursor.currentValue();
-            rhs = cursor.getComplement(lhs);
+            lhs_ = cursor_.currentValue();
+            rhs_ = cursor_.getComplement(lhs_);
          }
-         
+      }
+      
+      public void doInsertPrettyNewlines()
+      {
          // TODO: Figure out current nesting level for the
          // active selection.
-         doInsertPrettyNewlines(cursor, lhs, rhs, 0, 0, true);
+         TextEditingTargetReformatHelper.this.doInsertPrettyNewlines(
+               cursor_, lhs_, rhs_, 0, 0, true, tabSize_);
+         phase_ = PHASE_DONE;
+      }
+      
+      public boolean isDone()
+      {
+         return phase_ == PHASE_DONE;
+      }
+      
+      // Processes a single top-level token (including any scope it opens).
+      public void step()
+      {
+         if (scope_ == null)
+         {
+            scope_ = beginScope(cursor_, lhs_, rhs_, 0, 0, true, tabSize_);
+            scanCursor_ = cursor_.clone();
+         }
+         
+         if (phase_ == PHASE_SCAN)
+         {
+            if (!scanCursor_.moveToNextToken() ||
+                scanToken(scanCursor_, scope_) == SCAN_BREAK)
+            {
+               chooseNewlines(cursor_, scope_);
+               phase_ = PHASE_WALK;
+            }
+         }
+         else if (phase_ == PHASE_WALK)
+         {
+            if (!cursor_.moveToNextToken())
+            {
+               endScope(cursor_, scope_);
+               phase_ = PHASE_DONE;
+               return;
+            }
+            
+            int result = walkToken(cursor_, scope_);
+            if (result == WALK_BREAK)
+               endScope(cursor_, scope_);
+            
+            if (result != WALK_CONTINUE)
+               phase_ = PHASE_DONE;
+         }
+      }
+      
+      public int getProgress()
+      {
+         if (scanCursor_ == null)
+            return 0;
+         
+         // Each token is visited once while scanning and once while walking
+         int visited = phase_ == PHASE_SCAN ?
+               scanCursor_.getOffset() :
+               tokens_.size() + cursor_.getOffset();
          
-         // Build the replacement from the modified token set
+         return Math.min(100, visited * 50 / Math.max(1, tokens_.size()));
+      }
+      
+      // Builds the replacement from the modified token set
+      public String getResult()
+      {
          StringBuilder builder = new StringBuilder();
-         for (int i = 0; i < tokens.size(); i++)
-            builder.append(tokens.get(i).getValue());
+         for (int i = 0; i < tokens_.size(); i++)
+            builder.append(tokens_.get(i).getValue());
          String replacement = builder.toString();
          
          // Trim off trailing whitespace
          replacement = replacement.replaceAll("[ \\t]*\\n", "\n");
          replacement = replacement.replaceAll("\\n+$", "\n");
+         return replacement;
+      }
+      
+      private final List<Token> tokens_;
+      private final int tabSize_;
+      private final SimpleTokenCursor cursor_;
+      private String lhs_;
+      private String rhs_;
+      
+      private SimpleTokenCursor scanCursor_;
+      private ScopeState scope_;
+      private int phase_ = PHASE_SCAN;
+   }
+   
+   private class PrettyNewlinesPass implements RepeatingCommand
+   {
+      public PrettyNewlinesPass(AceEditor editor, ProgressHandler handler)
+      {
+         handler_ = handler;
+         range_ = docDisplay_.getSelectionRange();
          
+         // Tokenize the selection and walk through and replace
+         // TODO: Enable for other modes?
+         Tokenizer tokenizer = Tokenizer.createRTokenizer();
+         formatter_ = new PrettyNewlinesFormatter(
+               tokenizer.tokenize(docDisplay_.getSelectionValue()),
+               docDisplay_.getTabSize());
+         
+         // Any edit made while we're working invalidates the tokens
+         documentChangedReg_ = editor.addDocumentChangedHandler(
+               new DocumentChangedEvent.Handler()
+         {
+            @Override
+            public void onDocumentChanged(DocumentChangedEvent event)
+            {
+               cancel();
+            }
+         });
+      }
+      
+      @Override
+      public boolean execute()
+      {
+         if (completed_)
+            return false;
+         
+         long deadline = System.currentTimeMillis() + SLICE_DURATION_MS;
+         while (!formatter_.isDone() && System.currentTimeMillis() < deadline)
+            formatter_.step();
+         
+         if (formatter_.isDone())
+         {
+            finish();
+            return false;
+         }
+         
+         handler_.onProgress(formatter_.getProgress());
+         return true;
+      }
+      
+      public void cancel()
+      {
+         if (completed_)
+            return;
+         
+         complete();
+         handler_.onCompleted(true);
+      }
+      
+      private void finish()
+      {
+         // Stop listening before we modify the document ourselves
+         complete();
+         
+         String replacement = formatter_.getResult();
+         
+         // The selection may have moved while we were working; restore it
+         // so the replacement lands on the text that was tokenized.
+         docDisplay_.setSelectionRange(range_);
          docDisplay_.replaceSelection(replacement);
          docDisplay_.reindent(docDisplay_.getSelectionRange());
          
+         handler_.onCompleted(false);
       }
+      
+      private void complete()
+      {
+         completed_ = true;
+         documentChangedReg_.removeHandler();
+         if (activePass_ == this)
+            activePass_ = null;
+      }
+      
+      private final ProgressHandler handler_;
+      private final Range range_;
+      private final PrettyNewlinesFormatter formatter_;
+      private final HandlerRegistration documentChangedReg_;
+      
+      private boolean completed_ = false;
    }
    
    void alignAssignment()
@@ -1315,5 +1603,19 @@ public class TextEditingTargetReformatHelper
    
    
    private final DocDisplay docDisplay_;
+   private PrettyNewlinesPass activePass_;
+   
+   private static final int SCAN_CONTINUE = 0;
+   private static final int SCAN_BREAK    = 1;
+   
+   private static final int WALK_CONTINUE = 0;
+   private static final int WALK_BREAK    = 1;
+   private static final int WALK_ABORT    = 2;
+   
+   private static final int PHASE_SCAN = 0;
+   private static final int PHASE_WALK = 1;
+   private static final int PHASE_DONE = 2;
+   
+   private static final int SLICE_DURATION_MS = 30;
 
 }
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.core.shared.GWT;
 import com.google.gwt.event.dom.client.KeyDownEvent;
 import com.google.gwt.event.dom.client.KeyDownHandler;
@@ -98,6 +99,7 @@ public class TextEditingTargetSpelling implements TypoSpellChecker.Context
          Position.create(docDisplay_.getLastVisibleRow(), docDisplay_.getLength(docDisplay_.getLastVisibleRow())));
 
       final ArrayList<Range> wordRanges = new ArrayList<>();
+      ArrayList<String> words = new ArrayList<>();
       ArrayList<String> prefetchWords = new ArrayList<>();
 
       for (Range r : wordSource)
@@ -106,13 +108,20 @@ public class TextEditingTargetSpelling implements TypoSpellChecker.Context
             continue;
 
          wordRanges.add(r);
+         words.add(docDisplay_.getTextForRange(r));
 
          // only check a certain number of words at once to not overwhelm the system
          if (wordRanges.size() > prefs_.maxSpellcheckWords().getValue())
             break;
+      }
 
-         String word = docDisplay_.getTextForRange(r);
-         if (!typoSpellChecker_.checkSpelling(word)) {
+      // check all the words in a single batch
+      boolean[] correct = typoSpellChecker_.checkWords(words);
+      for (int i = 0; i < words.size(); i++)
+      {
+         if (!correct[i]) {
+            Range r = wordRanges.get(i);
+            String word = words.get(i);
             if (prefetchWords.size() < prefs_.maxSpellcheckPrefetch().getValue())
                prefetchWords.add(word);
 
@@ -268,35 +277,20 @@ public class TextEditingTargetSpelling implements TypoSpellChecker.Context
 
          final ToolbarPopupMenu menu = new ToolbarPopupMenu();
 
-         String[] suggestions = typoSpellChecker_.suggestionList(word);
-
          // We now know we're going to show our menu, stop default context menu
          event.preventDefault();
          event.stopPropagation();
 
-         int i = 0;
-         for (String suggestion : suggestions)
-         {
-            // Only show a limited number of suggestions
-            if (i >= MAX_SUGGESTIONS)
-               break;
-
-            MenuItem suggestionItem = new MenuItem(
-               AppCommand.formatMenuLabel(null, suggestion, ""),
-               true,
-               () -> {
-                  docDisplay_.removeMarkersAtCursorPosition();
-                  docDisplay_.replaceRange(replaceRange, suggestion);
-                  lintManager_.relintAfterDelay(LintManager.DEFAULT_LINT_DELAY);
-               });
-
-            menu.addItem(suggestionItem);
-            i++;
-         }
+         // suggestions are generated in the background; show a placeholder
+         // until they arrive rather than delaying the menu
+         final MenuItem loadingItem = new MenuItem(
+            AppCommand.formatMenuLabel(null, "Loading suggestions...", ""),
+            true,
+            (ScheduledCommand) null);
+         loadingItem.setEnabled(false);
 
-         // Only add a separator if we have suggestions to separate from
-         if (suggestions.length > 0)
-            menu.addSeparator();
+         menu.addItem(loadingItem);
+         menu.addSeparator();
 
          MenuItem ignoreItem = new MenuItem(
             AppCommand.formatMenuLabel(null, "Ignore word", ""),
@@ -319,6 +313,35 @@ public class TextEditingTargetSpelling implements TypoSpellChecker.Context
 
          menu.addItem(addToDictionaryItem);
 
+         final TypoSpellChecker.SuggestionRequest request =
+               typoSpellChecker_.suggestionList(word, (String[] suggestions) ->
+         {
+            // Only show a limited number of suggestions
+            int count = Math.min(suggestions.length, MAX_SUGGESTIONS);
+            for (int i = 0; i < count; i++)
+            {
+               final String suggestion = suggestions[i];
+               MenuItem suggestionItem = new MenuItem(
+                  AppCommand.formatMenuLabel(null, suggestion, ""),
+                  true,
+                  () -> {
+                     docDisplay_.removeMarkersAtCursorPosition();
+                     docDisplay_.replaceRange(replaceRange, suggestion);
+                     lintManager_.relintAfterDelay(LintManager.DEFAULT_LINT_DELAY);
+                  });
+
+               menu.insertItem(suggestionItem, i);
+            }
+
+            if (count > 0)
+               menu.removeItem(loadingItem);
+            else
+               loadingItem.setHTML(AppCommand.formatMenuLabel(null, "No suggestions", ""));
+         });
+
+         // no need to keep generating suggestions once the menu is dismissed
+         menu.addCloseHandler((closeEvent) -> request.cancel());
+
          menu.setPopupPositionAndShow((offWidth, offHeight) -> {
             int clientX = event.getNativeEvent().getClientX();
             int clientY = event.getNativeEvent().getClientY();
@@ -263,7 +263,12 @@ public class TextEditingTargetVisualMode implements CommandPaletteEntrySource
             
             WriterOptionsContext writerOptions = writerOptionsFromVisual();
             
-            panmirror_.getMarkdown(writerOptions.options, kSerializationProgressDelayMs, 
+            // serialize just the changed blocks unless we are switching modes
+            // or the wrap column changed (panmirror will also do a full
+            // serialization if the writer options changed)
+            boolean incremental = !activatingEditor && !writerOptions.wrapColumnChanged;
+            
+            panmirror_.getMarkdown(writerOptions.options, incremental, kSerializationProgressDelayMs, 
                                    new CommandWithArg<JsObject>() {
                @Override
                public void execute(JsObject obj)
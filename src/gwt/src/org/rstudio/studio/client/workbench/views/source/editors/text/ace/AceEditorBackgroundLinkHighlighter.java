@@ -15,7 +15,10 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text.ace;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
@@ -44,9 +47,12 @@ import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.files.model.FilesServerOperations;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocumentChangeSummary;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangeSummaryEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorModeChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CommandClickEvent;
+import org.rstudio.studio.client.workbench.views.source.events.ScrollYEvent;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
@@ -74,13 +80,45 @@ public class AceEditorBackgroundLinkHighlighter
             AttachEvent.Handler,
             CommandClickEvent.Handler,
             DocumentChangedEvent.Handler,
+            DocumentChangeSummaryEvent.Handler,
             EditorModeChangedEvent.Handler,
             MouseMoveHandler,
-            MouseUpHandler
+            MouseUpHandler,
+            ScrollYEvent.Handler
 {
-   interface Highlighter
+   private enum LinkKind
    {
-      void highlight(AceEditor editor, String line, int row);
+      MARKDOWN,
+      WEB
+   }
+   
+   private static class LinkMatch
+   {
+      public LinkMatch(LinkKind kind, int startIdx, int endIdx)
+      {
+         kind_ = kind;
+         startIdx_ = startIdx;
+         endIdx_ = endIdx;
+      }
+      
+      public LinkKind getKind()
+      {
+         return kind_;
+      }
+      
+      public int getStartIdx()
+      {
+         return startIdx_;
+      }
+      
+      public int getEndIdx()
+      {
+         return endIdx_;
+      }
+      
+      private final LinkKind kind_;
+      private final int startIdx_;
+      private final int endIdx_;
    }
    
    @Inject
@@ -104,35 +142,62 @@ public class AceEditorBackgroundLinkHighlighter
       editor_ = editor;
       activeMarkers_ = new SafeMap<Integer, List<MarkerRegistration>>();
       
-      nextHighlightStart_ = 0;
+      lineCache_ = new HashMap<String, List<LinkMatch>>();
+      clearDirtyRows();
+      
+      // highlight the visible rows first, and then work through any rows
+      // changed since the last pass in small batches. rows that are neither
+      // visible nor changed are highlighted when they're scrolled into view
       timer_ = new Timer()
       {
          @Override
          public void run()
          {
+            if (linkPattern_ == null)
+               return;
+            
             int n = editor_.getCurrentLineCount();
-            int startRow = nextHighlightStart_;
-            int endRow   = Math.min(nextHighlightStart_ + N_HIGHLIGHT_ROWS, n);
             
-            for (int row = startRow; row < endRow; row++)
-               highlightRow(row);
+            if (viewportDirty_)
+            {
+               viewportDirty_ = false;
+               int firstRow = editor_.getFirstVisibleRow();
+               int lastRow  = editor_.getLastVisibleRow();
+               if (lastRow < firstRow)
+               {
+                  firstRow = 0;
+                  lastRow = N_HIGHLIGHT_ROWS - 1;
+               }
+               
+               highlightRows(Math.max(firstRow, 0), Math.min(lastRow + 1, n));
+            }
+            
+            if (dirtyStartRow_ == -1)
+               return;
+            
+            int startRow = dirtyStartRow_;
+            int endRow   = Math.min(Math.min(dirtyStartRow_ + N_HIGHLIGHT_ROWS, dirtyEndRow_ + 1), n);
+            highlightRows(startRow, endRow);
             
-            nextHighlightStart_ = endRow;
-            if (endRow != n)
+            if (endRow > dirtyEndRow_ || endRow >= n)
+               clearDirtyRows();
+            else
+            {
+               dirtyStartRow_ = endRow;
                timer_.schedule(5);
+            }
          }
       };
       
-      
-      highlighters_ = new ArrayList<Highlighter>();
-      
       handlers_ = new ArrayList<HandlerRegistration>();
       handlers_.add(editor_.addAceClickHandler(this));
       handlers_.add(editor_.addAttachHandler(this));
       handlers_.add(editor_.addDocumentChangedHandler(this));
+      handlers_.add(editor_.addDocumentChangeSummaryHandler(this));
       handlers_.add(editor_.addEditorModeChangedHandler(this));
       handlers_.add(editor_.addMouseMoveHandler(this));
       handlers_.add(editor_.addMouseUpHandler(this));
+      handlers_.add(editor_.addScrollYHandler(this));
       
       refreshHighlighters(editor_.getModeId());
    }
@@ -146,20 +211,74 @@ public class AceEditorBackgroundLinkHighlighter
          public void execute()
          {
             TextFileType fileType = editor_.getFileType();
-            highlighters_.clear();
-            highlighters_.add(webLinkHighlighter());
-            if (fileType != null && (fileType.isMarkdown() || fileType.isRmd()))
-               highlighters_.add(markdownLinkHighlighter());
-            nextHighlightStart_ = 0;
+            boolean markdown = fileType != null && (fileType.isMarkdown() || fileType.isRmd());
+            linkPattern_ = createLinkPattern(markdown);
+            lineCache_.clear();
+            clearDirtyRows();
+            viewportDirty_ = true;
             timer_.schedule(700);
          }
       });
    }
    
+   private void highlightRows(int startRow, int endRow)
+   {
+      for (int row = startRow; row < endRow; row++)
+         highlightRow(row);
+   }
+   
    private void highlightRow(int row)
    {
-      for (Highlighter highlighter : highlighters_)
-         highlighter.highlight(editor_, editor_.getLine(row), row);
+      String line = editor_.getLine(row);
+      for (LinkMatch match : getLinkMatches(line))
+      {
+         // ensure that discovered web links are not within a string
+         if (match.getKind() == LinkKind.WEB)
+         {
+            Token token = editor_.getTokenAt(Position.create(row, match.getStartIdx()));
+            if (token != null && token.hasType("string"))
+               continue;
+         }
+         
+         highlight(editor_, row, match.getStartIdx(), match.getEndIdx());
+      }
+   }
+   
+   private List<LinkMatch> getLinkMatches(String line)
+   {
+      List<LinkMatch> matches = lineCache_.get(line);
+      if (matches != null)
+         return matches;
+      
+      matches = findLinkMatches(line);
+      if (lineCache_.size() >= MAX_CACHED_LINES)
+         lineCache_.clear();
+      lineCache_.put(line, matches);
+      return matches;
+   }
+   
+   private void markRowsDirty(DocumentChangeSummary summary)
+   {
+      int startRow = summary.getFirstChangedRow();
+      int endRow = summary.getLastChangedRow();
+      
+      if (dirtyStartRow_ == -1)
+      {
+         dirtyStartRow_ = startRow;
+         dirtyEndRow_ = endRow;
+         return;
+      }
+      
+      // shift the existing dirty range to account for rows added or removed
+      // above it, then extend it to cover the newly changed rows
+      dirtyStartRow_ = Math.min(summary.mapRow(dirtyStartRow_), startRow);
+      dirtyEndRow_ = Math.max(summary.mapRow(dirtyEndRow_), endRow);
+   }
+   
+   private void clearDirtyRows()
+   {
+      dirtyStartRow_ = -1;
+      dirtyEndRow_ = -1;
    }
    
    private void registerActiveMarker(int row,
@@ -409,56 +528,64 @@ public class AceEditorBackgroundLinkHighlighter
       registerActiveMarker(row, id, markerId, anchoredRange);
    }
    
-   private Highlighter webLinkHighlighter()
-   {
-      return new Highlighter()
-      {
-         @Override
-         public void highlight(AceEditor editor, String line, int row)
-         {
-            onWebLinkHighlight(editor, line, row);
-         }
-      };
-   }
-   
-   private void onWebLinkHighlight(AceEditor editor, String line, int row)
+   private List<LinkMatch> findLinkMatches(String line)
    {
-      // use a regex that captures all non-space characters within
-      // a web link, and then fix up the captured link by removing
-      // trailing punctuation, etc. as required
-      Pattern reWebLink = createWebLinkPattern();
-      for (Match match = reWebLink.match(line, 0);
+      List<LinkMatch> matches = null;
+      for (Match match = linkPattern_.match(line, 0);
            match != null;
            match = match.nextMatch())
       {
-         // compute start, end index for discovered URL
-         int startIdx = match.getIndex();
-         int endIdx   = match.getIndex() + match.getValue().length();
+         LinkMatch linkMatch = match.hasGroup(GROUP_MARKDOWN_LINK)
+               ? markdownLinkMatch(match)
+               : webLinkMatch(match);
          
-         // ensure that the discovered url is not within a string
-         Token token = editor_.getTokenAt(Position.create(row, startIdx));
-         if (token.hasType("string"))
+         if (linkMatch == null)
             continue;
          
-         String url = match.getValue();
-         
-         // trim off enclosing brackets
-         if (!url.matches(reWebLink()))
-         {
-            startIdx++;
-            endIdx--;
-            url = url.substring(1, url.length() - 1);
-         }
-         
-         // trim off trailing punctuation (characters unlikely
-         // to be found at the end of a url)
-         String trimmed = url.replaceAll("[,.?!@#$%^&*;:-]+$", "");
-         endIdx -= (url.length() - trimmed.length());
-         url = trimmed;
-         
-         // perform highlighting
-         highlight(editor, row, startIdx, endIdx);
+         if (matches == null)
+            matches = new ArrayList<LinkMatch>();
+         matches.add(linkMatch);
       }
+      
+      return matches == null
+            ? Collections.<LinkMatch>emptyList()
+            : matches;
+   }
+   
+   private LinkMatch webLinkMatch(Match match)
+   {
+      // the web link pattern captures all non-space characters within
+      // a web link; fix up the captured link by removing trailing
+      // punctuation, etc. as required
+      int startIdx = match.getIndex();
+      int endIdx   = match.getIndex() + match.getValue().length();
+      String url = match.getValue();
+      
+      // trim off enclosing brackets
+      if (!url.matches(reWebLink()))
+      {
+         startIdx++;
+         endIdx--;
+         url = url.substring(1, url.length() - 1);
+      }
+      
+      // trim off trailing punctuation (characters unlikely
+      // to be found at the end of a url)
+      String trimmed = url.replaceAll("[,.?!@#$%^&*;:-]+$", "");
+      endIdx -= (url.length() - trimmed.length());
+      
+      if (endIdx <= startIdx)
+         return null;
+      
+      return new LinkMatch(LinkKind.WEB, startIdx, endIdx);
+   }
+   
+   private LinkMatch markdownLinkMatch(Match match)
+   {
+      // highlight the link target within the parentheses
+      int startIdx = match.getIndex() + match.getGroup(GROUP_MARKDOWN_LABEL).length() + 1;
+      int endIdx   = match.getIndex() + match.getValue().length() - 1;
+      return new LinkMatch(LinkKind.MARKDOWN, startIdx, endIdx);
    }
    
    private static String reWebLink()
@@ -466,9 +593,17 @@ public class AceEditorBackgroundLinkHighlighter
       return "(?:\\w+://|www\\.)\\S+";
    }
    
-   private static Pattern createWebLinkPattern()
+   private static String reMarkdownLink()
+   {
+      return "(\\[[^\\]]+\\])\\([^\\)]+\\)";
+   }
+   
+   // build a single pattern that finds every kind of link in one scan of
+   // a line. markdown links are listed first as they're the more specific
+   // match; see GROUP_* for the capturing groups used to tell them apart
+   private static Pattern createLinkPattern(boolean markdown)
    {
-      String rePattern = StringUtil.join(new String[] {
+      String reWebLink = StringUtil.join(new String[] {
             "\\{" + reWebLink() + "?\\}",
             "\\(" + reWebLink() + "?\\)",
             "\\[" + reWebLink() + "?\\]",
@@ -477,60 +612,11 @@ public class AceEditorBackgroundLinkHighlighter
             "\""  + reWebLink() + "\"",
             reWebLink()
       }, "|");
-      return Pattern.create(rePattern);
-   }
-   
-   private Highlighter markdownLinkHighlighter()
-   {
-      return new Highlighter()
-      {
-         @Override
-         public void highlight(AceEditor editor, String line, int row)
-         {
-            onMarkdownLinkHighlight(editor, line, row);
-         }
-      };
-   }
-   
-   private void onMarkdownLinkHighlight(AceEditor editor,
-                                        String line,
-                                        int row)
-   {
-      Pattern reMarkdownLink = Pattern.create("(\\[[^\\]]+\\])(\\([^\\)]+\\))");
-      for (Match match = reMarkdownLink.match(line, 0);
-           match != null;
-           match = match.nextMatch())
-      {
-         int startIdx = match.getIndex() + match.getGroup(1).length() + 1;
-         int endIdx   = match.getIndex() + match.getValue().length() - 1;
-         highlight(editor, row, startIdx, endIdx);
-      }
-   }
-   
-   @SuppressWarnings("unused")
-   private Highlighter testthatErrorHighlighter()
-   {
-      return new Highlighter()
-      {
-         @Override
-         public void highlight(AceEditor editor, String line, int row)
-         {
-            onTestthatErrorHighlight(editor, line, row);
-         }
-      };
-   }
-   
-   private void onTestthatErrorHighlight(AceEditor editor, String line, int row)
-   {
-      Pattern reTestthatError = Pattern.create("\\(@[^#]+#\\d+\\)");
-      for (Match match = reTestthatError.match(line, 0);
-           match != null;
-           match = match.nextMatch())
-      {
-         int startIdx = match.getIndex() + 1;
-         int endIdx   = match.getIndex() + match.getValue().length() - 1;
-         highlight(editor, row, startIdx, endIdx);
-      }
+      
+      // when markdown links aren't highlighted, use a group that can never
+      // match so that group indices remain stable
+      String reMarkdown = markdown ? reMarkdownLink() : "(?!)()";
+      return Pattern.create("(" + reMarkdown + ")|(" + reWebLink + ")");
    }
    
    // Event Handlers ---
@@ -577,37 +663,47 @@ public class AceEditorBackgroundLinkHighlighter
    {
       // clear markers within the delete range
       clearMarkers(event.getEvent().getRange());
+   }
+   
+   @Override
+   public void onDocumentChangeSummary(DocumentChangeSummaryEvent event)
+   {
+      DocumentChangeSummary summary = event.getSummary();
       
       // prepare highlighter
-      int row = event.getEvent().getRange().getStart().getRow();
-      nextHighlightStart_ = Math.min(nextHighlightStart_, row);
+      markRowsDirty(summary);
       timer_.schedule(700);
       
-      // update marker positions (deferred so that anchors update)
-      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      // update marker positions (anchors have been updated by now); rows
+      // only move when lines are added or removed
+      if (!summary.hasRowShifts())
+         return;
+      
+      final SafeMap<Integer, List<MarkerRegistration>> newMarkers =
+            new SafeMap<Integer, List<MarkerRegistration>>();
+      MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
       {
          @Override
-         public void execute()
+         public void execute(Integer oldRow, List<MarkerRegistration> markers)
          {
-            final SafeMap<Integer, List<MarkerRegistration>> newMarkers =
-                  new SafeMap<Integer, List<MarkerRegistration>>();
-            MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
-            {
-               @Override
-               public void execute(Integer oldRow, List<MarkerRegistration> markers)
-               {
-                  if (markers == null || markers.isEmpty())
-                     return;
+            if (markers == null || markers.isEmpty())
+               return;
 
-                  // all markers here should have same row
-                  int newRow = markers.get(0).getRange().getStart().getRow();
-                  newMarkers.put(newRow, markers);
-               }
-            });
-            activeMarkers_.clear();
-            activeMarkers_ = newMarkers;
+            // all markers here should have same row
+            int newRow = markers.get(0).getRange().getStart().getRow();
+            newMarkers.put(newRow, markers);
          }
       });
+      activeMarkers_.clear();
+      activeMarkers_ = newMarkers;
+   }
+   
+   @Override
+   public void onScrollY(ScrollYEvent event)
+   {
+      viewportDirty_ = true;
+      if (!timer_.isRunning())
+         timer_.schedule(50);
    }
    
    @Override
@@ -785,13 +881,21 @@ public class AceEditorBackgroundLinkHighlighter
    }
    
    private final AceEditor editor_;
-   private final List<Highlighter> highlighters_;
    private final Timer timer_;
    private final List<HandlerRegistration> handlers_;
    
+   // link matches for recently scanned lines, keyed by line contents
+   private final Map<String, List<LinkMatch>> lineCache_;
+   
    private SafeMap<Integer, List<MarkerRegistration>> activeMarkers_;
-   private int nextHighlightStart_;
+   private Pattern linkPattern_;
+   private boolean viewportDirty_;
+   private int dirtyStartRow_;
+   private int dirtyEndRow_;
    private static final int N_HIGHLIGHT_ROWS = 200;
+   private static final int MAX_CACHED_LINES = 5000;
+   private static final int GROUP_MARKDOWN_LINK = 1;
+   private static final int GROUP_MARKDOWN_LABEL = 2;
    
    private HandlerRegistration previewHandler_;
    private Element activeHighlightMarkerEl_;
@@ -0,0 +1,58 @@
+/*
+ * DocumentChangeSummaryEvent.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.events;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocumentChangeSummary;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+// Fired (at most once per animation frame) with a summary of all of the
+// document changes made since the previous event.
+public class DocumentChangeSummaryEvent extends GwtEvent<DocumentChangeSummaryEvent.Handler>
+{
+   public DocumentChangeSummaryEvent(DocumentChangeSummary summary)
+   {
+      summary_ = summary;
+   }
+   
+   public DocumentChangeSummary getSummary()
+   {
+      return summary_;
+   }
+   
+   private final DocumentChangeSummary summary_;
+   
+   // Boilerplate ----
+   
+   public interface Handler extends EventHandler
+   {
+      void onDocumentChangeSummary(DocumentChangeSummaryEvent event);
+   }
+   
+   @Override
+   public Type<Handler> getAssociatedType()
+   {
+      return TYPE;
+   }
+
+   @Override
+   protected void dispatch(Handler handler)
+   {
+      handler.onDocumentChangeSummary(this);
+   }
+
+   public static final Type<Handler> TYPE = new Type<Handler>();
+}
@@ -20,4 +20,7 @@ import com.google.gwt.event.shared.HasHandlers;
 public interface HasDocumentChangedHandlers extends HasHandlers
 {
    HandlerRegistration addDocumentChangedHandler(DocumentChangedEvent.Handler handler);
+   
+   // Changes summarized per animation frame; see DocumentChangeSummary
+   HandlerRegistration addDocumentChangeSummaryHandler(DocumentChangeSummaryEvent.Handler handler);
 }
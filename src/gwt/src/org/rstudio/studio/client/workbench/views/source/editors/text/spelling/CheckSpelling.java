@@ -21,6 +21,7 @@ import com.google.gwt.event.logical.shared.HasCloseHandlers;
 import com.google.gwt.user.client.ui.HasText;
 import com.google.gwt.user.client.ui.PopupPanel;
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.Mutable;
 import org.rstudio.core.client.Rectangle;
 import org.rstudio.core.client.ResultCallback;
 import org.rstudio.studio.client.RStudioGinjector;
@@ -147,6 +148,7 @@ public class CheckSpelling
 
    private void cancel()
    {
+      cancelSuggestions();
       canceled_ = true;
       callback_.onCancelled();
    }
@@ -244,8 +246,28 @@ public class CheckSpelling
       }
    }
 
+   private void showSuggestions(String[] suggestions)
+   {
+      view_.setSuggestions(suggestions);
+      if (suggestions.length > 0)
+      {
+         view_.getReplacement().setText(suggestions[0]);
+         view_.focusReplacement();
+      }
+   }
+
+   private void cancelSuggestions()
+   {
+      if (suggestionRequest_ != null)
+      {
+         suggestionRequest_.cancel();
+         suggestionRequest_ = null;
+      }
+   }
+
    private void close()
    {
+      cancelSuggestions();
       progressDisplay_.hide();
       view_.closeDialog();
    }
@@ -292,6 +314,18 @@ public class CheckSpelling
 
          view_.getMisspelledWord().setText(word);
 
+         // start generating suggestions right away; they're computed in the
+         // background and shown once both they and the dialog are ready
+         cancelSuggestions();
+         final Mutable<String[]> suggestions = new Mutable<>();
+         final Mutable<Boolean> dialogShown = new Mutable<>(false);
+         suggestionRequest_ = typoSpellChecker_.suggestionList(word, (String[] result) ->
+         {
+            suggestions.set(result);
+            if (dialogShown.get())
+               showSuggestions(result);
+         });
+
          // This fixed delay is regrettable but necessary as it can take some
          // time for Ace's scrolling logic to actually execute (i.e. the next
          // time the renderloop runs). If we don't wait, then misspelled words
@@ -303,13 +337,9 @@ public class CheckSpelling
 
             view_.focusReplacement();
 
-            String[] suggestions = typoSpellChecker_.suggestionList(word);
-            view_.setSuggestions(suggestions);
-            if (suggestions.length > 0)
-            {
-               view_.getReplacement().setText(suggestions[0]);
-               view_.focusReplacement();
-            }
+            dialogShown.set(true);
+            if (suggestions.get() != null)
+               showSuggestions(suggestions.get());
 
             return false;
          }, 100);
@@ -336,6 +366,8 @@ public class CheckSpelling
 
    private Position currentPos_;
 
+   private TypoSpellChecker.SuggestionRequest suggestionRequest_;
+
    private boolean wrapped_;
    private boolean canceled_;
 }
@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.common;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.cell.client.TextCell;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.Scheduler;
@@ -29,8 +30,10 @@ import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
 import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.LayoutPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.view.client.*;
 import org.rstudio.core.client.theme.RStudioCellTableStyle;
 import org.rstudio.core.client.widget.InfoBar;
@@ -129,7 +132,16 @@ public abstract class ChangelistTable extends Composite
 
    public ChangelistTable()
    {
-      table_ = new MultiSelectCellTable<StatusAndPath>(100, resources_);
+      table_ = new MultiSelectCellTable<StatusAndPath>(WINDOW_SIZE, resources_)
+      {
+         @Override
+         protected void selectAll()
+         {
+            // include the rows outside the drawn window
+            for (StatusAndPath item : dataProvider_.getList())
+               selectionModel_.setSelected(item, true);
+         }
+      };
 
       dataProvider_ = new ListDataProvider<StatusAndPath>();
       sortHandler_ = new ColumnSortEvent.ListHandler<StatusAndPath>(
@@ -146,7 +158,21 @@ public abstract class ChangelistTable extends Composite
 
       layout_ = new LayoutPanel();
       layout_.addStyleName("ace_editor_theme");
-      scrollPanel_ = new ScrollPanel(table_);
+      topSpacer_ = new SimplePanel();
+      bottomSpacer_ = new SimplePanel();
+      FlowPanel content = new FlowPanel();
+      content.add(topSpacer_);
+      content.add(table_);
+      content.add(bottomSpacer_);
+      scrollPanel_ = new ScrollPanel(content);
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            scheduleUpdateWindow();
+         }
+      });
       layout_.add(scrollPanel_);
       layout_.setWidgetTopBottom(scrollPanel_, 0, Unit.PX, 0, Unit.PX);
       layout_.setWidgetLeftRight(scrollPanel_, 0, Unit.PX, 0, Unit.PX);
@@ -294,11 +320,11 @@ public abstract class ChangelistTable extends Composite
    public void setItems(ArrayList<StatusAndPath> items)
    {
       setProgress(false);
-      table_.setPageSize(items.size());
       dataProvider_.getList().clear();
       dataProvider_.getList().addAll(items);
       ColumnSortEvent.fire(table_,
                            table_.getColumnSortList());
+      updateWindow(true);
 
       if (selectFirstItemByDefault_)
       {
@@ -366,7 +392,7 @@ public abstract class ChangelistTable extends Composite
    public void selectNextUnselectedItem()
    {
       boolean selectNext = false;
-      for (StatusAndPath path : table_.getVisibleItems())
+      for (StatusAndPath path : dataProvider_.getList())
       {
          if (selectionModel_.isSelected(path))
             selectNext = true;
@@ -414,6 +440,86 @@ public abstract class ChangelistTable extends Composite
       table_.setFocus(true);
    }
    
+   private void scheduleUpdateWindow()
+   {
+      if (pendingUpdateWindow_ != null)
+         return;
+
+      pendingUpdateWindow_ = AnimationScheduler.get().requestAnimationFrame(
+            new AnimationScheduler.AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            pendingUpdateWindow_ = null;
+            updateWindow(false);
+         }
+      });
+   }
+
+   // Large changelists draw only a window of rows around the scroll
+   // position (with spacers above and below standing in for the rest), so
+   // that sorting, selecting and staging don't re-render every row.
+   private void updateWindow(boolean force)
+   {
+      int count = dataProvider_.getList().size();
+      if (count <= VIRTUALIZE_THRESHOLD)
+      {
+         if (force || table_.getVisibleRange().getLength() != count)
+         {
+            table_.setVisibleRange(0, count);
+            setSpacerHeights(0, 0);
+         }
+         return;
+      }
+
+      int rowHeight = getRowHeight();
+      int scrollTop = scrollPanel_.getVerticalScrollPosition();
+      int headerHeight = table_.getTableHeadElement().getOffsetHeight();
+      int firstVisible = Math.max(0, scrollTop - headerHeight) / rowHeight;
+      int visibleCount = scrollPanel_.getOffsetHeight() / rowHeight + 1;
+
+      Range range = table_.getVisibleRange();
+      int start = range.getStart();
+      boolean needsMove =
+            force ||
+            range.getLength() != WINDOW_SIZE ||
+            (start > 0 && firstVisible < start + WINDOW_PADDING) ||
+            (start + WINDOW_SIZE < count &&
+             firstVisible + visibleCount > start + WINDOW_SIZE - WINDOW_PADDING);
+
+      if (!needsMove)
+         return;
+
+      // center the window on the visible rows
+      start = firstVisible - (WINDOW_SIZE - visibleCount) / 2;
+      start = Math.max(0, Math.min(start, count - WINDOW_SIZE));
+      if (start != range.getStart() || range.getLength() != WINDOW_SIZE)
+         table_.setVisibleRange(start, WINDOW_SIZE);
+
+      // row i is drawn at (header + i * rowHeight) regardless of the window
+      // (the header itself takes the place of rows above the window)
+      setSpacerHeights(start * rowHeight,
+                       Math.max(0, count - start - WINDOW_SIZE) * rowHeight);
+   }
+
+   private void setSpacerHeights(int top, int bottom)
+   {
+      topSpacer_.setHeight(top + "px");
+      bottomSpacer_.setHeight(bottom + "px");
+   }
+
+   private int getRowHeight()
+   {
+      if (rowHeight_ <= 0 && table_.getVisibleItemCount() > 0)
+      {
+         Element row = table_.getRowElement(0);
+         if (row != null)
+            rowHeight_ = row.getOffsetHeight();
+      }
+      return rowHeight_ > 0 ? rowHeight_ : DEFAULT_ROW_HEIGHT;
+   }
+
    private class ChangelistInfoBar extends InfoBar
    {
       public ChangelistInfoBar()
@@ -434,5 +540,15 @@ public abstract class ChangelistTable extends Composite
    private ScrollPanel scrollPanel_;
    private ChangelistInfoBar infoBar_;
    private boolean selectFirstItemByDefault_;
+   private final SimplePanel topSpacer_;
+   private final SimplePanel bottomSpacer_;
+   private AnimationScheduler.AnimationHandle pendingUpdateWindow_;
+   private int rowHeight_;
+
+   private static final int VIRTUALIZE_THRESHOLD = 500;
+   private static final int WINDOW_SIZE = 300;
+   private static final int WINDOW_PADDING = 50;
+   private static final int DEFAULT_ROW_HEIGHT = 20;
+
    private static final ChangelistTableCellTableResources resources_ = GWT.<ChangelistTableCellTableResources>create(ChangelistTableCellTableResources.class);
 }
@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.common.model;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
@@ -37,6 +38,7 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshHandler;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 public abstract class VcsState
 {
@@ -104,24 +106,21 @@ public abstract class VcsState
 
             if (status_ != null && status != null)
             {
-               for (int i = 0; i < status_.size(); i++)
+               boolean remove = StringUtil.notNull(status.getStatus()).trim().length() == 0;
+               Integer index = statusIndex_.get(status.getRawPath());
+               if (index != null)
                {
-                  if (status.getRawPath() == status_.get(i).getRawPath())
-                  {
-                     if (StringUtil.notNull(status.getStatus()).trim().length() == 0)
-                        status_.remove(i);
-                     else
-                        status_.set(i, status);
-                     handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
-                     return;
-                  }
+                  if (remove)
+                     removeStatus(index);
+                  else
+                     status_.set(index, status);
+                  fireFileChangeRefresh();
                }
-
-               if (status.getStatus().trim().length() != 0)
+               else if (!remove)
                {
+                  statusIndex_.put(status.getRawPath(), status_.size());
                   status_.add(status);
-                  handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
-                  return;
+                  fireFileChangeRefresh();
                }
             }
          }
@@ -178,6 +177,61 @@ public abstract class VcsState
          refresh(true);
    }
 
+   // Replaces the status of all files; subclasses call this (rather than
+   // assigning status_) so that the path index stays in sync.
+   protected void setStatus(ArrayList<StatusAndPath> status)
+   {
+      status_ = status;
+      statusIndex_.clear();
+      if (status_ != null)
+      {
+         for (int i = 0; i < status_.size(); i++)
+            statusIndex_.put(status_.get(i).getRawPath(), i);
+      }
+
+      // a full refresh supersedes any pending file change refresh
+      if (pendingRefresh_ != null)
+      {
+         pendingRefresh_.cancel();
+         pendingRefresh_ = null;
+      }
+   }
+
+   // Removes the status at the given index by moving the last entry into
+   // its place (the order of status_ is not significant; views sort it).
+   private void removeStatus(int index)
+   {
+      StatusAndPath removed = status_.get(index);
+      int last = status_.size() - 1;
+      if (index != last)
+      {
+         StatusAndPath moved = status_.get(last);
+         status_.set(index, moved);
+         statusIndex_.put(moved.getRawPath(), index);
+      }
+      status_.remove(last);
+      statusIndex_.remove(removed.getRawPath());
+   }
+
+   // File changes tend to arrive in bursts (e.g. after a checkout or when
+   // files are generated), so fire at most one refresh per frame.
+   private void fireFileChangeRefresh()
+   {
+      if (pendingRefresh_ != null)
+         return;
+
+      pendingRefresh_ = AnimationScheduler.get().requestAnimationFrame(
+            new AnimationScheduler.AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            pendingRefresh_ = null;
+            handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
+         }
+      });
+   }
+
    protected abstract StatusAndPathInfo getStatusFromFile(FileSystemItem file);
 
    protected abstract boolean needsFullRefresh(FileSystemItem file);
@@ -188,6 +242,8 @@ public abstract class VcsState
 
    protected final HandlerManager handlers_ = new HandlerManager(this);
    protected ArrayList<StatusAndPath> status_;
+   private final HashMap<String, Integer> statusIndex_ = new HashMap<String, Integer>();
+   private AnimationScheduler.AnimationHandle pendingRefresh_;
    protected final EventBus eventBus_;
    protected final GlobalDisplay globalDisplay_;
    protected final Session session_;
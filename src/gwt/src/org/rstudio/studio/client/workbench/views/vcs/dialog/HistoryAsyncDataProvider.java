@@ -20,7 +20,13 @@ import com.google.gwt.view.client.AsyncDataProvider;
 import com.google.gwt.view.client.HasData;
 import com.google.gwt.view.client.Range;
 import com.google.inject.Inject;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.container.LruCache;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
@@ -66,8 +72,28 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
    
    
 
+   // Forgets all cached history (e.g. after a commit or checkout changes
+   // what a revision refers to). Responses to requests made before this are
+   // ignored when they arrive.
+   public void clearCache()
+   {
+      cacheGeneration_++;
+      pages_.clear();
+      counts_.clear();
+      pendingPages_.clear();
+   }
+
    public void refreshCount()
    {
+      final String historyKey = historyKey();
+      final int generation = cacheGeneration_;
+      Integer count = counts_.get(historyKey);
+      if (count != null)
+      {
+         updateRowCount(count, true);
+         return;
+      }
+
       getHistoryCount(
             rev_, 
             fileFilter_.getValue(), 
@@ -77,7 +103,12 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
          @Override
          public void onResponseReceived(CommitCount response)
          {
-            updateRowCount(response.getCount(), true);
+            if (generation != cacheGeneration_)
+               return; // cache was cleared while we were waiting
+
+            counts_.put(historyKey, response.getCount());
+            if (historyKey.equals(historyKey()))
+               updateRowCount(response.getCount(), true);
          }
 
          @Override
@@ -98,6 +129,35 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
       if (length == 0)
          return;
 
+      final String historyKey = historyKey();
+      String pageKey = pageKey(historyKey, start, length);
+      requestedPage_ = pageKey;
+
+      List<CommitInfo> cached = pages_.get(pageKey);
+      if (cached != null)
+      {
+         showPage(start, length, cached);
+         prefetchAdjacent(historyKey, start, length);
+         return;
+      }
+
+      // a prefetch for this page is already in flight; it will show the
+      // page when it arrives
+      if (pendingPages_.contains(pageKey))
+         return;
+
+      fetchPage(display, historyKey, start, length);
+   }
+
+   private void fetchPage(final HasData<CommitInfo> display,
+                          final String historyKey,
+                          final int start,
+                          final int length)
+   {
+      final String pageKey = pageKey(historyKey, start, length);
+      final int generation = cacheGeneration_;
+      pendingPages_.add(pageKey);
+
       getHistory(
             rev_, fileFilter_.getValue(),
             start, length, searchText_.getValue(),
@@ -107,14 +167,36 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
                public void onResponseReceived(RpcObjectList<CommitInfo> response)
                {
                   super.onResponseReceived(response);
-                  if (response.length() < length)
-                     updateRowCount(start + response.length(), true);
-                  updateRowData(start, response.toArrayList());
+                  if (generation != cacheGeneration_)
+                     return; // cache was cleared while we were waiting
+                  pendingPages_.remove(pageKey);
+
+                  List<CommitInfo> page = response.toArrayList();
+                  pages_.put(pageKey, page);
+
+                  if (pageKey.equals(requestedPage_))
+                  {
+                     showPage(start, length, page);
+                     prefetchAdjacent(historyKey, start, length);
+                  }
                }
 
                @Override
                public void onError(ServerError error)
                {
+                  if (generation != cacheGeneration_)
+                  {
+                     Debug.logError(error);
+                     return;
+                  }
+
+                  pendingPages_.remove(pageKey);
+                  if (!pageKey.equals(requestedPage_))
+                  {
+                     Debug.logError(error);
+                     return;
+                  }
+
                   if (display instanceof AbstractHasData)
                   {
                      display.setVisibleRangeAndClearData(new Range(start, 0), true);
@@ -127,6 +209,50 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
             });
    }
 
+   private void showPage(int start, int length, List<CommitInfo> page)
+   {
+      if (page.size() < length)
+         updateRowCount(start + page.size(), true);
+      updateRowData(start, page);
+   }
+
+   // Fetch the pages before and after the one being shown, so that paging
+   // through history doesn't wait on the server.
+   private void prefetchAdjacent(String historyKey, int start, int length)
+   {
+      Integer count = counts_.get(historyKey);
+      int[] starts = new int[] { start + length, start - length };
+      for (int prefetchStart : starts)
+      {
+         if (prefetchStart < 0 || (count != null && prefetchStart >= count))
+            continue;
+
+         String pageKey = pageKey(historyKey, prefetchStart, length);
+         if (pages_.containsKey(pageKey) || pendingPages_.contains(pageKey))
+            continue;
+
+         // a short page means we've reached the end of history
+         List<CommitInfo> page = pages_.get(pageKey(historyKey, start, length));
+         if (prefetchStart > start && page != null && page.size() < length)
+            continue;
+
+         fetchPage(null, historyKey, prefetchStart, length);
+      }
+   }
+
+   private String historyKey()
+   {
+      FileSystemItem fileFilter = fileFilter_.getValue();
+      return rev_ + "\n" +
+             (fileFilter == null ? "" : fileFilter.getPath()) + "\n" +
+             searchText_.getValue();
+   }
+
+   private static String pageKey(String historyKey, int start, int length)
+   {
+      return historyKey + "\n" + start + ":" + length;
+   }
+
    protected abstract void getHistoryCount(
          String revision,
          FileSystemItem fileFilter,
@@ -145,4 +271,15 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
    private HasValue<String> searchText_;
    private HasValue<FileSystemItem> fileFilter_;
    private HistoryStrategy strategy_;
+
+   // pages of history keyed by (revision, file filter, search, range)
+   private final LruCache<String, List<CommitInfo>> pages_ =
+         new LruCache<String, List<CommitInfo>>(MAX_CACHED_PAGES);
+   private final LruCache<String, Integer> counts_ =
+         new LruCache<String, Integer>(MAX_CACHED_PAGES);
+   private final Set<String> pendingPages_ = new HashSet<String>();
+   private String requestedPage_;
+   private int cacheGeneration_;
+
+   private static final int MAX_CACHED_PAGES = 50;
 }
@@ -39,6 +39,7 @@ import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.Invalidation;
 import org.rstudio.core.client.Invalidation.Token;
 import org.rstudio.core.client.TimeBufferedCommand;
+import org.rstudio.core.client.container.LruCache;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.widget.ProgressIndicator;
 import org.rstudio.core.client.widget.ToolbarButton;
@@ -52,6 +53,9 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.vcs.common.diff.DiffParser;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.SwitchViewEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshHandler;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.ViewFileRevisionEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.ViewFileRevisionHandler;
 import org.rstudio.studio.client.workbench.views.vcs.git.dialog.GitHistoryStrategy;
@@ -194,10 +198,22 @@ public class HistoryPresenter
          @Override
          public void onClick(ClickEvent event)
          {
+            strategy_.clearHistoryCache();
             refreshHistory();
          }
       });
 
+      // commits, checkouts etc. can change what a revision's history is
+      strategy_.addVcsRefreshHandler(new VcsRefreshHandler()
+      {
+         @Override
+         public void onVcsRefresh(VcsRefreshEvent event)
+         {
+            if (event.getReason() == Reason.VcsOperation)
+               strategy_.clearHistoryCache();
+         }
+      });
+
       view_.getOverrideSizeWarningButton().addClickHandler(new ClickHandler()
       {
          @Override
@@ -342,6 +358,14 @@ public class HistoryPresenter
       if (commitInfo == null)
          return;
 
+      // commits are immutable, so a diff we've already shown can be reused
+      String cached = commitDetails_.get(commitInfo.getId());
+      if (cached != null)
+      {
+         showCommitDetail(commitInfo, cached);
+         return;
+      }
+
       final Token token = invalidation_.getInvalidationToken();
 
       strategy_.showCommit(
@@ -353,13 +377,11 @@ public class HistoryPresenter
                public void onResponseReceived(String response)
                {
                   super.onResponseReceived(response);
+                  commitDetails_.put(commitInfo.getId(), response);
                   if (token.isInvalid())
                      return;
 
-                  DiffParser parser = strategy_.createParserForCommit(response);
-                  view_.getCommitDetail().setDetails(
-                                      parser, !strategy_.isShowFileSupported());
-                  commitShowing_ = commitInfo.getId();
+                  showCommitDetail(commitInfo, response);
                }
 
                @Override
@@ -378,6 +400,14 @@ public class HistoryPresenter
             });
    }
 
+   private void showCommitDetail(CommitInfo commitInfo, String commitDiff)
+   {
+      DiffParser parser = strategy_.createParserForCommit(commitDiff);
+      view_.getCommitDetail().setDetails(
+                          parser, !strategy_.isShowFileSupported());
+      commitShowing_ = commitInfo.getId();
+   }
+
    private void refreshHistory()
    {
       strategy_.refreshCount();
@@ -433,4 +463,18 @@ public class HistoryPresenter
    private final Invalidation invalidation_ = new Invalidation();
    private boolean initialized_;
    private String commitShowing_;
+
+   // diffs of recently viewed commits, bounded by their total length
+   private final LruCache<String, String> commitDetails_ =
+         new LruCache<String, String>(MAX_CACHED_DETAIL_CHARS,
+                                      new LruCache.Weigher<String>()
+         {
+            @Override
+            public int weigh(String value)
+            {
+               return value.length();
+            }
+         });
+
+   private static final int MAX_CACHED_DETAIL_CHARS = 16 * 1024 * 1024;
 }
@@ -140,6 +140,12 @@ public class GitHistoryStrategy implements HistoryStrategy
       dataProvider_.refreshCount();
    }
 
+   @Override
+   public void clearHistoryCache()
+   {
+      dataProvider_.clearCache();
+   }
+
    @Override
    public void initializeHistory(HasData<CommitInfo> dataDisplay)
    {
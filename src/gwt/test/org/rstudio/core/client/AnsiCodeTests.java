@@ -16,6 +16,7 @@ package org.rstudio.core.client;
 
 import org.rstudio.core.client.regex.Match;
 import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 
 import com.google.gwt.junit.client.GWTTestCase;
 import junit.framework.Assert;
@@ -180,4 +181,123 @@ public class AnsiCodeTests extends GWTTestCase
       Assert.assertNull(newClazz.blockClazzes);
       Assert.assertNull(newClazz.inlineClazzes);
     } 
+
+   public void testScanEscape()
+   {
+      String sgr = "ab\033[1;31mcd";
+      Assert.assertEquals(9, AnsiCode.scanEscape(sgr, 2));
+      Assert.assertTrue(AnsiCode.isSgrSequence(sgr, 2, 9));
+
+      String reset = "\033[m";
+      Assert.assertEquals(3, AnsiCode.scanEscape(reset, 0));
+      Assert.assertTrue(AnsiCode.isSgrSequence(reset, 0, 3));
+
+      String eraseLine = "\033[2Kxyz";
+      Assert.assertEquals(4, AnsiCode.scanEscape(eraseLine, 0));
+      Assert.assertFalse(AnsiCode.isSgrSequence(eraseLine, 0, 4));
+
+      String hideCursor = "\033[?25l";
+      Assert.assertEquals(6, AnsiCode.scanEscape(hideCursor, 0));
+      Assert.assertFalse(AnsiCode.isSgrSequence(hideCursor, 0, 6));
+
+      Assert.assertEquals(AnsiCode.ESCAPE_PARTIAL, AnsiCode.scanEscape("x\033", 1));
+      Assert.assertEquals(AnsiCode.ESCAPE_PARTIAL, AnsiCode.scanEscape("\033[", 0));
+      Assert.assertEquals(AnsiCode.ESCAPE_PARTIAL, AnsiCode.scanEscape("\033[38;5", 0));
+      Assert.assertEquals(AnsiCode.ESCAPE_INVALID, AnsiCode.scanEscape("\033]0;title", 0));
+      // parameter runs are at most four digits; a fifth is the final char
+      Assert.assertEquals(7, AnsiCode.scanEscape("\033[12345m", 0));
+
+      // a parameter digit ends the sequence if no final char follows
+      Assert.assertEquals(4, AnsiCode.scanEscape("\033[12;x", 0));
+   }
+
+   public void testScanSaveRestoreCursor()
+   {
+      // ESC 7 and ESC 8 are complete sequences, whatever follows them
+      Assert.assertEquals(2, AnsiCode.scanEscape("\0337", 0));
+      Assert.assertEquals(2, AnsiCode.scanEscape("\0338", 0));
+      Assert.assertEquals(2, AnsiCode.scanEscape("\0337 text", 0));
+      Assert.assertEquals(2, AnsiCode.scanEscape("\0338 text", 0));
+      Assert.assertEquals(2, AnsiCode.scanEscape("\0337hello", 0));
+      Assert.assertFalse(AnsiCode.isSgrSequence("\0337hello", 0, 2));
+   }
+
+   public void testProcessCodeInPlace()
+   {
+      AnsiCode ansi = new AnsiCode();
+      String data = "text\033[1;38;5;200mmore";
+      AnsiCode.AnsiClazzes newClazz = ansi.processCode(data, 6, 16);
+      Assert.assertEquals("xtermBold xtermColor200", newClazz.inlineClazzes);
+
+      newClazz = ansi.processCode("\033[44m");
+      Assert.assertEquals("xtermBold xtermColor200 xtermBgColor4", newClazz.inlineClazzes);
+
+      newClazz = ansi.processCode("\033[32;49m");
+      Assert.assertEquals("xtermBold xtermColor2", newClazz.inlineClazzes);
+   }
+
+   public void testClazzesInterned()
+   {
+      AnsiCode first = new AnsiCode();
+      AnsiCode second = new AnsiCode();
+      String red = first.processCode("\033[1;31m").inlineClazzes;
+      Assert.assertSame(red, second.processCode("\033[1;31m").inlineClazzes);
+      Assert.assertSame(
+            AnsiCode.combineClazzes("myStyle", red),
+            AnsiCode.combineClazzes("myStyle", red));
+      Assert.assertSame(red, AnsiCode.combineClazzes(null, red));
+      Assert.assertEquals("myStyle", AnsiCode.combineClazzes("myStyle", null));
+   }
+
+   public void testColorizedOutputWithProgress()
+   {
+      // crayon / testthat style output, with an escape every few characters,
+      // followed by a cli style progress bar redrawn with carriage returns
+      StringBuilder line = new StringBuilder();
+      for (int i = 0; i < 20; i++)
+         line.append("\033[3").append(i % 8).append("m").append("ok ").append(AnsiCode.CSI + "39m");
+      line.append("\n");
+
+      StringBuilder progress = new StringBuilder();
+      for (int i = 0; i <= 100; i++)
+         progress.append("\r\033[32m").append(i).append("%\033[39m \033[1m[====>   ]\033[22m");
+      progress.append("\n");
+
+      final int chunks = 200;
+      VirtualConsole vc = new VirtualConsole(null, new FakePrefs());
+      for (int i = 0; i < chunks; i++)
+      {
+         String chunk = i % 10 == 0 ? progress.toString() : line.toString();
+         vc.submit(chunk, "myStyle");
+      }
+
+      StringBuilder plain = new StringBuilder();
+      for (int i = 0; i < 20; i++)
+         plain.append("ok ");
+      plain.append("\n");
+
+      Assert.assertEquals(chunks, vc.getLineCount());
+      Assert.assertTrue(vc.toString().startsWith("100% [====>   ]\n" + plain.toString()));
+   }
+
+   private static class FakePrefs implements VirtualConsole.Preferences
+   {
+      @Override
+      public int truncateLongLinesInConsoleHistory()
+      {
+         return 0;
+      }
+
+      @Override
+      public String consoleAnsiMode()
+      {
+         return UserPrefs.ANSI_CONSOLE_MODE_ON;
+      }
+
+      @Override
+      public boolean screenReaderEnabled()
+      {
+         return false;
+      }
+   }
 }
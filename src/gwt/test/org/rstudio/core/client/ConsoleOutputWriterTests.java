@@ -239,6 +239,88 @@ public class ConsoleOutputWriterTests extends GWTTestCase
       Assert.assertEquals(expected, getInnerHTML(output));
    }
    
+   public void testLineCountWithOverwrites()
+   {
+      // carriage returns and backspaces rewrite existing output; the line
+      // count should always agree with the DOM
+      ConsoleOutputWriter output = getCOW();
+
+      output.outputToConsole("one\ntwo\n", myClass, notError, ignoreLineCount, false);
+      Assert.assertEquals(2, output.getCurrentLines());
+
+      output.outputToConsole("10%\r20%\r30%", myClass, notError, ignoreLineCount, false);
+      Assert.assertEquals(2, output.getCurrentLines());
+      Assert.assertEquals(2, DomUtils.countLines(output.getElement(), true));
+
+      output.outputToConsole("\b\b\b100%\n", myClass, notError, ignoreLineCount, false);
+      Assert.assertEquals(3, output.getCurrentLines());
+      Assert.assertEquals(3, DomUtils.countLines(output.getElement(), true));
+
+      output.outputToConsole("\033[31mred\n\033[39m", myClass, isError, ignoreLineCount, false);
+      Assert.assertEquals(4, output.getCurrentLines());
+      Assert.assertEquals(4, DomUtils.countLines(output.getElement(), true));
+   }
+
+   public void testTrimAcrossSegments()
+   {
+      // each fresh start on a new line begins a new output segment; trimming
+      // should drop whole segments and then trim within the next one
+      ConsoleOutputWriter output = getCOW();
+      final int maxLines = 10;
+      output.setMaxOutputLines(maxLines);
+
+      for (int i = 0; i < 5; i++)
+         output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount, false);
+      output.ensureStartingOnNewLine();
+      for (int i = 5; i < 10; i++)
+         output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount, false);
+      output.outputToConsole("partial", myClass, notError, checkLineCount, false);
+      output.ensureStartingOnNewLine();
+      Assert.assertEquals(maxLines + 1, output.getCurrentLines());
+
+      Assert.assertTrue(output.trimExcess());
+      Assert.assertEquals(maxLines, output.getCurrentLines());
+      Assert.assertEquals(2, output.getElement().getChildCount());
+
+      for (int i = 10; i < 18; i++)
+         Assert.assertFalse(output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount, false));
+
+      Assert.assertEquals(maxLines, output.getCurrentLines());
+      Assert.assertEquals(maxLines, DomUtils.countLines(output.getElement(), true));
+
+      // the first segment has been dropped entirely
+      Assert.assertEquals(2, output.getElement().getChildCount());
+      Assert.assertTrue(output.getElement().getInnerText().startsWith("9\npartial\n10\n"));
+   }
+
+   public void testMillionLinesStayCapped()
+   {
+      // write 1M lines into a console capped at 1000 lines, 100 lines at a
+      // time; the line count is tracked as we go, and the console never
+      // holds more than the cap
+      ConsoleOutputWriter output = getCOW();
+      final int maxLines = 1000;
+      final int linesPerWrite = 100;
+      final int totalLines = 1000000;
+      output.setMaxOutputLines(maxLines);
+
+      StringBuilder chunk = new StringBuilder();
+      for (int i = 0; i < totalLines; i += linesPerWrite)
+      {
+         chunk.setLength(0);
+         for (int j = i; j < i + linesPerWrite; j++)
+            chunk.append(numberedLine(j));
+         output.outputToConsole(chunk.toString(), myClass, notError, checkLineCount, false);
+         Assert.assertEquals(Math.min(i + linesPerWrite, maxLines), output.getCurrentLines());
+      }
+
+      Assert.assertEquals(maxLines, output.getCurrentLines());
+      Assert.assertEquals(maxLines, DomUtils.countLines(output.getElement(), true));
+      String text = output.getElement().getInnerText();
+      Assert.assertTrue(text.startsWith(numberedLine(totalLines - maxLines)));
+      Assert.assertTrue(text.endsWith(numberedLine(totalLines - 1)));
+   }
+
    ////////////////////////////////////////////////////////////////////////////
    // Below here are a bunch of tests I had written in R and was checking by
    // eyeball directly in RStudio. https://github.com/gtritchie/console_tests
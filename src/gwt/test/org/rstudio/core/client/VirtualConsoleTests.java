@@ -671,6 +671,29 @@ public class VirtualConsoleTests extends GWTTestCase
       Assert.assertEquals(expected, ele.getInnerHTML());
    }
 
+   public void testAnsiCodeSplitAfterEscape()
+   {
+      int color = AnsiCode.ForeColorNum.MAGENTA;
+      PreElement ele = Document.get().createPreElement();
+      VirtualConsole vc = getVC(ele);
+      vc.submit("Hi\033");
+      vc.submit("[" + color + AnsiCode.SGR + "Hello");
+      String expected ="<span>Hi</span><span class=\"" + 
+            AnsiCode.clazzForColor(color) + "\">Hello</span>"; 
+      Assert.assertEquals(expected, ele.getInnerHTML());
+   }
+
+   public void testUnsupportedAnsiCodeDiscarded()
+   {
+      int color = AnsiCode.ForeColorNum.MAGENTA;
+      PreElement ele = Document.get().createPreElement();
+      VirtualConsole vc = getVC(ele);
+      vc.submit("a\033[2Kb" + AnsiCode.CSI + color + AnsiCode.SGR + "c");
+      String expected ="<span>ab</span><span class=\"" + 
+            AnsiCode.clazzForColor(color) + "\">c</span>"; 
+      Assert.assertEquals(expected, ele.getInnerHTML());
+   }
+
    public void testAnsiCodeAtEndOfSubmitCall()
    {
       int color = AnsiCode.ForeColorNum.MAGENTA;
@@ -0,0 +1,157 @@
+/*
+ * TreeRowIndexTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.container;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.rstudio.core.client.container.TreeRowIndex.Node;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class TreeRowIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private List<String> names(String prefix, int count)
+   {
+      List<String> names = new ArrayList<String>(count);
+      for (int i = 0; i < count; i++)
+         names.add(prefix + i);
+      return names;
+   }
+
+   private List<String> rows(TreeRowIndex<String> index)
+   {
+      List<String> rows = new ArrayList<String>();
+      index.collectRows(index.getRoot(), rows);
+      return rows;
+   }
+
+   // checks that row <-> node lookups agree with a full walk of the tree
+   private void assertConsistent(TreeRowIndex<String> index)
+   {
+      List<String> rows = rows(index);
+      assertEquals(rows.size(), index.getRowCount());
+      for (int row = 0; row < rows.size(); row++)
+      {
+         Node<String> node = index.getNode(row);
+         assertEquals(rows.get(row), node.getValue());
+         assertEquals(row, index.getRow(node));
+      }
+      assertNull(index.getNode(rows.size()));
+   }
+
+   public void testEmpty()
+   {
+      TreeRowIndex<String> index = new TreeRowIndex<String>("root");
+      assertEquals(1, index.getRowCount());
+      assertEquals("root", index.getNode(0).getValue());
+      assertEquals(0, index.getRow(index.getRoot()));
+      assertNull(index.getNode(-1));
+   }
+
+   public void testExpandCollapse()
+   {
+      TreeRowIndex<String> index = new TreeRowIndex<String>("root");
+      List<Node<String>> children = index.addChildren(index.getRoot(), names("a", 5));
+      List<Node<String>> grandchildren = index.addChildren(children.get(2), names("b", 3));
+      assertEquals(6, index.getRowCount());
+      assertEquals(-1, index.getRow(grandchildren.get(0)));
+      assertFalse(index.isVisible(grandchildren.get(0)));
+
+      index.setExpanded(children.get(2), true);
+      assertEquals(9, index.getRowCount());
+      assertEquals(Arrays.asList("root", "a0", "a1", "a2", "b0", "b1", "b2", "a3", "a4"),
+                   rows(index));
+      assertEquals(7, index.getRow(children.get(3)));
+      assertConsistent(index);
+
+      // collapsing an ancestor hides, but remembers, expanded descendants
+      index.setExpanded(index.getRoot(), false);
+      assertEquals(1, index.getRowCount());
+      index.setExpanded(index.getRoot(), true);
+      assertEquals(9, index.getRowCount());
+
+      index.setExpanded(children.get(2), false);
+      assertEquals(6, index.getRowCount());
+      assertConsistent(index);
+   }
+
+   public void testExpandBeneathCollapsedAncestor()
+   {
+      TreeRowIndex<String> index = new TreeRowIndex<String>("root");
+      Node<String> a = index.addChildren(index.getRoot(), names("a", 1)).get(0);
+      Node<String> b = index.addChildren(a, names("b", 1)).get(0);
+      index.addChildren(b, names("c", 4));
+
+      // expanding 'b' while 'a' is collapsed doesn't change visible rows
+      index.setExpanded(b, true);
+      assertEquals(2, index.getRowCount());
+      assertEquals(4, b.getDescendantRowCount());
+
+      index.setExpanded(a, true);
+      assertEquals(7, index.getRowCount());
+      assertConsistent(index);
+   }
+
+   public void testInsertAndRemovePages()
+   {
+      TreeRowIndex<String> index = new TreeRowIndex<String>("root");
+      Node<String> root = index.getRoot();
+      index.addChildren(root, names("page0-", 3));
+      index.addChildren(root, Arrays.asList("more", "attributes"));
+
+      // load another page before the placeholder
+      index.insertChildren(root, 3, names("page1-", 3));
+      assertEquals("more", index.getNode(7).getValue());
+      assertConsistent(index);
+
+      // remove the placeholder once everything has been loaded
+      index.removeChildren(root, 6, 1);
+      assertEquals(Arrays.asList("root", "page0-0", "page0-1", "page0-2",
+                                 "page1-0", "page1-1", "page1-2", "attributes"),
+                   rows(index));
+      assertConsistent(index);
+   }
+
+   public void testManyExpandCollapseToggles()
+   {
+      int count = 1000;
+
+      TreeRowIndex<String> index = new TreeRowIndex<String>("root");
+      List<Node<String>> children = index.addChildren(index.getRoot(), names("a", count));
+      for (int i = 0; i < count; i += 10)
+         index.addChildren(children.get(i), names("b", 10));
+
+      // toggle nodes scattered through the tree, checking the index
+      // against a full walk after each one
+      int expandedCount = 0;
+      for (int i = 0; i < 200; i++)
+      {
+         Node<String> node = children.get((i * 7919 / 10 * 10) % count);
+         index.setExpanded(node, !node.isExpanded());
+         expandedCount += node.isExpanded() ? 1 : -1;
+
+         assertEquals(1 + count + 10 * expandedCount, index.getRowCount());
+         assertConsistent(index);
+      }
+   }
+}
@@ -21,15 +21,21 @@ import org.rstudio.core.client.SafeHtmlUtilTests;
 import org.rstudio.core.client.StringUtilTests;
 import org.rstudio.core.client.URIUtilsTests;
 import org.rstudio.core.client.VirtualConsoleTests;
+import org.rstudio.core.client.container.TreeRowIndexTests;
 import org.rstudio.core.client.dom.DomUtilsTests;
 import org.rstudio.studio.client.application.model.SessionScopeTests;
+import org.rstudio.studio.client.common.spelling.SpellingWordCacheTests;
 import org.rstudio.studio.client.common.r.RTokenizerTests;
+import org.rstudio.studio.client.workbench.views.environment.view.RObjectEntryMergeTests;
+import org.rstudio.studio.client.workbench.views.help.search.HelpTopicListTests;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobManagerTests;
 import org.rstudio.studio.client.workbench.views.jobs.view.JobsListTests;
 // Disabled in v1.3 due to failures. See #4249.
 // import org.rstudio.studio.client.workbench.views.source.editors.text.assist.RChunkHeaderParserTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalLocalEchoTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalSessionSocketTests;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocumentChangeSummaryTests;
+import org.rstudio.studio.client.workbench.views.source.editors.text.TextEditingTargetReformatHelperTests;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkContextUiTests;
 
 import com.google.gwt.junit.tools.GWTTestSuite;
@@ -58,6 +64,12 @@ public class RStudioUnitTestSuite extends GWTTestSuite
       suite.addTestSuite(ElementIdsTests.class);
       suite.addTestSuite(ChunkContextUiTests.class);
       suite.addTestSuite(SafeHtmlUtilTests.class);
+      suite.addTestSuite(SpellingWordCacheTests.class);
+      suite.addTestSuite(DocumentChangeSummaryTests.class);
+      suite.addTestSuite(TreeRowIndexTests.class);
+      suite.addTestSuite(RObjectEntryMergeTests.class);
+      suite.addTestSuite(TextEditingTargetReformatHelperTests.class);
+      suite.addTestSuite(HelpTopicListTests.class);
 
       return suite;
    }
@@ -0,0 +1,106 @@
+/*
+ * SpellingWordCacheTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class SpellingWordCacheTests extends GWTTestCase
+{
+   // a stand-in for the dictionary: words containing a 'q' are misspelled
+   private static class CountingChecker implements SpellingWordCache.Checker
+   {
+      @Override
+      public boolean[] check(List<String> words)
+      {
+         calls_++;
+         wordsChecked_ += words.size();
+         boolean[] results = new boolean[words.size()];
+         for (int i = 0; i < words.size(); i++)
+            results[i] = words.get(i).indexOf('q') == -1;
+         return results;
+      }
+
+      public int calls_ = 0;
+      public int wordsChecked_ = 0;
+   }
+
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testCachesResults()
+   {
+      SpellingWordCache cache = new SpellingWordCache(100);
+      CountingChecker checker = new CountingChecker();
+
+      assertTrue(cache.check("hello", checker));
+      assertFalse(cache.check("qwerty", checker));
+      assertTrue(cache.check("hello", checker));
+      assertFalse(cache.check("qwerty", checker));
+      assertEquals(2, checker.calls_);
+   }
+
+   public void testInvalidate()
+   {
+      SpellingWordCache cache = new SpellingWordCache(100);
+      CountingChecker checker = new CountingChecker();
+
+      int generation = cache.getGeneration();
+      cache.check("hello", checker);
+      cache.invalidate();
+      assertTrue(cache.getGeneration() != generation);
+      assertNull(cache.get("hello"));
+      cache.check("hello", checker);
+      assertEquals(2, checker.calls_);
+   }
+
+   public void testBatchCheckDeduplicates()
+   {
+      SpellingWordCache cache = new SpellingWordCache(100);
+      CountingChecker checker = new CountingChecker();
+
+      List<String> words = new ArrayList<String>();
+      words.add("alpha");
+      words.add("quux");
+      words.add("alpha");
+      words.add("beta");
+
+      boolean[] results = cache.check(words, checker);
+      assertTrue(results[0]);
+      assertFalse(results[1]);
+      assertTrue(results[2]);
+      assertTrue(results[3]);
+      assertEquals(1, checker.calls_);
+      assertEquals(3, checker.wordsChecked_);
+
+      // a second pass is served entirely from the cache
+      cache.check(words, checker);
+      assertEquals(1, checker.calls_);
+   }
+
+   public void testBoundedSize()
+   {
+      SpellingWordCache cache = new SpellingWordCache(10);
+      CountingChecker checker = new CountingChecker();
+      for (int i = 0; i < 100; i++)
+         cache.check("word" + i, checker);
+      assertEquals(10, cache.size());
+   }
+}
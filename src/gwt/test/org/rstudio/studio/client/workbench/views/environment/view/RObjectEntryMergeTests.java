@@ -0,0 +1,221 @@
+/*
+ * RObjectEntryMergeTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.environment.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.rstudio.studio.client.workbench.views.environment.model.RObject;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class RObjectEntryMergeTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static native RObject createObject(String name, String type, int size) /*-{
+      return {
+         name: name,
+         type: type,
+         clazz: [type],
+         is_data: false,
+         value: "",
+         description: "",
+         contents: [],
+         contents_deferred: false,
+         length: 1,
+         size: size
+      };
+   }-*/;
+
+   private static RObjectEntry entry(String name, String type)
+   {
+      return new RObjectEntry(createObject(name, type, 0), true);
+   }
+
+   private static String name(int i)
+   {
+      String number = "00000" + i;
+      return "x" + number.substring(number.length() - 5);
+   }
+
+   private static String type(int i)
+   {
+      return i % 5 == 0 ? "function" : "numeric";
+   }
+
+   private static List<RObjectEntry> sortedEntries(int count)
+   {
+      List<RObjectEntry> entries = new ArrayList<RObjectEntry>();
+      for (int i = 0; i < count; i++)
+         entries.add(entry(name(i * 2), type(i)));
+      Collections.sort(entries, new RObjectEntrySort());
+      return entries;
+   }
+
+   // the previous implementation: add each assigned object, then remove each
+   // removed object, one at a time (see EnvironmentObjects.addObject)
+   private static List<RObjectEntry> applySequentially(List<RObjectEntry> entries,
+                                                       List<RObjectEntry> assigned,
+                                                       List<String> removed,
+                                                       RObjectEntrySort sort)
+   {
+      List<RObjectEntry> list = new ArrayList<RObjectEntry>(entries);
+      for (RObjectEntry entry : assigned)
+      {
+         int idx = indexOf(list, entry.rObject.getName());
+         boolean added = false;
+         if (idx >= 0)
+         {
+            if (list.get(idx).rObject.getType() == entry.rObject.getType())
+            {
+               list.set(idx, entry);
+               added = true;
+            }
+            else
+            {
+               list.remove(idx);
+            }
+         }
+         if (!added)
+         {
+            for (idx = 0; idx < list.size(); idx++)
+               if (sort.compare(entry, list.get(idx)) < 0)
+                  break;
+            list.add(idx, entry);
+         }
+         updateLeaders(list);
+      }
+      for (String name : removed)
+      {
+         int idx = indexOf(list, name);
+         if (idx >= 0)
+            list.remove(idx);
+         updateLeaders(list);
+      }
+      return list;
+   }
+
+   private static int indexOf(List<RObjectEntry> list, String name)
+   {
+      for (int i = 0; i < list.size(); i++)
+         if (list.get(i).rObject.getName() == name)
+            return i;
+      return -1;
+   }
+
+   // stands in for EnvironmentObjects.updateCategoryLeaders
+   private static void updateLeaders(List<RObjectEntry> list)
+   {
+      boolean[] leaders = { false, false, false, false };
+      for (RObjectEntry entry : list)
+      {
+         int category = entry.getCategory();
+         entry.isCategoryLeader = !leaders[category];
+         leaders[category] = true;
+      }
+   }
+
+   private static void assertSameEntries(List<RObjectEntry> expected,
+                                         List<RObjectEntry> actual)
+   {
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++)
+         assertSame(expected.get(i), actual.get(i));
+   }
+
+   public void testMergeMatchesSequentialUpdates()
+   {
+      RObjectEntrySort sort = new RObjectEntrySort();
+      List<RObjectEntry> entries = sortedEntries(20);
+
+      List<RObjectEntry> assigned = new ArrayList<RObjectEntry>();
+      assigned.add(entry(name(4), type(2)));        // replaced in place
+      assigned.add(entry(name(6), "function"));     // type changed
+      assigned.add(entry(name(7), "numeric"));      // new
+      assigned.add(entry(name(1), "function"));     // new
+      assigned.add(entry(name(8), type(4)));        // assigned, then removed
+      assigned.add(entry(name(7), "numeric"));      // assigned twice
+
+      List<String> removed = new ArrayList<String>();
+      removed.add(name(8));
+      removed.add(name(10));
+      removed.add(name(99));                        // not present
+
+      List<RObjectEntry> expected = applySequentially(entries, assigned, removed, sort);
+      List<RObjectEntry> actual = RObjectEntryMerge.merge(
+            entries, assigned, removed, sort, null);
+      assertSameEntries(expected, actual);
+   }
+
+   public void testReplaceHandler()
+   {
+      List<RObjectEntry> entries = sortedEntries(4);
+      final RObjectEntry oldEntry = entries.get(entries.size() - 1);
+      final RObjectEntry newEntry = entry(oldEntry.rObject.getName(),
+                                          oldEntry.rObject.getType());
+      oldEntry.expanded = true;
+
+      List<RObjectEntry> assigned = new ArrayList<RObjectEntry>();
+      assigned.add(newEntry);
+      List<RObjectEntry> merged = RObjectEntryMerge.merge(
+            entries,
+            assigned,
+            new ArrayList<String>(),
+            new RObjectEntrySort(),
+            (before, after) ->
+            {
+               assertSame(oldEntry, before);
+               assertSame(newEntry, after);
+               after.expanded = before.expanded;
+            });
+
+      assertEquals(entries.size(), merged.size());
+      assertSame(newEntry, merged.get(merged.size() - 1));
+      assertTrue(newEntry.expanded);
+   }
+
+   public void testMergeManyObjects()
+   {
+      // a large environment in which a loop reassigns some objects (changing
+      // the type of some of those), creates new ones and removes others
+      int count = 2000;
+      RObjectEntrySort sort = new RObjectEntrySort();
+      List<RObjectEntry> entries = sortedEntries(count);
+
+      List<RObjectEntry> assigned = new ArrayList<RObjectEntry>();
+      for (int i = 0; i < 400; i++)
+         assigned.add(entry(name(i * 10), type(i * 5)));
+      for (int i = 0; i < 400; i++)
+         assigned.add(entry(name(i * 10 + 1), type(i)));
+      List<String> removed = new ArrayList<String>();
+      for (int i = 0; i < 200; i++)
+         removed.add(name(i * 20 + 4));
+
+      List<RObjectEntry> expected = applySequentially(entries, assigned, removed, sort);
+      List<RObjectEntry> actual = RObjectEntryMerge.merge(
+            entries, assigned, removed, sort, null);
+
+      assertEquals(count + 400 - 200, actual.size());
+      assertSameEntries(expected, actual);
+      for (int i = 1; i < actual.size(); i++)
+         assertTrue(sort.compare(actual.get(i - 1), actual.get(i)) <= 0);
+   }
+}
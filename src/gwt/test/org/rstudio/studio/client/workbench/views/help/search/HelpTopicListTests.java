@@ -0,0 +1,95 @@
+/*
+ * HelpTopicListTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.help.search;
+
+import java.util.Arrays;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class HelpTopicListTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private HelpTopicList createList()
+   {
+      HelpTopicList list = new HelpTopicList();
+      list.putPackage("base", Arrays.asList(
+            "library", ".libPaths", ".Machine", "mean", "Math", "..."));
+      list.putPackage("stats", Arrays.asList(
+            "median", "mad", "mean"));
+      return list;
+   }
+
+   public void testFirstCharacterMustMatch()
+   {
+      HelpTopicList list = createList();
+      assertEquals(Arrays.asList("median", "mad"), list.suggest("md", 10));
+      assertTrue(list.suggest("xyz", 10).isEmpty());
+   }
+
+   public void testUndottedQueryMatchesDottedTopics()
+   {
+      HelpTopicList list = createList();
+      assertTrue(list.suggest("libp", 10).contains(".libPaths"));
+      assertTrue(list.suggest("mach", 10).contains(".Machine"));
+   }
+
+   public void testDottedQuery()
+   {
+      HelpTopicList list = createList();
+      assertEquals(Arrays.asList(".libPaths"), list.suggest(".libP", 10));
+      assertEquals(Arrays.asList(".Machine"), list.suggest(".Mach", 10));
+
+      // a dotted query only matches dotted topics
+      assertFalse(list.suggest(".m", 10).contains("mean"));
+      assertEquals(Arrays.asList(".Machine"), list.suggest(".m", 10));
+
+      // nothing but dots
+      assertEquals(3, list.suggest(".", 10).size());
+      assertEquals(Arrays.asList("..."), list.suggest("...", 10));
+   }
+
+   public void testExtendingQueryNarrowsMatches()
+   {
+      HelpTopicList list = createList();
+      assertEquals(3, list.suggest(".", 10).size());
+      assertEquals(Arrays.asList(".libPaths"), list.suggest(".l", 10));
+      assertEquals(Arrays.asList(".libPaths"), list.suggest(".lib", 10));
+      assertTrue(list.suggest(".libx", 10).isEmpty());
+   }
+
+   public void testRankingAndDuplicates()
+   {
+      HelpTopicList list = createList();
+
+      // 'mean' is in both packages but is only suggested once, first
+      assertEquals(Arrays.asList("mean", "median"), list.suggest("mean", 10));
+      assertEquals(Arrays.asList("mean"), list.suggest("mean", 1));
+   }
+
+   public void testRemovePackage()
+   {
+      HelpTopicList list = createList();
+      assertEquals(Arrays.asList("median", "mad"), list.suggest("md", 10));
+
+      list.removePackage("stats");
+      assertTrue(list.suggest("md", 10).isEmpty());
+      assertEquals(Arrays.asList("mean"), list.suggest("mean", 10));
+   }
+}
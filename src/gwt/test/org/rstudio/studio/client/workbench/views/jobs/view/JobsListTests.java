@@ -17,6 +17,7 @@ package org.rstudio.studio.client.workbench.views.jobs.view;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.VerticalPanel;
 
 import junit.framework.Assert;
 import org.rstudio.core.client.dom.WindowEx;
@@ -128,8 +129,20 @@ public class JobsListTests extends GWTTestCase
       @Override
       public JobItem create(Job job)
       {
+         created++;
          return new JobItem(job, new FakeEventBus(), new FakeJobItemPrefs());
       }
+      
+      int created = 0;
+   }
+   
+   private Job getNumberedJob(int i)
+   {
+      Job job = getJob1();
+      job.id = "job" + i;
+      job.name = "Job " + i;
+      job.recorded = i;
+      return job;
    }
    
    @Override
@@ -490,6 +503,27 @@ public class JobsListTests extends GWTTestCase
       Assert.assertEquals(id3, fetchJob3.id);
    }
 
+   /**
+    * Verify that a long initial list of jobs only creates rows for the first
+    * window of jobs.
+    */
+   public void testSetManyInitialJobs()
+   {
+      Factory factory = new Factory();
+      JobsList list = new JobsList(factory);
+
+      int count = JobsList.VIRTUALIZE_THRESHOLD * 3;
+      ArrayList<Job> jobs = new ArrayList<>();
+      for (int i = 0; i < count; i++)
+         jobs.add(getNumberedJob(i));
+
+      list.setInitialJobs(jobs);
+
+      Assert.assertEquals(count, list.jobCount());
+      Assert.assertEquals(JobsList.WINDOW_SIZE, factory.created);
+      Assert.assertEquals("job" + (count - 1), list.getJobs().get(0).id);
+   }
+
    // clear ----------------------------------------------------
 
    public void testClearJobs()
@@ -574,5 +608,53 @@ public class JobsListTests extends GWTTestCase
       // but that's better covered via JobItem tests
    }
 
+   // window ----------------------------------------------------
+
+   /**
+    * Verify that only the jobs in the window are drawn, and that rows are
+    * reused as the window moves.
+    */
+   public void testWindow()
+   {
+      Factory factory = new Factory();
+      VerticalPanel panel = new VerticalPanel();
+      JobsListViewImpl list = new JobsListViewImpl(panel, factory);
+      list.setWindow(0, 10);
+
+      ArrayList<Job> jobs = new ArrayList<>();
+      for (int i = 0; i < 100; i++)
+         jobs.add(getNumberedJob(i));
+      list.setJobs(jobs);
+
+      Assert.assertEquals(100, list.jobCount());
+      Assert.assertEquals(100, list.getJobs().size());
+      Assert.assertEquals(10, list.rowCount());
+      Assert.assertEquals(10, panel.getWidgetCount());
+      Assert.assertEquals(10, factory.created);
+
+      // move the window part of the way; only the rows for jobs that left
+      // the window are redrawn, using the existing rows
+      list.setWindow(5, 10);
+      Assert.assertEquals(10, panel.getWidgetCount());
+      Assert.assertEquals(10, factory.created);
+      Assert.assertEquals("job5", ((JobItemView)panel.getWidget(0)).getJob().id);
+      Assert.assertEquals("job14", ((JobItemView)panel.getWidget(9)).getJob().id);
+
+      // jobs outside the window can still be fetched and updated
+      Job job50 = getNumberedJob(50);
+      job50.name = "New and Improved";
+      list.updateJob(job50);
+      Assert.assertEquals(job50.name, list.getJob("job50").name);
+
+      // removing a job in the window draws the next one
+      Assert.assertTrue(list.removeJob(getNumberedJob(7)));
+      Assert.assertEquals(99, list.jobCount());
+      Assert.assertEquals(10, panel.getWidgetCount());
+      Assert.assertEquals("job15", ((JobItemView)panel.getWidget(9)).getJob().id);
+
+      list.clear();
+      Assert.assertEquals(0, panel.getWidgetCount());
+   }
+
 }
 
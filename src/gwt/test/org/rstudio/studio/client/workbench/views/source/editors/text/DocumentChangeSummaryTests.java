@@ -0,0 +1,107 @@
+/*
+ * DocumentChangeSummaryTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class DocumentChangeSummaryTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testEmpty()
+   {
+      DocumentChangeSummary summary = new DocumentChangeSummary();
+      assertFalse(summary.isDirty());
+      assertEquals(-1, summary.getFirstChangedRow());
+      assertEquals(0, summary.getRowDelta());
+      assertEquals(42, summary.mapRow(42));
+   }
+
+   public void testSingleLineEdits()
+   {
+      DocumentChangeSummary summary = new DocumentChangeSummary();
+      summary.recordInsert(10, 10);
+      summary.recordInsert(10, 10);
+      summary.recordRemove(12, 12);
+      assertEquals(3, summary.getChangeCount());
+      assertEquals(10, summary.getFirstChangedRow());
+      assertEquals(12, summary.getLastChangedRow());
+      assertEquals(0, summary.getRowDelta());
+      assertFalse(summary.hasRowShifts());
+      assertEquals(50, summary.mapRow(50));
+   }
+
+   public void testInsertShiftsRows()
+   {
+      DocumentChangeSummary summary = new DocumentChangeSummary();
+      summary.recordInsert(20, 20);
+
+      // insert two lines above the earlier edit
+      summary.recordInsert(5, 7);
+      assertEquals(5, summary.getFirstChangedRow());
+      assertEquals(22, summary.getLastChangedRow());
+      assertEquals(2, summary.getRowDelta());
+
+      assertEquals(3, summary.mapRow(3));
+      assertEquals(5, summary.mapRow(5));
+      assertEquals(8, summary.mapRow(6));
+      assertEquals(102, summary.mapRow(100));
+   }
+
+   public void testRemoveShiftsRows()
+   {
+      DocumentChangeSummary summary = new DocumentChangeSummary();
+      summary.recordInsert(30, 30);
+
+      // remove rows 10 through 14 (joining row 10 with row 14)
+      summary.recordRemove(10, 14);
+      assertEquals(10, summary.getFirstChangedRow());
+      assertEquals(26, summary.getLastChangedRow());
+      assertEquals(-4, summary.getRowDelta());
+
+      assertEquals(9, summary.mapRow(9));
+      assertEquals(10, summary.mapRow(12));
+      assertEquals(10, summary.mapRow(14));
+      assertEquals(11, summary.mapRow(15));
+   }
+
+   public void testMapRowAppliesShiftsInOrder()
+   {
+      DocumentChangeSummary summary = new DocumentChangeSummary();
+      summary.recordInsert(0, 3);
+      summary.recordRemove(1, 2);
+      assertEquals(2, summary.getRowDelta());
+      assertEquals(12, summary.mapRow(10));
+      assertEquals(0, summary.mapRow(0));
+   }
+
+   public void testTypingCoalescesIntoOneRange()
+   {
+      // typing on a single row touches only that row, however many
+      // keystrokes land in the same frame
+      DocumentChangeSummary summary = new DocumentChangeSummary();
+      for (int i = 0; i < 50; i++)
+         summary.recordInsert(7, 7);
+      assertEquals(50, summary.getChangeCount());
+      assertEquals(7, summary.getFirstChangedRow());
+      assertEquals(7, summary.getLastChangedRow());
+      assertEquals(0, summary.getRowDelta());
+      assertFalse(summary.hasRowShifts());
+   }
+}
@@ -0,0 +1,207 @@
+/*
+ * TextEditingTargetReformatHelperTests.java
+ *
+ * Copyright (C) 2020 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Token;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class TextEditingTargetReformatHelperTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static final int TAB_SIZE = 2;
+
+   private static final String[] SOURCES = {
+      "x <- 1",
+      "f <- function(a, b = 2) { a + b }",
+      "if (x > 1) y <- 2 else y <- 3",
+      "for (i in seq_len(10)) { print(i); total <- total + i }",
+      "result <- lapply(items, function(item) { item$value * 2 })",
+      "# a comment\nz <- c(1, 2, 3) # trailing comment\n",
+      "df <- data.frame(alpha = c(1, 2, 3), beta = c(\"a\", \"b\", \"c\"), " +
+         "gamma = c(TRUE, FALSE, TRUE), delta = rnorm(3), epsilon = letters[1:3])",
+      "g <- function(x) if (is.null(x)) stop(\"missing\") else x[[1]]",
+      "outer(inner(deeper(deepest(a, b), c), d), e, f, g, h, i, j, k, l, m, n, o, p)",
+      "{ a <- 1\n  b <- 2\n  while (a < b) { a <- a + 1 } }"
+   };
+
+   // a minimal version of the R highlight rules, enough to produce the token
+   // types the reformatter cares about without loading Ace
+   private List<Token> tokenize(String code)
+   {
+      List<Token> tokens = new ArrayList<Token>();
+      int i = 0;
+      while (i < code.length())
+      {
+         char ch = code.charAt(i);
+         int start = i;
+         String type;
+         if (isSpace(ch))
+         {
+            while (i < code.length() && isSpace(code.charAt(i)))
+               i++;
+            type = "text";
+         }
+         else if (ch == '#')
+         {
+            while (i < code.length() && code.charAt(i) != '\n')
+               i++;
+            type = "comment";
+         }
+         else if (ch == '"')
+         {
+            i = code.indexOf('"', i + 1) + 1;
+            type = "string";
+         }
+         else if (isIdentifierChar(ch))
+         {
+            while (i < code.length() && isIdentifierChar(code.charAt(i)))
+               i++;
+            String value = code.substring(start, i);
+            if (isKeyword(value))
+               type = "keyword";
+            else if (value.equals("TRUE") || value.equals("FALSE") || value.equals("NULL"))
+               type = "constant.language";
+            else if (Character.isDigit(ch))
+               type = "constant.numeric";
+            else
+               type = "identifier";
+         }
+         else if (code.startsWith("[[", i) || code.startsWith("]]", i))
+         {
+            i += 2;
+            type = "paren.keyword.operator";
+         }
+         else if ("()[]{}".indexOf(ch) != -1)
+         {
+            i++;
+            type = "paren.keyword.operator";
+         }
+         else if (ch == ',' || ch == ';')
+         {
+            i++;
+            type = "punctuation";
+         }
+         else if (code.startsWith("<-", i) || code.startsWith("==", i) ||
+                  code.startsWith("<=", i) || code.startsWith(">=", i))
+         {
+            i += 2;
+            type = "keyword.operator";
+         }
+         else
+         {
+            i++;
+            type = "keyword.operator";
+         }
+
+         tokens.add(Token.create(code.substring(start, i), type, start));
+      }
+      return tokens;
+   }
+
+   private boolean isSpace(char ch)
+   {
+      return ch == ' ' || ch == '\t' || ch == '\n';
+   }
+
+   private boolean isIdentifierChar(char ch)
+   {
+      return Character.isLetterOrDigit(ch) || ch == '.' || ch == '_';
+   }
+
+   private boolean isKeyword(String value)
+   {
+      return value.equals("function") || value.equals("if") || value.equals("else") ||
+             value.equals("for") || value.equals("while") || value.equals("in") ||
+             value.equals("repeat") || value.equals("break") || value.equals("next");
+   }
+
+   // runs the sliced pass, yielding after every step (the finest slicing
+   // the editor can produce)
+   private String formatInSteps(TextEditingTargetReformatHelper helper,
+                                String code)
+   {
+      TextEditingTargetReformatHelper.PrettyNewlinesFormatter formatter =
+            helper.new PrettyNewlinesFormatter(tokenize(code), TAB_SIZE);
+
+      int steps = 0;
+      int progress = 0;
+      while (!formatter.isDone())
+      {
+         formatter.step();
+         steps++;
+
+         int next = formatter.getProgress();
+         assertTrue(next >= progress);
+         assertTrue(next <= 100);
+         progress = next;
+      }
+
+      assertTrue(steps > 1);
+      return formatter.getResult();
+   }
+
+   public void testSlicedPassMatchesSinglePass()
+   {
+      TextEditingTargetReformatHelper helper =
+            new TextEditingTargetReformatHelper(null);
+
+      for (String code : SOURCES)
+      {
+         String expected = helper.formatPrettyNewlines(tokenize(code), TAB_SIZE);
+         assertEquals(code, expected, formatInSteps(helper, code));
+      }
+   }
+
+   public void testSlicedPassMatchesSinglePassForDocument()
+   {
+      TextEditingTargetReformatHelper helper =
+            new TextEditingTargetReformatHelper(null);
+
+      StringBuilder document = new StringBuilder();
+      for (int i = 0; i < 20; i++)
+      {
+         for (String code : SOURCES)
+            document.append(code).append("\n");
+      }
+
+      String code = document.toString();
+      String expected = helper.formatPrettyNewlines(tokenize(code), TAB_SIZE);
+      assertEquals(expected, formatInSteps(helper, code));
+   }
+
+   public void testSinglePassIsStable()
+   {
+      TextEditingTargetReformatHelper helper =
+            new TextEditingTargetReformatHelper(null);
+
+      // formatting the same source twice gives the same result, i.e. the
+      // passes don't share state through the helper
+      for (String code : SOURCES)
+      {
+         assertEquals(
+               helper.formatPrettyNewlines(tokenize(code), TAB_SIZE),
+               helper.formatPrettyNewlines(tokenize(code), TAB_SIZE));
+      }
+   }
+}